@@ -1,8 +1,10 @@
 package org.example.papermaker.config;
 
 import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.autoconfigure.ConfigurationCustomizer;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import org.example.papermaker.handler.JsonLongArrayTypeHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -20,4 +22,13 @@ public class MybatisPlusConfig {
         
         return interceptor;
     }
+
+    /**
+     * 注册 JSON 列类型处理器：long[] 结果/参数统一按 JSON 数组编解码
+     */
+    @Bean
+    public ConfigurationCustomizer jsonColumnTypeHandlerCustomizer() {
+        return configuration -> configuration.getTypeHandlerRegistry()
+                .register(long[].class, new JsonLongArrayTypeHandler());
+    }
 }
@@ -0,0 +1,29 @@
+package org.example.papermaker.config;
+
+import jakarta.annotation.PostConstruct;
+import org.example.papermaker.context.UserContextPropagation;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 用户上下文传播配置
+ * 启动时登记上下文访问器；Spring Boot 自动配置的任务执行器会应用这里的 TaskDecorator，
+ * 提交到其中的任务自动携带当前用户
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Configuration
+public class UserContextPropagationConfig {
+
+    @PostConstruct
+    public void install() {
+        UserContextPropagation.install();
+    }
+
+    @Bean
+    public TaskDecorator userContextTaskDecorator() {
+        return UserContextPropagation::wrap;
+    }
+}
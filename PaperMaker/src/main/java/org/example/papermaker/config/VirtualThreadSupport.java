@@ -0,0 +1,76 @@
+package org.example.papermaker.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 虚拟线程执行模式
+ * 通过 spring.threads.virtual.enabled 开启（默认关闭），运行时为 Java 21 及以上时生效：
+ * Tomcat 请求处理由 Spring Boot 切换为虚拟线程，本项目自建线程池的线程也由这里创建为虚拟线程；
+ * 运行时不支持时退回平台线程。项目仍以 Java 17 编译，虚拟线程 API 通过反射获取
+ *
+ * 线程池本身的并发上限保持不变，虚拟线程只是让阻塞（MySQL、Redis、大模型调用）不再占用平台线程；
+ * 数据库的有效并发仍由 Hikari 连接池决定，见 application.yml 中的连接池配置
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Component
+public class VirtualThreadSupport {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadSupport.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean requested;
+
+    /** Thread.ofVirtual()，运行时不支持时为null */
+    private Method ofVirtual;
+    private Method nameMethod;
+    private Method factoryMethod;
+
+    @PostConstruct
+    public void init() {
+        if (!requested) return;
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            nameMethod = builderType.getMethod("name", String.class, long.class);
+            factoryMethod = builderType.getMethod("factory");
+            log.info("虚拟线程执行模式已开启");
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+            log.warn("当前运行时（Java {}）不支持虚拟线程，继续使用平台线程", Runtime.version().feature());
+        }
+    }
+
+    public boolean isEnabled() {
+        return ofVirtual != null;
+    }
+
+    /**
+     * 线程工厂：虚拟线程模式下创建虚拟线程，否则创建守护平台线程；线程名为 prefix-序号
+     */
+    public ThreadFactory threadFactory(String prefix) {
+        if (ofVirtual != null) {
+            try {
+                // 构建器带有线程序号状态，每个工厂单独创建
+                Object named = nameMethod.invoke(ofVirtual.invoke(null), prefix + "-", 1L);
+                return (ThreadFactory) factoryMethod.invoke(named);
+            } catch (ReflectiveOperationException e) {
+                log.warn("创建虚拟线程工厂失败，使用平台线程: {}", e.getMessage());
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
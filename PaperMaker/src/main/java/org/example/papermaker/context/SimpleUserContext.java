@@ -4,6 +4,8 @@ import org.example.papermaker.entity.UserEntity;
 
 /**
  * 简化版用户上下文管理类
+ * 上下文保存在普通 ThreadLocal 中；需要在线程池、虚拟线程或Reactor中使用时，
+ * 由 {@link UserContextPropagation} 在边界处快照并恢复
  * 
  * @author System
  * @since 1.0.0
@@ -12,9 +14,41 @@ public class SimpleUserContext {
     
     private static final ThreadLocal<UserEntity> USER_CONTEXT = new ThreadLocal<>();
     private static final ThreadLocal<String> TOKEN_CONTEXT = new ThreadLocal<>();
-    // 专门用于工具类的用户ID存储（在调用AI服务前设置）
-    // 使用InheritableThreadLocal确保子线程也能访问
-    private static final InheritableThreadLocal<Long> TOOL_USER_ID_CONTEXT = new InheritableThreadLocal<>();
+    
+    /**
+     * 上下文快照，用于跨线程传递
+     */
+    public record Snapshot(UserEntity user, String token) {
+    }
+    
+    /**
+     * 获取当前线程上下文的快照，没有上下文时返回null
+     */
+    public static Snapshot capture() {
+        UserEntity user = USER_CONTEXT.get();
+        String token = TOKEN_CONTEXT.get();
+        return user == null && token == null ? null : new Snapshot(user, token);
+    }
+    
+    /**
+     * 用快照覆盖当前线程上下文，null 表示清除
+     */
+    public static void restore(Snapshot snapshot) {
+        if (snapshot == null) {
+            clear();
+            return;
+        }
+        if (snapshot.user() != null) {
+            USER_CONTEXT.set(snapshot.user());
+        } else {
+            USER_CONTEXT.remove();
+        }
+        if (snapshot.token() != null) {
+            TOKEN_CONTEXT.set(snapshot.token());
+        } else {
+            TOKEN_CONTEXT.remove();
+        }
+    }
     
     /**
      * 设置当前用户
@@ -37,15 +71,6 @@ public class SimpleUserContext {
         return TOKEN_CONTEXT.get();
     }
     
-    /**
-     * 设置工具类使用的用户ID（用于跨线程传递）
-     * 在调用AI服务前调用此方法设置用户ID
-     */
-    public static void setToolUserId(Long userId) {
-        TOOL_USER_ID_CONTEXT.set(userId);
-    }
-
-    
     /**
      * 获取当前用户
      */
@@ -99,7 +124,6 @@ public class SimpleUserContext {
     public static void clear() {
         USER_CONTEXT.remove();
         TOKEN_CONTEXT.remove();
-        TOOL_USER_ID_CONTEXT.remove();
     }
 }
 
@@ -0,0 +1,106 @@
+package org.example.papermaker.context;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.context.ThreadLocalAccessor;
+import reactor.core.publisher.Hooks;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * 用户上下文传播
+ * 把 {@link SimpleUserContext} 登记到 Micrometer context-propagation，跨越以下边界时携带当前用户：
+ * <ul>
+ *     <li>线程池 / 虚拟线程：提交任务时快照调用线程的上下文，任务执行期间恢复，结束后还原执行线程原有的值，
+ *     线程复用时不会串号</li>
+ *     <li>Reactor：开启自动上下文传播，链尾调用 contextCapture() 后，各操作符在任意调度线程上都能读到用户</li>
+ * </ul>
+ *
+ * @author System
+ * @since 1.0.0
+ */
+public final class UserContextPropagation {
+
+    /** 在 ContextRegistry 和 Reactor Context 中使用的键 */
+    public static final String KEY = "papermaker.user-context";
+
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private static volatile boolean installed;
+
+    private UserContextPropagation() {}
+
+    /**
+     * 登记线程本地变量访问器并开启Reactor自动上下文传播，启动时调用一次
+     */
+    public static synchronized void install() {
+        if (installed) return;
+        ContextRegistry.getInstance().registerThreadLocalAccessor(new Accessor());
+        Hooks.enableAutomaticContextPropagation();
+        installed = true;
+    }
+
+    public static Runnable wrap(Runnable task) {
+        return SNAPSHOTS.captureAll().wrap(task);
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        return SNAPSHOTS.captureAll().wrap(task);
+    }
+
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        ContextSnapshot snapshot = SNAPSHOTS.captureAll();
+        return () -> {
+            try (ContextSnapshot.Scope scope = snapshot.setThreadLocals()) {
+                return task.get();
+            }
+        };
+    }
+
+    /**
+     * 包装线程池（含虚拟线程执行器），提交的每个任务都携带提交时的上下文
+     */
+    public static ExecutorService wrap(ExecutorService executor) {
+        return ContextExecutorService.wrap(executor, SNAPSHOTS::captureAll);
+    }
+
+    public static Executor wrap(Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+
+    /**
+     * 读写 {@link SimpleUserContext} 的访问器
+     */
+    private static final class Accessor implements ThreadLocalAccessor<SimpleUserContext.Snapshot> {
+
+        @Override
+        public Object key() {
+            return KEY;
+        }
+
+        @Override
+        public SimpleUserContext.Snapshot getValue() {
+            return SimpleUserContext.capture();
+        }
+
+        @Override
+        public void setValue(SimpleUserContext.Snapshot value) {
+            SimpleUserContext.restore(value);
+        }
+
+        @Override
+        public void setValue() {
+            SimpleUserContext.clear();
+        }
+
+        /** 兼容旧版接口 */
+        public void reset() {
+            SimpleUserContext.clear();
+        }
+    }
+}
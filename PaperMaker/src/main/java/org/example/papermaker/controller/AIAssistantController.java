@@ -67,22 +67,12 @@ public class AIAssistantController {
             
             log.info("收到AI聊天请求，用户ID: {}, 消息: {}, memoryId: {}", currentUserId, message, memoryId);
             
-            // 设置工具类使用的用户ID
-            SimpleUserContext.setToolUserId(currentUserId);
-            
             // 调用AI服务（Spring会自动格式化为SSE格式，不需要手动添加data:前缀）
-            // 注意：Flux是异步的，工具类可能在不同线程中执行
-            // 我们已经在拦截器中设置了ThreadLocal和Redis，工具类会从Redis获取用户信息
+            // 注意：Flux是异步的，工具类可能在不同线程中执行；
+            // contextCapture() 把当前用户上下文写入Reactor Context，各调度线程上自动恢复
             return aiService.chatWithAiA(message + "\n当前用户Id:" + currentUserId)
-                    .doOnSubscribe(subscription -> {
-                        // 在订阅时确保用户上下文可用（虽然可能在不同线程）
-                        // 但工具类会从Redis获取，所以这里不需要额外操作
-                        log.debug("AI服务订阅开始，用户ID: {}", currentUserId);
-                    })
-                    .doFinally(signalType -> {
-                        // 清理工具类用户ID上下文
-                        SimpleUserContext.setToolUserId(null);
-                    });
+                    .doOnSubscribe(subscription -> log.debug("AI服务订阅开始，用户ID: {}", currentUserId))
+                    .contextCapture();
         } catch (Exception e) {
             log.error("AI聊天失败", e);
             return Flux.just("抱歉，AI助手暂时无法响应，请稍后重试。错误信息：" + e.getMessage());
@@ -148,15 +138,9 @@ public class AIAssistantController {
             Long currentUserId = SimpleUserContext.getCurrentUserId();
             log.info("生成学习计划请求，用户ID: {}, goal: {}, targetDate: {}", currentUserId, goal, targetDate);
 
-            // 设置工具类使用的用户ID
-            SimpleUserContext.setToolUserId(currentUserId);
-            
             // Spring会自动格式化为SSE格式，不需要手动添加data:前缀
             return aiService.chatWithAiA(prompt+ "\n当前用户Id:" + currentUserId)
-                    .doFinally(signalType -> {
-                        // 清理工具类用户ID上下文
-                        SimpleUserContext.setToolUserId(null);
-                    });
+                    .contextCapture();
         } catch (Exception e) {
             log.error("生成学习计划失败", e);
             return Flux.just("抱歉，生成学习计划失败，请稍后重试。错误信息：" + e.getMessage());
@@ -212,15 +196,9 @@ public class AIAssistantController {
             Long currentUserId = SimpleUserContext.getCurrentUserId();
             log.info("生成学习总结请求，用户ID: {}, 学科: {}", currentUserId, subjectName);
 
-            // 设置工具类使用的用户ID
-            SimpleUserContext.setToolUserId(currentUserId);
-            
             // Spring会自动格式化为SSE格式，不需要手动添加data:前缀
             return aiService.chatWithAiA(prompt.toString() + "\n当前用户Id:" + currentUserId)
-                    .doFinally(signalType -> {
-                        // 清理工具类用户ID上下文
-                        SimpleUserContext.setToolUserId(null);
-                    });
+                    .contextCapture();
         } catch (Exception e) {
             log.error("生成学习总结失败", e);
             return Flux.just("抱歉，生成学习总结失败，请稍后重试。错误信息：" + e.getMessage());
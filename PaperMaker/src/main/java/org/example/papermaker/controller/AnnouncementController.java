@@ -7,7 +7,8 @@ import org.example.papermaker.context.SimpleUserContext;
 import org.example.papermaker.entity.AnnouncementEntity;
 import org.example.papermaker.entity.UserEntity;
 import org.example.papermaker.mapper.AnnouncementMapper;
-import org.example.papermaker.mapper.UserMapper;
+import org.example.papermaker.service.RequestBatchLoaders;
+import org.example.papermaker.util.BatchLoader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -37,7 +38,7 @@ public class AnnouncementController {
     private AnnouncementMapper announcementMapper;
 
     @Autowired
-    private UserMapper userMapper;
+    private RequestBatchLoaders batchLoaders;
 
     /**
      * 获取已发布的公告列表（所有用户可见）
@@ -54,15 +55,8 @@ public class AnnouncementController {
 
             Page<AnnouncementEntity> result = announcementMapper.selectPage(pageParam, wrapper);
 
-            // 填充发布者名称
-            for (AnnouncementEntity announcement : result.getRecords()) {
-                if (announcement.getPublisherId() != null) {
-                    UserEntity publisher = userMapper.selectById(announcement.getPublisherId());
-                    if (publisher != null) {
-                        announcement.setPublisherName(publisher.getUsername());
-                    }
-                }
-            }
+            // 填充发布者名称（批量查询）
+            fillPublisherNames(result.getRecords());
 
             Map<String, Object> response = new HashMap<>();
             response.put("code", 200);
@@ -98,15 +92,8 @@ public class AnnouncementController {
 
             Page<AnnouncementEntity> result = announcementMapper.selectPage(pageParam, wrapper);
 
-            // 填充发布者名称
-            for (AnnouncementEntity announcement : result.getRecords()) {
-                if (announcement.getPublisherId() != null) {
-                    UserEntity publisher = userMapper.selectById(announcement.getPublisherId());
-                    if (publisher != null) {
-                        announcement.setPublisherName(publisher.getUsername());
-                    }
-                }
-            }
+            // 填充发布者名称（批量查询）
+            fillPublisherNames(result.getRecords());
 
             Map<String, Object> response = new HashMap<>();
             response.put("code", 200);
@@ -270,4 +257,18 @@ public class AnnouncementController {
             return ResponseEntity.status(500).body(response);
         }
     }
+
+    /**
+     * 批量填充公告发布者名称
+     */
+    private void fillPublisherNames(List<AnnouncementEntity> announcements) {
+        BatchLoader<Long, UserEntity> userLoader = batchLoaders.users();
+        announcements.forEach(a -> userLoader.prime(a.getPublisherId()));
+        for (AnnouncementEntity announcement : announcements) {
+            UserEntity publisher = userLoader.load(announcement.getPublisherId());
+            if (publisher != null) {
+                announcement.setPublisherName(publisher.getUsername());
+            }
+        }
+    }
 }
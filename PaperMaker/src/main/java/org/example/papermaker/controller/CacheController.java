@@ -1,5 +1,8 @@
 package org.example.papermaker.controller;
 
+import org.example.papermaker.service.CacheWarmupService;
+import org.example.papermaker.service.KnowledgePointService;
+import org.example.papermaker.service.QuestionService;
 import org.example.papermaker.service.RedisCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -13,10 +16,17 @@ import java.util.Map;
 public class CacheController {
     @Autowired
     private RedisCacheService cache;
+    @Autowired
+    private QuestionService questionService;
+    @Autowired
+    private KnowledgePointService knowledgePointService;
+    @Autowired
+    private CacheWarmupService warmupService;
 
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> stats() {
         Map<String, Object> data = cache.getStats();
+        data.put("warmup", warmupService.getStats());
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
         result.put("message", "ok");
@@ -27,8 +37,8 @@ public class CacheController {
     @PostMapping("/evict")
     public ResponseEntity<Map<String, Object>> evict(@RequestParam(required = false) Long kpId,
                                                      @RequestParam(required = false) Long questionId) {
-        if (kpId != null) cache.evictByKp(kpId);
-        if (questionId != null) cache.evictByQuestion(questionId);
+        if (kpId != null) cache.evictByKp(knowledgePointService.getById(kpId));
+        if (questionId != null) cache.evictByQuestion(questionService.getById(questionId));
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
         result.put("message", "evicted");
@@ -44,4 +54,16 @@ public class CacheController {
         result.put("prefix", prefix);
         return ResponseEntity.ok(result);
     }
-}
\ No newline at end of file
+
+    /**
+     * 手动触发全量预热（如清空Redis后）
+     */
+    @PostMapping("/warmup")
+    public ResponseEntity<Map<String, Object>> warmup() {
+        warmupService.warmAll();
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "warmup scheduled");
+        return ResponseEntity.ok(result);
+    }
+}
@@ -14,10 +14,11 @@ import org.example.papermaker.entity.ExamPaperEntity;
 import org.example.papermaker.entity.UserEntity;
 import org.example.papermaker.entity.SubjectEntity;
 import org.example.papermaker.entity.QuestionEntity;
-import org.example.papermaker.mapper.UserMapper;
 import org.example.papermaker.mapper.SubjectMapper;
 import org.example.papermaker.service.ExamPaperService;
 import org.example.papermaker.service.QuestionService;
+import org.example.papermaker.service.RequestBatchLoaders;
+import org.example.papermaker.util.BatchLoader;
 import org.example.papermaker.mapper.ExamRuleMapper;
 import org.example.papermaker.entity.ExamRuleEntity;
 import org.example.papermaker.util.SimplePermissionUtils;
@@ -55,10 +56,10 @@ public class ExamPaperController {
     private ExamRuleMapper examRuleMapper;
 
     @Resource
-    private UserMapper userMapper;
+    private SubjectMapper subjectMapper;
 
     @Resource
-    private SubjectMapper subjectMapper;
+    private RequestBatchLoaders batchLoaders;
 
     /**
      * 获取所有试卷
@@ -194,6 +195,11 @@ public class ExamPaperController {
                 System.out.println("未指定学科筛选，返回所有试卷");
             }
 
+            // 先预取题目并登记创建者ID、学科ID，之后由批量加载器一次解析，避免逐行查询
+            Map<Long, List<Map<String, Object>>> paperQuestions = collectPaperQuestions(filteredRecords);
+            BatchLoader<Long, UserEntity> userLoader = batchLoaders.users();
+            BatchLoader<Long, SubjectEntity> subjectLoader = batchLoaders.subjects();
+
             // 为每个试卷补充创建者用户名和学科名称
             List<Map<String, Object>> enrichedRecords = filteredRecords.stream().map(paper -> {
                 Map<String, Object> paperMap = new HashMap<>();
@@ -214,7 +220,7 @@ public class ExamPaperController {
                 paperMap.put("isSystem", paper.getIsSystem());
 
                 // 获取题目列表（用于计算数量和获取学科）
-                List<Map<String, Object>> questions = examPaperService.getPaperQuestions(paper.getId());
+                List<Map<String, Object>> questions = paperQuestions.get(paper.getId());
                 int questionCount = questions != null ? questions.size() : 0;
                 paperMap.put("totalQuestions", questionCount);
 
@@ -222,7 +228,7 @@ public class ExamPaperController {
                 String creatorName = "未知用户";
                 if (paper.getCreatorId() != null) {
                     try {
-                        UserEntity creator = userMapper.selectById(paper.getCreatorId());
+                        UserEntity creator = userLoader.load(paper.getCreatorId());
                         if (creator != null && creator.getUsername() != null) {
                             creatorName = creator.getUsername();
                         } else {
@@ -248,15 +254,15 @@ public class ExamPaperController {
                 String paperSubject = paper.getSubjectId();
                 if (paperSubject != null && !paperSubject.trim().isEmpty()) {
                     // 检查是否是数字ID
-                    try {
-                        Long subjectIdNum = Long.parseLong(paperSubject.trim());
-                        SubjectEntity subject = subjectMapper.selectById(subjectIdNum);
+                    Long subjectIdNum = parseSubjectId(paperSubject);
+                    if (subjectIdNum != null) {
+                        SubjectEntity subject = subjectLoader.load(subjectIdNum);
                         if (subject != null && subject.getName() != null) {
                             paperMap.put("subject", subject.getName());
                         } else {
                             paperMap.put("subject", paperSubject); // 保持原值
                         }
-                    } catch (NumberFormatException e) {
+                    } else {
                         // 不是数字，直接使用
                         paperMap.put("subject", paperSubject);
                     }
@@ -266,18 +272,11 @@ public class ExamPaperController {
                     // questions已经在上面获取了，直接使用
                     if (questions != null && !questions.isEmpty()) {
                         // 获取第一个题目的学科
-                        Object firstSubjectId = questions.get(0).get("subjectId");
-                        if (firstSubjectId != null) {
-                            try {
-                                Long sid = firstSubjectId instanceof Number
-                                        ? ((Number) firstSubjectId).longValue()
-                                        : Long.parseLong(firstSubjectId.toString());
-                                SubjectEntity subject = subjectMapper.selectById(sid);
-                                if (subject != null && subject.getName() != null) {
-                                    foundSubject = subject.getName();
-                                }
-                            } catch (Exception ex) {
-                                // 忽略错误
+                        Long sid = parseSubjectId(questions.get(0).get("subjectId"));
+                        if (sid != null) {
+                            SubjectEntity subject = subjectLoader.load(sid);
+                            if (subject != null && subject.getName() != null) {
+                                foundSubject = subject.getName();
                             }
                         }
                     }
@@ -760,6 +759,8 @@ public class ExamPaperController {
             wrapper.orderByDesc(ExamPaperEntity::getCreatedAt);
 
             List<ExamPaperEntity> papers = examPaperService.list(wrapper);
+            Map<Long, List<Map<String, Object>>> paperQuestions = collectPaperQuestions(papers);
+            BatchLoader<Long, SubjectEntity> subjectLoader = batchLoaders.subjects();
 
             // 为每个试卷补充学科名称
             List<Map<String, Object>> enrichedPapers = papers.stream().map(paper -> {
@@ -777,7 +778,7 @@ public class ExamPaperController {
                 paperMap.put("isSystem", paper.getIsSystem());
 
                 // 获取题目列表（用于计算数量和获取学科）
-                List<Map<String, Object>> questions = examPaperService.getPaperQuestions(paper.getId());
+                List<Map<String, Object>> questions = paperQuestions.get(paper.getId());
                 int questionCount = questions != null ? questions.size() : 0;
                 paperMap.put("totalQuestions", questionCount);
 
@@ -785,15 +786,15 @@ public class ExamPaperController {
                 String paperSubject = paper.getSubjectId();
                 if (paperSubject != null && !paperSubject.trim().isEmpty()) {
                     // 检查是否是数字ID
-                    try {
-                        Long subjectIdNum = Long.parseLong(paperSubject.trim());
-                        SubjectEntity subject = subjectMapper.selectById(subjectIdNum);
+                    Long subjectIdNum = parseSubjectId(paperSubject);
+                    if (subjectIdNum != null) {
+                        SubjectEntity subject = subjectLoader.load(subjectIdNum);
                         if (subject != null && subject.getName() != null) {
                             paperMap.put("subject", subject.getName());
                         } else {
                             paperMap.put("subject", paperSubject); // 保持原值
                         }
-                    } catch (NumberFormatException e) {
+                    } else {
                         // 不是数字，直接使用
                         paperMap.put("subject", paperSubject);
                     }
@@ -802,18 +803,11 @@ public class ExamPaperController {
                     String foundSubject = null;
                     if (questions != null && !questions.isEmpty()) {
                         // 获取第一个题目的学科
-                        Object firstSubjectId = questions.get(0).get("subjectId");
-                        if (firstSubjectId != null) {
-                            try {
-                                Long sid = firstSubjectId instanceof Number
-                                        ? ((Number) firstSubjectId).longValue()
-                                        : Long.parseLong(firstSubjectId.toString());
-                                SubjectEntity subject = subjectMapper.selectById(sid);
-                                if (subject != null && subject.getName() != null) {
-                                    foundSubject = subject.getName();
-                                }
-                            } catch (Exception ex) {
-                                // 忽略错误
+                        Long sid = parseSubjectId(questions.get(0).get("subjectId"));
+                        if (sid != null) {
+                            SubjectEntity subject = subjectLoader.load(sid);
+                            if (subject != null && subject.getName() != null) {
+                                foundSubject = subject.getName();
                             }
                         }
                     }
@@ -854,6 +848,8 @@ public class ExamPaperController {
             wrapper.orderByDesc(ExamPaperEntity::getCreatedAt);
 
             List<ExamPaperEntity> papers = examPaperService.list(wrapper);
+            Map<Long, List<Map<String, Object>>> paperQuestions = collectPaperQuestions(papers);
+            BatchLoader<Long, SubjectEntity> subjectLoader = batchLoaders.subjects();
 
             // 为每个试卷补充学科名称
             List<Map<String, Object>> enrichedPapers = papers.stream().map(paper -> {
@@ -871,7 +867,7 @@ public class ExamPaperController {
                 paperMap.put("isSystem", paper.getIsSystem());
 
                 // 获取题目列表（用于计算数量和获取学科）
-                List<Map<String, Object>> questions = examPaperService.getPaperQuestions(paper.getId());
+                List<Map<String, Object>> questions = paperQuestions.get(paper.getId());
                 int questionCount = questions != null ? questions.size() : 0;
                 paperMap.put("totalQuestions", questionCount);
 
@@ -879,15 +875,15 @@ public class ExamPaperController {
                 String paperSubject = paper.getSubjectId();
                 if (paperSubject != null && !paperSubject.trim().isEmpty()) {
                     // 检查是否是数字ID
-                    try {
-                        Long subjectIdNum = Long.parseLong(paperSubject.trim());
-                        SubjectEntity subject = subjectMapper.selectById(subjectIdNum);
+                    Long subjectIdNum = parseSubjectId(paperSubject);
+                    if (subjectIdNum != null) {
+                        SubjectEntity subject = subjectLoader.load(subjectIdNum);
                         if (subject != null && subject.getName() != null) {
                             paperMap.put("subject", subject.getName());
                         } else {
                             paperMap.put("subject", paperSubject); // 保持原值
                         }
-                    } catch (NumberFormatException e) {
+                    } else {
                         // 不是数字，直接使用
                         paperMap.put("subject", paperSubject);
                     }
@@ -896,18 +892,11 @@ public class ExamPaperController {
                     String foundSubject = null;
                     if (questions != null && !questions.isEmpty()) {
                         // 获取第一个题目的学科
-                        Object firstSubjectId = questions.get(0).get("subjectId");
-                        if (firstSubjectId != null) {
-                            try {
-                                Long sid = firstSubjectId instanceof Number
-                                        ? ((Number) firstSubjectId).longValue()
-                                        : Long.parseLong(firstSubjectId.toString());
-                                SubjectEntity subject = subjectMapper.selectById(sid);
-                                if (subject != null && subject.getName() != null) {
-                                    foundSubject = subject.getName();
-                                }
-                            } catch (Exception ex) {
-                                // 忽略错误
+                        Long sid = parseSubjectId(questions.get(0).get("subjectId"));
+                        if (sid != null) {
+                            SubjectEntity subject = subjectLoader.load(sid);
+                            if (subject != null && subject.getName() != null) {
+                                foundSubject = subject.getName();
                             }
                         }
                     }
@@ -1206,4 +1195,39 @@ public class ExamPaperController {
             return new RespBean(500, "更新失败: " + e.getMessage(), null);
         }
     }
+
+    /**
+     * 批量取回试卷题目，并登记补充字段所需的创建者ID和学科ID，供批量加载器一次性解析
+     */
+    private Map<Long, List<Map<String, Object>>> collectPaperQuestions(List<ExamPaperEntity> papers) {
+        List<Long> paperIds = new ArrayList<>();
+        for (ExamPaperEntity paper : papers) {
+            paperIds.add(paper.getId());
+            batchLoaders.users().prime(paper.getCreatorId());
+            batchLoaders.subjects().prime(parseSubjectId(paper.getSubjectId()));
+        }
+        // 题目的学科与试卷的学科共用请求级学科加载器，只查询一次
+        return examPaperService.getPaperQuestionsBatch(paperIds, batchLoaders.subjects());
+    }
+
+    /**
+     * 解析学科ID（数字或数字字符串），无法解析时返回null
+     */
+    private static Long parseSubjectId(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        String text = value.toString().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
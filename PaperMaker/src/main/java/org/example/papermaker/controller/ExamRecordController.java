@@ -5,15 +5,20 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import jakarta.annotation.Resource;
 import org.example.papermaker.context.SimpleUserContext;
 import org.example.papermaker.entity.ExamRecordEntity;
 import org.example.papermaker.service.ExamRecordService;
+import org.example.papermaker.service.KnowledgeMasteryService;
+import org.example.papermaker.service.LearningStatisticsService;
+import org.example.papermaker.util.SimplePermissionUtils;
 import org.example.papermaker.vo.RespBean;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +39,12 @@ public class ExamRecordController {
     @Resource
     private ExamRecordService examRecordService;
 
+    @Resource
+    private LearningStatisticsService learningStatisticsService;
+
+    @Resource
+    private KnowledgeMasteryService knowledgeMasteryService;
+
     /**
      * 获取当前用户的练习记录
      */
@@ -422,12 +433,7 @@ public class ExamRecordController {
             if (currentUserId == null) {
                 return new RespBean(401, "用户未登录", null);
             }
-            List<ExamRecordEntity> list = examRecordService.getRecordsByUserIdAndStatus(currentUserId,
-                    ExamRecordEntity.ExamStatus.IN_PROGRESS);
-            if (paperId != null) {
-                list = list.stream().filter(r -> paperId.equals(r.getPaperId())).toList();
-            }
-            ExamRecordEntity rec = list.stream().findFirst().orElse(null);
+            ExamRecordEntity rec = examRecordService.getLatestInProgress(currentUserId, paperId);
             return new RespBean(200, "查询成功", rec);
         } catch (Exception e) {
             return new RespBean(500, "查询失败: " + e.getMessage(), null);
@@ -474,7 +480,7 @@ public class ExamRecordController {
      * 搜索练习记录
      */
     @PostMapping("/search")
-    @Operation(summary = "搜索练习记录", description = "根据条件搜索练习记录")
+    @Operation(summary = "搜索练习记录", description = "根据条件搜索练习记录，传入 current/size 时返回分页数据")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "查询成功"),
             @ApiResponse(responseCode = "401", description = "用户未登录"),
@@ -505,6 +511,17 @@ public class ExamRecordController {
                 type = ExamRecordEntity.ExamType.valueOf(typeStr);
             }
 
+            // 传入分页参数时返回分页数据，否则返回全部匹配记录的列表
+            Number current = searchParams.get("current") instanceof Number ? (Number) searchParams.get("current") : null;
+            Number size = searchParams.get("size") instanceof Number ? (Number) searchParams.get("size") : null;
+            if (current != null || size != null) {
+                IPage<ExamRecordEntity> page = examRecordService.searchRecordsPage(currentUserId, paperTitle, status,
+                        type, subjectId, startDate, endDate,
+                        current != null ? Math.max(current.longValue(), 1) : 1,
+                        size != null ? Math.max(size.longValue(), 1) : 10);
+                return new RespBean(200, "查询成功", page);
+            }
+
             List<ExamRecordEntity> records = examRecordService.searchRecords(currentUserId, paperTitle, status, type,
                     subjectId, startDate, endDate);
             return new RespBean(200, "查询成功", records);
@@ -512,4 +529,54 @@ public class ExamRecordController {
             return new RespBean(500, "查询失败: " + e.getMessage(), null);
         }
     }
+
+    /**
+     * 从练习记录全量重建用户学习统计（仅管理员）
+     */
+    @PostMapping("/statistics/rebuild")
+    @Operation(summary = "重建用户学习统计", description = "从练习记录表重新计算每个用户的学习统计汇总，仅管理员可用")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "重建成功"),
+            @ApiResponse(responseCode = "403", description = "权限不足"),
+            @ApiResponse(responseCode = "500", description = "服务器内部错误")
+    })
+    public RespBean rebuildLearningStatistics() {
+        if (!SimplePermissionUtils.isAdmin(SimpleUserContext.getCurrentUser())) {
+            return new RespBean(403, "权限不足", null);
+        }
+        try {
+            int users = learningStatisticsService.rebuild();
+            Map<String, Object> result = new HashMap<>();
+            result.put("userCount", users);
+            return new RespBean(200, "重建成功", result);
+        } catch (Exception e) {
+            log.error("重建用户学习统计失败", e);
+            return new RespBean(500, "重建失败: " + e.getMessage(), null);
+        }
+    }
+
+    /**
+     * 从答题记录全量重建知识点掌握度（仅管理员）
+     */
+    @PostMapping("/mastery/rebuild")
+    @Operation(summary = "重建知识点掌握度", description = "从答题记录重新计算每个用户各知识点的答题次数、正确率和掌握度，仅管理员可用")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "重建成功"),
+            @ApiResponse(responseCode = "403", description = "权限不足"),
+            @ApiResponse(responseCode = "500", description = "服务器内部错误")
+    })
+    public RespBean rebuildKnowledgeMastery() {
+        if (!SimplePermissionUtils.isAdmin(SimpleUserContext.getCurrentUser())) {
+            return new RespBean(403, "权限不足", null);
+        }
+        try {
+            int rows = knowledgeMasteryService.rebuild();
+            Map<String, Object> result = new HashMap<>();
+            result.put("rowCount", rows);
+            return new RespBean(200, "重建成功", result);
+        } catch (Exception e) {
+            log.error("重建知识点掌握度失败", e);
+            return new RespBean(500, "重建失败: " + e.getMessage(), null);
+        }
+    }
 }
@@ -7,7 +7,8 @@ import org.example.papermaker.context.SimpleUserContext;
 import org.example.papermaker.entity.FeedbackEntity;
 import org.example.papermaker.entity.UserEntity;
 import org.example.papermaker.mapper.FeedbackMapper;
-import org.example.papermaker.mapper.UserMapper;
+import org.example.papermaker.service.RequestBatchLoaders;
+import org.example.papermaker.util.BatchLoader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -36,7 +37,7 @@ public class FeedbackController {
     private FeedbackMapper feedbackMapper;
 
     @Autowired
-    private UserMapper userMapper;
+    private RequestBatchLoaders batchLoaders;
 
     /**
      * 提交反馈（所有用户可用）
@@ -143,13 +144,13 @@ public class FeedbackController {
 
             Page<FeedbackEntity> result = feedbackMapper.selectPage(pageParam, wrapper);
 
-            // 填充提交者名称
+            // 填充提交者名称（先登记ID，一次批量查询）
+            BatchLoader<Long, UserEntity> userLoader = batchLoaders.users();
+            result.getRecords().forEach(f -> userLoader.prime(f.getSubmitterId()));
             for (FeedbackEntity feedback : result.getRecords()) {
-                if (feedback.getSubmitterId() != null) {
-                    UserEntity submitter = userMapper.selectById(feedback.getSubmitterId());
-                    if (submitter != null) {
-                        feedback.setSubmitterName(submitter.getUsername());
-                    }
+                UserEntity submitter = userLoader.load(feedback.getSubmitterId());
+                if (submitter != null) {
+                    feedback.setSubmitterName(submitter.getUsername());
                 }
             }
 
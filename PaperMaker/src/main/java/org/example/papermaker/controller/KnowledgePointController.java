@@ -2,11 +2,10 @@ package org.example.papermaker.controller;
 
 
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import org.example.papermaker.context.SimpleUserContext;
 import org.example.papermaker.entity.KnowledgePointEntity;
-import org.example.papermaker.entity.QuestionEntity;
 import org.example.papermaker.entity.UserEntity;
+import org.example.papermaker.mapper.QuestionMapper;
 import org.example.papermaker.service.KnowledgePointService;
 import org.example.papermaker.service.QuestionService;
 import org.example.papermaker.util.SimplePermissionUtils;
@@ -15,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +35,8 @@ public class KnowledgePointController {
     private org.example.papermaker.service.RedisCacheService redisCacheService;
     @Autowired
     private QuestionService  questionService;
+    @Autowired
+    private QuestionMapper questionMapper;
 
     /**
      * 获取知识点列表
@@ -140,7 +142,7 @@ public class KnowledgePointController {
             boolean success = knowledgePointService.save(knowledgePoint);
             Map<String, Object> result = new HashMap<>();
             if (success) {
-                try { redisCacheService.evictKey(org.example.papermaker.service.CacheKeyBuilder.kpListSystemBySubject(knowledgePoint.getSubject())); } catch (Exception ignored) {}
+                try { redisCacheService.evictByKp(knowledgePoint); } catch (Exception ignored) {}
                 result.put("code", 200);
                 result.put("message", "创建成功");
                 result.put("data", knowledgePoint);
@@ -203,9 +205,9 @@ public class KnowledgePointController {
             Map<String, Object> result = new HashMap<>();
             if (success) {
                 try {
-                    if (existing.getSubject() != null) {
-                        redisCacheService.evictKey(org.example.papermaker.service.CacheKeyBuilder.kpListSystemBySubject(existing.getSubject()));
-                    }
+                    // 学科变化时新旧学科的列表都要失效
+                    redisCacheService.evictByKp(existing);
+                    redisCacheService.evictByKp(knowledgePoint);
                 } catch (Exception ignored) {}
                 result.put("code", 200);
                 result.put("message", "更新成功");
@@ -249,14 +251,11 @@ public class KnowledgePointController {
                 return ResponseEntity.badRequest().body(result);
             }
 
-            // 删除前检查是否有关联题目（兼容当前存储：questions.knowledge_point_ids 为 JSON 字符串）
-            List<QuestionEntity> related = questionService.list(
-                    new QueryWrapper<QuestionEntity>().isNotNull("knowledge_point_ids")
-            );
+            // 删除前检查是否有关联题目（questions.knowledge_point_ids 为 JSON 字符串，只取该列并解析为 long[]）
+            List<long[]> related = questionMapper.selectAllKnowledgePointIdArrays();
             if (related != null) {
-                for (QuestionEntity q : related) {
-                    List<Long> kpIds = q.getKnowledgePointIdsList();
-                    if (kpIds != null && kpIds.contains(id)) {
+                for (long[] kpIds : related) {
+                    if (kpIds != null && Arrays.stream(kpIds).anyMatch(kpId -> kpId == id)) {
                         Map<String, Object> result = new HashMap<>();
                         result.put("code", 400);
                         result.put("message", "该知识点仍被题目引用，无法删除");
@@ -269,9 +268,7 @@ public class KnowledgePointController {
             boolean success = knowledgePointService.removeById(id);
             Map<String, Object> result = new HashMap<>();
             if (success) {
-                try { if (existing.getSubject() != null) {
-                    redisCacheService.evictKey(org.example.papermaker.service.CacheKeyBuilder.kpListSystemBySubject(existing.getSubject()));
-                }} catch (Exception ignored) {}
+                try { redisCacheService.evictByKp(existing); } catch (Exception ignored) {}
                 result.put("code", 200);
                 result.put("message", "删除成功");
                 result.put("data", null);
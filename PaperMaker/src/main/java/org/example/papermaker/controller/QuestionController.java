@@ -10,17 +10,26 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
 import org.example.papermaker.context.SimpleUserContext;
+import org.example.papermaker.dto.QuestionImportResult;
 import org.example.papermaker.entity.QuestionEntity;
 import org.example.papermaker.entity.UserEntity;
 import org.example.papermaker.entity.SubjectEntity;
 import org.example.papermaker.entity.KnowledgePointEntity;
 import org.example.papermaker.mapper.SubjectMapper;
 import org.example.papermaker.mapper.KnowledgePointMapper;
+import org.example.papermaker.service.QuestionDedupService;
+import org.example.papermaker.service.QuestionImportService;
+import org.example.papermaker.service.QuestionSamplingService;
 import org.example.papermaker.service.QuestionService;
+import org.example.papermaker.service.QuestionStatisticsService;
+import org.example.papermaker.service.RequestBatchLoaders;
+import org.example.papermaker.util.BatchLoader;
 import org.example.papermaker.util.SimplePermissionUtils;
 import org.example.papermaker.vo.RespBean;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -54,8 +63,22 @@ public class QuestionController {
     
     @Resource
     private KnowledgePointMapper knowledgePointMapper;
-    @org.springframework.beans.factory.annotation.Autowired
-    private org.example.papermaker.service.RedisCacheService redisCacheService;
+
+    @Resource
+    private RequestBatchLoaders batchLoaders;
+
+    @Resource
+    private QuestionDedupService questionDedupService;
+
+    @Resource
+    private QuestionSamplingService questionSamplingService;
+
+    @Resource
+    private QuestionStatisticsService questionStatisticsService;
+
+    @Resource
+    private QuestionImportService questionImportService;
+
     /**
      * 根据题目ID获取题目
      */
@@ -239,7 +262,9 @@ public class QuestionController {
         
         IPage<QuestionEntity> result = questionService.page(pageParam, wrapper);
         
-        // 为每个题目补充学科名称
+        // 为每个题目补充学科名称（先登记学科ID，一次批量查询）
+        BatchLoader<Long, SubjectEntity> subjectLoader = batchLoaders.subjects();
+        result.getRecords().forEach(q -> subjectLoader.prime(q.getSubjectId()));
         List<Map<String, Object>> enrichedRecords = result.getRecords().stream().map(question -> {
             Map<String, Object> questionMap = new HashMap<>();
             questionMap.put("id", question.getId());
@@ -259,7 +284,7 @@ public class QuestionController {
             // 查询并设置学科名称
             if (question.getSubjectId() != null) {
                 try {
-                    SubjectEntity subject = subjectMapper.selectById(question.getSubjectId());
+                    SubjectEntity subject = subjectLoader.load(question.getSubjectId());
                     if (subject != null && subject.getName() != null) {
                         questionMap.put("subject", subject.getName());
                     }
@@ -503,7 +528,9 @@ public class QuestionController {
             
             IPage<QuestionEntity> result = questionService.page(pageParam, wrapper);
             
-            // 为每个题目补充学科名称
+            // 为每个题目补充学科名称（先登记学科ID，一次批量查询）
+            BatchLoader<Long, SubjectEntity> subjectLoader = batchLoaders.subjects();
+            result.getRecords().forEach(q -> subjectLoader.prime(q.getSubjectId()));
             List<Map<String, Object>> enrichedRecords = result.getRecords().stream().map(question -> {
                 Map<String, Object> questionMap = new HashMap<>();
                 questionMap.put("id", question.getId());
@@ -523,7 +550,7 @@ public class QuestionController {
                 // 查询并设置学科名称
                 if (question.getSubjectId() != null) {
                     try {
-                        SubjectEntity subject = subjectMapper.selectById(question.getSubjectId());
+                        SubjectEntity subject = subjectLoader.load(question.getSubjectId());
                         if (subject != null && subject.getName() != null) {
                             questionMap.put("subject", subject.getName());
                         }
@@ -612,10 +639,12 @@ public class QuestionController {
             // 设置创建时间
             question.setCreatedAt(LocalDateTime.now());
             question.setUpdatedAt(LocalDateTime.now());
+            int[] signature = questionDedupService.sign(question);
             
             boolean success = questionService.save(question);
             if (success) {
-                try { redisCacheService.evictByQuestion(question.getId()); } catch (Exception ignored) {}
+                questionDedupService.index(question, signature);
+                questionSamplingService.onSaved(question);
                 return new RespBean(200, "系统题目创建成功", question);
             } else {
                 return new RespBean(500, "创建失败", null);
@@ -628,9 +657,12 @@ public class QuestionController {
 
 /**
  * 批量导入系统题目
+ * 请求体为题目JSON数组，流式解析后按块校验、查重并多行插入，不整体反序列化
  */
 @PostMapping("/system/batch-import")
-public RespBean batchImportSystemQuestions(@RequestBody List<QuestionEntity> questions) {
+@Operation(summary = "批量导入系统题目", description = "请求体为题目JSON数组，分块事务写入，返回逐行错误，仅管理员可用")
+public RespBean batchImportSystemQuestions(HttpServletRequest request,
+                                           @RequestParam(defaultValue = "true") boolean skipDuplicates) {
     try {
         // 权限检查
         UserEntity currentUser = SimpleUserContext.getCurrentUser();
@@ -641,73 +673,28 @@ public RespBean batchImportSystemQuestions(@RequestBody List<QuestionEntity> que
             return new RespBean(403, "权限不足", null);
         }
 
-        if (questions == null || questions.isEmpty()) {
+        QuestionImportResult result = questionImportService.importJson(
+                request.getInputStream(), currentUser.getId(), true, skipDuplicates);
+        if (result.getTotalCount() == 0) {
             return new RespBean(400, "题目列表不能为空", null);
         }
-
-        List<QuestionEntity> successQuestions = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-
-        for (int i = 0; i < questions.size(); i++) {
-            QuestionEntity question = questions.get(i);
-            try {
-                // 验证必填字段
-                if (question.getTitle() == null || question.getTitle().trim().isEmpty()) {
-                    errors.add("题目" + (i + 1) + ": 题目标题不能为空");
-                    continue;
-                }
-                if (question.getType() == null) {
-                    errors.add("题目" + (i + 1) + ": 题目类型不能为空");
-                    continue;
-                }
-                if (question.getDifficulty() == null) {
-                    errors.add("题目" + (i + 1) + ": 难度等级不能为空");
-                    continue;
-                }
-                if (question.getCorrectAnswer() == null || question.getCorrectAnswer().trim().isEmpty()) {
-                    errors.add("题目" + (i + 1) + ": 正确答案不能为空");
-                    continue;
-                }
-                if (question.getSubjectId() == null) {
-                    errors.add("题目" + (i + 1) + ": 学科ID不能为空");
-                    continue;
-                }
-
-                // 设置系统题目属性
-                question.setIsSystem(true);
-                question.setCreatorId(currentUser.getId());
-                question.setCreatedAt(LocalDateTime.now());
-                question.setUpdatedAt(LocalDateTime.now());
-
-                boolean success = questionService.save(question);
-                if (success) {
-                    successQuestions.add(question);
-                } else {
-                    errors.add("题目" + (i + 1) + ": 保存失败");
-                }
-            } catch (Exception e) {
-                errors.add("题目" + (i + 1) + ": " + e.getMessage());
-            }
-        }
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("successCount", successQuestions.size());
-        result.put("failedCount", errors.size());
-        result.put("errors", errors);
-        result.put("successQuestions", successQuestions);
-
-        return new RespBean(200, "批量导入完成", result);
+        return new RespBean(200, "批量导入完成", result.toMap());
+    } catch (IllegalArgumentException e) {
+        return new RespBean(400, e.getMessage(), null);
     } catch (Exception e) {
-        e.printStackTrace();
+        logger.error("批量导入系统题目失败", e);
         return new RespBean(500, "批量导入失败: " + e.getMessage(), null);
     }
 }
 
 /**
  * 批量导入个人题目
+ * 请求体为题目JSON数组，流式解析后按块校验、查重并多行插入，不整体反序列化
  */
 @PostMapping("/my/batch-import")
-public RespBean batchImportMyQuestions(@RequestBody List<QuestionEntity> questions) {
+@Operation(summary = "批量导入个人题目", description = "请求体为题目JSON数组，分块事务写入，返回逐行错误")
+public RespBean batchImportMyQuestions(HttpServletRequest request,
+                                       @RequestParam(defaultValue = "true") boolean skipDuplicates) {
     try {
         // 权限检查
         UserEntity currentUser = SimpleUserContext.getCurrentUser();
@@ -715,65 +702,113 @@ public RespBean batchImportMyQuestions(@RequestBody List<QuestionEntity> questio
             return new RespBean(401, "用户未登录", null);
         }
 
-        if (questions == null || questions.isEmpty()) {
+        QuestionImportResult result = questionImportService.importJson(
+                request.getInputStream(), currentUser.getId(), false, skipDuplicates);
+        if (result.getTotalCount() == 0) {
             return new RespBean(400, "题目列表不能为空", null);
         }
+        return new RespBean(200, "批量导入完成", result.toMap());
+    } catch (IllegalArgumentException e) {
+        return new RespBean(400, e.getMessage(), null);
+    } catch (Exception e) {
+        logger.error("批量导入个人题目失败", e);
+        return new RespBean(500, "批量导入失败: " + e.getMessage(), null);
+    }
+}
 
-        List<QuestionEntity> successQuestions = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-
-        for (int i = 0; i < questions.size(); i++) {
-            QuestionEntity question = questions.get(i);
-            try {
-                // 验证必填字段
-                if (question.getTitle() == null || question.getTitle().trim().isEmpty()) {
-                    errors.add("题目" + (i + 1) + ": 题目标题不能为空");
-                    continue;
-                }
-                if (question.getType() == null) {
-                    errors.add("题目" + (i + 1) + ": 题目类型不能为空");
-                    continue;
-                }
-                if (question.getDifficulty() == null) {
-                    errors.add("题目" + (i + 1) + ": 难度等级不能为空");
-                    continue;
-                }
-                if (question.getCorrectAnswer() == null || question.getCorrectAnswer().trim().isEmpty()) {
-                    errors.add("题目" + (i + 1) + ": 正确答案不能为空");
-                    continue;
-                }
-                if (question.getSubjectId() == null) {
-                    errors.add("题目" + (i + 1) + ": 学科ID不能为空");
-                    continue;
-                }
+/**
+ * 从Excel导入系统题目
+ * 以SAX方式流式读取xlsx，按块写入，适用于数万行的大表格
+ */
+@PostMapping("/system/import-excel")
+@Operation(summary = "Excel导入系统题目", description = "上传xlsx（列：标题、类型、难度、选项、答案、解析），流式解析并分块导入，仅管理员可用")
+public RespBean importSystemQuestionsFromExcel(@RequestParam("file") MultipartFile file,
+                                               @RequestParam Long subjectId,
+                                               @RequestParam(defaultValue = "true") boolean skipDuplicates) {
+    UserEntity currentUser = SimpleUserContext.getCurrentUser();
+    if (currentUser == null) {
+        return new RespBean(401, "用户未登录", null);
+    }
+    if (currentUser.getRole() != UserEntity.UserRole.ADMIN) {
+        return new RespBean(403, "权限不足", null);
+    }
+    return importFromFile(file, ".xlsx", subjectId, currentUser.getId(), true, skipDuplicates);
+}
 
-                // 设置个人题目属性
-                question.setIsSystem(false);
-                question.setCreatorId(currentUser.getId());
-                question.setCreatedAt(LocalDateTime.now());
-                question.setUpdatedAt(LocalDateTime.now());
+/**
+ * 从Excel导入个人题目
+ * 以SAX方式流式读取xlsx，按块写入，适用于数万行的大表格
+ */
+@PostMapping("/my/import-excel")
+@Operation(summary = "Excel导入个人题目", description = "上传xlsx（列：标题、类型、难度、选项、答案、解析），流式解析并分块导入")
+public RespBean importMyQuestionsFromExcel(@RequestParam("file") MultipartFile file,
+                                           @RequestParam Long subjectId,
+                                           @RequestParam(defaultValue = "true") boolean skipDuplicates) {
+    UserEntity currentUser = SimpleUserContext.getCurrentUser();
+    if (currentUser == null) {
+        return new RespBean(401, "用户未登录", null);
+    }
+    return importFromFile(file, ".xlsx", subjectId, currentUser.getId(), false, skipDuplicates);
+}
 
-                boolean success = questionService.save(question);
-                if (success) {
-                    successQuestions.add(question);
-                } else {
-                    errors.add("题目" + (i + 1) + ": 保存失败");
-                }
-            } catch (Exception e) {
-                errors.add("题目" + (i + 1) + ": " + e.getMessage());
-            }
-        }
+/**
+ * 从Word导入系统题目
+ * 逐题解析docx，图片并行上传到OSS，按块写入
+ */
+@PostMapping("/system/import-word")
+@Operation(summary = "Word导入系统题目", description = "上传docx，逐题解析、图片上传OSS并分块导入，仅管理员可用")
+public RespBean importSystemQuestionsFromWord(@RequestParam("file") MultipartFile file,
+                                              @RequestParam Long subjectId,
+                                              @RequestParam(defaultValue = "true") boolean skipDuplicates) {
+    UserEntity currentUser = SimpleUserContext.getCurrentUser();
+    if (currentUser == null) {
+        return new RespBean(401, "用户未登录", null);
+    }
+    if (currentUser.getRole() != UserEntity.UserRole.ADMIN) {
+        return new RespBean(403, "权限不足", null);
+    }
+    return importFromFile(file, ".docx", subjectId, currentUser.getId(), true, skipDuplicates);
+}
 
-        Map<String, Object> result = new HashMap<>();
-        result.put("successCount", successQuestions.size());
-        result.put("failedCount", errors.size());
-        result.put("errors", errors);
-        result.put("successQuestions", successQuestions);
+/**
+ * 从Word导入个人题目
+ * 逐题解析docx，图片并行上传到OSS，按块写入
+ */
+@PostMapping("/my/import-word")
+@Operation(summary = "Word导入个人题目", description = "上传docx，逐题解析、图片上传OSS并分块导入")
+public RespBean importMyQuestionsFromWord(@RequestParam("file") MultipartFile file,
+                                          @RequestParam Long subjectId,
+                                          @RequestParam(defaultValue = "true") boolean skipDuplicates) {
+    UserEntity currentUser = SimpleUserContext.getCurrentUser();
+    if (currentUser == null) {
+        return new RespBean(401, "用户未登录", null);
+    }
+    return importFromFile(file, ".docx", subjectId, currentUser.getId(), false, skipDuplicates);
+}
 
-        return new RespBean(200, "批量导入完成", result);
+private RespBean importFromFile(MultipartFile file, String extension, Long subjectId, Long creatorId, boolean system,
+                                boolean skipDuplicates) {
+    if (file == null || file.isEmpty()) {
+        return new RespBean(400, "文件不能为空", null);
+    }
+    String filename = file.getOriginalFilename();
+    if (filename == null || !filename.toLowerCase().endsWith(extension)) {
+        return new RespBean(400, "仅支持" + extension + "格式的文件", null);
+    }
+    try {
+        QuestionImportService.ProgressListener listener = (progress, rowsRead) -> logger.info(
+                "文件导入进度 {}: 已读取 {} 题, 成功 {}, 失败 {}",
+                filename, rowsRead, progress.getSuccessCount(), progress.getFailedCount());
+        QuestionImportResult result = ".docx".equals(extension)
+                ? questionImportService.importWord(file, subjectId, creatorId, system, skipDuplicates, listener)
+                : questionImportService.importExcel(file, subjectId, creatorId, system, skipDuplicates, listener);
+        if (result.getTotalCount() == 0) {
+            return new RespBean(400, "文件中没有题目数据", null);
+        }
+        return new RespBean(200, "文件导入完成", result.toMap());
     } catch (Exception e) {
-        e.printStackTrace();
-        return new RespBean(500, "批量导入失败: " + e.getMessage(), null);
+        logger.error("文件导入题目失败", e);
+        return new RespBean(500, "文件导入失败: " + e.getMessage(), null);
     }
 }
 
@@ -821,9 +856,11 @@ public RespBean batchImportMyQuestions(@RequestBody List<QuestionEntity> questio
             }
         }
         
+        int[] signature = questionDedupService.sign(question);
         boolean success = questionService.save(question);
         if (success) {
-            try { redisCacheService.evictByQuestion(question.getId()); } catch (Exception ignored) {}
+            questionDedupService.index(question, signature);
+            questionSamplingService.onSaved(question);
             return new RespBean(200, "个人题目创建成功", question);
         } else {
             return new RespBean(500, "创建失败", null);
@@ -874,8 +911,11 @@ public RespBean batchImportMyQuestions(@RequestBody List<QuestionEntity> questio
         copiedQuestion.setIsSystem(false);
         copiedQuestion.setCreatorId(currentUser.getId());
         
+        int[] signature = questionDedupService.sign(copiedQuestion);
         boolean success = questionService.save(copiedQuestion);
         if (success) {
+            questionDedupService.index(copiedQuestion, signature);
+            questionSamplingService.onSaved(copiedQuestion);
             return new RespBean(200, "题目复制成功", copiedQuestion);
         } else {
             return new RespBean(500, "复制失败", null);
@@ -919,9 +959,12 @@ public RespBean batchImportMyQuestions(@RequestBody List<QuestionEntity> questio
         
         // 更新题目
         question.setId(id);
+        // 局部更新时签名按合并后的题干和选项计算
+        int[] signature = questionDedupService.signUpdate(question, existingQuestion);
         boolean success = questionService.updateById(question);
         if (success) {
-            try { redisCacheService.evictByQuestion(id); } catch (Exception ignored) {}
+            questionDedupService.reindex(question, existingQuestion, signature);
+            questionSamplingService.onUpdated(question, existingQuestion);
             return new RespBean(200, "题目更新成功", question);
         } else {
             return new RespBean(500, "更新失败", null);
@@ -964,13 +1007,94 @@ public RespBean batchImportMyQuestions(@RequestBody List<QuestionEntity> questio
         // 删除题目
         boolean success = questionService.removeById(id);
         if (success) {
-            try { redisCacheService.evictByQuestion(id); } catch (Exception ignored) {}
+            questionDedupService.remove(id);
+            questionSamplingService.onDeleted(existingQuestion);
             return new RespBean(200, "题目删除成功", null);
         } else {
             return new RespBean(500, "删除失败", null);
         }
     }
     
+    /**
+     * 随机练习抽题：从系统题目和当前用户的个人题目中均匀随机抽取
+     */
+    @GetMapping("/practice/random")
+    @Operation(summary = "随机练习抽题", description = "按学科、题型、难度从当前用户可见的题目中随机抽取指定数量的题目")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "抽题成功"),
+            @ApiResponse(responseCode = "400", description = "参数错误"),
+            @ApiResponse(responseCode = "500", description = "服务器内部错误")
+    })
+    public RespBean getRandomPracticeQuestions(
+            @Parameter(description = "学科ID", example = "1") @RequestParam(required = false) Long subjectId,
+            @Parameter(description = "题目类型", example = "SINGLE_CHOICE") @RequestParam(required = false) String type,
+            @Parameter(description = "难度等级", example = "MEDIUM") @RequestParam(required = false) String difficulty,
+            @Parameter(description = "题目数量", example = "10") @RequestParam(defaultValue = "10") Integer count) {
+        QuestionEntity.QuestionType questionType;
+        QuestionEntity.DifficultyLevel difficultyLevel;
+        try {
+            questionType = ObjectUtils.isEmpty(type) ? null : QuestionEntity.QuestionType.valueOf(type);
+            difficultyLevel = ObjectUtils.isEmpty(difficulty) ? null : QuestionEntity.DifficultyLevel.valueOf(difficulty);
+        } catch (IllegalArgumentException e) {
+            return new RespBean(400, "无效的题目类型或难度: " + e.getMessage(), null);
+        }
+        if (count == null || count <= 0 || count > QuestionSamplingService.MAX_SAMPLE_SIZE) {
+            return new RespBean(400, "题目数量应在1到" + QuestionSamplingService.MAX_SAMPLE_SIZE + "之间", null);
+        }
+
+        try {
+            UserEntity currentUser = SimpleUserContext.getCurrentUser();
+            Long userId = currentUser != null ? currentUser.getId() : null;
+            List<QuestionEntity> questions = questionSamplingService.sample(
+                    userId, subjectId, questionType, difficultyLevel, count);
+            if (!questions.isEmpty()) {
+                BatchLoader<Long, SubjectEntity> subjectLoader = batchLoaders.subjects();
+                questions.forEach(q -> subjectLoader.prime(q.getSubjectId()));
+                for (QuestionEntity q : questions) {
+                    SubjectEntity subject = subjectLoader.load(q.getSubjectId());
+                    if (subject != null) {
+                        q.setSubject(subject.getName());
+                    }
+                }
+            }
+            return new RespBean(200, "抽题成功", questions);
+        } catch (Exception e) {
+            logger.error("随机抽题失败", e);
+            return new RespBean(500, "抽题失败: " + e.getMessage(), null);
+        }
+    }
+
+    /**
+     * 扫描题库中的近似重复题目（仅管理员）
+     */
+    @GetMapping("/duplicates/scan")
+    @Operation(summary = "扫描近似重复题目", description = "基于MinHash/LSH并行扫描全库，返回近似重复的题目簇，仅管理员可用")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "扫描成功"),
+            @ApiResponse(responseCode = "403", description = "权限不足"),
+            @ApiResponse(responseCode = "500", description = "服务器内部错误")
+    })
+    public RespBean scanDuplicateQuestions() {
+        UserEntity currentUser = SimpleUserContext.getCurrentUser();
+        if (!SimplePermissionUtils.isAdmin(currentUser)) {
+            return new RespBean(403, "权限不足", null);
+        }
+        try {
+            long start = System.currentTimeMillis();
+            List<List<Long>> clusters = questionDedupService.scanClusters();
+            Map<String, Object> result = new HashMap<>();
+            result.put("indexedCount", questionDedupService.indexSize());
+            result.put("clusterCount", clusters.size());
+            result.put("duplicateCount", clusters.stream().mapToInt(c -> c.size() - 1).sum());
+            result.put("clusters", clusters);
+            result.put("elapsedMs", System.currentTimeMillis() - start);
+            return new RespBean(200, "扫描完成", result);
+        } catch (Exception e) {
+            logger.error("扫描重复题目失败", e);
+            return new RespBean(500, "扫描失败: " + e.getMessage(), null);
+        }
+    }
+
     /**
      * 获取题目的统计信息（按学科和题型）
      */
@@ -985,36 +1109,8 @@ public RespBean batchImportMyQuestions(@RequestBody List<QuestionEntity> questio
             @RequestParam Long subjectId) {
         
         try {
-            LambdaQueryWrapper<QuestionEntity> wrapper = new LambdaQueryWrapper<>();
-            
-            //  按学科ID筛选
-            if (subjectId != null) {
-                wrapper.eq(QuestionEntity::getSubjectId, subjectId);
-            }
-            
-            // 获取所有题目
-            List<QuestionEntity> questions = questionService.list(wrapper);
-            
-            // 按题型统计
-            Map<String, Integer> statistics = new HashMap<>();
-            Map<String, Long> typeCount = questions.stream()
-                    .collect(Collectors.groupingBy(
-                            q -> q.getType() != null ? q.getType().toString() : "UNKNOWN",
-                            Collectors.counting()
-                    ));
-            
-            // 转换为Integer
-            for (Map.Entry<String, Long> entry : typeCount.entrySet()) {
-                statistics.put(entry.getKey(), entry.getValue().intValue());
-            }
-            
-            // 总题目数
-            statistics.put("TOTAL", questions.size());
-            
-            Map<String, Object> result = new HashMap<>();
-            result.put("subjectId", subjectId);
-            result.put("statistics", statistics);
-            result.put("total", questions.size());
+            // 读取按分组维护的计数（Redis缓存），不再加载全部题目做内存分组
+            Map<String, Object> result = questionStatisticsService.getStatistics(subjectId);
             
             return new RespBean(200, "查询成功", result);
         } catch (Exception e) {
@@ -1022,4 +1118,30 @@ public RespBean batchImportMyQuestions(@RequestBody List<QuestionEntity> questio
             return new RespBean(500, "获取统计信息失败: " + e.getMessage(), null);
         }
     }
+
+    /**
+     * 从题目表全量重建统计计数（仅管理员）
+     */
+    @PostMapping("/statistics/rebuild")
+    @Operation(summary = "重建题目统计计数", description = "从题目表重新计算按学科、题型、难度、创建者维护的计数并清空统计缓存，仅管理员可用")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "重建成功"),
+            @ApiResponse(responseCode = "403", description = "权限不足"),
+            @ApiResponse(responseCode = "500", description = "服务器内部错误")
+    })
+    public RespBean rebuildQuestionStatistics() {
+        UserEntity currentUser = SimpleUserContext.getCurrentUser();
+        if (!SimplePermissionUtils.isAdmin(currentUser)) {
+            return new RespBean(403, "权限不足", null);
+        }
+        try {
+            int groups = questionStatisticsService.rebuild();
+            Map<String, Object> result = new HashMap<>();
+            result.put("groupCount", groups);
+            return new RespBean(200, "重建成功", result);
+        } catch (Exception e) {
+            logger.error("重建题目统计计数失败", e);
+            return new RespBean(500, "重建失败: " + e.getMessage(), null);
+        }
+    }
 }
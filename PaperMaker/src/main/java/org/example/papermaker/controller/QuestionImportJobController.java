@@ -0,0 +1,220 @@
+package org.example.papermaker.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.papermaker.context.SimpleUserContext;
+import org.example.papermaker.entity.UserEntity;
+import org.example.papermaker.service.ImportJobService;
+import org.example.papermaker.util.JwtUtil;
+import org.example.papermaker.vo.RespBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 题目异步导入任务控制器
+ * 上传后立即返回任务ID，导入在后台执行；通过SSE订阅进度，失败的任务可从断点继续
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@RestController
+@RequestMapping(QuestionImportJobController.BASE_PATH)
+@Tag(name = "题目导入任务", description = "题目异步批量导入、进度推送和断点续导")
+public class QuestionImportJobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionImportJobController.class);
+
+    static final String BASE_PATH = "/question/import-jobs";
+
+    /** 订阅票据有效期，只需覆盖从获取票据到建立连接的时间 */
+    private static final Duration EVENTS_TICKET_TTL = Duration.ofSeconds(60);
+
+    @Resource
+    private ImportJobService importJobService;
+
+    @Resource
+    private JwtUtil jwtUtil;
+
+    /**
+     * 提交JSON数组导入任务
+     */
+    @PostMapping("/json")
+    @Operation(summary = "提交JSON导入任务", description = "请求体为题目JSON数组，立即返回任务ID；导入系统题目仅管理员可用")
+    public RespBean submitJson(HttpServletRequest request,
+                               @Parameter(description = "是否导入为系统题目") @RequestParam(defaultValue = "false") boolean system,
+                               @Parameter(description = "是否跳过近似重复的题目") @RequestParam(defaultValue = "true") boolean skipDuplicates) {
+        UserEntity currentUser = SimpleUserContext.getCurrentUser();
+        RespBean denied = checkImportPermission(currentUser, system);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            ImportJobService.ImportJob job = importJobService.submitJson(
+                    request.getInputStream(), currentUser.getId(), system, skipDuplicates);
+            return new RespBean(200, "导入任务已提交", job.toMap());
+        } catch (ImportJobService.BusyException e) {
+            return new RespBean(429, e.getMessage(), null);
+        } catch (Exception e) {
+            logger.error("提交JSON导入任务失败", e);
+            return new RespBean(500, "提交导入任务失败: " + e.getMessage(), null);
+        }
+    }
+
+    /**
+     * 提交Excel/Word文件导入任务
+     */
+    @PostMapping("/file")
+    @Operation(summary = "提交文件导入任务", description = "上传xlsx或docx，立即返回任务ID；导入系统题目仅管理员可用")
+    public RespBean submitFile(@RequestParam("file") MultipartFile file,
+                               @Parameter(description = "学科ID", required = true) @RequestParam Long subjectId,
+                               @Parameter(description = "是否导入为系统题目") @RequestParam(defaultValue = "false") boolean system,
+                               @Parameter(description = "是否跳过近似重复的题目") @RequestParam(defaultValue = "true") boolean skipDuplicates) {
+        UserEntity currentUser = SimpleUserContext.getCurrentUser();
+        RespBean denied = checkImportPermission(currentUser, system);
+        if (denied != null) {
+            return denied;
+        }
+        if (file == null || file.isEmpty()) {
+            return new RespBean(400, "文件不能为空", null);
+        }
+        String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+        ImportJobService.Kind kind;
+        if (filename.endsWith(ImportJobService.Kind.EXCEL.getExtension())) {
+            kind = ImportJobService.Kind.EXCEL;
+        } else if (filename.endsWith(ImportJobService.Kind.WORD.getExtension())) {
+            kind = ImportJobService.Kind.WORD;
+        } else {
+            return new RespBean(400, "仅支持.xlsx和.docx格式的文件", null);
+        }
+        try {
+            ImportJobService.ImportJob job = importJobService.submitFile(
+                    file, kind, subjectId, currentUser.getId(), system, skipDuplicates);
+            return new RespBean(200, "导入任务已提交", job.toMap());
+        } catch (ImportJobService.BusyException e) {
+            return new RespBean(429, e.getMessage(), null);
+        } catch (Exception e) {
+            logger.error("提交文件导入任务失败", e);
+            return new RespBean(500, "提交导入任务失败: " + e.getMessage(), null);
+        }
+    }
+
+    /**
+     * 查询导入任务状态
+     */
+    @GetMapping("/{jobId}")
+    @Operation(summary = "查询导入任务", description = "返回任务状态和进度，结束后包含错误行和重复行明细")
+    public RespBean getJob(@PathVariable String jobId) {
+        UserEntity currentUser = SimpleUserContext.getCurrentUser();
+        if (currentUser == null) {
+            return new RespBean(401, "用户未登录", null);
+        }
+        ImportJobService.ImportJob job = importJobService.getJob(jobId);
+        if (job == null || !canAccess(currentUser, job)) {
+            return new RespBean(404, "导入任务不存在", null);
+        }
+        return new RespBean(200, "查询成功", job.toMap());
+    }
+
+    /**
+     * 获取订阅进度用的短期票据
+     * 浏览器的 EventSource 不能设置 Authorization 请求头，先用正常登录态换取票据，
+     * 再以 /{jobId}/events?ticket=... 建立连接；票据只对该任务的订阅地址有效，有效期很短
+     */
+    @PostMapping("/{jobId}/events-ticket")
+    @Operation(summary = "获取进度订阅票据", description = "返回只能用于该任务SSE订阅的短期票据，作为events接口的ticket参数")
+    public RespBean eventsTicket(@PathVariable String jobId) {
+        UserEntity currentUser = SimpleUserContext.getCurrentUser();
+        if (currentUser == null) {
+            return new RespBean(401, "用户未登录", null);
+        }
+        ImportJobService.ImportJob job = importJobService.getJob(jobId);
+        if (job == null || !canAccess(currentUser, job)) {
+            return new RespBean(404, "导入任务不存在", null);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("ticket", jwtUtil.generateTicket(currentUser, eventsPath(jobId), EVENTS_TICKET_TTL));
+        result.put("expiresIn", EVENTS_TICKET_TTL.toSeconds());
+        return new RespBean(200, "获取成功", result);
+    }
+
+    /**
+     * 订阅导入任务进度（SSE）
+     * 事件：progress（每块提交后）、done（完成）、failed（失败，可继续）
+     * 使用 Authorization 请求头（fetch 客户端），或 ticket 查询参数（EventSource，见 events-ticket 接口）
+     */
+    @GetMapping(value = "/{jobId}/events", produces = "text/event-stream")
+    @Operation(summary = "订阅导入进度（SSE）", description = "推送progress、done、failed事件，数据与查询任务接口一致；"
+            + "EventSource 无法设置请求头时使用 events-ticket 接口返回的 ticket 参数")
+    public SseEmitter subscribe(@PathVariable String jobId) {
+        UserEntity currentUser = SimpleUserContext.getCurrentUser();
+        ImportJobService.ImportJob job = importJobService.getJob(jobId);
+        if (currentUser == null || job == null || !canAccess(currentUser, job)) {
+            SseEmitter emitter = new SseEmitter();
+            try {
+                emitter.send(SseEmitter.event().name("error")
+                        .data(currentUser == null ? new RespBean(401, "用户未登录", null)
+                                : new RespBean(404, "导入任务不存在", null)));
+            } catch (Exception ignored) {
+                // 客户端已断开
+            }
+            emitter.complete();
+            return emitter;
+        }
+        return importJobService.subscribe(job);
+    }
+
+    /**
+     * 从断点继续失败的导入任务
+     */
+    @PostMapping("/{jobId}/resume")
+    @Operation(summary = "继续导入任务", description = "失败的任务从最后提交的块之后继续导入")
+    public RespBean resume(@PathVariable String jobId) {
+        UserEntity currentUser = SimpleUserContext.getCurrentUser();
+        if (currentUser == null) {
+            return new RespBean(401, "用户未登录", null);
+        }
+        ImportJobService.ImportJob job = importJobService.getJob(jobId);
+        if (job == null || !canAccess(currentUser, job)) {
+            return new RespBean(404, "导入任务不存在", null);
+        }
+        try {
+            return new RespBean(200, "导入任务已继续", importJobService.resume(job).toMap());
+        } catch (ImportJobService.BusyException e) {
+            return new RespBean(429, e.getMessage(), null);
+        } catch (IllegalStateException e) {
+            return new RespBean(400, e.getMessage(), null);
+        }
+    }
+
+    private static RespBean checkImportPermission(UserEntity currentUser, boolean system) {
+        if (currentUser == null) {
+            return new RespBean(401, "用户未登录", null);
+        }
+        if (system && currentUser.getRole() != UserEntity.UserRole.ADMIN) {
+            return new RespBean(403, "权限不足", null);
+        }
+        return null;
+    }
+
+    /**
+     * 订阅地址，票据的适用范围
+     */
+    private static String eventsPath(String jobId) {
+        return BASE_PATH + "/" + jobId + "/events";
+    }
+
+    private static boolean canAccess(UserEntity currentUser, ImportJobService.ImportJob job) {
+        return currentUser.getRole() == UserEntity.UserRole.ADMIN
+                || currentUser.getId().equals(job.getCreatorId());
+    }
+}
@@ -167,10 +167,10 @@ public class UserController {
             }
 
             String token = authHeader.substring(7);
-            boolean isValid = jwtUtil.validateToken(token);
+            JwtUtil.VerifiedToken verified = jwtUtil.verify(token);
 
-            if (isValid) {
-                String username = jwtUtil.getUsernameFromToken(token);
+            if (verified != null) {
+                String username = verified.username();
                 return new RespBean(200, "token有效", username);
             } else {
                 return new RespBean(401, "token无效或已过期", null);
@@ -0,0 +1,93 @@
+package org.example.papermaker.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 题目批量导入结果DTO
+ * 只保留新题目ID和出错行信息，不在内存中保留整批题目
+ */
+@Data
+public class QuestionImportResult {
+
+    /**
+     * 读取到的总行数
+     */
+    private int totalCount;
+
+    /**
+     * 成功导入数量
+     */
+    private int successCount;
+
+    /**
+     * 成功导入的题目ID（按行顺序）
+     */
+    private List<Long> successIds = new ArrayList<>();
+
+    /**
+     * 出错行信息，格式为“题目N: 原因”
+     */
+    private List<String> errors = new ArrayList<>();
+
+    /**
+     * 近似重复的行：index（行号）、duplicateOf（重复的题目ID）、skipped（是否跳过）
+     */
+    private List<Map<String, Object>> duplicates = new ArrayList<>();
+
+    /**
+     * 已提交的分块数量
+     */
+    private int chunkCount;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private long elapsedMs;
+
+    public int getFailedCount() {
+        return errors.size();
+    }
+
+    public int getDuplicateCount() {
+        return duplicates.size();
+    }
+
+    /**
+     * 转换为接口返回的Map
+     * successCount、failedCount、errors 与原逐行导入接口一致；原接口的 successQuestions（完整题目列表）
+     * 改为 successIds，另增加 totalCount、duplicateCount、duplicates、chunkCount、elapsedMs
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("totalCount", totalCount);
+        result.put("successCount", successCount);
+        result.put("failedCount", getFailedCount());
+        result.put("errors", errors);
+        result.put("duplicateCount", getDuplicateCount());
+        result.put("duplicates", duplicates);
+        result.put("successIds", successIds);
+        result.put("chunkCount", chunkCount);
+        result.put("elapsedMs", elapsedMs);
+        return result;
+    }
+
+    /**
+     * 复制当前结果（用作断点快照，之后的导入不会修改副本）
+     */
+    public QuestionImportResult copy() {
+        QuestionImportResult copy = new QuestionImportResult();
+        copy.totalCount = totalCount;
+        copy.successCount = successCount;
+        copy.successIds = new ArrayList<>(successIds);
+        copy.errors = new ArrayList<>(errors);
+        copy.duplicates = new ArrayList<>(duplicates);
+        copy.chunkCount = chunkCount;
+        copy.elapsedMs = elapsedMs;
+        return copy;
+    }
+}
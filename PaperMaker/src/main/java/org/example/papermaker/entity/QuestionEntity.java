@@ -6,13 +6,18 @@ import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.example.papermaker.handler.JsonColumnCodec;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
-import java.util.ArrayList;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Objects;
 
 /**
  * 题目实体类
@@ -111,6 +116,13 @@ public class QuestionEntity {
     @TableField("is_system")
     private Boolean isSystem = false;
 
+    /**
+     * 题干+选项的 MinHash 签名（Base64），用于近似重复检测
+     */
+    @JsonIgnore
+    @TableField("minhash_signature")
+    private String minhashSignature;
+
     /**
      * 创建时间
      */
@@ -123,6 +135,30 @@ public class QuestionEntity {
     @TableField("updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * 已解析的选项（缓存，不存储到数据库）
+     */
+    @TableField(exist = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient List<String> parsedOptions;
+
+    /**
+     * 已解析的知识点ID（缓存，不存储到数据库）
+     */
+    @TableField(exist = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient long[] parsedKnowledgePointIds;
+
+    @TableField(exist = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient List<Long> parsedKnowledgePointIdList;
+
     // ==================== 枚举定义 ====================
 
     /**
@@ -210,67 +246,92 @@ public class QuestionEntity {
     }
 
     /**
-     * 获取选项列表
+     * 设置选项JSON，并清空已解析的缓存
+     */
+    public void setOptions(String options) {
+        this.options = options;
+        this.parsedOptions = null;
+    }
+
+    /**
+     * 设置知识点ID JSON，并清空已解析的缓存
+     */
+    public void setKnowledgePointIds(String knowledgePointIds) {
+        this.knowledgePointIds = knowledgePointIds;
+        this.parsedKnowledgePointIds = null;
+        this.parsedKnowledgePointIdList = null;
+    }
+
+    /**
+     * 获取选项列表（不可变，同一JSON只解析一次）
      */
     public List<String> getOptionsList() {
-        if (options == null || options.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(options, new TypeReference<List<String>>() {
-            });
-        } catch (Exception e) {
-            return new ArrayList<>();
+        List<String> parsed = parsedOptions;
+        if (parsed == null) {
+            parsed = JsonColumnCodec.decodeStringList(options);
+            parsedOptions = parsed;
         }
+        return parsed;
     }
 
     /**
      * 设置选项列表
      */
     public void setOptionsList(List<String> optionsList) {
-        if (optionsList == null || optionsList.isEmpty()) {
-            this.options = null;
-        } else {
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                this.options = mapper.writeValueAsString(optionsList);
-            } catch (Exception e) {
-                this.options = null;
-            }
-        }
+        setOptions(JsonColumnCodec.encodeStringList(optionsList));
     }
 
     /**
      * 设置知识点ID列表
      */
     public void setKnowledgePointIdsList(List<Long> knowledgePointIdsList) {
-        if (knowledgePointIdsList != null && !knowledgePointIdsList.isEmpty()) {
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                this.knowledgePointIds = mapper.writeValueAsString(knowledgePointIdsList);
-            } catch (Exception e) {
-                this.knowledgePointIds = null;
-            }
-        } else {
-            this.knowledgePointIds = null;
+        if (knowledgePointIdsList == null || knowledgePointIdsList.isEmpty()) {
+            setKnowledgePointIds(null);
+            return;
         }
+        long[] ids = knowledgePointIdsList.stream().filter(Objects::nonNull).mapToLong(Long::longValue).toArray();
+        setKnowledgePointIds(JsonColumnCodec.encodeLongArray(ids));
     }
 
     /**
-     * 获取知识点ID列表
+     * 获取知识点ID列表（不可变，同一JSON只解析一次）
      */
     public List<Long> getKnowledgePointIdsList() {
-        if (knowledgePointIds != null && !knowledgePointIds.trim().isEmpty()) {
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                return mapper.readValue(knowledgePointIds, new TypeReference<List<Long>>() {
-                });
-            } catch (Exception e) {
-                return new ArrayList<>();
+        List<Long> parsed = parsedKnowledgePointIdList;
+        if (parsed == null) {
+            parsed = Arrays.stream(knowledgePointIdArray()).boxed().toList();
+            parsedKnowledgePointIdList = parsed;
+        }
+        return parsed;
+    }
+
+    /**
+     * 获取知识点ID数组（只读，调用方不要修改），适合热点循环中使用
+     */
+    @JsonIgnore
+    public long[] getKnowledgePointIdArray() {
+        return knowledgePointIdArray();
+    }
+
+    /**
+     * 题目是否关联了指定知识点
+     */
+    public boolean hasKnowledgePointId(long knowledgePointId) {
+        for (long id : knowledgePointIdArray()) {
+            if (id == knowledgePointId) {
+                return true;
             }
         }
-        return new ArrayList<>();
+        return false;
+    }
+
+    private long[] knowledgePointIdArray() {
+        long[] parsed = parsedKnowledgePointIds;
+        if (parsed == null) {
+            parsed = JsonColumnCodec.decodeLongArray(knowledgePointIds);
+            parsedKnowledgePointIds = parsed;
+        }
+        return parsed;
     }
 
     /**
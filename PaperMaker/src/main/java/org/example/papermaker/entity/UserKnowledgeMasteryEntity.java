@@ -0,0 +1,91 @@
+package org.example.papermaker.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户知识点掌握度实体类
+ * 对应数据库表: user_knowledge_mastery，主键为（用户ID, 知识点ID），随答题记录保存增量更新
+ *
+ * 掌握度为指数衰减加权的正确率：decayedCorrect / decayedAttempts，越新的答题权重越大
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Data
+@TableName("user_knowledge_mastery")
+public class UserKnowledgeMasteryEntity {
+
+    /**
+     * 用户ID
+     */
+    @TableField("user_id")
+    private Long userId;
+
+    /**
+     * 知识点ID
+     */
+    @TableField("knowledge_point_id")
+    private Long knowledgePointId;
+
+    /**
+     * 答题次数
+     */
+    @TableField("attempt_count")
+    private Integer attemptCount;
+
+    /**
+     * 答对次数
+     */
+    @TableField("correct_count")
+    private Integer correctCount;
+
+    /**
+     * 答题用时合计（秒）
+     */
+    @TableField("time_seconds")
+    private Long timeSeconds;
+
+    /**
+     * 涉及该知识点的练习次数（不同练习记录数）
+     */
+    @TableField("practice_count")
+    private Integer practiceCount;
+
+    /**
+     * 衰减加权的答对次数
+     */
+    @TableField("decayed_correct")
+    private Double decayedCorrect;
+
+    /**
+     * 衰减加权的答题次数
+     */
+    @TableField("decayed_attempts")
+    private Double decayedAttempts;
+
+    /**
+     * 最近答题时间
+     */
+    @TableField("last_answered_at")
+    private LocalDateTime lastAnsweredAt;
+
+    /**
+     * 更新时间
+     */
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * 掌握度（0-100），没有答题时返回null
+     */
+    public Double getMastery() {
+        if (decayedAttempts == null || decayedAttempts <= 0 || decayedCorrect == null) {
+            return null;
+        }
+        return decayedCorrect / decayedAttempts * 100;
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.papermaker.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户学习统计汇总实体类
+ * 对应数据库表: user_learning_stats，每个用户一行，由练习记录的增删改增量维护
+ *
+ * 计数、求和字段在增量更新时也用作增量（可为负）
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Data
+@TableName("user_learning_stats")
+public class UserLearningStatsEntity {
+
+    /**
+     * 用户ID
+     */
+    @TableId(value = "user_id", type = IdType.INPUT)
+    private Long userId;
+
+    /**
+     * 练习记录总数
+     */
+    @TableField("total_records")
+    private Integer totalRecords;
+
+    /**
+     * 已完成记录数
+     */
+    @TableField("completed_records")
+    private Integer completedRecords;
+
+    /**
+     * 进行中记录数
+     */
+    @TableField("in_progress_records")
+    private Integer inProgressRecords;
+
+    /**
+     * 超时记录数
+     */
+    @TableField("timeout_records")
+    private Integer timeoutRecords;
+
+    /**
+     * 练习模式记录数
+     */
+    @TableField("practice_records")
+    private Integer practiceRecords;
+
+    /**
+     * 考试模式记录数
+     */
+    @TableField("exam_records")
+    private Integer examRecords;
+
+    /**
+     * 有得分的记录数（得分非空且总分大于0）
+     */
+    @TableField("score_count")
+    private Integer scoreCount;
+
+    /**
+     * 得分合计
+     */
+    @TableField("score_sum")
+    private Double scoreSum;
+
+    /**
+     * 最低得分
+     */
+    @TableField("score_min")
+    private Double scoreMin;
+
+    /**
+     * 最高得分
+     */
+    @TableField("score_max")
+    private Double scoreMax;
+
+    /**
+     * 有正确率的记录数
+     */
+    @TableField("accuracy_count")
+    private Integer accuracyCount;
+
+    /**
+     * 正确率合计
+     */
+    @TableField("accuracy_sum")
+    private Double accuracySum;
+
+    /**
+     * 最低正确率
+     */
+    @TableField("accuracy_min")
+    private Double accuracyMin;
+
+    /**
+     * 最高正确率
+     */
+    @TableField("accuracy_max")
+    private Double accuracyMax;
+
+    /**
+     * 有用时的记录数（用时大于0）
+     */
+    @TableField("time_count")
+    private Integer timeCount;
+
+    /**
+     * 用时合计（秒）
+     */
+    @TableField("time_sum")
+    private Long timeSum;
+
+    /**
+     * 最短用时（秒）
+     */
+    @TableField("time_min")
+    private Long timeMin;
+
+    /**
+     * 最长用时（秒）
+     */
+    @TableField("time_max")
+    private Long timeMax;
+
+    /**
+     * 开始到结束时间合计（秒），只统计有结束时间的记录
+     */
+    @TableField("duration_sum")
+    private Long durationSum;
+
+    /**
+     * 总题目数量合计
+     */
+    @TableField("total_questions")
+    private Integer totalQuestions;
+
+    /**
+     * 答题数量合计
+     */
+    @TableField("answered_questions")
+    private Integer answeredQuestions;
+
+    /**
+     * 正确答题数量合计
+     */
+    @TableField("correct_answers")
+    private Integer correctAnswers;
+
+    /**
+     * 最近练习时间（最晚的开始时间）
+     */
+    @TableField("last_practice_time")
+    private LocalDateTime lastPracticeTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+}
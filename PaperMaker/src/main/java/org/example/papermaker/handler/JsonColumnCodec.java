@@ -0,0 +1,135 @@
+package org.example.papermaker.handler;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JSON 列编解码工具
+ * questions.options / questions.knowledge_point_ids 以 JSON 字符串存储，
+ * 这里统一使用一个预配置、线程安全的 ObjectMapper 完成解析和序列化，避免每次访问都新建 ObjectMapper
+ *
+ * @author System
+ * @since 1.0.0
+ */
+public final class JsonColumnCodec {
+
+    private static final long[] EMPTY_LONGS = new long[0];
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
+
+    private JsonColumnCodec() {}
+
+    /**
+     * 共享的 ObjectMapper（只读使用，不要修改其配置）
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * 解析 JSON 数组为 long[]，元素可以是数字或数字字符串；空值或格式错误返回空数组
+     */
+    public static long[] decodeLongArray(String json) {
+        if (json == null || json.isBlank()) {
+            return EMPTY_LONGS;
+        }
+        try (JsonParser parser = MAPPER.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return EMPTY_LONGS;
+            }
+            long[] buffer = new long[8];
+            int size = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                long value;
+                if (token == JsonToken.VALUE_NUMBER_INT) {
+                    value = parser.getLongValue();
+                } else if (token == JsonToken.VALUE_STRING) {
+                    String text = parser.getText().trim();
+                    if (text.isEmpty()) {
+                        continue;
+                    }
+                    value = Long.parseLong(text);
+                } else {
+                    continue;
+                }
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size * 2);
+                }
+                buffer[size++] = value;
+            }
+            return size == 0 ? EMPTY_LONGS : Arrays.copyOf(buffer, size);
+        } catch (Exception e) {
+            return EMPTY_LONGS;
+        }
+    }
+
+    /**
+     * long[] 序列化为 JSON 数组；空数组返回 null（与原实体语义一致）
+     */
+    public static String encodeLongArray(long[] values) {
+        if (values == null || values.length == 0) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(values.length * 4 + 2).append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(values[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * 解析 JSON 数组为不可变的 List&lt;String&gt;；空值或格式错误返回空列表
+     */
+    public static List<String> decodeStringList(String json) {
+        if (json == null || json.isBlank()) {
+            return Collections.emptyList();
+        }
+        try (JsonParser parser = MAPPER.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return Collections.emptyList();
+            }
+            List<String> values = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                if (token == JsonToken.VALUE_NULL) {
+                    values.add(null);
+                } else if (token.isScalarValue()) {
+                    values.add(parser.getValueAsString());
+                } else {
+                    // 嵌套对象/数组按原样序列化为字符串
+                    values.add(MAPPER.writeValueAsString(parser.readValueAsTree()));
+                }
+            }
+            return Collections.unmodifiableList(values);
+        } catch (Exception e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * List&lt;String&gt; 序列化为 JSON 数组；空列表返回 null（与原实体语义一致）
+     */
+    public static String encodeStringList(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(values);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.papermaker.handler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedTypes;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * JSON 数组列 &lt;-&gt; long[] 类型处理器
+ * 用于 knowledge_point_ids 这类 ID 列表列，在结果集加载时一次性解析为原始类型数组；
+ * 已在 MybatisPlusConfig 中注册为 long[] 的全局处理器
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@MappedTypes(long[].class)
+public class JsonLongArrayTypeHandler extends BaseTypeHandler<long[]> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, long[] parameter, JdbcType jdbcType) throws SQLException {
+        ps.setString(i, JsonColumnCodec.encodeLongArray(parameter));
+    }
+
+    @Override
+    public long[] getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return JsonColumnCodec.decodeLongArray(rs.getString(columnName));
+    }
+
+    @Override
+    public long[] getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return JsonColumnCodec.decodeLongArray(rs.getString(columnIndex));
+    }
+
+    @Override
+    public long[] getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return JsonColumnCodec.decodeLongArray(cs.getString(columnIndex));
+    }
+}
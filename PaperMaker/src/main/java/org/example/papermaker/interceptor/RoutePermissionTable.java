@@ -0,0 +1,151 @@
+package org.example.papermaker.interceptor;
+
+import org.example.papermaker.annotation.RequireRole;
+import org.example.papermaker.entity.UserEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 路由权限表
+ * 启动时遍历所有请求映射，把每个处理方法的 @RequireRole 角色集合和规则管理API的普通用户可用HTTP方法
+ * 预先算好，按处理方法查表，请求时不再反射读取注解，也不再编译正则
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Component
+public class RoutePermissionTable {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutePermissionTable.class);
+
+    private static final String RULES_PREFIX = "/api/rules";
+    private static final Pattern RULE_COPY = Pattern.compile("/api/rules/\\d+/copy");
+    private static final Pattern RULE_ITEM = Pattern.compile("/api/rules/\\d+");
+    private static final Pattern PATH_VARIABLE = Pattern.compile("\\{[^}]+}");
+
+    static final String RULES_DENIED = "只有管理员可以进行规则管理操作";
+
+    /** 启动时未收录的处理方法（理论上不会出现）首次访问时补算 */
+    private final Map<Method, Route> routes = new ConcurrentHashMap<>();
+
+    /**
+     * 处理方法的权限
+     *
+     * @param allowedRoles   @RequireRole 允许的角色，null 表示不限
+     * @param roleDenied     角色不符时的提示
+     * @param studentMethods 规则管理API中普通用户可用的HTTP方法，null 表示不是规则管理API
+     */
+    record Route(Set<UserEntity.UserRole> allowedRoles, String roleDenied, Set<String> studentMethods) {
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void compile(ContextRefreshedEvent event) {
+        // 按bean名取MVC的映射，避免与拦截器注册形成循环依赖
+        if (!event.getApplicationContext().containsBean("requestMappingHandlerMapping")) {
+            return;
+        }
+        RequestMappingHandlerMapping mapping = event.getApplicationContext()
+                .getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : mapping.getHandlerMethods().entrySet()) {
+            HandlerMethod handler = entry.getValue();
+            routes.put(handler.getMethod(), compile(handler, entry.getKey()));
+        }
+        log.info("路由权限表已编译，共 {} 个处理方法", routes.size());
+    }
+
+    /**
+     * 处理方法的权限，未收录时按注解补算（不含规则管理API的方法表，由路径判断兜底）
+     */
+    Route routeOf(HandlerMethod handler) {
+        return routes.computeIfAbsent(handler.getMethod(), m -> compile(handler, null));
+    }
+
+    /**
+     * 规则管理API的访问控制：管理员可访问全部；普通用户只能查看、创建个人规则、复制规则和删除单条规则
+     *
+     * @return 拒绝时的提示，允许时返回null
+     */
+    static String checkRulesApi(Route route, String method, String path, UserEntity.UserRole role) {
+        if (UserEntity.UserRole.ADMIN.equals(role)) {
+            return null;
+        }
+        if (route != null && route.studentMethods() != null) {
+            return route.studentMethods().contains(method) ? null : RULES_DENIED;
+        }
+        // 没有匹配到处理方法时按实际路径判断
+        return path.startsWith(RULES_PREFIX) && !studentAllowed(method, path) ? RULES_DENIED : null;
+    }
+
+    private static Route compile(HandlerMethod handler, RequestMappingInfo info) {
+        // 优先方法级注解，其次类级注解
+        RequireRole requireRole = handler.getMethodAnnotation(RequireRole.class);
+        if (requireRole == null) {
+            requireRole = handler.getBeanType().getAnnotation(RequireRole.class);
+        }
+        Set<UserEntity.UserRole> roles = null;
+        String roleDenied = null;
+        if (requireRole != null) {
+            roles = requireRole.value().length == 0
+                    ? Collections.emptySet()
+                    : Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(requireRole.value())));
+            roleDenied = "权限不足，当前操作需要 " + Arrays.toString(requireRole.value()) + " 角色";
+        }
+        return new Route(roles, roleDenied, info == null ? null : studentMethods(info));
+    }
+
+    /**
+     * 对映射的每个路径模板和HTTP方法求值一次普通用户是否可用
+     */
+    private static Set<String> studentMethods(RequestMappingInfo info) {
+        Set<String> patterns = info.getPatternValues();
+        if (patterns.stream().noneMatch(p -> p.startsWith(RULES_PREFIX))) {
+            return null;
+        }
+        Set<RequestMethod> declared = info.getMethodsCondition().getMethods();
+        Set<RequestMethod> methods = declared.isEmpty() ? EnumSet.allOf(RequestMethod.class) : declared;
+        Set<String> allowed = new HashSet<>();
+        for (String pattern : patterns) {
+            // 路径变量代入数字，与按实际路径判断的结果一致
+            String sample = PATH_VARIABLE.matcher(pattern).replaceAll("0");
+            for (RequestMethod method : methods) {
+                if (studentAllowed(method.name(), sample)) {
+                    allowed.add(method.name());
+                }
+            }
+        }
+        return Collections.unmodifiableSet(allowed);
+    }
+
+    private static boolean studentAllowed(String method, String path) {
+        switch (method) {
+            case "GET":
+                // 查看规则
+                return true;
+            case "POST":
+                // 创建个人规则；复制规则（具体权限由控制器检查）
+                return path.equals("/api/rules/user") || RULE_COPY.matcher(path).matches();
+            case "DELETE":
+                // 删除规则，具体权限由控制器检查（只能删除自己的规则）
+                return RULE_ITEM.matcher(path).matches();
+            default:
+                return false;
+        }
+    }
+}
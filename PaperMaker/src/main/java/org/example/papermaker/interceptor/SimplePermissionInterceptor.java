@@ -3,7 +3,6 @@ package org.example.papermaker.interceptor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.example.papermaker.annotation.RequireRole;
 import org.example.papermaker.context.SimpleUserContext;
 import org.example.papermaker.entity.UserEntity;
 import org.example.papermaker.util.JwtUtil;
@@ -17,7 +16,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.Arrays;
 
 /**
  * 简化版权限控制拦截器
@@ -32,9 +30,24 @@ public class SimplePermissionInterceptor implements HandlerInterceptor {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    /** 公开路径前缀（移除了练习记录API的公开路径配置，让它们通过正常的认证流程） */
+    private static final String[] PUBLIC_PATH_PREFIXES = {
+            "/user/login",
+            "/user/register",
+            "/user/validate-token",
+            "/api/upload",
+            "/api/test",
+            "/swagger-ui",
+            "/v3/api-docs",
+            "/swagger-resources"
+    };
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private RoutePermissionTable routePermissionTable;
+
     @Autowired
     private org.example.papermaker.service.UserRedisCacheService userRedisCacheService;
 
@@ -86,69 +99,27 @@ public class SimplePermissionInterceptor implements HandlerInterceptor {
                 requestPath, method, currentUser.getUsername(), currentUser.getRole(), currentUser.getId());
 
         // ========== 注解式权限检查 ==========
-        // 检查处理方法上是否有 @RequireRole 注解
-        if (handler instanceof HandlerMethod) {
-            HandlerMethod handlerMethod = (HandlerMethod) handler;
-
-            // 优先检查方法级注解，其次检查类级注解
-            RequireRole requireRole = handlerMethod.getMethodAnnotation(RequireRole.class);
-            if (requireRole == null) {
-                requireRole = handlerMethod.getBeanType().getAnnotation(RequireRole.class);
+        // 角色要求在启动时按处理方法预先算好（方法级注解优先，其次类级注解）
+        RoutePermissionTable.Route route = handler instanceof HandlerMethod handlerMethod
+                ? routePermissionTable.routeOf(handlerMethod) : null;
+        if (route != null && route.allowedRoles() != null) {
+            UserEntity.UserRole userRole = currentUser.getRole();
+            if (!route.allowedRoles().contains(userRole)) {
+                log.warn("用户 {} (角色: {}) 尝试访问需要 {} 角色的接口: {}",
+                        currentUser.getUsername(), userRole, route.allowedRoles(), requestPath);
+                writeErrorResponse(response, 403, route.roleDenied());
+                return false;
             }
 
-            if (requireRole != null) {
-                UserEntity.UserRole[] allowedRoles = requireRole.value();
-                UserEntity.UserRole userRole = currentUser.getRole();
-
-                boolean hasPermission = Arrays.stream(allowedRoles)
-                        .anyMatch(role -> role.equals(userRole));
-
-                if (!hasPermission) {
-                    log.warn("用户 {} (角色: {}) 尝试访问需要 {} 角色的接口: {}",
-                            currentUser.getUsername(), userRole, Arrays.toString(allowedRoles), requestPath);
-                    writeErrorResponse(response, 403, "权限不足，当前操作需要 " +
-                            Arrays.toString(allowedRoles) + " 角色");
-                    return false;
-                }
-
-                log.debug("@RequireRole 注解权限验证通过: 用户角色 {} 在允许列表 {} 中",
-                        userRole, Arrays.toString(allowedRoles));
-            }
+            log.debug("@RequireRole 注解权限验证通过: 用户角色 {} 在允许列表 {} 中",
+                    userRole, route.allowedRoles());
         }
 
-        // 对于规则管理API，检查用户权限
-        if (requestPath.startsWith("/api/rules")) {
-            // 管理员可以访问所有规则管理功能
-            if (UserEntity.UserRole.ADMIN.equals(currentUser.getRole())) {
-                log.debug("管理员权限验证通过");
-                return true;
-            }
-
-            // 普通用户可以进行的操作：
-            // 1. 查看规则（GET请求）
-            // 2. 创建自己的规则（POST /user）
-            // 3. 删除自己的规则（DELETE /{id}）- 具体权限由控制器检查
-            // 4. 复制规则（POST /{id}/copy）- 所有用户都可以复制
-            if ("GET".equals(method)) {
-                return true; // 允许普通用户查看规则
-            } else if ("POST".equals(method)) {
-                if (requestPath.equals("/api/rules/user")) {
-                    return true; // 允许普通用户创建自己的规则
-                } else if (requestPath.matches("/api/rules/\\d+/copy")) {
-                    return true; // 允许普通用户复制规则（具体权限由控制器检查）
-                } else {
-                    // 其他POST操作不允许
-                    writeErrorResponse(response, 403, "只有管理员可以进行规则管理操作");
-                    return false;
-                }
-            } else if ("DELETE".equals(method) && requestPath.matches("/api/rules/\\d+")) {
-                // 允许删除操作，具体权限由控制器检查（只能删除自己的规则）
-                return true;
-            } else {
-                // 其他修改操作不允许
-                writeErrorResponse(response, 403, "只有管理员可以进行规则管理操作");
-                return false;
-            }
+        // 对于规则管理API，检查用户权限（管理员可访问全部；普通用户只能查看、创建个人规则、复制和删除单条规则）
+        String denied = RoutePermissionTable.checkRulesApi(route, method, requestPath, currentUser.getRole());
+        if (denied != null) {
+            writeErrorResponse(response, 403, denied);
+            return false;
         }
 
         return true;
@@ -165,15 +136,12 @@ public class SimplePermissionInterceptor implements HandlerInterceptor {
      * 检查是否为公开路径
      */
     private boolean isPublicPath(String path) {
-        return path.startsWith("/user/login") ||
-                path.startsWith("/user/register") ||
-                path.startsWith("/user/validate-token") ||
-                path.startsWith("/api/upload") ||
-                path.startsWith("/api/test") ||
-                path.startsWith("/swagger-ui") ||
-                path.startsWith("/v3/api-docs") ||
-                path.startsWith("/swagger-resources");
-        // 移除练习记录API的公开路径配置，让它们通过正常的认证流程
+        for (String prefix : PUBLIC_PATH_PREFIXES) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -184,24 +152,30 @@ public class SimplePermissionInterceptor implements HandlerInterceptor {
         try {
             // 从请求头中获取token
             String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            JwtUtil.VerifiedToken verified;
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                String token = authHeader.substring(7); // 移除 "Bearer " 前缀
+
+                // 验证token并一次取出所有声明（同一token的后续请求命中已验证缓存，不再校验签名）
+                verified = jwtUtil.verify(token);
+            } else if (request.getParameter("ticket") != null) {
+                // 无法设置请求头的客户端（如 EventSource）使用短期票据，票据只对签发时指定的路径有效
+                String path = request.getRequestURI().substring(request.getContextPath().length());
+                verified = jwtUtil.verifyTicket(request.getParameter("ticket"), path);
+            } else {
                 return null;
             }
-
-            String token = authHeader.substring(7); // 移除 "Bearer " 前缀
-
-            // 验证token
-            if (!jwtUtil.validateToken(token)) {
+            if (verified == null) {
                 return null;
             }
 
             // 从token中获取用户信息
             UserEntity user = new UserEntity();
-            user.setId(jwtUtil.getUserIdFromToken(token));
-            user.setUsername(jwtUtil.getUsernameFromToken(token));
+            user.setId(verified.userId());
+            user.setUsername(verified.username());
 
             // 设置角色
-            String roleStr = jwtUtil.getRoleFromToken(token);
+            String roleStr = verified.role();
             if ("ADMIN".equals(roleStr)) {
                 user.setRole(UserEntity.UserRole.ADMIN);
             } else if ("STUDENT".equals(roleStr)) {
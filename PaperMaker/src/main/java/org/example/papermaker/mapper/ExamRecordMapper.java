@@ -1,12 +1,95 @@
 package org.example.papermaker.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 import org.example.papermaker.entity.ExamRecordEntity;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 考试记录Mapper接口
  */
 @Mapper
 public interface ExamRecordMapper extends BaseMapper<ExamRecordEntity> {
+
+    /**
+     * 练习记录搜索条件，关联试卷表按学科和标题筛选；
+     * 学科条件匹配试卷学科字段中存储的学科ID或学科名称
+     */
+    String SEARCH = "<script>" +
+            "SELECT er.* FROM exam_records er " +
+            "<if test='(subjectKeys != null and subjectKeys.size() > 0) or (paperTitle != null and paperTitle != \"\")'>" +
+            "LEFT JOIN exam_papers p ON p.id = er.paper_id " +
+            "</if>" +
+            "WHERE er.user_id = #{userId} " +
+            "<if test='status != null'> AND er.status = #{status} </if>" +
+            "<if test='type != null'> AND er.exam_type = #{type} </if>" +
+            "<if test='startTime != null'> AND er.start_time &gt;= #{startTime} </if>" +
+            "<if test='endTime != null'> AND er.start_time &lt;= #{endTime} </if>" +
+            "<if test='subjectKeys != null and subjectKeys.size() > 0'>" +
+            " AND p.subject_id IN " +
+            "<foreach collection='subjectKeys' item='k' open='(' separator=',' close=')'>#{k}</foreach>" +
+            "</if>" +
+            "<if test='paperTitle != null and paperTitle != \"\"'>" +
+            " AND (er.paper_title LIKE CONCAT('%', #{paperTitle}, '%') OR p.title LIKE CONCAT('%', #{paperTitle}, '%'))" +
+            "</if>" +
+            " ORDER BY er.start_time DESC" +
+            "</script>";
+
+    /**
+     * 按条件分页搜索某用户的练习记录，按开始时间倒序
+     *
+     * @param page        分页对象
+     * @param subjectKeys 试卷学科字段可能的取值（学科ID、学科名称），为空表示不按学科筛选
+     * @return 练习记录分页数据
+     */
+    @Select(SEARCH)
+    IPage<ExamRecordEntity> searchPage(Page<ExamRecordEntity> page,
+                                       @Param("userId") Long userId,
+                                       @Param("paperTitle") String paperTitle,
+                                       @Param("status") ExamRecordEntity.ExamStatus status,
+                                       @Param("type") ExamRecordEntity.ExamType type,
+                                       @Param("subjectKeys") List<String> subjectKeys,
+                                       @Param("startTime") LocalDateTime startTime,
+                                       @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 按条件搜索某用户的全部练习记录（不分页），条件同 {@link #searchPage}
+     */
+    @Select(SEARCH)
+    List<ExamRecordEntity> searchList(@Param("userId") Long userId,
+                                      @Param("paperTitle") String paperTitle,
+                                      @Param("status") ExamRecordEntity.ExamStatus status,
+                                      @Param("type") ExamRecordEntity.ExamType type,
+                                      @Param("subjectKeys") List<String> subjectKeys,
+                                      @Param("startTime") LocalDateTime startTime,
+                                      @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 某用户最近一条进行中的练习记录，可限定试卷
+     *
+     * @param paperId 试卷ID，为空时不限定
+     */
+    @Select("<script>" +
+            "SELECT * FROM exam_records WHERE user_id = #{userId} AND status = 'IN_PROGRESS' " +
+            "<if test='paperId != null'> AND paper_id = #{paperId} </if>" +
+            "ORDER BY start_time DESC LIMIT 1" +
+            "</script>")
+    ExamRecordEntity selectLatestInProgress(@Param("userId") Long userId, @Param("paperId") Long paperId);
+
+    /**
+     * 按天统计某用户在指定时间之后开始的练习次数
+     *
+     * @return day（yyyy-MM-dd）、count 两列
+     */
+    @Select("SELECT DATE_FORMAT(start_time, '%Y-%m-%d') AS day, COUNT(*) AS count FROM exam_records " +
+            "WHERE user_id = #{userId} AND start_time > #{since} " +
+            "GROUP BY DATE_FORMAT(start_time, '%Y-%m-%d')")
+    List<Map<String, Object>> countDailySince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
 }
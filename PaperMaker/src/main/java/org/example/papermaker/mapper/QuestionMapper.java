@@ -4,7 +4,9 @@ package org.example.papermaker.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.example.papermaker.entity.QuestionEntity;
@@ -101,49 +103,47 @@ public interface QuestionMapper extends BaseMapper<QuestionEntity> {
     );
 
     /**
-     * 查询随机题目
+     * 多行插入题目（一条 INSERT ... VALUES (...), (...) 语句），自增ID回填到每个实体
+     * 由 QuestionImportService 按分块调用，调用方负责控制每块行数和事务
      *
-     * @param limit 数量限制
-     * @return 题目列表
+     * @param questions 题目列表
+     * @return 插入行数
      */
-    @Select("SELECT * FROM questions ORDER BY RAND() LIMIT #{limit}")
-    List<QuestionEntity> selectRandomQuestions(@Param("limit") Integer limit);
+    @Insert("<script>" +
+            "INSERT INTO questions (title, type, difficulty, options, correct_answer, explanation, subject_id, " +
+            "knowledge_point_ids, creator_id, is_system, minhash_signature, created_at, updated_at) VALUES " +
+            "<foreach collection='list' item='q' separator=','>" +
+            "(#{q.title}, #{q.type}, #{q.difficulty}, #{q.options}, #{q.correctAnswer}, #{q.explanation}, #{q.subjectId}, " +
+            "#{q.knowledgePointIds}, #{q.creatorId}, #{q.isSystem}, #{q.minhashSignature}, #{q.createdAt}, #{q.updatedAt})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
+    int insertBatch(@Param("list") List<QuestionEntity> questions);
 
     /**
-     * 根据条件查询随机题目
+     * 查询随机抽样分桶所需的窄列（不含题干、选项等大字段）
+     * 随机抽题由 QuestionSamplingService 在内存ID数组上完成，不再使用 ORDER BY RAND()
      *
-     * @param type 题目类型
-     * @param difficulty 难度等级
-     * @param limit 数量限制
-     * @return 题目列表
+     * @return 仅填充 id、subject_id、type、difficulty、creator_id、is_system 的题目列表
      */
-    @Select("<script>" +
-            "SELECT * FROM questions WHERE 1=1 " +
-            "<if test='type != null'> AND type = #{type} </if>" +
-            "<if test='difficulty != null'> AND difficulty = #{difficulty} </if>" +
-            "ORDER BY RAND() LIMIT #{limit}" +
-            "</script>")
-    List<QuestionEntity> selectRandomQuestionsByConditions(
-            @Param("type") String type,
-            @Param("difficulty") String difficulty,
-            @Param("limit") Integer limit
-    );
+    @Select("SELECT id, subject_id, type, difficulty, creator_id, is_system FROM questions")
+    List<QuestionEntity> selectSamplingKeys();
 
     /**
-     * 查询题目统计信息
+     * 查询题目统计信息（读取 question_stat_counters 计数表，不扫描题目表）
      *
      * @param creatorId 创建者ID
      * @return 统计信息
      */
     @Select("SELECT " +
-            "COUNT(*) as totalCount, " +
-            "COUNT(CASE WHEN type = 'SINGLE_CHOICE' THEN 1 END) as singleChoiceCount, " +
-            "COUNT(CASE WHEN type = 'MULTIPLE_CHOICE' THEN 1 END) as multipleChoiceCount, " +
-            "COUNT(CASE WHEN type = 'FILL_BLANK' THEN 1 END) as fillBlankCount, " +
-            "COUNT(CASE WHEN type = 'TRUE_FALSE' THEN 1 END) as trueFalseCount, " +
-            "COUNT(CASE WHEN type = 'SHORT_ANSWER' THEN 1 END) as shortAnswerCount, " +
-            "COUNT(CASE WHEN type = 'ESSAY' THEN 1 END) as essayCount " +
-            "FROM questions WHERE creator_id = #{creatorId}")
+            "IFNULL(SUM(question_count), 0) as totalCount, " +
+            "IFNULL(SUM(CASE WHEN type = 'SINGLE_CHOICE' THEN question_count END), 0) as singleChoiceCount, " +
+            "IFNULL(SUM(CASE WHEN type = 'MULTIPLE_CHOICE' THEN question_count END), 0) as multipleChoiceCount, " +
+            "IFNULL(SUM(CASE WHEN type = 'FILL_BLANK' THEN question_count END), 0) as fillBlankCount, " +
+            "IFNULL(SUM(CASE WHEN type = 'TRUE_FALSE' THEN question_count END), 0) as trueFalseCount, " +
+            "IFNULL(SUM(CASE WHEN type = 'SHORT_ANSWER' THEN question_count END), 0) as shortAnswerCount, " +
+            "IFNULL(SUM(CASE WHEN type = 'ESSAY' THEN question_count END), 0) as essayCount " +
+            "FROM question_stat_counters WHERE creator_id = #{creatorId}")
     Map<String, Object> selectQuestionStatistics(@Param("creatorId") Long creatorId);
 
     /**
@@ -175,6 +175,14 @@ public interface QuestionMapper extends BaseMapper<QuestionEntity> {
     IPage<QuestionEntity> selectLatestQuestions(Page<QuestionEntity> page);
 
 
+    /**
+     * 查询所有题目的知识点ID列（由 JsonLongArrayTypeHandler 在加载时解析为 long[]）
+     *
+     * @return 每道题的知识点ID数组
+     */
+    @Select("SELECT knowledge_point_ids FROM questions WHERE knowledge_point_ids IS NOT NULL")
+    List<long[]> selectAllKnowledgePointIdArrays();
+
     /**
      * 根据当前用户ID查询题目
      *
@@ -0,0 +1,90 @@
+package org.example.papermaker.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 题目统计计数Mapper接口
+ * 对应 question_stat_counters 表，按（学科, 题型, 难度, 创建者, 是否系统题）维护题目数量
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Mapper
+public interface QuestionStatCounterMapper {
+
+    /**
+     * 增减一个分组的计数（分组不存在时插入）；计数不做截断，出现负数说明计数已与题目表不一致
+     *
+     * @param subjectId  学科ID（未设置学科传0）
+     * @param type       题目类型
+     * @param difficulty 难度等级
+     * @param creatorId  创建者ID
+     * @param isSystem   是否系统题目
+     * @param delta      增量，可为负
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO question_stat_counters (subject_id, type, difficulty, creator_id, is_system, question_count) " +
+            "VALUES (#{subjectId}, #{type}, #{difficulty}, #{creatorId}, #{isSystem}, #{delta}) " +
+            "ON DUPLICATE KEY UPDATE question_count = question_count + #{delta}")
+    int applyDelta(@Param("subjectId") long subjectId,
+                   @Param("type") String type,
+                   @Param("difficulty") String difficulty,
+                   @Param("creatorId") long creatorId,
+                   @Param("isSystem") boolean isSystem,
+                   @Param("delta") int delta);
+
+    /**
+     * 查询一个分组当前的计数
+     *
+     * @return 分组不存在时为null
+     */
+    @Select("SELECT question_count FROM question_stat_counters WHERE subject_id = #{subjectId} " +
+            "AND type = #{type} AND difficulty = #{difficulty} AND creator_id = #{creatorId} AND is_system = #{isSystem}")
+    Integer selectGroupCount(@Param("subjectId") long subjectId,
+                             @Param("type") String type,
+                             @Param("difficulty") String difficulty,
+                             @Param("creatorId") long creatorId,
+                             @Param("isSystem") boolean isSystem);
+
+    /**
+     * 按题型、难度汇总某学科的题目数量（subjectId 为空时汇总全部学科）
+     *
+     * @param subjectId 学科ID
+     * @return type、difficulty、count 三列
+     */
+    @Select("<script>" +
+            "SELECT type, difficulty, SUM(question_count) AS count FROM question_stat_counters " +
+            "WHERE question_count > 0 " +
+            "<if test='subjectId != null'> AND subject_id = #{subjectId} </if>" +
+            "GROUP BY type, difficulty" +
+            "</script>")
+    List<Map<String, Object>> sumBySubject(@Param("subjectId") Long subjectId);
+
+    /**
+     * 计数表是否为空
+     */
+    @Select("SELECT COUNT(*) FROM question_stat_counters")
+    long countRows();
+
+    /**
+     * 清空计数表
+     */
+    @Delete("DELETE FROM question_stat_counters")
+    int deleteAll();
+
+    /**
+     * 从 questions 表全量重新计算计数
+     */
+    @Insert("INSERT INTO question_stat_counters (subject_id, type, difficulty, creator_id, is_system, question_count) " +
+            "SELECT IFNULL(subject_id, 0), type, difficulty, IFNULL(creator_id, 0), IFNULL(is_system, 0), COUNT(*) " +
+            "FROM questions " +
+            "GROUP BY IFNULL(subject_id, 0), type, difficulty, IFNULL(creator_id, 0), IFNULL(is_system, 0)")
+    int rebuildFromQuestions();
+}
@@ -0,0 +1,119 @@
+package org.example.papermaker.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.example.papermaker.entity.UserKnowledgeMasteryEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户知识点掌握度Mapper接口
+ * 对应 user_knowledge_mastery 表，按（用户, 知识点）维护答题计数和衰减正确率
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Mapper
+public interface UserKnowledgeMasteryMapper {
+
+    /**
+     * 累加一批答题（同一用户、同一次练习）对各知识点的贡献，行不存在时插入
+     * 原有的衰减值先乘以 decay 的本批答题次数次方，再加上本批的衰减值，与逐条更新的结果相同；
+     * 新值通过行别名 b 引用（VALUES() 自 MySQL 8.0.20 起已弃用）
+     *
+     * @param rows  每个知识点本批的增量，decayedCorrect/decayedAttempts 为本批内按时间衰减后的值
+     * @param decay 每多一条更新的答题，旧答题权重乘以的系数
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO user_knowledge_mastery (user_id, knowledge_point_id, attempt_count, correct_count, " +
+            "time_seconds, practice_count, decayed_correct, decayed_attempts, last_answered_at) VALUES " +
+            "<foreach collection='rows' item='r' separator=','>" +
+            "(#{r.userId}, #{r.knowledgePointId}, #{r.attemptCount}, #{r.correctCount}, #{r.timeSeconds}, " +
+            "#{r.practiceCount}, #{r.decayedCorrect}, #{r.decayedAttempts}, #{r.lastAnsweredAt})" +
+            "</foreach> AS b " +
+            "ON DUPLICATE KEY UPDATE " +
+            "decayed_correct = decayed_correct * POW(#{decay}, b.attempt_count) + b.decayed_correct, " +
+            "decayed_attempts = decayed_attempts * POW(#{decay}, b.attempt_count) + b.decayed_attempts, " +
+            "attempt_count = attempt_count + b.attempt_count, " +
+            "correct_count = correct_count + b.correct_count, " +
+            "time_seconds = time_seconds + b.time_seconds, " +
+            "practice_count = practice_count + b.practice_count, " +
+            "last_answered_at = GREATEST(IFNULL(last_answered_at, b.last_answered_at), b.last_answered_at)" +
+            "</script>")
+    int applyBatch(@Param("rows") List<UserKnowledgeMasteryEntity> rows, @Param("decay") double decay);
+
+    /**
+     * 答题的判定结果被修改（如接受AI评分）后调整答对次数
+     *
+     * @param delta +1 或 -1
+     */
+    @Update("<script>" +
+            "UPDATE user_knowledge_mastery SET correct_count = GREATEST(correct_count + #{delta}, 0) " +
+            "WHERE user_id = #{userId} AND knowledge_point_id IN " +
+            "<foreach collection='kpIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int adjustCorrect(@Param("userId") Long userId, @Param("kpIds") Collection<Long> kpIds,
+                      @Param("delta") int delta);
+
+    /**
+     * 某用户的全部知识点掌握度
+     */
+    @Select("SELECT * FROM user_knowledge_mastery WHERE user_id = #{userId}")
+    List<UserKnowledgeMasteryEntity> selectByUser(@Param("userId") Long userId);
+
+    /**
+     * 某用户在某学科下的知识点掌握度
+     * 知识点的 subject_id 可为空（知识点接口只填学科名称），因此也按学科名称匹配
+     *
+     * @param subjectName 学科名称，为空时只按学科ID匹配
+     */
+    @Select("<script>" +
+            "SELECT m.* FROM user_knowledge_mastery m " +
+            "JOIN knowledge_points kp ON kp.id = m.knowledge_point_id " +
+            "WHERE m.user_id = #{userId} AND (kp.subject_id = #{subjectId}" +
+            "<if test='subjectName != null'> OR (kp.subject_id IS NULL AND kp.subject = #{subjectName})</if>" +
+            ")" +
+            "</script>")
+    List<UserKnowledgeMasteryEntity> selectByUserAndSubject(@Param("userId") Long userId,
+                                                            @Param("subjectId") Long subjectId,
+                                                            @Param("subjectName") String subjectName);
+
+    /**
+     * 掌握度表是否为空
+     */
+    @Select("SELECT COUNT(*) FROM user_knowledge_mastery")
+    long countRows();
+
+    /**
+     * 清空掌握度表
+     */
+    @Delete("DELETE FROM user_knowledge_mastery")
+    int deleteAll();
+
+    /**
+     * 从答题记录全量重新计算掌握度；每个（用户, 知识点）内按答题记录ID从新到旧，第n条的权重为 decay^(n-1)
+     */
+    @Insert("INSERT INTO user_knowledge_mastery (user_id, knowledge_point_id, attempt_count, correct_count, " +
+            "time_seconds, practice_count, decayed_correct, decayed_attempts, last_answered_at) " +
+            "SELECT user_id, kp_id, COUNT(*), SUM(correct), SUM(time_spent), COUNT(DISTINCT exam_record_id), " +
+            "SUM(POW(#{decay}, rn - 1) * correct), SUM(POW(#{decay}, rn - 1)), MAX(created_at) " +
+            "FROM (" +
+            "SELECT er.user_id, jt.kp_id, ar.exam_record_id, IF(ar.is_correct, 1, 0) AS correct, " +
+            "IFNULL(ar.time_spent, 0) AS time_spent, ar.created_at, " +
+            "ROW_NUMBER() OVER (PARTITION BY er.user_id, jt.kp_id ORDER BY ar.id DESC) AS rn " +
+            "FROM answer_records ar " +
+            "JOIN exam_records er ON er.id = ar.exam_record_id " +
+            "JOIN questions q ON q.id = ar.question_id " +
+            "JOIN JSON_TABLE(IF(JSON_VALID(q.knowledge_point_ids), q.knowledge_point_ids, '[]'), " +
+            "'$[*]' COLUMNS (kp_id BIGINT PATH '$')) jt " +
+            "WHERE jt.kp_id IS NOT NULL" +
+            ") h " +
+            "GROUP BY user_id, kp_id")
+    int rebuildFromAnswers(@Param("decay") double decay);
+}
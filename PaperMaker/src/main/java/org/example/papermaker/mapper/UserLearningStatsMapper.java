@@ -0,0 +1,114 @@
+package org.example.papermaker.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.example.papermaker.entity.UserLearningStatsEntity;
+
+/**
+ * 用户学习统计汇总Mapper接口
+ * 对应 user_learning_stats 表，每个用户一行，练习记录增删改时在同一事务内增量更新
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Mapper
+public interface UserLearningStatsMapper extends BaseMapper<UserLearningStatsEntity> {
+
+    String COLUMNS = "user_id, total_records, completed_records, in_progress_records, timeout_records, " +
+            "practice_records, exam_records, score_count, score_sum, score_min, score_max, " +
+            "accuracy_count, accuracy_sum, accuracy_min, accuracy_max, time_count, time_sum, time_min, time_max, " +
+            "duration_sum, total_questions, answered_questions, correct_answers, last_practice_time";
+
+    /** 与 ExamRecordServiceImpl 中按记录计算的口径一致 */
+    String AGGREGATE = "SELECT user_id, COUNT(*), " +
+            "SUM(status = 'COMPLETED'), SUM(status = 'IN_PROGRESS'), SUM(status = 'TIMEOUT'), " +
+            "SUM(exam_type = 'PRACTICE'), SUM(exam_type = 'EXAM'), " +
+            "COUNT(CASE WHEN score IS NOT NULL AND total_score > 0 THEN 1 END), " +
+            "IFNULL(SUM(CASE WHEN total_score > 0 THEN score END), 0), " +
+            "MIN(CASE WHEN total_score > 0 THEN score END), MAX(CASE WHEN total_score > 0 THEN score END), " +
+            "COUNT(accuracy), IFNULL(SUM(accuracy), 0), MIN(accuracy), MAX(accuracy), " +
+            "COUNT(CASE WHEN time_spent > 0 THEN 1 END), IFNULL(SUM(CASE WHEN time_spent > 0 THEN time_spent END), 0), " +
+            "MIN(CASE WHEN time_spent > 0 THEN time_spent END), MAX(CASE WHEN time_spent > 0 THEN time_spent END), " +
+            "IFNULL(SUM(TIMESTAMPDIFF(SECOND, start_time, end_time)), 0), " +
+            "IFNULL(SUM(total_questions), 0), IFNULL(SUM(answered_questions), 0), IFNULL(SUM(correct_answers), 0), " +
+            "MAX(start_time) " +
+            "FROM exam_records ";
+
+    /**
+     * 把一条记录的贡献（可为负）累加到用户的汇总行，汇总行不存在时插入
+     * 最小/最大值和最近练习时间只会向外扩展，移除边界值后需调用 {@link #rebuildUser} 重新计算；
+     * 计数不做截断，出现负数说明汇总已与练习记录不一致，由调用方重新计算
+     *
+     * @param d 增量，计数、求和字段可为负；极值字段为空表示不参与比较
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO user_learning_stats (" + COLUMNS + ") VALUES (" +
+            "#{d.userId}, #{d.totalRecords}, #{d.completedRecords}, #{d.inProgressRecords}, #{d.timeoutRecords}, " +
+            "#{d.practiceRecords}, #{d.examRecords}, " +
+            "#{d.scoreCount}, #{d.scoreSum}, #{d.scoreMin}, #{d.scoreMax}, " +
+            "#{d.accuracyCount}, #{d.accuracySum}, #{d.accuracyMin}, #{d.accuracyMax}, " +
+            "#{d.timeCount}, #{d.timeSum}, #{d.timeMin}, #{d.timeMax}, " +
+            "#{d.durationSum}, #{d.totalQuestions}, #{d.answeredQuestions}, #{d.correctAnswers}, " +
+            "#{d.lastPracticeTime}) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "total_records = total_records + #{d.totalRecords}, " +
+            "completed_records = completed_records + #{d.completedRecords}, " +
+            "in_progress_records = in_progress_records + #{d.inProgressRecords}, " +
+            "timeout_records = timeout_records + #{d.timeoutRecords}, " +
+            "practice_records = practice_records + #{d.practiceRecords}, " +
+            "exam_records = exam_records + #{d.examRecords}, " +
+            "score_count = score_count + #{d.scoreCount}, " +
+            "score_sum = score_sum + #{d.scoreSum}, " +
+            "score_min = COALESCE(LEAST(score_min, #{d.scoreMin}), score_min, #{d.scoreMin}), " +
+            "score_max = COALESCE(GREATEST(score_max, #{d.scoreMax}), score_max, #{d.scoreMax}), " +
+            "accuracy_count = accuracy_count + #{d.accuracyCount}, " +
+            "accuracy_sum = accuracy_sum + #{d.accuracySum}, " +
+            "accuracy_min = COALESCE(LEAST(accuracy_min, #{d.accuracyMin}), accuracy_min, #{d.accuracyMin}), " +
+            "accuracy_max = COALESCE(GREATEST(accuracy_max, #{d.accuracyMax}), accuracy_max, #{d.accuracyMax}), " +
+            "time_count = time_count + #{d.timeCount}, " +
+            "time_sum = time_sum + #{d.timeSum}, " +
+            "time_min = COALESCE(LEAST(time_min, #{d.timeMin}), time_min, #{d.timeMin}), " +
+            "time_max = COALESCE(GREATEST(time_max, #{d.timeMax}), time_max, #{d.timeMax}), " +
+            "duration_sum = duration_sum + #{d.durationSum}, " +
+            "total_questions = total_questions + #{d.totalQuestions}, " +
+            "answered_questions = answered_questions + #{d.answeredQuestions}, " +
+            "correct_answers = correct_answers + #{d.correctAnswers}, " +
+            "last_practice_time = COALESCE(GREATEST(last_practice_time, #{d.lastPracticeTime}), " +
+            "last_practice_time, #{d.lastPracticeTime})")
+    int applyDelta(@Param("d") UserLearningStatsEntity d);
+
+    /**
+     * 汇总表是否为空
+     */
+    @Select("SELECT COUNT(*) FROM user_learning_stats")
+    long countRows();
+
+    /**
+     * 清空汇总表
+     */
+    @Delete("DELETE FROM user_learning_stats")
+    int deleteAll();
+
+    /**
+     * 从 exam_records 表全量重新计算汇总
+     */
+    @Insert("INSERT INTO user_learning_stats (" + COLUMNS + ") " + AGGREGATE + "GROUP BY user_id")
+    int rebuildFromRecords();
+
+    /**
+     * 删除某用户的汇总行
+     */
+    @Delete("DELETE FROM user_learning_stats WHERE user_id = #{userId}")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * 从 exam_records 表重新计算某用户的汇总（需先删除原有行）
+     */
+    @Insert("INSERT INTO user_learning_stats (" + COLUMNS + ") " + AGGREGATE +
+            "WHERE user_id = #{userId} GROUP BY user_id")
+    int rebuildUser(@Param("userId") Long userId);
+}
@@ -1,38 +1,168 @@
 package org.example.papermaker.repository;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.ChatMessageDeserializer;
 import dev.langchain4j.data.message.ChatMessageSerializer;
 import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import jakarta.annotation.PostConstruct;
+import org.example.papermaker.service.RedisCircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
+/**
+ * 对话记忆存储在Redis中；Redis写入失败（熔断打开）时保留本地副本，
+ * 恢复后首次读取时把本地副本写回Redis（Redis中的内容已被其他节点改过时放弃本地副本）。
+ * 读取失败且本地没有副本时抛出 {@link UnavailableException}，不返回空记忆，
+ * 避免在空列表上追加消息后覆盖Redis中的历史；删除失败的会话在恢复后补删
+ */
 @Repository
 public class RedisChatMemoryStore implements ChatMemoryStore {
 
+    private static final Logger log = LoggerFactory.getLogger(RedisChatMemoryStore.class);
+
+    private static final Duration TTL = Duration.ofDays(1);
+
+    /** 对话记忆暂时无法读取 */
+    public static class UnavailableException extends RuntimeException {
+        public UnavailableException(Throwable cause) {
+            super("对话记忆暂时不可用，请稍后重试", cause);
+        }
+    }
+
+    /**
+     * 未写入Redis的本地副本
+     *
+     * @param base  副本所基于的Redis内容的摘要，未知时为null
+     * @param force 会话在副本之前被删除过，写回时直接覆盖
+     */
+    private record Local(String json, Integer base, boolean force) {
+    }
+
     @Autowired
     private StringRedisTemplate redisTemplate;
 
+    @Autowired
+    private RedisCircuitBreaker breaker;
+
+    /** 本地副本，只保存Redis写入失败的会话；淘汰即放弃未写回的修改 */
+    private final Cache<String, Local> fallback = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterAccess(TTL)
+            .build();
+
+    /** 最近一次从Redis读到或写入Redis的内容摘要，用于判断写回时Redis是否已被改过 */
+    private final Cache<String, Integer> remoteDigests = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(TTL)
+            .build();
+
+    /** 删除失败、待补删的会话 */
+    private final Set<String> pendingDeletes = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        breaker.onClose(this::replayDeletes);
+    }
+
     @Override
     public List<ChatMessage> getMessages(Object memoryId) {
-        String json = redisTemplate.opsForValue().get(memoryId);
-        List<ChatMessage> list = ChatMessageDeserializer.messagesFromJson(json);
-        return list;
+        String id = memoryId.toString();
+        if (pendingDeletes.contains(id)) {
+            // 已删除但Redis中可能还有旧内容
+            return new ArrayList<>();
+        }
+        String remote;
+        try {
+            remote = breaker.execute(() -> redisTemplate.opsForValue().get(id));
+        } catch (Exception e) {
+            Local local = fallback.getIfPresent(id);
+            if (local == null) {
+                throw new UnavailableException(e);
+            }
+            return ChatMessageDeserializer.messagesFromJson(local.json());
+        }
+        Local local = fallback.getIfPresent(id);
+        if (local == null) {
+            remoteDigests.put(id, digest(remote));
+            return ChatMessageDeserializer.messagesFromJson(remote);
+        }
+        if (remote == null || local.force() || (local.base() != null && local.base() == digest(remote))) {
+            // Redis仍是副本所基于的内容，写回本地副本
+            write(id, local.json(), local);
+            return ChatMessageDeserializer.messagesFromJson(local.json());
+        }
+        // 其他节点在此期间写过该会话，以Redis为准
+        log.warn("对话 {} 的本地副本基于过期内容，已放弃", id);
+        fallback.invalidate(id);
+        remoteDigests.put(id, digest(remote));
+        return ChatMessageDeserializer.messagesFromJson(remote);
     }
 
     @Override
     public void updateMessages(Object memoryId, List<ChatMessage> list) {
+        String id = memoryId.toString();
         String json = ChatMessageSerializer.messagesToJson(list);
-        redisTemplate.opsForValue().set(memoryId.toString(),json , Duration.ofDays(1));
+        boolean deleted = pendingDeletes.remove(id);
+        Local previous = fallback.getIfPresent(id);
+        write(id, json, new Local(json, previous != null ? previous.base() : remoteDigests.getIfPresent(id),
+                deleted || (previous != null && previous.force())));
     }
 
     @Override
     public void deleteMessages(Object memoryId) {
-        redisTemplate.delete(memoryId.toString());
+        String id = memoryId.toString();
+        fallback.invalidate(id);
+        remoteDigests.invalidate(id);
+        try {
+            breaker.execute(() -> redisTemplate.delete(id));
+        } catch (Exception e) {
+            pendingDeletes.add(id);
+            log.warn("删除对话 {} 失败，待Redis恢复后补删: {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * 写入Redis；失败时保存本地副本
+     */
+    private void write(String id, String json, Local local) {
+        try {
+            breaker.run(() -> redisTemplate.opsForValue().set(id, json, TTL));
+            fallback.invalidate(id);
+            remoteDigests.put(id, digest(json));
+        } catch (Exception e) {
+            fallback.put(id, local);
+        }
+    }
+
+    /**
+     * 熔断恢复后补删期间删除失败的会话
+     */
+    private void replayDeletes() {
+        List<String> ids = new ArrayList<>(pendingDeletes);
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            breaker.execute(() -> redisTemplate.delete(ids));
+            pendingDeletes.removeAll(ids);
+        } catch (Exception e) {
+            log.warn("补删 {} 个对话失败: {}", ids.size(), e.getMessage());
+        }
+    }
+
+    private static int digest(String json) {
+        return json == null ? 0 : json.hashCode();
     }
 }
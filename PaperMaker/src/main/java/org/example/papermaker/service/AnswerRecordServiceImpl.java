@@ -9,6 +9,7 @@ import org.example.papermaker.mapper.AnswerRecordMapper;
 import org.example.papermaker.mapper.QuestionMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -29,7 +30,11 @@ public class AnswerRecordServiceImpl extends ServiceImpl<AnswerRecordMapper, Ans
     @Autowired
     private SimilarityGradingService similarityGradingService;
 
+    @Autowired
+    private KnowledgeMasteryService knowledgeMasteryService;
+
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public boolean saveBatchAnswers(Long examRecordId, List<AnswerRecordEntity> answers) {
         if (answers == null || answers.isEmpty()) {
             return true;
@@ -53,7 +58,28 @@ public class AnswerRecordServiceImpl extends ServiceImpl<AnswerRecordMapper, Ans
             }
         }
 
-        return saveBatch(answers);
+        boolean success = saveBatch(answers);
+        if (success) {
+            // 同一事务内累加知识点掌握度
+            knowledgeMasteryService.onAnswersSaved(examRecordId, answers);
+        }
+        return success;
+    }
+
+    /**
+     * 更新答题记录；判定结果变化（如接受AI评分）时同步调整知识点答对次数
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean updateById(AnswerRecordEntity entity) {
+        AnswerRecordEntity before = entity.getIsCorrect() == null || entity.getId() == null
+                ? null
+                : answerRecordMapper.selectById(entity.getId());
+        boolean success = super.updateById(entity);
+        if (success && before != null) {
+            knowledgeMasteryService.onCorrectnessChanged(before, entity.getIsCorrect());
+        }
+        return success;
     }
 
     /**
@@ -0,0 +1,228 @@
+package org.example.papermaker.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存值编解码器
+ * 按键族（键前缀）选择序列化格式（JSON 或 Smile 二进制），超过阈值时再做 LZ4 压缩；
+ * 编码结果首字节记录格式和是否压缩，解码时据此识别，因此切换某个键族的格式不影响已写入的旧值，
+ * 首字节不是已知格式时按旧版纯JSON字符串解析
+ *
+ * 每个键族记录编码后大小、编码/解码耗时指标（cache.codec.*，标签 family）
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Component
+public class CacheCodec {
+
+    /** 序列化格式 */
+    public enum Format {
+        JSON((byte) 1), SMILE((byte) 2);
+
+        private final byte id;
+
+        Format(byte id) {
+            this.id = id;
+        }
+    }
+
+    /** 首字节压缩标记位 */
+    private static final byte COMPRESSED = (byte) 0x80;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /** 编码后超过该字节数才压缩，小值压缩收益不抵CPU开销 */
+    @Value("${feature.cache.codec.compress-threshold:1024}")
+    private int compressThreshold;
+
+    @Value("${feature.cache.codec.question-list:SMILE}")
+    private Format questionListFormat;
+
+    @Value("${feature.cache.codec.knowledge-point-list:SMILE}")
+    private Format knowledgePointListFormat;
+
+    @Value("${feature.cache.codec.question-stats:JSON}")
+    private Format questionStatsFormat;
+
+    @Value("${feature.cache.codec.user:SMILE}")
+    private Format userFormat;
+
+    @Value("${feature.cache.codec.default:JSON}")
+    private Format defaultFormat;
+
+    private final ObjectMapper json = configure(new ObjectMapper());
+    private final ObjectMapper smile = configure(new SmileMapper());
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    /** 键族：按前缀匹配，先匹配先用 */
+    private final List<Family> families = new ArrayList<>();
+    private Family defaultFamily;
+    private final Map<Family, Metrics> metrics = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        families.add(new Family("question-list", "v1:q:list:", questionListFormat));
+        families.add(new Family("knowledge-point-list", "v1:kp:list:", knowledgePointListFormat));
+        families.add(new Family("question-stats", "v1:q:stats:", questionStatsFormat));
+        families.add(new Family("user", UserRedisCacheService.USER_CACHE_PREFIX, userFormat));
+        defaultFamily = new Family("default", "", defaultFormat);
+    }
+
+    /**
+     * 编码缓存值
+     *
+     * @param key 缓存键（决定键族和格式）
+     */
+    public byte[] encode(String key, Object value) throws IOException {
+        Family family = familyOf(key);
+        Metrics m = metricsOf(family);
+        long start = System.nanoTime();
+        byte[] body = (family.format == Format.SMILE ? smile : json).writeValueAsBytes(value);
+        byte[] encoded;
+        if (body.length > compressThreshold) {
+            // 首字节 + 原始长度 + LZ4块
+            byte[] out = new byte[5 + compressor.maxCompressedLength(body.length)];
+            int compressedLength = compressor.compress(body, 0, body.length, out, 5);
+            out[0] = (byte) (family.format.id | COMPRESSED);
+            ByteBuffer.wrap(out, 1, 4).putInt(body.length);
+            encoded = Arrays.copyOf(out, 5 + compressedLength);
+        } else {
+            encoded = new byte[body.length + 1];
+            encoded[0] = family.format.id;
+            System.arraycopy(body, 0, encoded, 1, body.length);
+        }
+        m.encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        m.rawSize.record(body.length);
+        m.encodedSize.record(encoded.length);
+        return encoded;
+    }
+
+    /**
+     * 解码缓存值
+     */
+    public <T> T decode(String key, byte[] data, JavaType type) throws IOException {
+        Metrics m = metricsOf(familyOf(key));
+        long start = System.nanoTime();
+        try {
+            byte header = data[0];
+            boolean compressed = (header & COMPRESSED) != 0;
+            byte id = (byte) (header & ~COMPRESSED);
+            ObjectMapper mapper;
+            if (id == Format.SMILE.id) {
+                mapper = smile;
+            } else if (id == Format.JSON.id) {
+                mapper = json;
+            } else {
+                // 旧版纯JSON字符串
+                return json.readValue(new String(data, StandardCharsets.UTF_8), type);
+            }
+            if (compressed) {
+                int length = ByteBuffer.wrap(data, 1, 4).getInt();
+                byte[] body = new byte[length];
+                decompressor.decompress(data, 5, body, 0, length);
+                return mapper.readValue(body, type);
+            }
+            return mapper.readValue(data, 1, data.length - 1, type);
+        } finally {
+            m.decodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public <T> T decode(String key, byte[] data, Class<T> type) throws IOException {
+        return decode(key, data, TypeFactory.defaultInstance().constructType(type));
+    }
+
+    public TypeFactory getTypeFactory() {
+        return TypeFactory.defaultInstance();
+    }
+
+    private Family familyOf(String key) {
+        for (Family family : families) {
+            if (key.startsWith(family.prefix)) {
+                return family;
+            }
+        }
+        return defaultFamily;
+    }
+
+    private Metrics metricsOf(Family family) {
+        return metrics.computeIfAbsent(family, f -> new Metrics(meterRegistry, f));
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return mapper;
+    }
+
+    private static final class Family {
+        final String name;
+        final String prefix;
+        final Format format;
+
+        Family(String name, String prefix, Format format) {
+            this.name = name;
+            this.prefix = prefix;
+            this.format = format;
+        }
+    }
+
+    private static final class Metrics {
+        final Timer encodeTimer;
+        final Timer decodeTimer;
+        final DistributionSummary rawSize;
+        final DistributionSummary encodedSize;
+
+        Metrics(MeterRegistry registry, Family family) {
+            String format = family.format.name().toLowerCase();
+            encodeTimer = Timer.builder("cache.codec.encode")
+                    .description("缓存值编码耗时")
+                    .tag("family", family.name).tag("format", format)
+                    .register(registry);
+            decodeTimer = Timer.builder("cache.codec.decode")
+                    .description("缓存值解码耗时")
+                    .tag("family", family.name).tag("format", format)
+                    .register(registry);
+            rawSize = DistributionSummary.builder("cache.codec.raw.size")
+                    .description("压缩前的序列化大小")
+                    .baseUnit("bytes")
+                    .tag("family", family.name).tag("format", format)
+                    .register(registry);
+            encodedSize = DistributionSummary.builder("cache.codec.encoded.size")
+                    .description("写入Redis的大小")
+                    .baseUnit("bytes")
+                    .tag("family", family.name).tag("format", format)
+                    .register(registry);
+        }
+    }
+}
@@ -1,28 +1,124 @@
 package org.example.papermaker.service;
 
+/**
+ * 缓存键与版本命名空间
+ * 列表类缓存键中嵌入所依赖命名空间的版本标签（由 {@link RedisCacheService#versionTag} 生成），
+ * 数据变化时递增命名空间版本即可让其下所有键失效，旧版本的键由TTL自然过期
+ */
 public class CacheKeyBuilder {
-    public static String kpListSystemBySubject(String subjectKey) {
-        return "v1:kp:list:system:s:" + subjectKey;
+    public static String kpListSystemBySubject(String version, String subjectKey) {
+        return "v1:kp:list:system:g:" + version + ":s:" + subjectKey;
     }
 
-    public static String kpListUserBySubject(Long userId, String subjectKey) {
-        return "v1:kp:list:user:" + userId + ":s:" + subjectKey;
+    public static String kpListUserBySubject(String version, Long userId, String subjectKey) {
+        return "v1:kp:list:user:" + userId + ":g:" + version + ":s:" + subjectKey;
     }
 
-    public static String qListSystem(Integer page, Integer size, Long subjectId) {
+    public static String qListSystem(String version, Integer page, Integer size, Long subjectId) {
         String subj = subjectId == null ? "all" : String.valueOf(subjectId);
-        return "v1:q:list:system:s:" + subj + ":p:" + page + ":s:" + size;
+        return "v1:q:list:system:g:" + version + ":s:" + subj + ":p:" + page + ":s:" + size;
     }
 
-    public static String qListUser(Long userId, Integer page, Integer size, Long subjectId) {
+    public static String qListUser(String version, Long userId, Integer page, Integer size, Long subjectId) {
         String subj = subjectId == null ? "all" : String.valueOf(subjectId);
-        return "v1:q:list:user:" + userId + ":s:" + subj + ":p:" + page + ":s:" + size;
+        return "v1:q:list:user:" + userId + ":g:" + version + ":s:" + subj + ":p:" + page + ":s:" + size;
+    }
+
+    public static String qStats(String version, Long subjectId) {
+        String subj = subjectId == null ? "all" : String.valueOf(subjectId);
+        return "v1:q:stats:g:" + version + ":s:" + subj;
     }
 
     public static String lock(String key) {
         return "v1:lock:" + key;
     }
 
-    public static String idxKp(Long kpId) { return "v1:idx:kp:" + kpId; }
-    public static String idxQ(Long qId) { return "v1:idx:q:" + qId; }
-}
\ No newline at end of file
+    /** 命名空间版本计数器的键 */
+    public static String version(String namespace) {
+        return "v1:ver:" + namespace;
+    }
+
+    /** 全部题目列表（批量导入等无法细分学科的变更） */
+    public static String nsQuestions() {
+        return "q";
+    }
+
+    /** 某学科的全部题目（管理员视图），subjectId 为空表示不限学科的列表 */
+    public static String nsSubject(Long subjectId) {
+        return "q:s:" + (subjectId == null ? "all" : subjectId);
+    }
+
+    /** 某学科的系统题目（所有用户可见） */
+    public static String nsSubjectSystem(Long subjectId) {
+        return nsSubject(subjectId) + ":sys";
+    }
+
+    /** 某用户的个人题目 */
+    public static String nsUser(Long userId) {
+        return "u:" + userId;
+    }
+
+    /** 某学科（按学科名称）的知识点 */
+    public static String nsKnowledgePoints(String subjectKey) {
+        return "kp:s:" + subjectKey;
+    }
+
+    /** 从 {@link #nsSubject} 命名空间取回学科（学科ID或all），其他命名空间返回null */
+    public static String subjectOfNamespace(String namespace) {
+        String prefix = "q:s:";
+        if (!namespace.startsWith(prefix) || namespace.indexOf(':', prefix.length()) >= 0) {
+            return null;
+        }
+        return namespace.substring(prefix.length());
+    }
+
+    /** 从 {@link #nsKnowledgePoints} 命名空间取回学科名称，其他命名空间返回null */
+    public static String knowledgePointSubjectOfNamespace(String namespace) {
+        String prefix = "kp:s:";
+        return namespace.startsWith(prefix) ? namespace.substring(prefix.length()) : null;
+    }
+
+    /** 题目统计 */
+    public static String nsStats() {
+        return "q:stats";
+    }
+
+    /** 键族前缀，先匹配先用 */
+    private static final String[][] FAMILIES = {
+            {"v1:q:list:system:", "q:list:system"},
+            {"v1:q:list:user:", "q:list:user"},
+            {"v1:kp:list:system:", "kp:list:system"},
+            {"v1:kp:list:user:", "kp:list:user"},
+            {"v1:q:stats:", "q:stats"},
+            {UserRedisCacheService.USER_CACHE_PREFIX, "user"},
+    };
+
+    /**
+     * 缓存键所属的键族，用作指标标签（基数固定）；前缀也可以传入
+     */
+    public static String family(String key) {
+        for (String[] family : FAMILIES) {
+            if (key.startsWith(family[0])) {
+                return family[1];
+            }
+        }
+        return "other";
+    }
+
+    /**
+     * 命名空间的类别（去掉学科、用户等ID），用作指标标签
+     */
+    public static String namespaceKind(String namespace) {
+        if (namespace.equals(nsQuestions())) return "questions";
+        if (namespace.equals(nsStats())) return "q:stats";
+        if (namespace.startsWith("q:s:")) return namespace.endsWith(":sys") ? "subject-system" : "subject";
+        if (namespace.startsWith("u:")) return "user";
+        if (namespace.startsWith("kp:s:")) return "kp";
+        return "other";
+    }
+
+    /** 旧版反向索引集合（已不再写入，后台清理） */
+    public static String legacyIndexPattern() {
+        return "v1:idx:*";
+    }
+}
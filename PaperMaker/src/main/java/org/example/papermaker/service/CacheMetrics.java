@@ -0,0 +1,159 @@
+package org.example.papermaker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存指标
+ * 按键族（见 {@link CacheKeyBuilder#family}）统计命中（区分L1/L2）、未命中、错误、加载耗时、
+ * 写入大小和淘汰次数，通过Micrometer发布（cache.requests / cache.errors / cache.load /
+ * cache.payload.size / cache.evictions / cache.invalidations），/cache/stats 中按键族汇总
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Component
+public class CacheMetrics {
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, FamilyMeters> families = new ConcurrentHashMap<>();
+    private final Map<String, Counter> invalidations = new ConcurrentHashMap<>();
+
+    public void hit(String key, boolean local) {
+        FamilyMeters f = of(key);
+        (local ? f.l1Hits : f.l2Hits).increment();
+    }
+
+    public void miss(String key) {
+        of(key).misses.increment();
+    }
+
+    /**
+     * @param operation read / write / load
+     */
+    public void error(String key, String operation) {
+        FamilyMeters f = of(key);
+        f.errors.computeIfAbsent(operation, op -> Counter.builder("cache.errors")
+                .description("缓存读写或加载失败次数")
+                .tag("family", f.family).tag("operation", op)
+                .register(meterRegistry)).increment();
+    }
+
+    public void recordLoad(String key, long nanos) {
+        of(key).load.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPayload(String key, int bytes) {
+        of(key).payload.record(bytes);
+    }
+
+    /**
+     * @param cause explicit（主动删除）/ size（L1容量淘汰）/ expired（L1过期）
+     */
+    public void eviction(String key, String cause) {
+        FamilyMeters f = of(key);
+        f.evictions.computeIfAbsent(cause, c -> Counter.builder("cache.evictions")
+                .description("缓存条目淘汰次数")
+                .tag("family", f.family).tag("cause", c)
+                .register(meterRegistry)).increment();
+    }
+
+    /**
+     * 命名空间版本递增（一次使整个命名空间失效）
+     */
+    public void invalidation(String namespace) {
+        String kind = CacheKeyBuilder.namespaceKind(namespace);
+        invalidations.computeIfAbsent(kind, k -> Counter.builder("cache.invalidations")
+                .description("命名空间版本递增次数")
+                .tag("namespace", k)
+                .register(meterRegistry)).increment();
+    }
+
+    /**
+     * 按键族汇总，用于 /cache/stats
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new TreeMap<>();
+        families.forEach((family, f) -> {
+            long l1 = (long) f.l1Hits.count();
+            long l2 = (long) f.l2Hits.count();
+            long misses = (long) f.misses.count();
+            long requests = l1 + l2 + misses;
+            Map<String, Object> m = new TreeMap<>();
+            m.put("l1Hits", l1);
+            m.put("l2Hits", l2);
+            m.put("misses", misses);
+            m.put("hitRate", requests == 0 ? 0.0 : (double) (l1 + l2) / requests);
+            m.put("errors", sum(f.errors));
+            m.put("evictions", sum(f.evictions));
+            m.put("loads", f.load.count());
+            m.put("loadAvgMs", f.load.mean(TimeUnit.MILLISECONDS));
+            m.put("loadMaxMs", f.load.max(TimeUnit.MILLISECONDS));
+            m.put("writes", f.payload.count());
+            m.put("payloadAvgBytes", f.payload.mean());
+            m.put("payloadMaxBytes", f.payload.max());
+            result.put(family, m);
+        });
+        Map<String, Object> bumps = new TreeMap<>();
+        invalidations.forEach((kind, counter) -> bumps.put(kind, (long) counter.count()));
+        result.put("namespaceInvalidations", bumps);
+        return result;
+    }
+
+    private FamilyMeters of(String key) {
+        return families.computeIfAbsent(CacheKeyBuilder.family(key), f -> new FamilyMeters(meterRegistry, f));
+    }
+
+    private static long sum(Map<String, Counter> counters) {
+        long total = 0;
+        for (Counter c : counters.values()) {
+            total += (long) c.count();
+        }
+        return total;
+    }
+
+    private static final class FamilyMeters {
+        final String family;
+        final Counter l1Hits;
+        final Counter l2Hits;
+        final Counter misses;
+        final Timer load;
+        final DistributionSummary payload;
+        final Map<String, Counter> errors = new ConcurrentHashMap<>();
+        final Map<String, Counter> evictions = new ConcurrentHashMap<>();
+
+        FamilyMeters(MeterRegistry registry, String family) {
+            this.family = family;
+            l1Hits = request(registry, family, "hit_l1");
+            l2Hits = request(registry, family, "hit_l2");
+            misses = request(registry, family, "miss");
+            load = Timer.builder("cache.load")
+                    .description("未命中时从数据库加载的耗时")
+                    .tag("family", family)
+                    .register(registry);
+            payload = DistributionSummary.builder("cache.payload.size")
+                    .description("写入Redis的值大小")
+                    .baseUnit("bytes")
+                    .tag("family", family)
+                    .register(registry);
+        }
+
+        private static Counter request(MeterRegistry registry, String family, String result) {
+            return Counter.builder("cache.requests")
+                    .description("缓存读取次数")
+                    .tag("family", family).tag("result", result)
+                    .register(registry);
+        }
+    }
+}
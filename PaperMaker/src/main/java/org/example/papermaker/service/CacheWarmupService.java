@@ -0,0 +1,420 @@
+package org.example.papermaker.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.papermaker.config.VirtualThreadSupport;
+import org.example.papermaker.entity.SubjectEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存预热
+ * 启动后在后台预加载热点缓存，避免部署或清空Redis后的首批请求全部落到数据库：
+ * 各学科（含不限学科）题目列表的前N页、各学科系统知识点列表，以及学科映射
+ * （刷新学科映射时会按学科读取知识点列表，各学科的知识点缓存随之回填）。
+ * 本节点递增命名空间版本后，只预热依赖这些命名空间的目标，不重新列举学科、不刷新整个学科映射
+ *
+ * 预热目标格式：q:&lt;学科ID|all&gt;:&lt;页码&gt;:&lt;每页条数&gt;（管理员视图）、
+ * u:&lt;用户ID&gt;:&lt;学科ID|all&gt;:&lt;页码&gt;:&lt;每页条数&gt;（普通用户视图）或 kp:&lt;学科名称&gt;，
+ * 可通过 feature.cache.warmup.hot-keys 追加；开启 learn 时按访问频次追加最常访问的目标
+ * （普通用户视图按用户区分，只来自配置和学习）。
+ * 加载仍走各服务的读缓存路径（含合并加载），已缓存的目标不会重复查库
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Service
+public class CacheWarmupService {
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    /** 访问计数最多跟踪的目标数，超出后不再记录新目标 */
+    private static final int MAX_TRACKED = 10_000;
+
+    @Autowired
+    private VirtualThreadSupport virtualThreads;
+
+    @Autowired
+    private ObjectProvider<QuestionService> questionService;
+
+    @Autowired
+    private ObjectProvider<KnowledgePointService> knowledgePointService;
+
+    @Autowired
+    private ObjectProvider<SubjectService> subjectService;
+
+    @Value("${feature.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${feature.cache.warmup.enabled:true}")
+    private boolean enabled;
+
+    /** 每个学科预热的题目列表页数 */
+    @Value("${feature.cache.warmup.pages:1}")
+    private int pages;
+
+    /** 与题目列表接口的默认每页条数一致，否则预热的键不会被请求命中 */
+    @Value("${feature.cache.warmup.page-size:1000}")
+    private int pageSize;
+
+    /** 并发加载线程数，避免预热本身压垮数据库 */
+    @Value("${feature.cache.warmup.threads:2}")
+    private int threads;
+
+    /** 额外的热点目标，逗号分隔 */
+    @Value("${feature.cache.warmup.hot-keys:}")
+    private List<String> hotKeys;
+
+    /** 是否按访问频次学习热点目标 */
+    @Value("${feature.cache.warmup.learn:true}")
+    private boolean learn;
+
+    /** 学习到的热点目标取前多少个 */
+    @Value("${feature.cache.warmup.learned-top:50}")
+    private int learnedTop;
+
+    /** 失效后等待多久再预热，合并批量导入等连续失效 */
+    @Value("${feature.cache.warmup.debounce-ms:2000}")
+    private long debounceMillis;
+
+    private ThreadPoolExecutor executor;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cache-warmup-scheduler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<String, LongAdder> accessCounts = new ConcurrentHashMap<>();
+
+    /** 预热线程自身的读取不计入访问频次 */
+    private static final ThreadLocal<Boolean> WARMING = ThreadLocal.withInitial(() -> false);
+
+    /** 等待预热的命名空间，防抖期内的失效合并为一次预热 */
+    private final Set<String> pendingNamespaces = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private final AtomicLong warmed = new AtomicLong(0);
+    private final AtomicLong failed = new AtomicLong(0);
+    private final AtomicLong skipped = new AtomicLong(0);
+    private volatile long lastRunAt;
+
+    @PostConstruct
+    public void init() {
+        int size = Math.max(1, threads);
+        executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1024),
+                virtualThreads.threadFactory("cache-warmup"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * 启动完成后全量预热（学科映射由 SubjectMappingInitializer 在此之前加载）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        if (!isActive()) return;
+        scheduler.execute(() -> runWarmup(null));
+    }
+
+    /**
+     * 本节点递增命名空间版本后，延迟合并再预热受影响的目标；
+     * 其他节点只清除L1，不重复预热
+     */
+    @EventListener
+    public void onInvalidated(RedisCacheService.NamespacesInvalidated event) {
+        if (!isActive()) return;
+        pendingNamespaces.addAll(event.namespaces());
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(this::flushPending, debounceMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * 记录一次题目列表访问（管理员视图），用于学习热点目标
+     */
+    public void recordQuestionPage(Long subjectId, long current, long size) {
+        record(questionTarget(subjectId, current, size));
+    }
+
+    /**
+     * 记录一次题目列表访问（普通用户视图），用于学习热点目标
+     */
+    public void recordUserQuestionPage(Long userId, Long subjectId, long current, long size) {
+        record(userQuestionTarget(userId, subjectId, current, size));
+    }
+
+    /**
+     * 记录一次知识点列表访问，用于学习热点目标
+     */
+    public void recordKnowledgePoints(String subjectKey) {
+        record("kp:" + subjectKey);
+    }
+
+    /**
+     * 立即全量预热（管理接口手动触发）
+     */
+    public void warmAll() {
+        if (!isActive()) return;
+        scheduler.execute(() -> runWarmup(null));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new java.util.HashMap<>();
+        m.put("enabled", enabled);
+        m.put("warmed", warmed.get());
+        m.put("failed", failed.get());
+        m.put("skipped", skipped.get());
+        m.put("queued", executor.getQueue().size());
+        m.put("lastRunAt", lastRunAt);
+        m.put("tracked", accessCounts.size());
+        m.put("learned", learnedTargets());
+        return m;
+    }
+
+    private boolean isActive() {
+        return enabled && cacheEnabled;
+    }
+
+    private void record(String target) {
+        if (!learn || WARMING.get()) return;
+        LongAdder counter = accessCounts.get(target);
+        if (counter == null) {
+            if (accessCounts.size() >= MAX_TRACKED) return;
+            counter = accessCounts.computeIfAbsent(target, t -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    private void flushPending() {
+        flushScheduled.set(false);
+        Set<String> namespaces = new LinkedHashSet<>(pendingNamespaces);
+        pendingNamespaces.removeAll(namespaces);
+        if (!namespaces.isEmpty()) {
+            runWarmup(namespaces);
+        }
+    }
+
+    /**
+     * @param namespaces 只预热受这些命名空间影响的目标；null 表示全部
+     */
+    private void runWarmup(Set<String> namespaces) {
+        lastRunAt = System.currentTimeMillis();
+        boolean refreshMapping = namespaces == null;
+        Set<String> targets = new LinkedHashSet<>();
+        if (refreshMapping) {
+            Set<String> mappedSubjects = new java.util.HashSet<>(SubjectMapping.getAllSubjectNames());
+            for (String target : allTargets()) {
+                // 已由学科映射刷新加载的知识点列表不重复提交
+                if (target.startsWith("kp:") && mappedSubjects.contains(target.substring(3))) continue;
+                targets.add(target);
+            }
+            // 学科映射的关键词来自知识点列表，刷新映射的同时回填各学科知识点缓存
+            submit("subjects", () -> subjectService.getObject().refreshSubjectMapping());
+        } else {
+            targets = affectedTargets(namespaces);
+        }
+        for (String target : targets) {
+            submit(target, () -> warm(target));
+        }
+        if (namespaces == null) {
+            decay();
+        }
+        log.info("缓存预热已提交 {} 个目标{}", targets.size(), refreshMapping ? "，并刷新学科映射" : "");
+    }
+
+    /**
+     * 依赖这些命名空间的目标：默认目标直接由命名空间推出（学科题目列表、学科知识点列表），
+     * 配置和学习到的目标逐个判断；只有批量导入等全局失效才需要列举所有学科
+     */
+    private Set<String> affectedTargets(Set<String> namespaces) {
+        Set<String> candidates = new LinkedHashSet<>();
+        if (namespaces.contains(CacheKeyBuilder.nsQuestions())) {
+            candidates.addAll(allTargets());
+        } else {
+            for (String ns : namespaces) {
+                String kpSubject = CacheKeyBuilder.knowledgePointSubjectOfNamespace(ns);
+                String subject = CacheKeyBuilder.subjectOfNamespace(ns);
+                if (kpSubject != null) {
+                    candidates.add("kp:" + kpSubject);
+                } else if (subject != null) {
+                    Long subjectId = "all".equals(subject) ? null : Long.valueOf(subject);
+                    for (int page = 1; page <= pages; page++) {
+                        candidates.add(questionTarget(subjectId, page, pageSize));
+                    }
+                }
+            }
+            candidates.addAll(configuredTargets());
+            candidates.addAll(learnedTargets());
+        }
+        Set<String> targets = new LinkedHashSet<>();
+        for (String target : candidates) {
+            if (affected(target, namespaces)) {
+                targets.add(target);
+            }
+        }
+        return targets;
+    }
+
+    private void submit(String target, Runnable task) {
+        try {
+            executor.execute(() -> {
+                WARMING.set(true);
+                try {
+                    task.run();
+                    warmed.incrementAndGet();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.warn("缓存预热失败 {}: {}", target, e.getMessage());
+                } finally {
+                    WARMING.remove();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            skipped.incrementAndGet();
+        }
+    }
+
+    private void warm(String target) {
+        String[] parts = target.split(":", 2);
+        if ("kp".equals(parts[0])) {
+            knowledgePointService.getObject().getBySubject(parts[1]);
+            return;
+        }
+        String[] q = parts[1].split(":");
+        if ("u".equals(parts[0])) {
+            Long subjectId = "all".equals(q[1]) ? null : Long.valueOf(q[1]);
+            questionService.getObject().getQuestionsForUser(Long.valueOf(q[0]), Long.valueOf(q[2]),
+                    Long.valueOf(q[3]), subjectId);
+            return;
+        }
+        Long subjectId = "all".equals(q[0]) ? null : Long.valueOf(q[0]);
+        questionService.getObject().getAllQuestions(Long.valueOf(q[1]), Long.valueOf(q[2]), subjectId);
+    }
+
+    /**
+     * 默认目标 + 配置的热点目标 + 学习到的热点目标
+     */
+    private Set<String> allTargets() {
+        Set<String> targets = new LinkedHashSet<>();
+        List<Long> subjectIds = new ArrayList<>();
+        subjectIds.add(null);
+        List<SubjectEntity> subjects;
+        try {
+            subjects = subjectService.getObject().getAllActiveSubjects();
+        } catch (Exception e) {
+            log.warn("读取学科失败，仅预热不限学科的列表: {}", e.getMessage());
+            subjects = List.of();
+        }
+        for (SubjectEntity subject : subjects) {
+            subjectIds.add(subject.getId());
+        }
+        for (Long subjectId : subjectIds) {
+            for (int page = 1; page <= pages; page++) {
+                targets.add(questionTarget(subjectId, page, pageSize));
+            }
+        }
+        targets.addAll(configuredTargets());
+        targets.addAll(learnedTargets());
+        return targets;
+    }
+
+    private List<String> configuredTargets() {
+        if (hotKeys == null) return List.of();
+        List<String> targets = new ArrayList<>();
+        for (String key : hotKeys) {
+            if (isValidTarget(key.trim())) {
+                targets.add(key.trim());
+            }
+        }
+        return targets;
+    }
+
+    private List<String> learnedTargets() {
+        if (!learn) return List.of();
+        return accessCounts.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .limit(learnedTop)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * 计数减半，使热点随访问变化而更替
+     */
+    private void decay() {
+        accessCounts.entrySet().removeIf(e -> {
+            long half = e.getValue().sumThenReset() / 2;
+            e.getValue().add(half);
+            return half == 0;
+        });
+    }
+
+    /**
+     * 目标是否依赖某个已失效的命名空间（与 QuestionServiceImpl / KnowledgePointService 中的版本标签一致）
+     */
+    private static boolean affected(String target, Set<String> namespaces) {
+        if (target.startsWith("kp:")) {
+            return namespaces.contains(CacheKeyBuilder.nsKnowledgePoints(target.substring(3)));
+        }
+        if (target.startsWith("u:")) {
+            String[] parts = target.split(":");
+            Long subjectId = "all".equals(parts[2]) ? null : Long.valueOf(parts[2]);
+            return namespaces.contains(CacheKeyBuilder.nsQuestions())
+                    || namespaces.contains(CacheKeyBuilder.nsSubjectSystem(subjectId))
+                    || namespaces.contains(CacheKeyBuilder.nsUser(Long.valueOf(parts[1])));
+        }
+        String subject = target.split(":")[1];
+        return namespaces.contains(CacheKeyBuilder.nsQuestions())
+                || namespaces.contains("all".equals(subject)
+                        ? CacheKeyBuilder.nsSubject(null) : CacheKeyBuilder.nsSubject(Long.valueOf(subject)));
+    }
+
+    private static boolean isValidTarget(String target) {
+        if (target.startsWith("kp:")) {
+            return target.length() > 3;
+        }
+        return target.matches("q:(all|\\d+):\\d+:\\d+") || target.matches("u:\\d+:(all|\\d+):\\d+:\\d+");
+    }
+
+    private static String questionTarget(Long subjectId, long current, long size) {
+        return "q:" + (subjectId == null ? "all" : subjectId) + ":" + current + ":" + size;
+    }
+
+    private static String userQuestionTarget(Long userId, Long subjectId, long current, long size) {
+        return "u:" + userId + ":" + (subjectId == null ? "all" : subjectId) + ":" + current + ":" + size;
+    }
+}
@@ -18,6 +18,16 @@ public interface ExamPaperService extends IService<ExamPaperEntity> {
      */
     java.util.List<java.util.Map<String, Object>> getPaperQuestions(Long paperId);
 
+    /**
+     * 批量获取多张试卷的题目列表，题目关联、题目、学科、知识点各用一次批量查询
+     *
+     * @param subjectLoader 学科加载器，传入请求级加载器可与调用方共用一次学科查询；为null时内部新建
+     * @return 试卷ID到题目列表，没有题目的试卷对应空列表
+     */
+    java.util.Map<Long, java.util.List<java.util.Map<String, Object>>> getPaperQuestionsBatch(
+            java.util.Collection<Long> paperIds,
+            org.example.papermaker.util.BatchLoader<Long, org.example.papermaker.entity.SubjectEntity> subjectLoader);
+
     /**
      * 添加题目到试卷
      */
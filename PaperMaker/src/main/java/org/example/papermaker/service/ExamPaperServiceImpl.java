@@ -10,13 +10,17 @@ import org.example.papermaker.entity.QuestionEntity;
 import org.example.papermaker.entity.SubjectEntity;
 import org.example.papermaker.entity.KnowledgePointEntity;
 import org.example.papermaker.mapper.*;
+import org.example.papermaker.util.BatchLoader;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -25,6 +29,9 @@ import java.util.stream.Collectors;
 @Service
 public class ExamPaperServiceImpl extends ServiceImpl<ExamPaperMapper, ExamPaperEntity> implements ExamPaperService {
 
+    /** 单次 IN 查询的最大试卷ID数量 */
+    private static final int PAPER_BATCH_SIZE = 500;
+
     @Resource
     private KnowledgePointMapper knowledgePointMapper;
 
@@ -58,76 +65,111 @@ public class ExamPaperServiceImpl extends ServiceImpl<ExamPaperMapper, ExamPaper
             }
 
             // 注意：权限检查应该在Controller层完成，这里只做数据查询
-            // 查询试卷题目关联
-            LambdaQueryWrapper<ExamPaperQuestionEntity> wrapper = new LambdaQueryWrapper<>();
-            wrapper.eq(ExamPaperQuestionEntity::getPaperId, paperId);
-            wrapper.orderByAsc(ExamPaperQuestionEntity::getQuestionOrder);
-
-            List<ExamPaperQuestionEntity> paperQuestions = examPaperQuestionMapper.selectList(wrapper);
-            List<Map<String, Object>> result = new ArrayList<>();
-
-            for (ExamPaperQuestionEntity paperQuestion : paperQuestions) {
-                // 查询题目详情
-                QuestionEntity question = questionMapper.selectById(paperQuestion.getQuestionId());
-                if (question != null) {
-                    Map<String, Object> questionData = new HashMap<>();
-                    questionData.put("id", paperQuestion.getId());
-                    questionData.put("questionId", question.getId());
-                    questionData.put("questionOrder", paperQuestion.getQuestionOrder());
-                    questionData.put("score", paperQuestion.getScore());
-                    questionData.put("title", question.getTitle());
-                    questionData.put("type", question.getType());
-                    questionData.put("difficulty", question.getDifficulty());
-                    questionData.put("options", question.getOptionsList());
-                    questionData.put("correctAnswer", question.getCorrectAnswer());
-                    questionData.put("explanation", question.getExplanation());
-                    questionData.put("subjectId", question.getSubjectId());
-                    // 如果题目有学科ID，查询学科名称
-                    if (question.getSubjectId() != null) {
-                        SubjectEntity subject = subjectMapper.selectById(question.getSubjectId());
-                        if (subject != null && subject.getName() != null) {
-                            questionData.put("subject", subject.getName());
-                        }
-                    }
-                    questionData.put("isSystem", question.getIsSystem());
-                    questionData.put("creatorId", question.getCreatorId());
-                    questionData.put("createdAt", question.getCreatedAt());
-                    questionData.put("updatedAt", question.getUpdatedAt());
-
-                    // 返回知识点ID和名称列表
-                    List<Long> knowledgePointIds = question.getKnowledgePointIdsList();
-                    questionData.put("knowledgePointIds", question.getKnowledgePointIds());
-                    questionData.put("knowledgePointIdsList", knowledgePointIds);
-
-                    // 查询并返回知识点名称列表
-                    List<String> knowledgePointNames = new ArrayList<>();
-                    List<Map<String, Object>> knowledgePointDetails = new ArrayList<>();
-                    if (knowledgePointIds != null && !knowledgePointIds.isEmpty()) {
-                        for (Long kpId : knowledgePointIds) {
-                            if (kpId != null) {
-                                KnowledgePointEntity kp = knowledgePointMapper.selectById(kpId);
-                                if (kp != null && kp.getName() != null) {
-                                    knowledgePointNames.add(kp.getName());
-                                    Map<String, Object> kpDetail = new HashMap<>();
-                                    kpDetail.put("id", kp.getId());
-                                    kpDetail.put("name", kp.getName());
-                                    knowledgePointDetails.add(kpDetail);
-                                }
-                            }
-                        }
-                    }
-                    questionData.put("knowledgePoints", knowledgePointNames);
-                    questionData.put("knowledgePointDetails", knowledgePointDetails);
-                    questionData.put("tags", new ArrayList<>());
+            return getPaperQuestionsBatch(List.of(paperId), null).get(paperId);
+        } catch (Exception e) {
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public Map<Long, List<Map<String, Object>>> getPaperQuestionsBatch(Collection<Long> paperIds,
+            BatchLoader<Long, SubjectEntity> subjectLoader) {
+        Map<Long, List<Map<String, Object>>> result = new HashMap<>();
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long paperId : paperIds) {
+            if (paperId != null) {
+                ids.add(paperId);
+                result.put(paperId, new ArrayList<>());
+            }
+        }
+        if (ids.isEmpty()) {
+            return result;
+        }
 
-                    result.add(questionData);
+        // 所有试卷的题目关联一次 IN 查询
+        List<ExamPaperQuestionEntity> paperQuestions = new ArrayList<>();
+        List<Long> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += PAPER_BATCH_SIZE) {
+            paperQuestions.addAll(examPaperQuestionMapper.selectList(new LambdaQueryWrapper<ExamPaperQuestionEntity>()
+                    .in(ExamPaperQuestionEntity::getPaperId,
+                            idList.subList(from, Math.min(from + PAPER_BATCH_SIZE, idList.size())))
+                    .orderByAsc(ExamPaperQuestionEntity::getPaperId)
+                    .orderByAsc(ExamPaperQuestionEntity::getQuestionOrder)));
+        }
+
+        // 题目、学科、知识点分别批量解析
+        BatchLoader<Long, QuestionEntity> questions = new BatchLoader<>(questionMapper::selectBatchIds, QuestionEntity::getId);
+        BatchLoader<Long, SubjectEntity> subjects = subjectLoader != null
+                ? subjectLoader
+                : new BatchLoader<>(subjectMapper::selectBatchIds, SubjectEntity::getId);
+        BatchLoader<Long, KnowledgePointEntity> knowledgePoints = new BatchLoader<>(
+                knowledgePointMapper::selectBatchIds, KnowledgePointEntity::getId);
+        for (ExamPaperQuestionEntity paperQuestion : paperQuestions) {
+            questions.prime(paperQuestion.getQuestionId());
+        }
+        questions.dispatch();
+        for (ExamPaperQuestionEntity paperQuestion : paperQuestions) {
+            QuestionEntity question = questions.load(paperQuestion.getQuestionId());
+            if (question != null) {
+                subjects.prime(question.getSubjectId());
+                knowledgePoints.primeAll(question.getKnowledgePointIdsList());
+            }
+        }
+
+        for (ExamPaperQuestionEntity paperQuestion : paperQuestions) {
+            QuestionEntity question = questions.load(paperQuestion.getQuestionId());
+            if (question == null) {
+                continue;
+            }
+            Map<String, Object> questionData = new HashMap<>();
+            questionData.put("id", paperQuestion.getId());
+            questionData.put("questionId", question.getId());
+            questionData.put("questionOrder", paperQuestion.getQuestionOrder());
+            questionData.put("score", paperQuestion.getScore());
+            questionData.put("title", question.getTitle());
+            questionData.put("type", question.getType());
+            questionData.put("difficulty", question.getDifficulty());
+            questionData.put("options", question.getOptionsList());
+            questionData.put("correctAnswer", question.getCorrectAnswer());
+            questionData.put("explanation", question.getExplanation());
+            questionData.put("subjectId", question.getSubjectId());
+            // 如果题目有学科ID，补充学科名称
+            if (question.getSubjectId() != null) {
+                SubjectEntity subject = subjects.load(question.getSubjectId());
+                if (subject != null && subject.getName() != null) {
+                    questionData.put("subject", subject.getName());
+                }
+            }
+            questionData.put("isSystem", question.getIsSystem());
+            questionData.put("creatorId", question.getCreatorId());
+            questionData.put("createdAt", question.getCreatedAt());
+            questionData.put("updatedAt", question.getUpdatedAt());
+
+            // 返回知识点ID和名称列表
+            List<Long> knowledgePointIds = question.getKnowledgePointIdsList();
+            questionData.put("knowledgePointIds", question.getKnowledgePointIds());
+            questionData.put("knowledgePointIdsList", knowledgePointIds);
+
+            List<String> knowledgePointNames = new ArrayList<>();
+            List<Map<String, Object>> knowledgePointDetails = new ArrayList<>();
+            if (knowledgePointIds != null) {
+                for (KnowledgePointEntity kp : knowledgePoints.loadMany(knowledgePointIds).values()) {
+                    if (kp.getName() != null) {
+                        knowledgePointNames.add(kp.getName());
+                        Map<String, Object> kpDetail = new HashMap<>();
+                        kpDetail.put("id", kp.getId());
+                        kpDetail.put("name", kp.getName());
+                        knowledgePointDetails.add(kpDetail);
+                    }
                 }
             }
+            questionData.put("knowledgePoints", knowledgePointNames);
+            questionData.put("knowledgePointDetails", knowledgePointDetails);
+            questionData.put("tags", new ArrayList<>());
 
-            return result;
-        } catch (Exception e) {
-            return new ArrayList<>();
+            result.get(paperQuestion.getPaperId()).add(questionData);
         }
+        return result;
     }
 
     @Override
@@ -241,10 +283,12 @@ public class ExamPaperServiceImpl extends ServiceImpl<ExamPaperMapper, ExamPaper
         }
 
         List<ExamPaperEntity> filteredPapers = new ArrayList<>();
+        Map<Long, List<Map<String, Object>>> questionsByPaper = getPaperQuestionsBatch(
+                papers.stream().map(ExamPaperEntity::getId).collect(Collectors.toList()), null);
 
         for (ExamPaperEntity paper : papers) {
             // 获取试卷的所有题目
-            List<Map<String, Object>> questions = getPaperQuestions(paper.getId());
+            List<Map<String, Object>> questions = questionsByPaper.get(paper.getId());
 
             // 检查是否有题目属于指定学科
             boolean hasSubject = false;
@@ -1,5 +1,6 @@
 package org.example.papermaker.service;
 
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
 import org.example.papermaker.entity.ExamRecordEntity;
 
@@ -71,6 +72,28 @@ public interface ExamRecordService extends IService<ExamRecordEntity> {
             String startDate,
             String endDate);
 
+    /**
+     * 根据条件分页搜索练习记录，按开始时间倒序
+     *
+     * @param current 当前页码
+     * @param size    每页大小
+     */
+    IPage<ExamRecordEntity> searchRecordsPage(Long userId, String paperTitle,
+            ExamRecordEntity.ExamStatus status,
+            ExamRecordEntity.ExamType type,
+            String subjectId,
+            String startDate,
+            String endDate,
+            long current,
+            long size);
+
+    /**
+     * 获取用户最近一条进行中的练习记录
+     *
+     * @param paperId 试卷ID，为空时不限定试卷
+     */
+    ExamRecordEntity getLatestInProgress(Long userId, Long paperId);
+
     /**
      * Get wrong questions for a user
      */
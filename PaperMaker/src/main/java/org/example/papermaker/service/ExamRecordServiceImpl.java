@@ -1,24 +1,28 @@
 package org.example.papermaker.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import jakarta.annotation.Resource;
 import org.example.papermaker.entity.ExamRecordEntity;
 import org.example.papermaker.entity.ExamPaperEntity;
 import org.example.papermaker.entity.QuestionEntity;
 import org.example.papermaker.entity.AnswerRecordEntity;
-import org.example.papermaker.entity.KnowledgePointEntity;
 import org.example.papermaker.entity.SubjectEntity;
+import org.example.papermaker.entity.UserLearningStatsEntity;
 import org.example.papermaker.mapper.ExamRecordMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -31,6 +35,7 @@ public class ExamRecordServiceImpl extends ServiceImpl<ExamRecordMapper, ExamRec
         implements ExamRecordService {
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public boolean recalculateScore(Long examRecordId) {
         ExamRecordEntity record = getById(examRecordId);
         if (record == null)
@@ -172,13 +177,77 @@ public class ExamRecordServiceImpl extends ServiceImpl<ExamRecordMapper, ExamRec
     private QuestionService questionService;
 
     @Resource
-    private KnowledgePointService knowledgePointService;
+    private AnswerRecordService answerRecordService;
 
     @Resource
-    private AnswerRecordService answerRecordService;
+    private LearningStatisticsService learningStatisticsService;
+
+    @Resource
+    private KnowledgePointStatisticsService knowledgePointStatisticsService;
+
+    @Resource
+    private KnowledgeMasteryService knowledgeMasteryService;
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * 新增练习记录，并在同一事务内累加用户学习统计
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean save(ExamRecordEntity entity) {
+        boolean success = super.save(entity);
+        if (success) {
+            learningStatisticsService.onCreated(entity);
+        }
+        return success;
+    }
+
+    /**
+     * 更新练习记录（完成、改分、保存进度），并在同一事务内调整用户学习统计
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean updateById(ExamRecordEntity entity) {
+        ExamRecordEntity before = entity.getId() == null ? null : baseMapper.selectById(entity.getId());
+        boolean success = super.updateById(entity);
+        if (success && before != null) {
+            // 只更新非空字段，与数据库中的最终值保持一致
+            ExamRecordEntity after = new ExamRecordEntity();
+            after.setUserId(entity.getUserId() != null ? entity.getUserId() : before.getUserId());
+            after.setStatus(entity.getStatus() != null ? entity.getStatus() : before.getStatus());
+            after.setExamType(entity.getExamType() != null ? entity.getExamType() : before.getExamType());
+            after.setScore(entity.getScore() != null ? entity.getScore() : before.getScore());
+            after.setTotalScore(entity.getTotalScore() != null ? entity.getTotalScore() : before.getTotalScore());
+            after.setAccuracy(entity.getAccuracy() != null ? entity.getAccuracy() : before.getAccuracy());
+            after.setTimeSpent(entity.getTimeSpent() != null ? entity.getTimeSpent() : before.getTimeSpent());
+            after.setStartTime(entity.getStartTime() != null ? entity.getStartTime() : before.getStartTime());
+            after.setEndTime(entity.getEndTime() != null ? entity.getEndTime() : before.getEndTime());
+            after.setTotalQuestions(
+                    entity.getTotalQuestions() != null ? entity.getTotalQuestions() : before.getTotalQuestions());
+            after.setAnsweredQuestions(entity.getAnsweredQuestions() != null ? entity.getAnsweredQuestions()
+                    : before.getAnsweredQuestions());
+            after.setCorrectAnswers(
+                    entity.getCorrectAnswers() != null ? entity.getCorrectAnswers() : before.getCorrectAnswers());
+            learningStatisticsService.onUpdated(before, after);
+        }
+        return success;
+    }
+
+    /**
+     * 删除练习记录，并在同一事务内扣减用户学习统计
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean removeById(Serializable id) {
+        ExamRecordEntity before = id == null ? null : baseMapper.selectById(id);
+        boolean success = super.removeById(id);
+        if (success && before != null) {
+            learningStatisticsService.onDeleted(before);
+        }
+        return success;
+    }
+
     @Override
     public List<ExamRecordEntity> getRecordsByUserId(Long userId) {
         try {
@@ -216,132 +285,77 @@ public class ExamRecordServiceImpl extends ServiceImpl<ExamRecordMapper, ExamRec
 
     @Override
     public Map<String, Object> getStatisticsByUserId(Long userId) {
-        List<ExamRecordEntity> records = getRecordsByUserId(userId);
+        UserLearningStatsEntity stats = learningStatisticsService.getStats(userId);
 
         Map<String, Object> statistics = new HashMap<>();
 
         // 总记录数
-        statistics.put("totalRecords", records.size());
+        statistics.put("totalRecords", stats.getTotalRecords());
 
         // 完成记录数
-        long completedCount = records.stream()
-                .filter(r -> r.getStatus() == ExamRecordEntity.ExamStatus.COMPLETED)
-                .count();
-        statistics.put("completedRecords", completedCount);
+        statistics.put("completedRecords", (long) stats.getCompletedRecords());
 
         // 平均正确率
-        double averageAccuracy = records.stream()
-                .filter(r -> r.getAccuracy() != null)
-                .mapToDouble(ExamRecordEntity::getAccuracy)
-                .average()
-                .orElse(0.0);
+        double averageAccuracy = stats.getAccuracyCount() > 0
+                ? stats.getAccuracySum() / stats.getAccuracyCount()
+                : 0.0;
         statistics.put("averageAccuracy", Math.round(averageAccuracy));
 
         // 总练习时间（秒）
-        long totalTime = records.stream()
-                .filter(r -> r.getStartTime() != null && r.getEndTime() != null)
-                .mapToLong(r -> java.time.Duration.between(r.getStartTime(), r.getEndTime()).getSeconds())
-                .sum();
-        statistics.put("totalTime", totalTime);
+        statistics.put("totalTime", stats.getDurationSum());
 
         // 练习模式记录数
-        long practiceCount = records.stream()
-                .filter(r -> r.getExamType() == ExamRecordEntity.ExamType.PRACTICE)
-                .count();
-        statistics.put("practiceRecords", practiceCount);
+        statistics.put("practiceRecords", (long) stats.getPracticeRecords());
 
         // 考试模式记录数
-        long examCount = records.stream()
-                .filter(r -> r.getExamType() == ExamRecordEntity.ExamType.EXAM)
-                .count();
-        statistics.put("examRecords", examCount);
+        statistics.put("examRecords", (long) stats.getExamRecords());
 
         return statistics;
     }
 
     @Override
     public Map<String, Object> getOverallStatistics(Long userId) {
-        List<ExamRecordEntity> records = getRecordsByUserId(userId);
+        UserLearningStatsEntity stats = learningStatisticsService.getStats(userId);
 
         Map<String, Object> statistics = new HashMap<>();
 
         // 基础统计
-        int totalRecords = records.size();
-        long completedCount = records.stream()
-                .filter(r -> r.getStatus() == ExamRecordEntity.ExamStatus.COMPLETED)
-                .count();
-        long inProgressCount = records.stream()
-                .filter(r -> r.getStatus() == ExamRecordEntity.ExamStatus.IN_PROGRESS)
-                .count();
-        long timeoutCount = records.stream()
-                .filter(r -> r.getStatus() == ExamRecordEntity.ExamStatus.TIMEOUT)
-                .count();
+        int totalRecords = stats.getTotalRecords();
+        long completedCount = stats.getCompletedRecords();
+        long inProgressCount = stats.getInProgressRecords();
+        long timeoutCount = stats.getTimeoutRecords();
 
         // 得分统计
-        List<Double> scores = records.stream()
-                .filter(r -> r.getScore() != null && r.getTotalScore() != null && r.getTotalScore() > 0)
-                .map(r -> r.getScore())
-                .collect(java.util.stream.Collectors.toList());
-
-        double totalScore = scores.stream().mapToDouble(Double::doubleValue).sum();
-        double maxScore = scores.isEmpty() ? 0 : scores.stream().mapToDouble(Double::doubleValue).max().orElse(0);
-        double minScore = scores.isEmpty() ? 0 : scores.stream().mapToDouble(Double::doubleValue).min().orElse(0);
-        double avgScore = scores.isEmpty() ? 0.0
-                : scores.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        int scoreCount = stats.getScoreCount();
+        double totalScore = stats.getScoreSum();
+        double maxScore = scoreCount > 0 && stats.getScoreMax() != null ? stats.getScoreMax() : 0;
+        double minScore = scoreCount > 0 && stats.getScoreMin() != null ? stats.getScoreMin() : 0;
+        double avgScore = scoreCount > 0 ? totalScore / scoreCount : 0.0;
 
         // 正确率统计
-        List<Double> accuracies = records.stream()
-                .filter(r -> r.getAccuracy() != null)
-                .map(ExamRecordEntity::getAccuracy)
-                .collect(java.util.stream.Collectors.toList());
-
-        double avgAccuracy = accuracies.isEmpty() ? 0.0
-                : accuracies.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        double maxAccuracy = accuracies.isEmpty() ? 0.0
-                : accuracies.stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
-        double minAccuracy = accuracies.isEmpty() ? 0.0
-                : accuracies.stream().mapToDouble(Double::doubleValue).min().orElse(0.0);
+        int accuracyCount = stats.getAccuracyCount();
+        double avgAccuracy = accuracyCount > 0 ? stats.getAccuracySum() / accuracyCount : 0.0;
+        double maxAccuracy = accuracyCount > 0 && stats.getAccuracyMax() != null ? stats.getAccuracyMax() : 0.0;
+        double minAccuracy = accuracyCount > 0 && stats.getAccuracyMin() != null ? stats.getAccuracyMin() : 0.0;
 
         // 时间统计（秒）
-        List<Long> timeSpents = records.stream()
-                .filter(r -> r.getTimeSpent() != null && r.getTimeSpent() > 0)
-                .map(r -> r.getTimeSpent().longValue())
-                .collect(java.util.stream.Collectors.toList());
-
-        long totalTime = timeSpents.stream().mapToLong(Long::longValue).sum();
-        long avgTime = timeSpents.isEmpty() ? 0
-                : (long) timeSpents.stream().mapToLong(Long::longValue).average().orElse(0.0);
-        long maxTime = timeSpents.isEmpty() ? 0 : timeSpents.stream().mapToLong(Long::longValue).max().orElse(0);
-        long minTime = timeSpents.isEmpty() ? 0 : timeSpents.stream().mapToLong(Long::longValue).min().orElse(0);
+        int timeCount = stats.getTimeCount();
+        long totalTime = stats.getTimeSum();
+        long avgTime = timeCount > 0 ? (long) ((double) totalTime / timeCount) : 0;
+        long maxTime = timeCount > 0 && stats.getTimeMax() != null ? stats.getTimeMax() : 0;
+        long minTime = timeCount > 0 && stats.getTimeMin() != null ? stats.getTimeMin() : 0;
 
         // 答题数量统计
-        int totalQuestions = records.stream()
-                .filter(r -> r.getTotalQuestions() != null)
-                .mapToInt(ExamRecordEntity::getTotalQuestions)
-                .sum();
-        int totalAnswered = records.stream()
-                .filter(r -> r.getAnsweredQuestions() != null)
-                .mapToInt(ExamRecordEntity::getAnsweredQuestions)
-                .sum();
-        int totalCorrect = records.stream()
-                .filter(r -> r.getCorrectAnswers() != null)
-                .mapToInt(ExamRecordEntity::getCorrectAnswers)
-                .sum();
+        int totalQuestions = stats.getTotalQuestions();
+        int totalAnswered = stats.getAnsweredQuestions();
+        int totalCorrect = stats.getCorrectAnswers();
 
         // 练习模式 vs 考试模式
-        long practiceCount = records.stream()
-                .filter(r -> r.getExamType() == ExamRecordEntity.ExamType.PRACTICE)
-                .count();
-        long examCount = records.stream()
-                .filter(r -> r.getExamType() == ExamRecordEntity.ExamType.EXAM)
-                .count();
+        long practiceCount = stats.getPracticeRecords();
+        long examCount = stats.getExamRecords();
 
         // 最近练习时间
-        LocalDateTime lastPracticeTime = records.stream()
-                .filter(r -> r.getStartTime() != null)
-                .map(ExamRecordEntity::getStartTime)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
+        LocalDateTime lastPracticeTime = stats.getLastPracticeTime();
 
         // 构建统计结果（结构化数据，适合LLM使用）
         statistics.put("summary", Map.of(
@@ -357,13 +371,13 @@ public class ExamRecordServiceImpl extends ServiceImpl<ExamRecordMapper, ExamRec
                 "averageScore", String.format("%.2f", avgScore),
                 "maxScore", maxScore,
                 "minScore", minScore,
-                "scoreCount", scores.size()));
+                "scoreCount", scoreCount));
 
         statistics.put("accuracyStatistics", Map.of(
                 "averageAccuracy", String.format("%.2f", avgAccuracy) + "%",
                 "maxAccuracy", String.format("%.2f", maxAccuracy) + "%",
                 "minAccuracy", String.format("%.2f", minAccuracy) + "%",
-                "accuracyCount", accuracies.size()));
+                "accuracyCount", accuracyCount));
 
         statistics.put("timeStatistics", Map.of(
                 "totalTimeSeconds", totalTime,
@@ -395,15 +409,7 @@ public class ExamRecordServiceImpl extends ServiceImpl<ExamRecordMapper, ExamRec
         statistics.put("lastPracticeTime", lastPracticeTime != null ? lastPracticeTime.toString() : "无");
 
         // 添加时间趋势数据（最近7天的练习次数）
-        Map<String, Integer> dailyPracticeCount = new HashMap<>();
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-        records.stream()
-                .filter(r -> r.getStartTime() != null && r.getStartTime().isAfter(sevenDaysAgo))
-                .forEach(r -> {
-                    String dateKey = r.getStartTime().toLocalDate().toString();
-                    dailyPracticeCount.put(dateKey, dailyPracticeCount.getOrDefault(dateKey, 0) + 1);
-                });
-        statistics.put("recentPracticeTrend", dailyPracticeCount);
+        statistics.put("recentPracticeTrend", learningStatisticsService.getDailyPracticeCount(userId, 7));
 
         return statistics;
     }
@@ -414,46 +420,12 @@ public class ExamRecordServiceImpl extends ServiceImpl<ExamRecordMapper, ExamRec
         Map<String, Object> result = new HashMap<>();
         Map<String, Map<String, Object>> subjectStats = new HashMap<>();
 
+        // 试卷、学科批量查询后按字典查找
+        Map<Long, String> subjectNames = knowledgePointStatisticsService.resolveSubjectNames(records);
+
         // 统计每个学科的数据
         for (ExamRecordEntity record : records) {
-            String subjectName = "未知学科";
-            try {
-                if (record.getPaperId() != null) {
-                    ExamPaperEntity paper = examPaperService.getById(record.getPaperId());
-                    if (paper != null && paper.getSubjectId() != null) {
-                        String subjectIdStr = paper.getSubjectId().trim();
-
-                        // 尝试按ID查询（如果是数字字符串）
-                        try {
-                            Long subjectId = Long.parseLong(subjectIdStr);
-                            SubjectEntity subject = subjectService.getById(subjectId);
-                            if (subject != null && subject.getName() != null) {
-                                subjectName = subject.getName();
-                            } else {
-                                // ID存在但学科不存在，尝试按名称查询
-                                SubjectEntity subjectByName = subjectService.getByName(subjectIdStr);
-                                if (subjectByName != null && subjectByName.getName() != null) {
-                                    subjectName = subjectByName.getName();
-                                }
-                            }
-                        } catch (NumberFormatException e) {
-                            // 如果不是数字，尝试按名称查询（如"综合"）
-                            SubjectEntity subjectByName = subjectService.getByName(subjectIdStr);
-                            if (subjectByName != null && subjectByName.getName() != null) {
-                                subjectName = subjectByName.getName();
-                            } else {
-                                // 如果按名称也查不到，使用原始值（如果它看起来像学科名称）
-                                // 否则使用"未知学科"
-                                if (!subjectIdStr.isEmpty() && !subjectIdStr.equals("综合")) {
-                                    subjectName = subjectIdStr; // 可能是学科名称
-                                }
-                            }
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                log.warn("获取试卷学科信息失败: {}", e.getMessage());
-            }
+            String subjectName = subjectNames.get(record.getId());
 
             // 确保 subjectName 不为空
             if (subjectName == null || subjectName.trim().isEmpty()) {
@@ -566,167 +538,44 @@ public class ExamRecordServiceImpl extends ServiceImpl<ExamRecordMapper, ExamRec
 
     @Override
     public Map<String, Object> getSubjectKnowledgePointStatistics(Long userId) {
-        List<ExamRecordEntity> records = getRecordsByUserId(userId);
         Map<String, Object> result = new HashMap<>();
 
         // 按学科->知识点分组统计
         // 结构：Map<学科名, Map<知识点名, 统计数据>>
-        Map<String, Map<String, Map<String, Object>>> subjectKpStats = new HashMap<>();
-
-        // 记录每个知识点在哪些exam_record中出现过（用于统计练习次数）
-        Map<String, Set<Long>> kpRecordMap = new HashMap<>(); // key: "学科名:知识点名", value: exam_record_id集合
-
-        // 遍历所有练习记录
-        for (ExamRecordEntity record : records) {
-            try {
-                // 获取试卷的学科
-                String subjectName = "未知学科";
-                if (record.getPaperId() != null) {
-                    ExamPaperEntity paper = examPaperService.getById(record.getPaperId());
-                    if (paper != null && paper.getSubjectId() != null) {
-                        String subjectIdStr = paper.getSubjectId().trim();
-
-                        // 尝试按ID查询（如果是数字字符串）
-                        try {
-                            Long subjectId = Long.parseLong(subjectIdStr);
-                            SubjectEntity subject = subjectService.getById(subjectId);
-                            if (subject != null && subject.getName() != null) {
-                                subjectName = subject.getName();
-                            } else {
-                                // ID存在但学科不存在，尝试按名称查询
-                                SubjectEntity subjectByName = subjectService.getByName(subjectIdStr);
-                                if (subjectByName != null && subjectByName.getName() != null) {
-                                    subjectName = subjectByName.getName();
-                                }
-                            }
-                        } catch (NumberFormatException e) {
-                            // 如果不是数字，尝试按名称查询（如"综合"）
-                            SubjectEntity subjectByName = subjectService.getByName(subjectIdStr);
-                            if (subjectByName != null && subjectByName.getName() != null) {
-                                subjectName = subjectByName.getName();
-                            } else {
-                                // 如果按名称也查不到，使用原始值（如果它看起来像学科名称）
-                                // 否则使用"未知学科"
-                                if (!subjectIdStr.isEmpty() && !subjectIdStr.equals("综合")) {
-                                    subjectName = subjectIdStr; // 可能是学科名称
-                                }
-                            }
-                        } catch (Exception e) {
-                            log.warn("获取学科信息失败: {}", e.getMessage());
-                        }
-                    }
-                }
-
-                // 获取该记录的所有答题记录
-                List<AnswerRecordEntity> answerRecords = answerRecordService.lambdaQuery()
-                        .eq(AnswerRecordEntity::getExamRecordId, record.getId())
-                        .list();
-
-                // 遍历答题记录，统计知识点
-                for (AnswerRecordEntity answerRecord : answerRecords) {
-                    if (answerRecord.getQuestionId() == null)
-                        continue;
-
-                    // 获取题目
-                    QuestionEntity question = questionService.getById(answerRecord.getQuestionId());
-                    if (question == null)
-                        continue;
-
-                    // 获取题目的知识点ID列表
-                    List<Long> knowledgePointIds = question.getKnowledgePointIdsList();
-                    if (knowledgePointIds == null || knowledgePointIds.isEmpty())
-                        continue;
-
-                    // 遍历知识点
-                    for (Long kpId : knowledgePointIds) {
-                        try {
-                            KnowledgePointEntity knowledgePoint = knowledgePointService.getById(kpId);
-                            if (knowledgePoint == null)
-                                continue;
-
-                            String kpName = knowledgePoint.getName();
-                            if (kpName == null || kpName.trim().isEmpty())
-                                continue;
-
-                            // 初始化学科统计
-                            if (!subjectKpStats.containsKey(subjectName)) {
-                                subjectKpStats.put(subjectName, new HashMap<>());
-                            }
-
-                            Map<String, Map<String, Object>> kpStatsMap = subjectKpStats.get(subjectName);
-
-                            // 初始化知识点统计
-                            if (!kpStatsMap.containsKey(kpName)) {
-                                Map<String, Object> kpStats = new HashMap<>();
-                                kpStats.put("knowledgePointName", kpName);
-                                kpStats.put("questionCount", 0);
-                                kpStats.put("correctCount", 0);
-                                kpStats.put("totalTimeSeconds", 0L);
-                                kpStatsMap.put(kpName, kpStats);
-                            }
-
-                            Map<String, Object> kpStats = kpStatsMap.get(kpName);
-
-                            // 统计题目数
-                            kpStats.put("questionCount", (Integer) kpStats.get("questionCount") + 1);
-
-                            // 统计正确数
-                            if (answerRecord.getIsCorrect() != null && answerRecord.getIsCorrect()) {
-                                kpStats.put("correctCount", (Integer) kpStats.get("correctCount") + 1);
-                            }
-
-                            // 统计用时
-                            if (answerRecord.getTimeSpent() != null) {
-                                kpStats.put("totalTimeSeconds",
-                                        (Long) kpStats.get("totalTimeSeconds")
-                                                + answerRecord.getTimeSpent().longValue());
-                            }
-
-                            // 记录该知识点出现在此exam_record中（用于统计练习次数）
-                            String kpKey = subjectName + ":" + kpName;
-                            if (!kpRecordMap.containsKey(kpKey)) {
-                                kpRecordMap.put(kpKey, new HashSet<>());
-                            }
-                            kpRecordMap.get(kpKey).add(record.getId());
-
-                        } catch (Exception e) {
-                            log.warn("处理知识点 {} 统计失败: {}", kpId, e.getMessage());
-                        }
-                    }
-                }
-
-            } catch (Exception e) {
-                log.warn("处理练习记录 {} 统计失败: {}", record.getId(), e.getMessage());
-            }
+        Map<String, Map<String, KnowledgePointStatisticsService.KnowledgePointStat>> subjectKpStats;
+        if (knowledgeMasteryService.isEnabled()) {
+            // 读取按知识点维护的掌握度，学科为知识点所属学科
+            subjectKpStats = knowledgeMasteryService.getByUser(userId);
+        } else {
+            // 答题记录、题目、知识点按层批量查询，学科为试卷所属学科
+            List<ExamRecordEntity> records = getRecordsByUserId(userId);
+            Map<Long, String> subjectNames = knowledgePointStatisticsService.resolveSubjectNames(records);
+            subjectKpStats = knowledgePointStatisticsService.aggregate(records, r -> subjectNames.get(r.getId()));
         }
 
         // 转换为返回格式
         List<Map<String, Object>> subjectList = new ArrayList<>();
-        for (Map.Entry<String, Map<String, Map<String, Object>>> subjectEntry : subjectKpStats.entrySet()) {
+        for (Map.Entry<String, Map<String, KnowledgePointStatisticsService.KnowledgePointStat>> subjectEntry
+                : subjectKpStats.entrySet()) {
             String subjectName = subjectEntry.getKey();
-            Map<String, Map<String, Object>> kpStatsMap = subjectEntry.getValue();
 
             Map<String, Object> subjectData = new HashMap<>();
             subjectData.put("subjectName", subjectName);
 
             List<Map<String, Object>> knowledgePoints = new ArrayList<>();
-            for (Map.Entry<String, Map<String, Object>> kpEntry : kpStatsMap.entrySet()) {
-                String kpName = kpEntry.getKey();
-                Map<String, Object> kpStats = kpEntry.getValue();
-
-                int questionCount = (Integer) kpStats.get("questionCount");
-                int correctCount = (Integer) kpStats.get("correctCount");
-                long totalTimeSeconds = (Long) kpStats.get("totalTimeSeconds");
+            for (KnowledgePointStatisticsService.KnowledgePointStat kpStats : subjectEntry.getValue().values()) {
+                int questionCount = kpStats.getQuestionCount();
+                int correctCount = kpStats.getCorrectCount();
+                long totalTimeSeconds = kpStats.getTotalTimeSeconds();
 
-                // 从kpRecordMap获取练习次数（不同exam_record的数量）
-                String kpKey = subjectName + ":" + kpName;
-                int practiceCount = kpRecordMap.containsKey(kpKey) ? kpRecordMap.get(kpKey).size() : 0;
+                // 练习次数（不同exam_record的数量）
+                int practiceCount = kpStats.getPracticeCount();
 
                 // 计算正确率
                 double accuracy = questionCount > 0 ? (correctCount * 100.0 / questionCount) : 0.0;
 
                 Map<String, Object> kpData = new HashMap<>();
-                kpData.put("knowledgePointName", kpStats.get("knowledgePointName"));
+                kpData.put("knowledgePointName", kpStats.getKnowledgePointName());
                 kpData.put("practiceCount", practiceCount);
                 kpData.put("questionCount", questionCount);
                 kpData.put("correctCount", correctCount);
@@ -736,6 +585,9 @@ public class ExamRecordServiceImpl extends ServiceImpl<ExamRecordMapper, ExamRec
                 kpData.put("averageTimeSeconds", questionCount > 0 ? totalTimeSeconds / questionCount : 0);
                 kpData.put("averageTimeFormatted",
                         formatTime(questionCount > 0 ? totalTimeSeconds / questionCount : 0));
+                if (kpStats.getMastery() != null) {
+                    kpData.put("mastery", String.format("%.2f", kpStats.getMastery()) + "%");
+                }
 
                 knowledgePoints.add(kpData);
             }
@@ -785,6 +637,7 @@ public class ExamRecordServiceImpl extends ServiceImpl<ExamRecordMapper, ExamRec
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public boolean createRecord(ExamRecordEntity record) {
         try {
             log.info("开始保存练习记录 - 试卷ID: {}, 用户ID: {}, 得分: {}/{}",
@@ -856,12 +709,14 @@ public class ExamRecordServiceImpl extends ServiceImpl<ExamRecordMapper, ExamRec
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public boolean updateRecord(ExamRecordEntity record) {
         record.setUpdatedAt(LocalDateTime.now());
         return updateById(record);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public boolean deleteRecord(Long recordId) {
         return removeById(recordId);
     }
@@ -873,106 +728,74 @@ public class ExamRecordServiceImpl extends ServiceImpl<ExamRecordMapper, ExamRec
             String subjectId,
             String startDate,
             String endDate) {
-        LambdaQueryWrapper<ExamRecordEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(ExamRecordEntity::getUserId, userId);
+        return baseMapper.searchList(userId, trimToNull(paperTitle), status, type, resolveSubjectKeys(subjectId),
+                parseDate(startDate, "T00:00:00"), parseDate(endDate, "T23:59:59"));
+    }
 
-        if (paperTitle != null && !paperTitle.trim().isEmpty()) {
-            // 这里需要关联试卷表查询，暂时用paperId模拟
-            // wrapper.like(ExamRecordEntity::getPaperId, paperTitle);
-        }
+    @Override
+    public IPage<ExamRecordEntity> searchRecordsPage(Long userId, String paperTitle,
+            ExamRecordEntity.ExamStatus status,
+            ExamRecordEntity.ExamType type,
+            String subjectId,
+            String startDate,
+            String endDate,
+            long current,
+            long size) {
+        return baseMapper.searchPage(new Page<>(current, size), userId, trimToNull(paperTitle), status, type,
+                resolveSubjectKeys(subjectId),
+                parseDate(startDate, "T00:00:00"), parseDate(endDate, "T23:59:59"));
+    }
 
-        if (status != null) {
-            wrapper.eq(ExamRecordEntity::getStatus, status);
-        }
+    @Override
+    public ExamRecordEntity getLatestInProgress(Long userId, Long paperId) {
+        return baseMapper.selectLatestInProgress(userId, paperId);
+    }
 
-        if (type != null) {
-            wrapper.eq(ExamRecordEntity::getExamType, type);
+    /**
+     * 学科筛选条件对应的试卷学科字段取值：试卷的学科字段可能存储学科ID，也可能存储学科名称
+     *
+     * @return 为null表示不按学科筛选
+     */
+    private List<String> resolveSubjectKeys(String subjectId) {
+        if (subjectId == null || subjectId.trim().isEmpty() || subjectId.equals("ALL")) {
+            return null;
         }
-
-        // 日期范围筛选
-        if (startDate != null && !startDate.trim().isEmpty()) {
-            try {
-                LocalDateTime startDateTime = LocalDateTime.parse(startDate.trim() + "T00:00:00");
-                wrapper.ge(ExamRecordEntity::getStartTime, startDateTime);
-            } catch (Exception e) {
-                log.warn("解析开始日期失败: {}", startDate, e);
-            }
+        String value = subjectId.trim();
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(value);
+        SubjectEntity filterSubject;
+        try {
+            Long subjectIdLong = Long.parseLong(value);
+            keys.add(String.valueOf(subjectIdLong));
+            filterSubject = subjectService.getById(subjectIdLong);
+        } catch (NumberFormatException e) {
+            // 如果subjectId不是数字，尝试按名称查询
+            filterSubject = subjectService.getByName(value);
         }
-
-        if (endDate != null && !endDate.trim().isEmpty()) {
-            try {
-                LocalDateTime endDateTime = LocalDateTime.parse(endDate.trim() + "T23:59:59");
-                wrapper.le(ExamRecordEntity::getStartTime, endDateTime);
-            } catch (Exception e) {
-                log.warn("解析结束日期失败: {}", endDate, e);
+        if (filterSubject != null) {
+            if (filterSubject.getId() != null) {
+                keys.add(String.valueOf(filterSubject.getId()));
             }
-        }
-
-        wrapper.orderByDesc(ExamRecordEntity::getStartTime);
-        List<ExamRecordEntity> allRecords = list(wrapper);
-
-        // 如果指定了学科ID，根据试卷的学科进行筛选
-        if (subjectId != null && !subjectId.trim().isEmpty() && !subjectId.equals("ALL")) {
-            List<ExamRecordEntity> filteredRecords = new ArrayList<>();
-
-            // 先通过学科ID获取学科信息（用于后续匹配）
-            SubjectEntity filterSubject = null;
-            String filterSubjectName = null;
-            try {
-                Long subjectIdLong = Long.parseLong(subjectId);
-                filterSubject = subjectService.getById(subjectIdLong);
-                if (filterSubject != null) {
-                    filterSubjectName = filterSubject.getName();
-                }
-            } catch (NumberFormatException e) {
-                // 如果subjectId不是数字，尝试按名称查询
-                filterSubject = subjectService.getByName(subjectId);
-                if (filterSubject != null) {
-                    filterSubjectName = filterSubject.getName();
-                }
+            if (filterSubject.getName() != null && !filterSubject.getName().trim().isEmpty()) {
+                keys.add(filterSubject.getName());
             }
+        }
+        return new ArrayList<>(keys);
+    }
 
-            for (ExamRecordEntity record : allRecords) {
-                if (record.getPaperId() != null) {
-                    try {
-                        ExamPaperEntity paper = examPaperService.getById(record.getPaperId());
-                        if (paper != null && paper.getSubjectId() != null) {
-                            String paperSubjectId = paper.getSubjectId().trim();
-                            boolean match = false;
-
-                            // 情况1: 直接ID匹配（如果试卷的subjectId存储的是学科ID）
-                            if (paperSubjectId.equals(subjectId)) {
-                                match = true;
-                            }
-                            // 情况2: 学科名称匹配（如果试卷的subjectId存储的是学科名称）
-                            else if (filterSubjectName != null && paperSubjectId.equals(filterSubjectName)) {
-                                match = true;
-                            }
-                            // 情况3: 尝试将试卷的subjectId解析为数字，然后与学科ID比较
-                            else {
-                                try {
-                                    Long paperSubjectIdLong = Long.parseLong(paperSubjectId);
-                                    Long subjectIdLong = Long.parseLong(subjectId);
-                                    if (paperSubjectIdLong.equals(subjectIdLong)) {
-                                        match = true;
-                                    }
-                                } catch (NumberFormatException e) {
-                                    // 如果都解析失败，说明都是名称，已经在情况2中处理
-                                }
-                            }
-
-                            if (match) {
-                                filteredRecords.add(record);
-                            }
-                        }
-                    } catch (Exception e) {
-                        log.warn("获取试卷 {} 的学科信息失败: {}", record.getPaperId(), e.getMessage());
-                    }
-                }
-            }
-            return filteredRecords;
+    private LocalDateTime parseDate(String date, String timeSuffix) {
+        if (date == null || date.trim().isEmpty()) {
+            return null;
         }
+        try {
+            return LocalDateTime.parse(date.trim() + timeSuffix);
+        } catch (Exception e) {
+            log.warn("解析日期失败: {}", date, e);
+            return null;
+        }
+    }
 
-        return allRecords;
+    private static String trimToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
     }
 }
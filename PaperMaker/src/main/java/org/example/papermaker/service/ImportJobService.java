@@ -0,0 +1,664 @@
+package org.example.papermaker.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.example.papermaker.config.VirtualThreadSupport;
+import org.example.papermaker.context.UserContextPropagation;
+import org.example.papermaker.dto.QuestionImportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 题目异步导入任务服务
+ * 上传内容先落到临时文件，立即返回任务ID，导入在有界线程池中执行；
+ * 每块提交后更新断点并通过SSE推送进度（已读取、已导入、失败、重复），
+ * 任务失败时保留临时文件和断点，可从最后提交的块继续导入
+ *
+ * 断点只记录游标（已提交的行数、计数和明细条数），每块提交后把新增的明细追加到Redis，
+ * 任务状态和断点因此在服务重启后仍可查询；重启时未结束的任务记为失败，可从断点继续
+ * （临时文件保存在本机，只能由原实例继续）。Redis不可用时任务仍在内存中执行。
+ * 结束超过保留时间的任务连同临时文件和Redis记录一起清理
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    /** SSE连接超时 */
+    private static final long EMITTER_TIMEOUT_MS = Duration.ofMinutes(30).toMillis();
+
+    /** 任务记录键前缀：哈希保存任务信息和游标，:errors/:duplicates/:successIds 列表保存明细 */
+    private static final String KEY_PREFIX = "question:import-job:";
+
+    /** 所有未清理任务的ID集合，启动时据此恢复 */
+    private static final String INDEX_KEY = "question:import-jobs";
+
+    /** 未结束任务的Redis记录有效期，每块提交时刷新 */
+    private static final Duration ACTIVE_TTL = Duration.ofDays(1);
+
+    @Resource
+    private VirtualThreadSupport virtualThreads;
+
+    @Resource
+    private QuestionImportService questionImportService;
+
+    @Resource
+    private StringRedisTemplate redisTemplate;
+
+    @Resource
+    private RedisCircuitBreaker breaker;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Value("${question.import.job-threads:2}")
+    private int threads;
+
+    @Value("${question.import.job-queue-capacity:8}")
+    private int queueCapacity;
+
+    @Value("${question.import.job-retention-minutes:60}")
+    private long retentionMinutes;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 导入来源
+     */
+    public enum Kind {
+        JSON(".json"), EXCEL(".xlsx"), WORD(".docx");
+
+        private final String extension;
+
+        Kind(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * 任务状态
+     */
+    public enum Status {
+        PENDING, RUNNING, SUCCEEDED, FAILED
+    }
+
+    /** 线程池已满，任务未能提交 */
+    public static class BusyException extends RuntimeException {
+        public BusyException() {
+            super("导入任务过多，请稍后重试");
+        }
+    }
+
+    /**
+     * 断点游标：最后一块提交后的行数和各项计数
+     * 明细列表只追加，列表长度即游标位置，失败时截断到游标即可回到断点
+     */
+    private record Cursor(int rowsRead, int successCount, int chunkCount, int errorCount, int duplicateCount) {
+        static final Cursor EMPTY = new Cursor(0, 0, 0, 0, 0);
+
+        static Cursor of(QuestionImportResult result) {
+            return new Cursor(result.getTotalCount(), result.getSuccessCount(), result.getChunkCount(),
+                    result.getErrors().size(), result.getDuplicates().size());
+        }
+
+        /** 丢弃游标之后（未提交的块）产生的计数和明细 */
+        void restore(QuestionImportResult result) {
+            result.setTotalCount(rowsRead);
+            result.setSuccessCount(successCount);
+            result.setChunkCount(chunkCount);
+            truncate(result.getErrors(), errorCount);
+            truncate(result.getDuplicates(), duplicateCount);
+            truncate(result.getSuccessIds(), successCount);
+        }
+
+        private static void truncate(List<?> list, int size) {
+            if (list.size() > size) {
+                list.subList(size, list.size()).clear();
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        // 队列满时直接拒绝，由接口提示稍后重试，避免大量导入同时占用数据库连接
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                virtualThreads.threadFactory("question-import-job"),
+                new ThreadPoolExecutor.AbortPolicy());
+        recover();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交JSON数组导入任务
+     *
+     * @param body 请求体，读取到临时文件后立即返回
+     */
+    public ImportJob submitJson(InputStream body, Long creatorId, boolean system, boolean skipDuplicates)
+            throws IOException {
+        File spool = File.createTempFile("question-import-job-", Kind.JSON.getExtension());
+        try {
+            Files.copy(body, spool.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(spool.toPath());
+            throw e;
+        }
+        return submit(new ImportJob(Kind.JSON, spool, null, creatorId, system, skipDuplicates));
+    }
+
+    /**
+     * 提交Excel或Word文件导入任务
+     */
+    public ImportJob submitFile(MultipartFile file, Kind kind, Long subjectId, Long creatorId, boolean system,
+                                boolean skipDuplicates) throws IOException {
+        File spool = File.createTempFile("question-import-job-", kind.getExtension());
+        try {
+            file.transferTo(spool);
+        } catch (IOException e) {
+            Files.deleteIfExists(spool.toPath());
+            throw e;
+        }
+        return submit(new ImportJob(kind, spool, subjectId, creatorId, system, skipDuplicates));
+    }
+
+    /**
+     * 查询任务，不存在或已过期时返回null
+     */
+    public ImportJob getJob(String jobId) {
+        return jobId == null ? null : jobs.get(jobId);
+    }
+
+    /**
+     * 从断点继续失败的任务
+     *
+     * @throws IllegalStateException 任务不是失败状态，或临时文件已丢失
+     * @throws BusyException         线程池已满
+     */
+    public ImportJob resume(ImportJob job) {
+        if (!job.spool.exists()) {
+            throw new IllegalStateException("导入文件已丢失，无法继续，请重新提交");
+        }
+        synchronized (job) {
+            if (job.status != Status.FAILED) {
+                throw new IllegalStateException("只有失败的任务可以继续");
+            }
+            job.status = Status.PENDING;
+            job.error = null;
+            job.finishedAt = null;
+        }
+        try {
+            executor.execute(UserContextPropagation.wrap(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            synchronized (job) {
+                job.status = Status.FAILED;
+                job.error = "导入任务过多，请稍后重试";
+                job.finishedAt = LocalDateTime.now();
+            }
+            throw new BusyException();
+        }
+        save(job);
+        log.info("题目导入任务 {} 从第 {} 行之后继续", job.id, job.committed.rowsRead());
+        return job;
+    }
+
+    /**
+     * 订阅任务进度
+     * 订阅时先推送一次当前进度；任务已结束时推送结束事件后关闭连接。
+     * 事件：progress（每块提交后）、done（成功）、failed（失败，可继续）
+     */
+    public SseEmitter subscribe(ImportJob job) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+        emitter.onError(e -> job.emitters.remove(emitter));
+
+        Status status;
+        Map<String, Object> snapshot;
+        synchronized (job) {
+            status = job.status;
+            snapshot = job.toMap();
+            if (status == Status.PENDING || status == Status.RUNNING) {
+                job.emitters.add(emitter);
+            }
+        }
+        if (status == Status.PENDING || status == Status.RUNNING) {
+            send(job, emitter, "progress", snapshot);
+        } else {
+            send(job, emitter, status == Status.SUCCEEDED ? "done" : "failed", snapshot);
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    private ImportJob submit(ImportJob job) throws IOException {
+        purgeExpired();
+        jobs.put(job.id, job);
+        // 先落记录再执行，避免执行线程的进度写入早于任务记录
+        save(job);
+        try {
+            executor.execute(UserContextPropagation.wrap(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            Files.deleteIfExists(job.spool.toPath());
+            delete(job.id);
+            throw new BusyException();
+        }
+        log.info("题目导入任务 {} 已提交: {}, 用户 {}", job.id, job.kind, job.creatorId);
+        return job;
+    }
+
+    private void run(ImportJob job) {
+        QuestionImportResult checkpoint;
+        synchronized (job) {
+            job.status = Status.RUNNING;
+            // 导入开始时复制一次断点，之后的进度回调只移动游标
+            checkpoint = job.committed.rowsRead() > 0 ? job.progress : null;
+        }
+        QuestionImportService.ProgressListener listener = (progress, rowsRead) -> {
+            Map<String, Object> snapshot;
+            synchronized (job) {
+                job.progress = progress;
+                job.committed = Cursor.of(progress);
+                snapshot = job.toMap();
+            }
+            save(job);
+            broadcast(job, "progress", snapshot, false);
+        };
+        try {
+            QuestionImportResult result = switch (job.kind) {
+                case JSON -> {
+                    try (InputStream in = Files.newInputStream(job.spool.toPath())) {
+                        yield questionImportService.importJson(in, job.creatorId, job.system, job.skipDuplicates,
+                                checkpoint, listener);
+                    }
+                }
+                case EXCEL -> questionImportService.importExcel(job.spool, job.subjectId, job.creatorId, job.system,
+                        job.skipDuplicates, checkpoint, listener);
+                case WORD -> questionImportService.importWord(job.spool, job.subjectId, job.creatorId, job.system,
+                        job.skipDuplicates, checkpoint, listener);
+            };
+            Map<String, Object> snapshot;
+            synchronized (job) {
+                job.progress = result;
+                job.committed = Cursor.of(result);
+                job.status = Status.SUCCEEDED;
+                job.finishedAt = LocalDateTime.now();
+                snapshot = job.toMap();
+            }
+            save(job);
+            Files.deleteIfExists(job.spool.toPath());
+            log.info("题目导入任务 {} 完成: 共 {} 行, 成功 {}", job.id, result.getTotalCount(), result.getSuccessCount());
+            broadcast(job, "done", snapshot, true);
+        } catch (Exception e) {
+            Map<String, Object> snapshot;
+            synchronized (job) {
+                // 未提交的块产生的错误和重复明细丢弃，继续时会重新处理
+                job.committed.restore(job.progress);
+                job.status = Status.FAILED;
+                job.error = e.getMessage();
+                job.finishedAt = LocalDateTime.now();
+                snapshot = job.toMap();
+            }
+            save(job);
+            log.error("题目导入任务 {} 失败，断点: 第 {} 行", job.id, job.committed.rowsRead(), e);
+            broadcast(job, "failed", snapshot, true);
+        }
+    }
+
+    private void broadcast(ImportJob job, String event, Map<String, Object> data, boolean complete) {
+        for (SseEmitter emitter : job.emitters) {
+            if (send(job, emitter, event, data) && complete) {
+                emitter.complete();
+            }
+        }
+        if (complete) {
+            job.emitters.clear();
+        }
+    }
+
+    private boolean send(ImportJob job, SseEmitter emitter, String event, Map<String, Object> data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+            return true;
+        } catch (Exception e) {
+            // 客户端已断开
+            job.emitters.remove(emitter);
+            return false;
+        }
+    }
+
+    /**
+     * 清理结束超过保留时间的任务及其临时文件
+     */
+    private void purgeExpired() {
+        LocalDateTime deadline = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            synchronized (job) {
+                if (job.finishedAt == null || job.finishedAt.isAfter(deadline)) {
+                    return false;
+                }
+            }
+            try {
+                Files.deleteIfExists(job.spool.toPath());
+            } catch (IOException e) {
+                log.warn("删除导入临时文件失败: {}", job.spool, e);
+            }
+            delete(job.id);
+            return true;
+        });
+    }
+
+    /**
+     * 把任务信息和游标写入Redis，明细只追加上次写入之后的新增部分
+     * 写入失败时下次从上次成功的位置补写；所有写入都在导入线程或任务状态变化时进行
+     */
+    private void save(ImportJob job) {
+        Map<String, String> fields;
+        List<String> errors;
+        List<String> duplicates;
+        List<String> successIds;
+        Cursor target;
+        Duration ttl;
+        try {
+            synchronized (job) {
+                Cursor from = job.persisted;
+                target = job.committed;
+                fields = job.toHash();
+                errors = job.progress.getErrors().subList(from.errorCount(), target.errorCount()).stream()
+                        .toList();
+                duplicates = new ArrayList<>();
+                for (Map<String, Object> duplicate : job.progress.getDuplicates()
+                        .subList(from.duplicateCount(), target.duplicateCount())) {
+                    duplicates.add(objectMapper.writeValueAsString(duplicate));
+                }
+                successIds = job.progress.getSuccessIds().subList(from.successCount(), target.successCount()).stream()
+                        .map(String::valueOf)
+                        .toList();
+                ttl = job.finishedAt == null ? ACTIVE_TTL : Duration.ofMinutes(retentionMinutes);
+            }
+        } catch (Exception e) {
+            log.warn("导入任务 {} 记录序列化失败: {}", job.id, e.getMessage());
+            return;
+        }
+        String key = KEY_PREFIX + job.id;
+        try {
+            breaker.run(() -> redisTemplate.execute(new SessionCallback<List<Object>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    ops.multi();
+                    ops.opsForHash().putAll(key, fields);
+                    if (!errors.isEmpty()) {
+                        ops.opsForList().rightPushAll(key + ":errors", errors);
+                    }
+                    if (!duplicates.isEmpty()) {
+                        ops.opsForList().rightPushAll(key + ":duplicates", duplicates);
+                    }
+                    if (!successIds.isEmpty()) {
+                        ops.opsForList().rightPushAll(key + ":successIds", successIds);
+                    }
+                    for (String k : List.of(key, key + ":errors", key + ":duplicates", key + ":successIds")) {
+                        ops.expire(k, ttl);
+                    }
+                    ops.opsForSet().add(INDEX_KEY, job.id);
+                    return ops.exec();
+                }
+            }));
+            synchronized (job) {
+                job.persisted = target;
+            }
+        } catch (Exception e) {
+            log.warn("导入任务 {} 写入Redis失败，仅保存在内存中: {}", job.id, e.getMessage());
+        }
+    }
+
+    private void delete(String jobId) {
+        String key = KEY_PREFIX + jobId;
+        try {
+            breaker.run(() -> {
+                redisTemplate.delete(List.of(key, key + ":errors", key + ":duplicates", key + ":successIds"));
+                redisTemplate.opsForSet().remove(INDEX_KEY, jobId);
+            });
+        } catch (Exception e) {
+            log.warn("删除导入任务 {} 的Redis记录失败: {}", jobId, e.getMessage());
+        }
+    }
+
+    /**
+     * 启动时从Redis恢复任务；重启前未结束的任务记为失败，可从断点继续
+     */
+    private void recover() {
+        Set<String> ids;
+        try {
+            ids = breaker.execute(() -> redisTemplate.opsForSet().members(INDEX_KEY));
+        } catch (Exception e) {
+            log.warn("从Redis恢复导入任务失败: {}", e.getMessage());
+            return;
+        }
+        if (ids == null) {
+            return;
+        }
+        for (String id : ids) {
+            try {
+                ImportJob job = load(id);
+                if (job == null) {
+                    breaker.run(() -> redisTemplate.opsForSet().remove(INDEX_KEY, id));
+                    continue;
+                }
+                if (job.status == Status.PENDING || job.status == Status.RUNNING) {
+                    job.status = Status.FAILED;
+                    job.error = job.spool.exists() ? "服务重启，导入已中断，可从断点继续" : "服务重启，导入文件已丢失";
+                    job.finishedAt = LocalDateTime.now();
+                    save(job);
+                }
+                jobs.put(id, job);
+            } catch (Exception e) {
+                log.warn("恢复导入任务 {} 失败: {}", id, e.getMessage());
+            }
+        }
+        if (!jobs.isEmpty()) {
+            log.info("从Redis恢复 {} 个导入任务", jobs.size());
+        }
+    }
+
+    private ImportJob load(String id) throws IOException {
+        String key = KEY_PREFIX + id;
+        Map<Object, Object> hash = breaker.execute(() -> redisTemplate.opsForHash().entries(key));
+        if (hash == null || hash.isEmpty()) {
+            return null;
+        }
+        List<String> errors = breaker.execute(() -> redisTemplate.opsForList().range(key + ":errors", 0, -1));
+        List<String> duplicates = breaker.execute(() -> redisTemplate.opsForList().range(key + ":duplicates", 0, -1));
+        List<String> successIds = breaker.execute(() -> redisTemplate.opsForList().range(key + ":successIds", 0, -1));
+
+        Map<String, String> fields = new HashMap<>();
+        hash.forEach((k, v) -> fields.put(String.valueOf(k), String.valueOf(v)));
+        ImportJob job = ImportJob.fromHash(id, fields);
+        QuestionImportResult progress = job.progress;
+        progress.setTotalCount(Integer.parseInt(fields.get("rowsRead")));
+        progress.setSuccessCount(Integer.parseInt(fields.get("successCount")));
+        progress.setChunkCount(Integer.parseInt(fields.get("chunkCount")));
+        progress.setElapsedMs(Long.parseLong(fields.get("elapsedMs")));
+        if (errors != null) {
+            progress.getErrors().addAll(errors);
+        }
+        if (duplicates != null) {
+            for (String duplicate : duplicates) {
+                progress.getDuplicates().add(objectMapper.readValue(duplicate, new TypeReference<Map<String, Object>>() {
+                }));
+            }
+        }
+        if (successIds != null) {
+            for (String successId : successIds) {
+                progress.getSuccessIds().add(Long.valueOf(successId));
+            }
+        }
+        job.committed = Cursor.of(progress);
+        job.persisted = job.committed;
+        return job;
+    }
+
+    /**
+     * 导入任务
+     * 可变状态通过任务对象自身加锁访问
+     */
+    public static final class ImportJob {
+        private final String id;
+        private final Kind kind;
+        private final File spool;
+        private final Long subjectId;
+        private final Long creatorId;
+        private final boolean system;
+        private final boolean skipDuplicates;
+        private final LocalDateTime createdAt;
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        private Status status = Status.PENDING;
+        /** 导入结果，运行中由导入线程追加；游标之后的部分尚未提交 */
+        private QuestionImportResult progress = new QuestionImportResult();
+        /** 最后一块提交后的断点，失败后从这里继续 */
+        private Cursor committed = Cursor.EMPTY;
+        /** 已写入Redis的位置 */
+        private Cursor persisted = Cursor.EMPTY;
+        private String error;
+        private LocalDateTime finishedAt;
+
+        private ImportJob(Kind kind, File spool, Long subjectId, Long creatorId, boolean system,
+                          boolean skipDuplicates) {
+            this(UUID.randomUUID().toString(), kind, spool, subjectId, creatorId, system, skipDuplicates,
+                    LocalDateTime.now());
+        }
+
+        private ImportJob(String id, Kind kind, File spool, Long subjectId, Long creatorId, boolean system,
+                          boolean skipDuplicates, LocalDateTime createdAt) {
+            this.id = id;
+            this.kind = kind;
+            this.spool = spool;
+            this.subjectId = subjectId;
+            this.creatorId = creatorId;
+            this.system = system;
+            this.skipDuplicates = skipDuplicates;
+            this.createdAt = createdAt;
+        }
+
+        private static ImportJob fromHash(String id, Map<String, String> fields) {
+            String subjectId = fields.get("subjectId");
+            ImportJob job = new ImportJob(id, Kind.valueOf(fields.get("kind")), new File(fields.get("spool")),
+                    subjectId == null || subjectId.isEmpty() ? null : Long.valueOf(subjectId),
+                    Long.valueOf(fields.get("creatorId")), Boolean.parseBoolean(fields.get("system")),
+                    Boolean.parseBoolean(fields.get("skipDuplicates")), LocalDateTime.parse(fields.get("createdAt")));
+            job.status = Status.valueOf(fields.get("status"));
+            String error = fields.get("error");
+            job.error = error == null || error.isEmpty() ? null : error;
+            String finishedAt = fields.get("finishedAt");
+            job.finishedAt = finishedAt == null || finishedAt.isEmpty() ? null : LocalDateTime.parse(finishedAt);
+            return job;
+        }
+
+        /**
+         * 转换为Redis哈希字段：任务信息和断点游标（明细另存列表）
+         */
+        private synchronized Map<String, String> toHash() {
+            Map<String, String> fields = new HashMap<>();
+            fields.put("kind", kind.name());
+            fields.put("spool", spool.getAbsolutePath());
+            fields.put("subjectId", subjectId == null ? "" : subjectId.toString());
+            fields.put("creatorId", String.valueOf(creatorId));
+            fields.put("system", String.valueOf(system));
+            fields.put("skipDuplicates", String.valueOf(skipDuplicates));
+            fields.put("createdAt", createdAt.toString());
+            fields.put("status", status.name());
+            fields.put("error", error == null ? "" : error);
+            fields.put("finishedAt", finishedAt == null ? "" : finishedAt.toString());
+            fields.put("rowsRead", String.valueOf(committed.rowsRead()));
+            fields.put("successCount", String.valueOf(committed.successCount()));
+            fields.put("chunkCount", String.valueOf(committed.chunkCount()));
+            fields.put("elapsedMs", String.valueOf(progress.getElapsedMs()));
+            return fields;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Long getCreatorId() {
+            return creatorId;
+        }
+
+        public synchronized Status getStatus() {
+            return status;
+        }
+
+        /**
+         * 转换为接口返回的Map：任务信息加当前进度
+         * rowsRead 为已处理并提交的行数，successCount/failedCount/duplicateCount 为累计值
+         */
+        public synchronized Map<String, Object> toMap() {
+            Map<String, Object> result = new HashMap<>();
+            result.put("jobId", id);
+            result.put("kind", kind);
+            result.put("status", status);
+            result.put("system", system);
+            result.put("subjectId", subjectId);
+            result.put("createdAt", createdAt);
+            result.put("finishedAt", finishedAt);
+            result.put("error", error);
+            result.put("rowsRead", committed.rowsRead());
+            result.put("successCount", committed.successCount());
+            result.put("failedCount", committed.errorCount());
+            result.put("duplicateCount", committed.duplicateCount());
+            result.put("chunkCount", committed.chunkCount());
+            if (status == Status.SUCCEEDED || status == Status.FAILED) {
+                // 结束后结果不再变化，明细直接返回
+                result.put("errors", progress.getErrors());
+                result.put("duplicates", progress.getDuplicates());
+                result.put("successIds", progress.getSuccessIds());
+            }
+            return result;
+        }
+    }
+}
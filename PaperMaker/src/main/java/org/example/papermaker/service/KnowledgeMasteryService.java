@@ -0,0 +1,315 @@
+package org.example.papermaker.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import org.example.papermaker.entity.AnswerRecordEntity;
+import org.example.papermaker.entity.ExamRecordEntity;
+import org.example.papermaker.entity.KnowledgePointEntity;
+import org.example.papermaker.entity.QuestionEntity;
+import org.example.papermaker.entity.SubjectEntity;
+import org.example.papermaker.entity.UserKnowledgeMasteryEntity;
+import org.example.papermaker.mapper.AnswerRecordMapper;
+import org.example.papermaker.mapper.ExamRecordMapper;
+import org.example.papermaker.mapper.KnowledgePointMapper;
+import org.example.papermaker.mapper.QuestionMapper;
+import org.example.papermaker.mapper.SubjectMapper;
+import org.example.papermaker.mapper.UserKnowledgeMasteryMapper;
+import org.example.papermaker.service.KnowledgePointStatisticsService.KnowledgePointStat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 知识点掌握度服务
+ * 在 user_knowledge_mastery 表中按（用户, 知识点）维护答题次数、答对次数、用时和指数衰减的正确率，
+ * 答题记录批量保存时由 AnswerRecordServiceImpl 在同一事务内累加；
+ * 知识点统计、AI学习统计工具和学习计划生成直接读取该表，耗时只与知识点数量有关，不再回放答题历史
+ *
+ * 判定结果修改只调整答对次数，衰减正确率保留原判定，需要精确值时可全量重建
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Service
+public class KnowledgeMasteryService {
+
+    private static final Logger log = LoggerFactory.getLogger(KnowledgeMasteryService.class);
+
+    private static final String UNKNOWN_SUBJECT = "未知学科";
+
+    @Resource
+    private UserKnowledgeMasteryMapper masteryMapper;
+
+    @Resource
+    private ExamRecordMapper examRecordMapper;
+
+    @Resource
+    private AnswerRecordMapper answerRecordMapper;
+
+    @Resource
+    private QuestionMapper questionMapper;
+
+    @Resource
+    private KnowledgePointMapper knowledgePointMapper;
+
+    @Resource
+    private SubjectMapper subjectMapper;
+
+    /** 关闭时知识点统计回到按答题历史批量计算 */
+    @Value("${feature.mastery.enabled:true}")
+    private boolean enabled;
+
+    /** 每多一条更新的答题，旧答题的权重乘以该系数 */
+    @Value("${feature.mastery.decay:0.9}")
+    private double decay;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 掌握度表为空而答题记录表有数据时（首次部署），启动后自动全量计算一次
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initMasteryIfEmpty() {
+        if (!enabled) return;
+        try {
+            if (masteryMapper.countRows() == 0 && examRecordMapper.selectCount(null) > 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.warn("初始化知识点掌握度失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 一次练习的答题记录保存后调用，按知识点合并后一条语句写入
+     * 练习次数只在该练习第一次涉及某知识点时加一，与全量重建的 COUNT(DISTINCT exam_record_id) 一致
+     *
+     * @param examRecordId 练习记录ID
+     * @param answers      按答题顺序排列的答题记录（已保存，带ID）
+     */
+    public void onAnswersSaved(Long examRecordId, List<AnswerRecordEntity> answers) {
+        if (!enabled || examRecordId == null || answers.isEmpty()) {
+            return;
+        }
+        ExamRecordEntity record = examRecordMapper.selectOne(new LambdaQueryWrapper<ExamRecordEntity>()
+                .select(ExamRecordEntity::getId, ExamRecordEntity::getUserId)
+                .eq(ExamRecordEntity::getId, examRecordId));
+        if (record == null || record.getUserId() == null) {
+            return;
+        }
+        Set<Long> earlierQuestionIds = earlierQuestionIds(examRecordId, answers);
+        Set<Long> questionIds = answers.stream()
+                .map(AnswerRecordEntity::getQuestionId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        questionIds.addAll(earlierQuestionIds);
+        Map<Long, QuestionEntity> questions = loadKnowledgePointIds(questionIds);
+
+        // 本次练习之前保存的答题已经涉及的知识点，练习次数不再累加
+        Set<Long> practicedKpIds = new HashSet<>();
+        for (Long questionId : earlierQuestionIds) {
+            QuestionEntity question = questions.get(questionId);
+            if (question != null) {
+                practicedKpIds.addAll(question.getKnowledgePointIdsList());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, UserKnowledgeMasteryEntity> rows = new LinkedHashMap<>();
+        for (AnswerRecordEntity answer : answers) {
+            QuestionEntity question = questions.get(answer.getQuestionId());
+            if (question == null) {
+                continue;
+            }
+            int correct = Boolean.TRUE.equals(answer.getIsCorrect()) ? 1 : 0;
+            for (Long kpId : question.getKnowledgePointIdsList()) {
+                UserKnowledgeMasteryEntity row = rows.computeIfAbsent(kpId,
+                        id -> newRow(record.getUserId(), id, practicedKpIds.contains(id) ? 0 : 1, now));
+                row.setAttemptCount(row.getAttemptCount() + 1);
+                row.setCorrectCount(row.getCorrectCount() + correct);
+                row.setTimeSeconds(row.getTimeSeconds() + (answer.getTimeSpent() != null ? answer.getTimeSpent() : 0));
+                // 本批内逐条衰减，最后一条权重为1
+                row.setDecayedCorrect(row.getDecayedCorrect() * decay + correct);
+                row.setDecayedAttempts(row.getDecayedAttempts() * decay + 1);
+            }
+        }
+        if (!rows.isEmpty()) {
+            masteryMapper.applyBatch(new ArrayList<>(rows.values()), decay);
+        }
+    }
+
+    /**
+     * 同一练习中在本批之前保存的答题对应的题目ID
+     */
+    private Set<Long> earlierQuestionIds(Long examRecordId, List<AnswerRecordEntity> answers) {
+        List<Long> batchIds = answers.stream()
+                .map(AnswerRecordEntity::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (batchIds.size() < answers.size()) {
+            // 本批未带ID时无法与之前的答题区分，按首次涉及处理
+            return new HashSet<>();
+        }
+        return answerRecordMapper.selectList(new LambdaQueryWrapper<AnswerRecordEntity>()
+                        .select(AnswerRecordEntity::getQuestionId)
+                        .eq(AnswerRecordEntity::getExamRecordId, examRecordId)
+                        .notIn(AnswerRecordEntity::getId, batchIds))
+                .stream()
+                .map(AnswerRecordEntity::getQuestionId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    /**
+     * 答题记录的判定结果被修改后调用
+     */
+    public void onCorrectnessChanged(AnswerRecordEntity before, boolean nowCorrect) {
+        if (!enabled || before == null || Boolean.TRUE.equals(before.getIsCorrect()) == nowCorrect) {
+            return;
+        }
+        ExamRecordEntity record = examRecordMapper.selectById(before.getExamRecordId());
+        QuestionEntity question = loadKnowledgePointIds(Collections.singleton(before.getQuestionId()))
+                .get(before.getQuestionId());
+        if (record == null || record.getUserId() == null || question == null
+                || question.getKnowledgePointIdsList().isEmpty()) {
+            return;
+        }
+        masteryMapper.adjustCorrect(record.getUserId(), question.getKnowledgePointIdsList(), nowCorrect ? 1 : -1);
+    }
+
+    /**
+     * 用户全部知识点的统计，按学科名称、知识点名称分组（同名知识点合并）
+     */
+    public Map<String, Map<String, KnowledgePointStat>> getByUser(Long userId) {
+        return group(masteryMapper.selectByUser(userId));
+    }
+
+    /**
+     * 用户在某学科下的知识点统计，按知识点名称分组
+     */
+    public Map<String, KnowledgePointStat> getBySubject(Long userId, Long subjectId) {
+        // 知识点的 subject_id 可能为空（只填了学科名称），按名称一起匹配
+        SubjectEntity subject = subjectId == null ? null : subjectMapper.selectById(subjectId);
+        String subjectName = subject != null ? subject.getName() : null;
+        Map<String, KnowledgePointStat> result = new LinkedHashMap<>();
+        for (Map<String, KnowledgePointStat> bySubject
+                : group(masteryMapper.selectByUserAndSubject(userId, subjectId, subjectName)).values()) {
+            result.putAll(bySubject);
+        }
+        return result;
+    }
+
+    /**
+     * 用户在某学科下掌握度最低的知识点
+     *
+     * @param limit 最多返回的数量
+     */
+    public List<KnowledgePointStat> getWeakest(Long userId, Long subjectId, int limit) {
+        return getBySubject(userId, subjectId).values().stream()
+                .filter(stat -> stat.getMastery() != null)
+                .sorted(Comparator.comparingDouble(KnowledgePointStat::getMastery))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 从答题记录全量重新计算掌握度
+     *
+     * @return 重建后的（用户, 知识点）数量
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        masteryMapper.deleteAll();
+        int rows = masteryMapper.rebuildFromAnswers(decay);
+        log.info("知识点掌握度重建完成: {} 行, 耗时 {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private Map<Long, QuestionEntity> loadKnowledgePointIds(Set<Long> questionIds) {
+        Map<Long, QuestionEntity> result = new HashMap<>();
+        if (questionIds.isEmpty()) {
+            return result;
+        }
+        for (QuestionEntity question : questionMapper.selectList(new LambdaQueryWrapper<QuestionEntity>()
+                .select(QuestionEntity::getId, QuestionEntity::getKnowledgePointIds)
+                .in(QuestionEntity::getId, questionIds))) {
+            result.put(question.getId(), question);
+        }
+        return result;
+    }
+
+    /**
+     * 掌握度行按知识点所属学科、知识点名称分组；知识点已删除或名称为空的行忽略
+     */
+    private Map<String, Map<String, KnowledgePointStat>> group(List<UserKnowledgeMasteryEntity> rows) {
+        Map<String, Map<String, KnowledgePointStat>> result = new LinkedHashMap<>();
+        if (rows.isEmpty()) {
+            return result;
+        }
+        Set<Long> kpIds = rows.stream().map(UserKnowledgeMasteryEntity::getKnowledgePointId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, KnowledgePointEntity> knowledgePoints = new HashMap<>();
+        for (KnowledgePointEntity kp : knowledgePointMapper.selectList(new LambdaQueryWrapper<KnowledgePointEntity>()
+                .select(KnowledgePointEntity::getId, KnowledgePointEntity::getName,
+                        KnowledgePointEntity::getSubject, KnowledgePointEntity::getSubjectId)
+                .in(KnowledgePointEntity::getId, kpIds))) {
+            knowledgePoints.put(kp.getId(), kp);
+        }
+        Map<Long, String> subjectNames = new HashMap<>();
+        for (SubjectEntity subject : subjectMapper.selectList(null)) {
+            subjectNames.put(subject.getId(), subject.getName());
+        }
+
+        for (UserKnowledgeMasteryEntity row : rows) {
+            KnowledgePointEntity kp = knowledgePoints.get(row.getKnowledgePointId());
+            if (kp == null || kp.getName() == null || kp.getName().trim().isEmpty()) {
+                continue;
+            }
+            String subjectName = kp.getSubjectId() != null ? subjectNames.get(kp.getSubjectId()) : null;
+            if (subjectName == null || subjectName.trim().isEmpty()) {
+                subjectName = kp.getSubject() != null && !kp.getSubject().trim().isEmpty()
+                        ? kp.getSubject()
+                        : UNKNOWN_SUBJECT;
+            }
+            result.computeIfAbsent(subjectName, s -> new LinkedHashMap<>())
+                    .computeIfAbsent(kp.getName(), KnowledgePointStat::new)
+                    .add(row);
+        }
+        return result;
+    }
+
+    private static UserKnowledgeMasteryEntity newRow(Long userId, Long kpId, int practiceCount, LocalDateTime now) {
+        UserKnowledgeMasteryEntity row = new UserKnowledgeMasteryEntity();
+        row.setUserId(userId);
+        row.setKnowledgePointId(kpId);
+        row.setAttemptCount(0);
+        row.setCorrectCount(0);
+        row.setTimeSeconds(0L);
+        row.setPracticeCount(practiceCount);
+        row.setDecayedCorrect(0.0);
+        row.setDecayedAttempts(0.0);
+        row.setLastAnsweredAt(now);
+        return row;
+    }
+}
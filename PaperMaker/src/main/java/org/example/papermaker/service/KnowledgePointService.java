@@ -15,6 +15,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -32,6 +35,8 @@ public class KnowledgePointService extends ServiceImpl<KnowledgePointMapper, Kno
     private SubjectMapper subjectMapper;
     @Autowired
     private RedisCacheService cache;
+    @Autowired
+    private CacheWarmupService warmupService;
     @Value("${feature.cache.enabled:true}")
     private boolean cacheEnabled;
 //    private SubjectService subjectService;
@@ -42,11 +47,56 @@ public class KnowledgePointService extends ServiceImpl<KnowledgePointMapper, Kno
     public List<KnowledgePointEntity> getBySubject(String subject) {
         // 优先读缓存（系统维度，不区分用户；控制层可进一步按用户过滤）
         String subjectKey = subject == null ? "unknown" : subject.trim();
-        List<KnowledgePointEntity> cached = cache.getList(CacheKeyBuilder.kpListSystemBySubject(subjectKey), KnowledgePointEntity.class);
+        String key = systemListKey(subjectKey);
+        warmupService.recordKnowledgePoints(subjectKey);
+        List<KnowledgePointEntity> cached = cache.getList(key, KnowledgePointEntity.class);
         if (cached != null) {
             return cached;
         }
 
+        List<KnowledgePointEntity> resultByName = loadBySubject(subject);
+
+        // 回写缓存
+        cache.setList(key, resultByName, java.time.Duration.ofHours(1));
+        return resultByName;
+    }
+
+    /**
+     * 批量获取多个学科的知识点列表：缓存用一次MGET读取，未命中的学科查库后用一次管道写回
+     *
+     * @return 学科名称 -> 知识点列表，顺序与入参一致
+     */
+    public Map<String, List<KnowledgePointEntity>> getBySubjects(Collection<String> subjects) {
+        cache.prefetchVersions(subjects.stream()
+                .map(subject -> CacheKeyBuilder.nsKnowledgePoints(subject == null ? "unknown" : subject.trim()))
+                .collect(Collectors.toSet()));
+        Map<String, String> keys = new LinkedHashMap<>();
+        for (String subject : subjects) {
+            String subjectKey = subject == null ? "unknown" : subject.trim();
+            keys.put(subject, systemListKey(subjectKey));
+        }
+        Map<String, List<KnowledgePointEntity>> cached = cache.getLists(keys.values(), KnowledgePointEntity.class);
+
+        Map<String, List<KnowledgePointEntity>> result = new LinkedHashMap<>();
+        Map<String, Object> fills = new HashMap<>();
+        keys.forEach((subject, key) -> {
+            List<KnowledgePointEntity> list = cached.get(key);
+            if (list == null) {
+                list = loadBySubject(subject);
+                fills.put(key, list);
+            }
+            result.put(subject, list);
+        });
+        cache.setMany(fills, java.time.Duration.ofHours(1));
+        return result;
+    }
+
+    private String systemListKey(String subjectKey) {
+        return CacheKeyBuilder.kpListSystemBySubject(
+                cache.versionTag(CacheKeyBuilder.nsKnowledgePoints(subjectKey)), subjectKey);
+    }
+
+    private List<KnowledgePointEntity> loadBySubject(String subject) {
         QueryWrapper<KnowledgePointEntity> queryWrapper = new QueryWrapper<>();
 
         // 首先尝试按学科名称查询（兼容旧数据）
@@ -72,14 +122,6 @@ public class KnowledgePointService extends ServiceImpl<KnowledgePointMapper, Kno
                 // 忽略转换异常，返回空结果
             }
         }
-
-        // 回写缓存并维护索引
-        cache.setList(CacheKeyBuilder.kpListSystemBySubject(subjectKey), resultByName, java.time.Duration.ofHours(1));
-        for (KnowledgePointEntity kp : resultByName) {
-            if (kp.getId() != null) {
-                cache.addIdxForKp(kp.getId(), CacheKeyBuilder.kpListSystemBySubject(subjectKey));
-            }
-        }
         return resultByName;
     }
 
@@ -88,7 +130,8 @@ public class KnowledgePointService extends ServiceImpl<KnowledgePointMapper, Kno
      */
     public List<KnowledgePointEntity> getBySubjectForUser(String subject, Long userId) {
         String subjectKey = subject == null ? "unknown" : subject.trim();
-        String key = CacheKeyBuilder.kpListUserBySubject(userId, subjectKey);
+        String key = CacheKeyBuilder.kpListUserBySubject(
+                cache.versionTag(CacheKeyBuilder.nsKnowledgePoints(subjectKey)), userId, subjectKey);
         List<KnowledgePointEntity> cached = cache.getList(key, KnowledgePointEntity.class);
         if (cached != null) return cached;
 
@@ -100,7 +143,6 @@ public class KnowledgePointService extends ServiceImpl<KnowledgePointMapper, Kno
           .orderByAsc("sort_order", "id");
         List<KnowledgePointEntity> list = list(qw);
         cache.setList(key, list, java.time.Duration.ofHours(1));
-        for (KnowledgePointEntity kp : list) { if (kp.getId() != null) cache.addIdxForKp(kp.getId(), key); }
         return list;
     }
 
@@ -0,0 +1,285 @@
+package org.example.papermaker.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import org.example.papermaker.entity.AnswerRecordEntity;
+import org.example.papermaker.entity.ExamPaperEntity;
+import org.example.papermaker.entity.ExamRecordEntity;
+import org.example.papermaker.entity.KnowledgePointEntity;
+import org.example.papermaker.entity.QuestionEntity;
+import org.example.papermaker.entity.SubjectEntity;
+import org.example.papermaker.entity.UserKnowledgeMasteryEntity;
+import org.example.papermaker.mapper.AnswerRecordMapper;
+import org.example.papermaker.mapper.ExamPaperMapper;
+import org.example.papermaker.mapper.KnowledgePointMapper;
+import org.example.papermaker.mapper.QuestionMapper;
+import org.example.papermaker.mapper.SubjectMapper;
+import org.example.papermaker.util.BatchLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 知识点练习统计服务
+ * 按层批量查询：答题记录按练习记录ID分批 IN 查询，题目、知识点、试卷按ID分批 IN 查询，学科整表读取一次，
+ * 之后全部在内存中按字典查找和累加，查询次数只与数据量/批大小有关，不再随记录数逐行增长
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Service
+public class KnowledgePointStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(KnowledgePointStatisticsService.class);
+
+    /** 单次 IN 查询的最大练习记录ID数量 */
+    private static final int RECORD_BATCH_SIZE = 500;
+
+    private static final String UNKNOWN_SUBJECT = "未知学科";
+
+    @Resource
+    private AnswerRecordMapper answerRecordMapper;
+
+    @Resource
+    private QuestionMapper questionMapper;
+
+    @Resource
+    private KnowledgePointMapper knowledgePointMapper;
+
+    @Resource
+    private ExamPaperMapper examPaperMapper;
+
+    @Resource
+    private SubjectMapper subjectMapper;
+
+    /**
+     * 某个知识点的累计数据
+     */
+    public static class KnowledgePointStat {
+        private final String knowledgePointName;
+        private int questionCount;
+        private int correctCount;
+        private long totalTimeSeconds;
+        /** 出现过该知识点的不同练习记录数 */
+        private int practiceCount;
+        private long lastRecordId = Long.MIN_VALUE;
+        /** 掌握度的衰减加权计数，只有从掌握度表读取时才有值 */
+        private double decayedCorrect;
+        private double decayedAttempts;
+
+        KnowledgePointStat(String knowledgePointName) {
+            this.knowledgePointName = knowledgePointName;
+        }
+
+        /**
+         * 累加掌握度表中的一行（同名知识点合并）
+         */
+        void add(UserKnowledgeMasteryEntity row) {
+            questionCount += row.getAttemptCount() != null ? row.getAttemptCount() : 0;
+            correctCount += row.getCorrectCount() != null ? row.getCorrectCount() : 0;
+            totalTimeSeconds += row.getTimeSeconds() != null ? row.getTimeSeconds() : 0L;
+            practiceCount += row.getPracticeCount() != null ? row.getPracticeCount() : 0;
+            decayedCorrect += row.getDecayedCorrect() != null ? row.getDecayedCorrect() : 0.0;
+            decayedAttempts += row.getDecayedAttempts() != null ? row.getDecayedAttempts() : 0.0;
+        }
+
+        public String getKnowledgePointName() {
+            return knowledgePointName;
+        }
+
+        public int getQuestionCount() {
+            return questionCount;
+        }
+
+        public int getCorrectCount() {
+            return correctCount;
+        }
+
+        public long getTotalTimeSeconds() {
+            return totalTimeSeconds;
+        }
+
+        public int getPracticeCount() {
+            return practiceCount;
+        }
+
+        /**
+         * 掌握度（0-100，越新的答题权重越大），没有掌握度数据时返回null
+         */
+        public Double getMastery() {
+            return decayedAttempts > 0 ? decayedCorrect / decayedAttempts * 100 : null;
+        }
+    }
+
+    /**
+     * 解析每条练习记录所属的学科名称（经由试卷的学科字段，可能是学科ID或学科名称）
+     *
+     * @return 练习记录ID到学科名称，无法解析时为"未知学科"
+     */
+    public Map<Long, String> resolveSubjectNames(Collection<ExamRecordEntity> records) {
+        Map<Long, String> result = new HashMap<>();
+        if (records.isEmpty()) {
+            return result;
+        }
+        BatchLoader<Long, ExamPaperEntity> papers = new BatchLoader<>(
+                ids -> examPaperMapper.selectList(new LambdaQueryWrapper<ExamPaperEntity>()
+                        .select(ExamPaperEntity::getId, ExamPaperEntity::getSubjectId)
+                        .in(ExamPaperEntity::getId, ids)),
+                ExamPaperEntity::getId);
+        for (ExamRecordEntity record : records) {
+            papers.prime(record.getPaperId());
+        }
+
+        // 学科表很小，整表读取一次作为字典
+        Map<Long, String> namesById = new HashMap<>();
+        Map<String, String> namesByName = new HashMap<>();
+        for (SubjectEntity subject : subjectMapper.selectList(null)) {
+            if (subject.getName() == null) {
+                continue;
+            }
+            namesById.put(subject.getId(), subject.getName());
+            namesByName.putIfAbsent(subject.getName(), subject.getName());
+        }
+
+        for (ExamRecordEntity record : records) {
+            ExamPaperEntity paper = papers.load(record.getPaperId());
+            String subjectName = paper == null ? null : subjectNameOf(paper.getSubjectId(), namesById, namesByName);
+            result.put(record.getId(), subjectName == null || subjectName.trim().isEmpty()
+                    ? UNKNOWN_SUBJECT
+                    : subjectName);
+        }
+        return result;
+    }
+
+    /**
+     * 按分组统计练习记录中各知识点的答题情况
+     *
+     * @param records 练习记录
+     * @param groupOf 记录的分组（例如学科名称）
+     * @return 分组 -> 知识点名称 -> 累计数据
+     */
+    public Map<String, Map<String, KnowledgePointStat>> aggregate(List<ExamRecordEntity> records,
+            Function<ExamRecordEntity, String> groupOf) {
+        Map<String, Map<String, KnowledgePointStat>> result = new LinkedHashMap<>();
+        if (records.isEmpty()) {
+            return result;
+        }
+        long start = System.currentTimeMillis();
+        Map<Long, String> groupByRecord = new HashMap<>();
+        for (ExamRecordEntity record : records) {
+            if (record.getId() != null) {
+                groupByRecord.put(record.getId(), groupOf.apply(record));
+            }
+        }
+
+        // 第一层：答题记录，只取统计需要的列，按练习记录排序以便累计练习次数
+        List<Long> recordIds = new ArrayList<>(groupByRecord.keySet());
+        List<AnswerRecordEntity> answers = new ArrayList<>();
+        int queries = 0;
+        for (int from = 0; from < recordIds.size(); from += RECORD_BATCH_SIZE) {
+            List<Long> chunk = recordIds.subList(from, Math.min(from + RECORD_BATCH_SIZE, recordIds.size()));
+            answers.addAll(answerRecordMapper.selectList(new LambdaQueryWrapper<AnswerRecordEntity>()
+                    .select(AnswerRecordEntity::getExamRecordId, AnswerRecordEntity::getQuestionId,
+                            AnswerRecordEntity::getIsCorrect, AnswerRecordEntity::getTimeSpent)
+                    .in(AnswerRecordEntity::getExamRecordId, chunk)
+                    .orderByAsc(AnswerRecordEntity::getExamRecordId)));
+            queries++;
+        }
+
+        // 第二层：题目的知识点ID
+        BatchLoader<Long, QuestionEntity> questions = new BatchLoader<>(
+                ids -> questionMapper.selectList(new LambdaQueryWrapper<QuestionEntity>()
+                        .select(QuestionEntity::getId, QuestionEntity::getKnowledgePointIds)
+                        .in(QuestionEntity::getId, ids)),
+                QuestionEntity::getId);
+        Set<Long> questionIds = new LinkedHashSet<>();
+        for (AnswerRecordEntity answer : answers) {
+            if (answer.getQuestionId() != null) {
+                questionIds.add(answer.getQuestionId());
+            }
+        }
+
+        // 第三层：知识点名称
+        BatchLoader<Long, KnowledgePointEntity> knowledgePoints = new BatchLoader<>(
+                ids -> knowledgePointMapper.selectList(new LambdaQueryWrapper<KnowledgePointEntity>()
+                        .select(KnowledgePointEntity::getId, KnowledgePointEntity::getName)
+                        .in(KnowledgePointEntity::getId, ids)),
+                KnowledgePointEntity::getId);
+        for (QuestionEntity question : questions.loadMany(questionIds).values()) {
+            knowledgePoints.primeAll(question.getKnowledgePointIdsList());
+        }
+        knowledgePoints.dispatch();
+
+        // 内存中累加
+        for (AnswerRecordEntity answer : answers) {
+            QuestionEntity question = questions.load(answer.getQuestionId());
+            if (question == null) {
+                continue;
+            }
+            String group = groupByRecord.get(answer.getExamRecordId());
+            long recordId = answer.getExamRecordId();
+            for (Long kpId : question.getKnowledgePointIdsList()) {
+                KnowledgePointEntity knowledgePoint = knowledgePoints.load(kpId);
+                if (knowledgePoint == null) {
+                    continue;
+                }
+                String kpName = knowledgePoint.getName();
+                if (kpName == null || kpName.trim().isEmpty()) {
+                    continue;
+                }
+                KnowledgePointStat stat = result.computeIfAbsent(group, g -> new LinkedHashMap<>())
+                        .computeIfAbsent(kpName, KnowledgePointStat::new);
+                stat.questionCount++;
+                if (Boolean.TRUE.equals(answer.getIsCorrect())) {
+                    stat.correctCount++;
+                }
+                if (answer.getTimeSpent() != null) {
+                    stat.totalTimeSeconds += answer.getTimeSpent();
+                }
+                // 答题记录按练习记录排序，练习记录变化时才计一次
+                if (stat.lastRecordId != recordId) {
+                    stat.lastRecordId = recordId;
+                    stat.practiceCount++;
+                }
+            }
+        }
+
+        queries += questions.getBatchCount() + knowledgePoints.getBatchCount();
+        log.debug("知识点统计完成: {} 条练习记录, {} 条答题记录, {} 次查询, 耗时 {} ms",
+                records.size(), answers.size(), queries, System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * 试卷的学科字段可能是学科ID，也可能是学科名称（如"综合"）
+     */
+    private static String subjectNameOf(String subjectField, Map<Long, String> namesById,
+            Map<String, String> namesByName) {
+        if (subjectField == null) {
+            return null;
+        }
+        String value = subjectField.trim();
+        try {
+            String name = namesById.get(Long.parseLong(value));
+            // ID存在但学科不存在，尝试按名称查询
+            return name != null ? name : namesByName.get(value);
+        } catch (NumberFormatException e) {
+            String name = namesByName.get(value);
+            if (name != null) {
+                return name;
+            }
+            // 按名称也查不到时，原始值看起来像学科名称就直接使用
+            return !value.isEmpty() && !value.equals("综合") ? value : null;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.example.papermaker.service;
+
+import jakarta.annotation.Resource;
+import org.example.papermaker.entity.ExamRecordEntity;
+import org.example.papermaker.entity.UserLearningStatsEntity;
+import org.example.papermaker.mapper.ExamRecordMapper;
+import org.example.papermaker.mapper.UserLearningStatsMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 用户学习统计服务
+ * 在 user_learning_stats 表中按用户维护练习记录的计数、求和、最值和最近练习时间，
+ * 练习记录增删改时由 ExamRecordServiceImpl 在同一事务内按记录的贡献增减；
+ * 统计接口按主键读取一行即可，不再加载用户的全部练习记录
+ *
+ * 最值只能向外扩展，记录被删除或改分后如果原值正好是边界，则从 exam_records 重新计算该用户的汇总；
+ * 扣减后出现负计数（汇总与练习记录已不一致）时同样重新计算
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Service
+public class LearningStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(LearningStatisticsService.class);
+
+    @Resource
+    private UserLearningStatsMapper statsMapper;
+
+    @Resource
+    private ExamRecordMapper examRecordMapper;
+
+    /**
+     * 汇总表为空而练习记录表有数据时（首次部署），启动后自动全量计算一次
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initStatsIfEmpty() {
+        try {
+            if (statsMapper.countRows() == 0 && examRecordMapper.selectCount(null) > 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.warn("初始化用户学习统计失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 练习记录新增后调用
+     */
+    public void onCreated(ExamRecordEntity record) {
+        UserLearningStatsEntity added = contribution(record);
+        if (added != null) {
+            statsMapper.applyDelta(delta(added, null));
+        }
+    }
+
+    /**
+     * 练习记录删除后调用
+     */
+    public void onDeleted(ExamRecordEntity record) {
+        UserLearningStatsEntity removed = contribution(record);
+        if (removed != null) {
+            statsMapper.applyDelta(delta(null, removed));
+            refreshIfBoundaryRemoved(removed, null);
+        }
+    }
+
+    /**
+     * 练习记录更新（完成、改分、保存进度等）后调用；参与统计的字段未变化时不做任何操作
+     *
+     * @param before 更新前的记录
+     * @param after  更新后的记录（字段均已合并为最终值）
+     */
+    public void onUpdated(ExamRecordEntity before, ExamRecordEntity after) {
+        if (before == null || after == null) {
+            return;
+        }
+        if (!Objects.equals(before.getUserId(), after.getUserId())) {
+            onDeleted(before);
+            onCreated(after);
+            return;
+        }
+        UserLearningStatsEntity removed = contribution(before);
+        UserLearningStatsEntity added = contribution(after);
+        if (removed == null || added == null || removed.equals(added)) {
+            return;
+        }
+        statsMapper.applyDelta(delta(added, removed));
+        refreshIfBoundaryRemoved(removed, added);
+    }
+
+    /**
+     * 获取用户的学习统计汇总，没有任何记录时返回各项为0的汇总
+     */
+    public UserLearningStatsEntity getStats(Long userId) {
+        UserLearningStatsEntity stats = userId == null ? null : statsMapper.selectById(userId);
+        if (stats == null) {
+            stats = delta(null, null);
+            stats.setUserId(userId);
+        }
+        return stats;
+    }
+
+    /**
+     * 按天统计用户最近若干天的练习次数
+     *
+     * @return 日期（yyyy-MM-dd）到练习次数
+     */
+    public Map<String, Integer> getDailyPracticeCount(Long userId, int days) {
+        Map<String, Integer> daily = new HashMap<>();
+        List<Map<String, Object>> rows = examRecordMapper.countDailySince(userId, LocalDateTime.now().minusDays(days));
+        for (Map<String, Object> row : rows) {
+            daily.put(String.valueOf(row.get("day")), ((Number) row.get("count")).intValue());
+        }
+        return daily;
+    }
+
+    /**
+     * 从练习记录表全量重新计算汇总
+     *
+     * @return 重建后的用户数量
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        statsMapper.deleteAll();
+        int users = statsMapper.rebuildFromRecords();
+        log.info("用户学习统计重建完成: {} 个用户, 耗时 {} ms", users, System.currentTimeMillis() - start);
+        return users;
+    }
+
+    /**
+     * 一条记录对汇总的贡献；没有用户ID的记录不参与统计
+     */
+    private static UserLearningStatsEntity contribution(ExamRecordEntity r) {
+        if (r == null || r.getUserId() == null) {
+            return null;
+        }
+        UserLearningStatsEntity c = new UserLearningStatsEntity();
+        c.setUserId(r.getUserId());
+        c.setTotalRecords(1);
+        c.setCompletedRecords(r.getStatus() == ExamRecordEntity.ExamStatus.COMPLETED ? 1 : 0);
+        c.setInProgressRecords(r.getStatus() == ExamRecordEntity.ExamStatus.IN_PROGRESS ? 1 : 0);
+        c.setTimeoutRecords(r.getStatus() == ExamRecordEntity.ExamStatus.TIMEOUT ? 1 : 0);
+        c.setPracticeRecords(r.getExamType() == ExamRecordEntity.ExamType.PRACTICE ? 1 : 0);
+        c.setExamRecords(r.getExamType() == ExamRecordEntity.ExamType.EXAM ? 1 : 0);
+
+        boolean scored = r.getScore() != null && r.getTotalScore() != null && r.getTotalScore() > 0;
+        c.setScoreCount(scored ? 1 : 0);
+        c.setScoreSum(scored ? r.getScore() : 0.0);
+        c.setScoreMin(scored ? r.getScore() : null);
+        c.setScoreMax(scored ? r.getScore() : null);
+
+        boolean hasAccuracy = r.getAccuracy() != null;
+        c.setAccuracyCount(hasAccuracy ? 1 : 0);
+        c.setAccuracySum(hasAccuracy ? r.getAccuracy() : 0.0);
+        c.setAccuracyMin(hasAccuracy ? r.getAccuracy() : null);
+        c.setAccuracyMax(hasAccuracy ? r.getAccuracy() : null);
+
+        boolean timed = r.getTimeSpent() != null && r.getTimeSpent() > 0;
+        c.setTimeCount(timed ? 1 : 0);
+        c.setTimeSum(timed ? r.getTimeSpent().longValue() : 0L);
+        c.setTimeMin(timed ? r.getTimeSpent().longValue() : null);
+        c.setTimeMax(timed ? r.getTimeSpent().longValue() : null);
+
+        c.setDurationSum(r.getStartTime() != null && r.getEndTime() != null
+                ? Duration.between(r.getStartTime(), r.getEndTime()).getSeconds()
+                : 0L);
+        c.setTotalQuestions(r.getTotalQuestions() != null ? r.getTotalQuestions() : 0);
+        c.setAnsweredQuestions(r.getAnsweredQuestions() != null ? r.getAnsweredQuestions() : 0);
+        c.setCorrectAnswers(r.getCorrectAnswers() != null ? r.getCorrectAnswers() : 0);
+        c.setLastPracticeTime(r.getStartTime());
+        return c;
+    }
+
+    /**
+     * 增量 = added - removed；极值取 added 的值（只向外扩展）
+     */
+    private static UserLearningStatsEntity delta(UserLearningStatsEntity added, UserLearningStatsEntity removed) {
+        UserLearningStatsEntity a = added != null ? added : new UserLearningStatsEntity();
+        UserLearningStatsEntity r = removed != null ? removed : new UserLearningStatsEntity();
+        UserLearningStatsEntity d = new UserLearningStatsEntity();
+        d.setUserId(added != null ? added.getUserId() : r.getUserId());
+        d.setTotalRecords(n(a.getTotalRecords()) - n(r.getTotalRecords()));
+        d.setCompletedRecords(n(a.getCompletedRecords()) - n(r.getCompletedRecords()));
+        d.setInProgressRecords(n(a.getInProgressRecords()) - n(r.getInProgressRecords()));
+        d.setTimeoutRecords(n(a.getTimeoutRecords()) - n(r.getTimeoutRecords()));
+        d.setPracticeRecords(n(a.getPracticeRecords()) - n(r.getPracticeRecords()));
+        d.setExamRecords(n(a.getExamRecords()) - n(r.getExamRecords()));
+        d.setScoreCount(n(a.getScoreCount()) - n(r.getScoreCount()));
+        d.setScoreSum(n(a.getScoreSum()) - n(r.getScoreSum()));
+        d.setAccuracyCount(n(a.getAccuracyCount()) - n(r.getAccuracyCount()));
+        d.setAccuracySum(n(a.getAccuracySum()) - n(r.getAccuracySum()));
+        d.setTimeCount(n(a.getTimeCount()) - n(r.getTimeCount()));
+        d.setTimeSum(n(a.getTimeSum()) - n(r.getTimeSum()));
+        d.setDurationSum(n(a.getDurationSum()) - n(r.getDurationSum()));
+        d.setTotalQuestions(n(a.getTotalQuestions()) - n(r.getTotalQuestions()));
+        d.setAnsweredQuestions(n(a.getAnsweredQuestions()) - n(r.getAnsweredQuestions()));
+        d.setCorrectAnswers(n(a.getCorrectAnswers()) - n(r.getCorrectAnswers()));
+        d.setScoreMin(a.getScoreMin());
+        d.setScoreMax(a.getScoreMax());
+        d.setAccuracyMin(a.getAccuracyMin());
+        d.setAccuracyMax(a.getAccuracyMax());
+        d.setTimeMin(a.getTimeMin());
+        d.setTimeMax(a.getTimeMax());
+        d.setLastPracticeTime(a.getLastPracticeTime());
+        return d;
+    }
+
+    /**
+     * 被移除的值正好是汇总中的最值（或最近练习时间），或扣减后出现负计数时，从练习记录重新计算该用户的汇总
+     */
+    private void refreshIfBoundaryRemoved(UserLearningStatsEntity removed, UserLearningStatsEntity added) {
+        UserLearningStatsEntity stats = statsMapper.selectById(removed.getUserId());
+        if (stats == null) {
+            return;
+        }
+        UserLearningStatsEntity a = added != null ? added : new UserLearningStatsEntity();
+        boolean boundary = onBoundary(removed.getScoreMin(), a.getScoreMin(), stats.getScoreMin(), stats.getScoreMax())
+                || onBoundary(removed.getAccuracyMin(), a.getAccuracyMin(), stats.getAccuracyMin(), stats.getAccuracyMax())
+                || onBoundary(removed.getTimeMin(), a.getTimeMin(), stats.getTimeMin(), stats.getTimeMax())
+                || onBoundary(removed.getLastPracticeTime(), a.getLastPracticeTime(), null, stats.getLastPracticeTime());
+        boolean drifted = hasNegativeCount(stats);
+        if (drifted) {
+            log.warn("用户 {} 的学习统计出现负计数，与练习记录不一致，重新计算", removed.getUserId());
+        }
+        if (boundary || drifted) {
+            statsMapper.deleteByUserId(removed.getUserId());
+            statsMapper.rebuildUser(removed.getUserId());
+        }
+    }
+
+    private static boolean hasNegativeCount(UserLearningStatsEntity s) {
+        return n(s.getTotalRecords()) < 0 || n(s.getCompletedRecords()) < 0 || n(s.getInProgressRecords()) < 0
+                || n(s.getTimeoutRecords()) < 0 || n(s.getPracticeRecords()) < 0 || n(s.getExamRecords()) < 0
+                || n(s.getScoreCount()) < 0 || n(s.getAccuracyCount()) < 0 || n(s.getTimeCount()) < 0;
+    }
+
+    private static boolean onBoundary(Object removed, Object added, Object min, Object max) {
+        return removed != null && !removed.equals(added) && (removed.equals(min) || removed.equals(max));
+    }
+
+    private static int n(Integer v) {
+        return v != null ? v : 0;
+    }
+
+    private static long n(Long v) {
+        return v != null ? v : 0L;
+    }
+
+    private static double n(Double v) {
+        return v != null ? v : 0.0;
+    }
+}
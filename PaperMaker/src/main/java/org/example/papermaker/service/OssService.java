@@ -4,9 +4,12 @@ import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
 import jakarta.annotation.Resource;
 import org.example.papermaker.config.OssConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.SimpleDateFormat;
@@ -16,6 +19,8 @@ import java.util.UUID;
 @Service
 public class OssService {
 
+    private static final Logger log = LoggerFactory.getLogger(OssService.class);
+
     @Resource
     private OssConfig ossConfig;
 
@@ -63,4 +68,30 @@ public class OssService {
             return null;
         }
     }
+
+    /**
+     * 按指定对象名上传字节内容，对象已存在时不重复上传（用于按内容哈希命名的图片去重）
+     *
+     * @return 文件访问URL，失败返回null
+     */
+    public String uploadIfAbsent(String objectName, byte[] data) {
+        String endpoint = ossConfig.getEndpoint();
+        String bucketName = ossConfig.getBucketName();
+
+        OSS ossClient = null;
+        try {
+            ossClient = new OSSClientBuilder().build(endpoint, ossConfig.getAccessKeyId(), ossConfig.getAccessKeySecret());
+            if (!ossClient.doesObjectExist(bucketName, objectName)) {
+                ossClient.putObject(bucketName, objectName, new ByteArrayInputStream(data));
+            }
+            return "https://" + bucketName + "." + endpoint + "/" + objectName;
+        } catch (Exception e) {
+            log.warn("上传OSS对象失败: {}", objectName, e);
+            return null;
+        } finally {
+            if (ossClient != null) {
+                ossClient.shutdown();
+            }
+        }
+    }
 }
@@ -0,0 +1,317 @@
+package org.example.papermaker.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import jakarta.annotation.Resource;
+import org.example.papermaker.entity.QuestionEntity;
+import org.example.papermaker.mapper.QuestionMapper;
+import org.example.papermaker.util.LshIndex;
+import org.example.papermaker.util.MinHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 题目近似重复检测服务
+ * 每道题按规范化后的题干和选项计算 MinHash 签名并落库（questions.minhash_signature），
+ * 内存中维护一份 LSH 索引，导入时单题查重为亚毫秒级；管理员可并行扫描全库得到重复簇
+ *
+ * 查重只在导入者可见的范围内进行（系统题目和导入者自己的题目），不会因他人的个人题目跳过导入或泄露其ID
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Service
+public class QuestionDedupService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionDedupService.class);
+
+    /** 导入解析结果中标记为重复的状态值 */
+    public static final String STATUS_DUPLICATE = "DUPLICATE";
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    /** 系统题目的可见范围标记，对所有用户可见 */
+    private static final long SYSTEM_SCOPE = 0L;
+
+    /** 没有创建者的个人题目，对任何用户都不可见 */
+    private static final long NO_OWNER_SCOPE = -1L;
+
+    @Resource
+    private QuestionMapper questionMapper;
+
+    @Value("${question.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${question.dedup.threshold:0.8}")
+    private double threshold;
+
+    private final LshIndex index = new LshIndex();
+
+    /** 题目ID -> 可见范围（系统题目为 SYSTEM_SCOPE，个人题目为创建者ID） */
+    private final Map<Long, Long> scopes = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    /**
+     * 应用启动后在后台加载索引，并为缺失签名的历史题目回填签名
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndexOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::rebuildIndex, "question-dedup-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 从数据库重建内存索引
+     */
+    public synchronized void rebuildIndex() {
+        long start = System.currentTimeMillis();
+        index.clear();
+        scopes.clear();
+        int backfilled = 0;
+        long lastId = 0;
+        while (true) {
+            List<QuestionEntity> batch = questionMapper.selectList(new LambdaQueryWrapper<QuestionEntity>()
+                    .select(QuestionEntity::getId, QuestionEntity::getTitle, QuestionEntity::getOptions,
+                            QuestionEntity::getMinhashSignature, QuestionEntity::getIsSystem,
+                            QuestionEntity::getCreatorId)
+                    .gt(QuestionEntity::getId, lastId)
+                    .orderByAsc(QuestionEntity::getId)
+                    .last("LIMIT " + LOAD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (QuestionEntity q : batch) {
+                int[] signature = MinHash.decode(q.getMinhashSignature());
+                // 空字符串表示题目没有可签名的文字，不再回填
+                if (signature == null && q.getMinhashSignature() == null) {
+                    signature = sign(q);
+                    questionMapper.update(null, new LambdaUpdateWrapper<QuestionEntity>()
+                            .set(QuestionEntity::getMinhashSignature, q.getMinhashSignature())
+                            .eq(QuestionEntity::getId, q.getId()));
+                    backfilled++;
+                }
+                index(q.getId(), q.getIsSystem(), q.getCreatorId(), signature);
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        ready = true;
+        log.info("题目查重索引加载完成: {} 道题, 回填签名 {} 道, 耗时 {} ms",
+                index.size(), backfilled, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 计算题目签名，并写入实体的 minhashSignature 字段（随题目一起保存）
+     *
+     * @return 签名；题目没有可签名的文字时返回null，字段写为空字符串，不参与查重
+     */
+    public int[] sign(QuestionEntity question) {
+        int[] signature = MinHash.sign(MinHash.normalize(question.getTitle(), question.getOptionsList()));
+        question.setMinhashSignature(signature != null ? MinHash.encode(signature) : "");
+        return signature;
+    }
+
+    /**
+     * 题目更新前调用：把本次更新的题干、选项合并到原题上计算签名，写入 update 的 minhashSignature
+     * 题干和选项都未修改时不重新计算，返回原签名
+     *
+     * @param update   本次更新的字段（局部更新时未修改的字段为null）
+     * @param existing 数据库中的原题
+     */
+    public int[] signUpdate(QuestionEntity update, QuestionEntity existing) {
+        if (update.getTitle() == null && update.getOptions() == null) {
+            return MinHash.decode(existing.getMinhashSignature());
+        }
+        QuestionEntity merged = new QuestionEntity();
+        merged.setTitle(update.getTitle() != null ? update.getTitle() : existing.getTitle());
+        merged.setOptions(update.getOptions() != null ? update.getOptions() : existing.getOptions());
+        int[] signature = sign(merged);
+        update.setMinhashSignature(merged.getMinhashSignature());
+        return signature;
+    }
+
+    /**
+     * 在 viewerId 可见的题目（系统题目和其本人的题目）中查找与签名近似重复的题目，返回ID最小的一个；
+     * 索引未就绪或无重复时返回null
+     */
+    public Long findDuplicate(int[] signature, Long excludeId, Long viewerId) {
+        if (!enabled || !ready || signature == null) {
+            return null;
+        }
+        for (Long match : index.query(signature, threshold, excludeId)) {
+            Long scope = scopes.get(match);
+            if (scope != null && (scope == SYSTEM_SCOPE || scope.equals(viewerId))) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在给定的临时索引（例如导入时同一批次尚未入库的题目）中查找近似重复，返回ID最小的一个
+     */
+    public Long findDuplicateIn(LshIndex scope, int[] signature) {
+        if (!enabled || scope.size() == 0) {
+            return null;
+        }
+        Set<Long> matches = scope.query(signature, threshold, null);
+        return matches.isEmpty() ? null : matches.iterator().next();
+    }
+
+    /**
+     * 题目保存后写入索引
+     *
+     * @param signature 保存前由 {@link #sign} 计算的签名
+     */
+    public void index(QuestionEntity question, int[] signature) {
+        index(question.getId(), question.getIsSystem(), question.getCreatorId(), signature);
+    }
+
+    /**
+     * 题目更新后写入索引，可见范围取更新后的值
+     *
+     * @param signature 更新前由 {@link #signUpdate} 计算的签名
+     */
+    public void reindex(QuestionEntity update, QuestionEntity existing, int[] signature) {
+        index(existing.getId(),
+                update.getIsSystem() != null ? update.getIsSystem() : existing.getIsSystem(),
+                update.getCreatorId() != null ? update.getCreatorId() : existing.getCreatorId(),
+                signature);
+    }
+
+    /**
+     * 题目删除后移出索引
+     */
+    public void remove(Long questionId) {
+        if (questionId != null) {
+            index.remove(questionId);
+            scopes.remove(questionId);
+        }
+    }
+
+    private void index(Long questionId, Boolean isSystem, Long creatorId, int[] signature) {
+        if (!enabled || questionId == null) {
+            return;
+        }
+        if (signature == null) {
+            remove(questionId);
+            return;
+        }
+        scopes.put(questionId, Boolean.TRUE.equals(isSystem) ? SYSTEM_SCOPE
+                : creatorId != null ? creatorId : NO_OWNER_SCOPE);
+        index.put(questionId, signature);
+    }
+
+    /**
+     * 标记解析结果中的重复题（与题库重复或与同一文件中前面的题重复），
+     * 重复题的 status 置为 DUPLICATE，不会写库
+     *
+     * @param viewerId 导入者ID，只与其可见的题目比较
+     * @return 重复题数量
+     */
+    public int markDuplicates(List<QuestionEntity> questions, Long viewerId) {
+        if (!enabled || questions == null || questions.isEmpty()) {
+            return 0;
+        }
+        LshIndex local = new LshIndex();
+        int duplicates = 0;
+        for (int i = 0; i < questions.size(); i++) {
+            QuestionEntity q = questions.get(i);
+            int[] signature = sign(q);
+            boolean duplicate = findDuplicate(signature, null, viewerId) != null
+                    || !local.query(signature, threshold, null).isEmpty();
+            if (duplicate) {
+                q.setStatus(STATUS_DUPLICATE);
+                duplicates++;
+            } else {
+                local.put((long) i, signature);
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * 并行扫描全库，返回近似重复簇（每簇至少两道题，按簇大小降序）
+     */
+    public List<List<Long>> scanClusters() {
+        if (!ready) {
+            rebuildIndex();
+        }
+        List<Long> ids = new ArrayList<>(index.ids());
+        Map<Long, Long> parent = new HashMap<>();
+        // 候选查询并行执行，合并在单线程中完成
+        List<long[]> edges = ids.parallelStream()
+                .flatMap(id -> {
+                    int[] signature = index.getSignature(id);
+                    Set<Long> matches = signature == null ? Set.of() : index.query(signature, threshold, id);
+                    return matches.stream().filter(other -> other > id).map(other -> new long[]{id, other});
+                })
+                .toList();
+        for (long[] edge : edges) {
+            union(parent, edge[0], edge[1]);
+        }
+        Map<Long, Set<Long>> clusters = new LinkedHashMap<>();
+        for (Long id : parent.keySet()) {
+            clusters.computeIfAbsent(find(parent, id), k -> new TreeSet<>()).add(id);
+        }
+        List<List<Long>> result = new ArrayList<>();
+        for (Set<Long> cluster : clusters.values()) {
+            if (cluster.size() > 1) {
+                result.add(new ArrayList<>(cluster));
+            }
+        }
+        result.sort(Comparator.comparingInt((List<Long> c) -> c.size()).reversed());
+        return result;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int indexSize() {
+        return index.size();
+    }
+
+    private static Long find(Map<Long, Long> parent, Long id) {
+        Long root = id;
+        while (!parent.getOrDefault(root, root).equals(root)) {
+            root = parent.get(root);
+        }
+        // 路径压缩
+        Long node = id;
+        while (!node.equals(root)) {
+            Long next = parent.get(node);
+            parent.put(node, root);
+            node = next;
+        }
+        return root;
+    }
+
+    private static void union(Map<Long, Long> parent, Long a, Long b) {
+        parent.putIfAbsent(a, a);
+        parent.putIfAbsent(b, b);
+        Long ra = find(parent, a);
+        Long rb = find(parent, b);
+        if (!ra.equals(rb)) {
+            parent.put(Math.max(ra, rb), Math.min(ra, rb));
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package org.example.papermaker.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.example.papermaker.config.VirtualThreadSupport;
+import org.example.papermaker.dto.QuestionImportResult;
+import org.example.papermaker.entity.QuestionEntity;
+import org.example.papermaker.mapper.QuestionMapper;
+import org.example.papermaker.util.LshIndex;
+import org.example.papermaker.util.XlsxRowStreamer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 题目批量导入流水线
+ * 流式读取 → 分块并行校验（含MinHash签名）→ 顺序查重 → 分块事务内多行插入 → 结束时统一失效缓存和抽样索引
+ *
+ * 每块独立提交，某块多行插入失败时该块回退为逐行插入，以便定位出错行；
+ * 整个导入过程中内存只保留当前块的数据
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Service
+public class QuestionImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionImportService.class);
+
+    @Resource
+    private QuestionMapper questionMapper;
+
+    @Resource
+    private QuestionDedupService questionDedupService;
+
+    @Resource
+    private QuestionSamplingService questionSamplingService;
+
+    @Resource
+    private QuestionStatisticsService questionStatisticsService;
+
+    @Resource
+    private RedisCacheService redisCacheService;
+
+    @Resource
+    private FileParseService fileParseService;
+
+    @Resource
+    private WordImageUploader wordImageUploader;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    @Resource
+    private VirtualThreadSupport virtualThreads;
+
+    @Value("${question.import.chunk-size:500}")
+    private int chunkSize;
+
+    /** 校验阶段的线程数，0 表示CPU核数 */
+    @Value("${question.import.prepare-threads:0}")
+    private int prepareThreads;
+
+    /**
+     * 校验阶段专用线程池：Word 导入在此等待图片上传完成，不占用公共 ForkJoin 池
+     */
+    private ExecutorService prepareExecutor;
+
+    @PostConstruct
+    public void init() {
+        int threads = prepareThreads > 0 ? prepareThreads : Runtime.getRuntime().availableProcessors();
+        prepareExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                virtualThreads.threadFactory("question-import-prepare"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prepareExecutor.shutdown();
+    }
+
+    /**
+     * 逐行读取题目的数据源
+     * 每次返回下一行的解析函数（在并行校验阶段执行，解析失败记为该行的错误），没有更多行时返回null
+     */
+    @FunctionalInterface
+    public interface RowReader {
+        Callable<QuestionEntity> next() throws IOException;
+    }
+
+    /**
+     * 导入进度回调，每提交一块调用一次；progress 的 totalCount 为已处理的行数，其副本可作为断点
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(QuestionImportResult progress, int rowsRead);
+    }
+
+    /**
+     * 从JSON数组流式导入题目（请求体不整体反序列化）
+     *
+     * @param body           JSON数组输入流
+     * @param creatorId      创建者ID
+     * @param system         是否导入为系统题目
+     * @param skipDuplicates 近似重复的题目是否跳过
+     */
+    public QuestionImportResult importJson(InputStream body, Long creatorId, boolean system, boolean skipDuplicates)
+            throws IOException {
+        return importJson(body, creatorId, system, skipDuplicates, null, null);
+    }
+
+    /**
+     * 从JSON数组流式导入题目，可从断点继续
+     *
+     * @param checkpoint 断点（上次导入最后一块提交后的结果快照），为null时从头导入
+     * @param listener   进度回调，可为null
+     */
+    public QuestionImportResult importJson(InputStream body, Long creatorId, boolean system, boolean skipDuplicates,
+                                           QuestionImportResult checkpoint, ProgressListener listener)
+            throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("请求体必须是题目数组");
+            }
+            RowReader reader = () -> {
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    return null;
+                }
+                JsonNode node = parser.readValueAsTree();
+                return () -> {
+                    if (!node.isObject()) {
+                        throw new IllegalArgumentException("不是题目对象");
+                    }
+                    return objectMapper.treeToValue(node, QuestionEntity.class);
+                };
+            };
+            return importQuestions(reader, creatorId, system, skipDuplicates, checkpoint, listener);
+        }
+    }
+
+    /**
+     * 从xlsx文件流式导入题目
+     * 上传内容先落到临时文件，再由 {@link XlsxRowStreamer} 以SAX方式逐行解析到有界队列，
+     * 流水线按块从队列取行，内存占用与表格行数无关
+     *
+     * @param subjectId 题目所属学科（Excel模板中没有学科列）
+     * @param listener  进度回调，可为null
+     */
+    public QuestionImportResult importExcel(MultipartFile file, Long subjectId, Long creatorId, boolean system,
+                                            boolean skipDuplicates, ProgressListener listener) throws IOException {
+        File tempFile = File.createTempFile("question-import-", ".xlsx");
+        try {
+            file.transferTo(tempFile);
+            return importExcel(tempFile, subjectId, creatorId, system, skipDuplicates, null, listener);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * 从本地xlsx文件流式导入题目，可从断点继续
+     *
+     * @param checkpoint 断点，为null时从头导入
+     */
+    public QuestionImportResult importExcel(File file, Long subjectId, Long creatorId, boolean system,
+                                            boolean skipDuplicates, QuestionImportResult checkpoint,
+                                            ProgressListener listener) throws IOException {
+        try (XlsxRowStreamer rows = new XlsxRowStreamer(file, FileParseService.EXCEL_COLUMNS, chunkSize * 2)) {
+            RowReader reader = () -> {
+                XlsxRowStreamer.Row row;
+                while ((row = rows.next()) != null) {
+                    XlsxRowStreamer.Row current = row;
+                    // 表头和空行不计入导入行
+                    if (current.getRowNum() > 0 && !current.get(0).trim().isEmpty()) {
+                        return () -> {
+                            QuestionEntity question = fileParseService.toQuestion(current);
+                            question.setSubjectId(subjectId);
+                            return question;
+                        };
+                    }
+                }
+                return null;
+            };
+            return importQuestions(reader, creatorId, system, skipDuplicates, checkpoint, listener);
+        }
+    }
+
+    /**
+     * 从docx文件逐题导入题目
+     * 解析线程逐题产出，图片由 {@link WordImageUploader} 并行上传，每块在校验阶段等待本块图片完成后
+     * 把占位引用替换为URL，再按块批量写库；图片上传失败的题目记为失败行，错误信息写入导入结果
+     *
+     * @param subjectId 题目所属学科
+     * @param listener  进度回调，可为null
+     */
+    public QuestionImportResult importWord(MultipartFile file, Long subjectId, Long creatorId, boolean system,
+                                           boolean skipDuplicates, ProgressListener listener) throws IOException {
+        File tempFile = File.createTempFile("question-import-", ".docx");
+        try {
+            file.transferTo(tempFile);
+            return importWord(tempFile, subjectId, creatorId, system, skipDuplicates, null, listener);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * 从本地docx文件逐题导入题目，可从断点继续
+     * 断点之前的题目仍会被解析（图片按内容哈希上传，已上传的不会重复上传），但不再写库
+     *
+     * @param checkpoint 断点，为null时从头导入
+     */
+    public QuestionImportResult importWord(File file, Long subjectId, Long creatorId, boolean system,
+                                           boolean skipDuplicates, QuestionImportResult checkpoint,
+                                           ProgressListener listener) throws IOException {
+        WordImageUploader.Batch images = wordImageUploader.newBatch();
+        try (WordQuestionParser parser = new WordQuestionParser(file, images)) {
+            RowReader reader = () -> {
+                QuestionEntity question = parser.next();
+                if (question == null) {
+                    return null;
+                }
+                return () -> {
+                    images.resolve(question);
+                    question.setSubjectId(subjectId);
+                    return question;
+                };
+            };
+            QuestionImportResult result = importQuestions(reader, creatorId, system, skipDuplicates, checkpoint, listener);
+            log.info("Word导入共上传 {} 张不同图片", images.getImageCount());
+            return result;
+        }
+    }
+
+    /**
+     * 执行导入流水线
+     */
+    public QuestionImportResult importQuestions(RowReader reader, Long creatorId, boolean system, boolean skipDuplicates,
+                                                ProgressListener listener) throws IOException {
+        return importQuestions(reader, creatorId, system, skipDuplicates, null, listener);
+    }
+
+    /**
+     * 执行导入流水线，可从断点继续
+     * 断点的 totalCount 是上次最后一块提交时已读取的行数：这些行只读取不处理，行号保持不变，
+     * 计数和错误在断点副本上继续累加。每块提交后回调的进度即为新的断点；
+     * 数据库不可用时中止导入并抛出异常，未提交的块从最近的断点重新处理
+     *
+     * @param checkpoint 断点，为null时从头导入
+     */
+    public QuestionImportResult importQuestions(RowReader reader, Long creatorId, boolean system, boolean skipDuplicates,
+                                                QuestionImportResult checkpoint, ProgressListener listener)
+            throws IOException {
+        long start = System.currentTimeMillis();
+        QuestionImportResult result = checkpoint == null ? new QuestionImportResult() : checkpoint.copy();
+        int skipRows = result.getTotalCount();
+        int successBefore = result.getSuccessCount();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        int rowIndex = 0;
+        try {
+            Callable<QuestionEntity> next;
+            while ((next = reader.next()) != null) {
+                if (++rowIndex <= skipRows) {
+                    continue;
+                }
+                chunk.add(new ImportRow(rowIndex, next));
+                if (chunk.size() >= chunkSize) {
+                    processChunk(chunk, creatorId, system, skipDuplicates, transaction, result);
+                    chunk = new ArrayList<>(chunkSize);
+                    reportProgress(listener, result, rowIndex);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, creatorId, system, skipDuplicates, transaction, result);
+                reportProgress(listener, result, rowIndex);
+            }
+            result.setTotalCount(Math.max(rowIndex, skipRows));
+        } finally {
+            if (result.getSuccessCount() > successBefore) {
+                // 整批结束（或中止）后统一失效一次，而不是每行失效
+                questionSamplingService.invalidate();
+                redisCacheService.bumpVersions(CacheKeyBuilder.nsQuestions());
+            }
+        }
+        result.setElapsedMs(result.getElapsedMs() + System.currentTimeMillis() - start);
+        log.info("题目批量导入完成: 共 {} 行, 成功 {}, 失败 {}, 重复 {}, {} 块, 耗时 {} ms",
+                result.getTotalCount(), result.getSuccessCount(), result.getFailedCount(), result.getDuplicateCount(),
+                result.getChunkCount(), result.getElapsedMs());
+        return result;
+    }
+
+    private void processChunk(List<ImportRow> chunk, Long creatorId, boolean system, boolean skipDuplicates,
+                              TransactionTemplate transaction, QuestionImportResult result) {
+        // 1. 并行解析、校验、计算签名（纯CPU，不访问数据库）
+        LocalDateTime now = LocalDateTime.now();
+        CompletableFuture.allOf(chunk.stream()
+                .map(row -> CompletableFuture.runAsync(() -> prepare(row, creatorId, system, now), prepareExecutor))
+                .toArray(CompletableFuture[]::new)).join();
+
+        // 2. 顺序查重：与题库比较，也与本块中前面的题比较
+        LshIndex pending = new LshIndex();
+        List<ImportRow> toInsert = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (row.error != null) {
+                result.getErrors().add("题目" + row.index + ": " + row.error);
+                continue;
+            }
+            Long duplicateOf = questionDedupService.findDuplicate(row.signature, null, creatorId);
+            Long duplicateRow = duplicateOf == null ? questionDedupService.findDuplicateIn(pending, row.signature) : null;
+            if (duplicateOf != null || duplicateRow != null) {
+                Map<String, Object> duplicate = new HashMap<>();
+                duplicate.put("index", row.index);
+                if (duplicateOf != null) {
+                    duplicate.put("duplicateOf", duplicateOf);
+                } else {
+                    duplicate.put("duplicateOfRow", duplicateRow);
+                }
+                duplicate.put("skipped", skipDuplicates);
+                result.getDuplicates().add(duplicate);
+                if (skipDuplicates) {
+                    continue;
+                }
+            }
+            pending.put((long) row.index, row.signature);
+            toInsert.add(row);
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        // 3. 分块事务内多行插入；失败时回退为逐行插入定位出错行
+        List<QuestionEntity> entities = new ArrayList<>(toInsert.size());
+        for (ImportRow row : toInsert) {
+            entities.add(row.question);
+        }
+        List<ImportRow> inserted = new ArrayList<>(toInsert.size());
+        try {
+            transaction.executeWithoutResult(status -> {
+                questionMapper.insertBatch(entities);
+                questionStatisticsService.onCreated(entities);
+            });
+            inserted.addAll(toInsert);
+        } catch (CannotCreateTransactionException | DataAccessResourceFailureException e) {
+            // 数据库不可用：本块整体未提交，逐行重试没有意义，中止导入等待从断点继续
+            throw e;
+        } catch (Exception e) {
+            log.warn("第 {} 块多行插入失败，回退为逐行插入: {}", result.getChunkCount() + 1, e.getMessage());
+            for (ImportRow row : toInsert) {
+                row.question.setId(null);
+                try {
+                    transaction.executeWithoutResult(status -> {
+                        questionMapper.insert(row.question);
+                        questionStatisticsService.onCreated(row.question);
+                    });
+                    inserted.add(row);
+                } catch (Exception rowError) {
+                    result.getErrors().add("题目" + row.index + ": 保存失败 " + rootMessage(rowError));
+                }
+            }
+        }
+        result.setChunkCount(result.getChunkCount() + 1);
+
+        // 4. 已提交的题目写入查重索引
+        for (ImportRow row : inserted) {
+            questionDedupService.index(row.question, row.signature);
+            result.getSuccessIds().add(row.question.getId());
+        }
+        result.setSuccessCount(result.getSuccessCount() + inserted.size());
+    }
+
+    private static void reportProgress(ProgressListener listener, QuestionImportResult result, int rowsRead) {
+        // 已读取的行都已处理完并提交，totalCount 即断点位置
+        result.setTotalCount(rowsRead);
+        log.debug("题目导入进度: 已读取 {} 行, 成功 {}, 失败 {}", rowsRead, result.getSuccessCount(), result.getFailedCount());
+        if (listener != null) {
+            try {
+                listener.onProgress(result, rowsRead);
+            } catch (Exception e) {
+                log.warn("导入进度回调失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void prepare(ImportRow row, Long creatorId, boolean system, LocalDateTime now) {
+        QuestionEntity question;
+        try {
+            question = row.source.call();
+        } catch (WordImageUploader.UploadFailedException e) {
+            row.error = e.getMessage();
+            return;
+        } catch (Exception e) {
+            row.error = "解析失败 " + rootMessage(e);
+            return;
+        }
+        row.source = null;
+        String error = validate(question);
+        if (error != null) {
+            row.error = error;
+            return;
+        }
+        question.setId(null);
+        question.setIsSystem(system);
+        question.setCreatorId(creatorId);
+        question.setCreatedAt(now);
+        question.setUpdatedAt(now);
+        row.signature = questionDedupService.sign(question);
+        row.question = question;
+    }
+
+    /**
+     * 必填字段校验，返回错误原因，通过时返回null
+     */
+    private static String validate(QuestionEntity question) {
+        if (question == null) {
+            return "题目内容为空";
+        }
+        if (question.getTitle() == null || question.getTitle().trim().isEmpty()) {
+            return "题目标题不能为空";
+        }
+        if (question.getType() == null) {
+            return "题目类型不能为空";
+        }
+        if (question.getDifficulty() == null) {
+            return "难度等级不能为空";
+        }
+        if (question.getCorrectAnswer() == null || question.getCorrectAnswer().trim().isEmpty()) {
+            return "正确答案不能为空";
+        }
+        if (question.getSubjectId() == null) {
+            return "学科ID不能为空";
+        }
+        return null;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    /**
+     * 流水线中的一行
+     */
+    private static final class ImportRow {
+        final int index;
+        Callable<QuestionEntity> source;
+        QuestionEntity question;
+        int[] signature;
+        String error;
+
+        ImportRow(int index, Callable<QuestionEntity> source) {
+            this.index = index;
+            this.source = source;
+        }
+    }
+}
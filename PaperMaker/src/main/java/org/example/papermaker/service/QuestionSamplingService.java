@@ -0,0 +1,400 @@
+package org.example.papermaker.service;
+
+import jakarta.annotation.Resource;
+import org.example.papermaker.entity.QuestionEntity;
+import org.example.papermaker.mapper.QuestionMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 题目随机抽样服务
+ * 内存中按（学科, 题型, 难度, 归属）分桶保存题目ID数组，抽样时把匹配的桶视为一个拼接数组，
+ * 用 Floyd 算法抽取不重复下标后按ID批量取题，代价只与抽样数量有关，
+ * 替代 ORDER BY RAND() 对整张表排序的做法
+ *
+ * 单题增删改后按该题的分桶变化增量更新（只复制受影响的桶），批量导入后调用 {@link #invalidate()}，
+ * 下一次抽样时整体重建；另按 refresh-seconds 定期重建，重建期间其他线程继续使用旧快照
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Service
+public class QuestionSamplingService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionSamplingService.class);
+
+    /** 单次抽样数量上限 */
+    public static final int MAX_SAMPLE_SIZE = 200;
+
+    @Resource
+    private QuestionMapper questionMapper;
+
+    @Value("${question.sampling.refresh-seconds:300}")
+    private long refreshSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+    private volatile boolean stale = true;
+
+    /**
+     * 从当前用户可见的题目（系统题目 + 自己的题目）中均匀随机抽取不重复的题目
+     *
+     * @param userId     当前用户ID，为空时只从系统题目中抽取
+     * @param subjectId  学科ID，为空表示不限
+     * @param type       题型，为空表示不限
+     * @param difficulty 难度，为空表示不限
+     * @param count      抽取数量
+     * @return 随机顺序的题目列表，可用题目不足时返回全部可用题目
+     */
+    public List<QuestionEntity> sample(Long userId, Long subjectId, QuestionEntity.QuestionType type,
+                                       QuestionEntity.DifficultyLevel difficulty, int count) {
+        int limit = Math.min(Math.max(count, 0), MAX_SAMPLE_SIZE);
+        if (limit == 0) {
+            return new ArrayList<>();
+        }
+        Snapshot current = snapshot();
+        List<Bucket> matched = new ArrayList<>();
+        collect(current.systemBuckets, subjectId, type, difficulty, matched);
+        if (userId != null) {
+            collect(current.userBuckets.getOrDefault(userId, Collections.emptyList()), subjectId, type, difficulty, matched);
+        }
+        List<Long> ids = drawIds(matched, limit);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, QuestionEntity> loaded = questionMapper.selectBatchIds(ids).stream()
+                .collect(Collectors.toMap(QuestionEntity::getId, Function.identity(), (a, b) -> a));
+        if (loaded.size() < ids.size()) {
+            // 有题目在两次重建之间被删除，下次抽样前重建
+            stale = true;
+        }
+        return ids.stream().map(loaded::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * 批量变更（如导入）后调用，下一次抽样时整体重建索引
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * 题目新增后调用
+     */
+    public void onSaved(QuestionEntity question) {
+        applyDelta(question.getId(), null, keyOf(question));
+    }
+
+    /**
+     * 题目删除后调用
+     */
+    public void onDeleted(QuestionEntity question) {
+        applyDelta(question.getId(), keyOf(question), null);
+    }
+
+    /**
+     * 题目更新后调用；学科、题型、难度、归属都未变化时不做任何操作
+     *
+     * @param update   本次更新的字段（局部更新时未修改的字段为null）
+     * @param existing 更新前的题目
+     */
+    public void onUpdated(QuestionEntity update, QuestionEntity existing) {
+        QuestionEntity merged = new QuestionEntity();
+        merged.setSubjectId(update.getSubjectId() != null ? update.getSubjectId() : existing.getSubjectId());
+        merged.setType(update.getType() != null ? update.getType() : existing.getType());
+        merged.setDifficulty(update.getDifficulty() != null ? update.getDifficulty() : existing.getDifficulty());
+        merged.setIsSystem(update.getIsSystem() != null ? update.getIsSystem() : existing.getIsSystem());
+        merged.setCreatorId(update.getCreatorId() != null ? update.getCreatorId() : existing.getCreatorId());
+        applyDelta(existing.getId(), keyOf(existing), keyOf(merged));
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null && !stale && !current.isExpired(refreshSeconds)) {
+            return current;
+        }
+        if (current != null) {
+            // 已有快照时只由一个线程重建，其他线程继续使用旧快照（已删除的题目在取题时被过滤）
+            if (!lock.tryLock()) {
+                return current;
+            }
+        } else {
+            lock.lock();
+        }
+        try {
+            current = snapshot;
+            if (current == null || stale || current.isExpired(refreshSeconds)) {
+                stale = false;
+                current = rebuild();
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 把一道题从 from 桶移到 to 桶（为null表示不在任何桶中），生成新快照替换当前快照；
+     * 快照尚未建立或已标记重建时不处理，重复添加、移除不存在的ID均被忽略
+     */
+    private void applyDelta(Long id, BucketKey from, BucketKey to) {
+        if (id == null || Objects.equals(from, to)) {
+            return;
+        }
+        lock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null || stale) {
+                return;
+            }
+            Snapshot next = current;
+            if (from != null) {
+                next = next.with(from, id, false);
+            }
+            if (to != null) {
+                next = next.with(to, id, true);
+            }
+            snapshot = next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 题目所在的桶；既不是系统题目又没有创建者的题目不参与抽样
+     */
+    private static BucketKey keyOf(QuestionEntity q) {
+        boolean system = Boolean.TRUE.equals(q.getIsSystem());
+        Long owner = system ? null : q.getCreatorId();
+        if (!system && owner == null) {
+            return null;
+        }
+        return new BucketKey(q.getSubjectId(), q.getType(), q.getDifficulty(), owner);
+    }
+
+    /**
+     * 只查询分桶所需的窄列，按桶聚合为ID数组
+     */
+    private Snapshot rebuild() {
+        long start = System.currentTimeMillis();
+        List<QuestionEntity> keys = questionMapper.selectSamplingKeys();
+
+        Map<BucketKey, List<Long>> grouped = new HashMap<>();
+        for (QuestionEntity q : keys) {
+            BucketKey key = keyOf(q);
+            if (key != null) {
+                grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(q.getId());
+            }
+        }
+
+        List<Bucket> systemBuckets = new ArrayList<>();
+        Map<Long, List<Bucket>> userBuckets = new HashMap<>();
+        for (Map.Entry<BucketKey, List<Long>> entry : grouped.entrySet()) {
+            BucketKey key = entry.getKey();
+            long[] ids = entry.getValue().stream().mapToLong(Long::longValue).toArray();
+            Bucket bucket = new Bucket(key.subjectId, key.type, key.difficulty, ids);
+            if (key.owner == null) {
+                systemBuckets.add(bucket);
+            } else {
+                userBuckets.computeIfAbsent(key.owner, k -> new ArrayList<>()).add(bucket);
+            }
+        }
+        log.info("题目抽样索引重建完成: {} 道题, {} 个分桶, 耗时 {} ms",
+                keys.size(), grouped.size(), System.currentTimeMillis() - start);
+        return new Snapshot(systemBuckets, userBuckets, System.currentTimeMillis());
+    }
+
+    private static void collect(List<Bucket> buckets, Long subjectId, QuestionEntity.QuestionType type,
+                                QuestionEntity.DifficultyLevel difficulty, List<Bucket> out) {
+        for (Bucket bucket : buckets) {
+            if ((subjectId == null || subjectId.equals(bucket.subjectId))
+                    && (type == null || type == bucket.type)
+                    && (difficulty == null || difficulty == bucket.difficulty)) {
+                out.add(bucket);
+            }
+        }
+    }
+
+    /**
+     * 把匹配的桶看作一个拼接数组，用 Floyd 算法抽取 k 个不重复下标，再按前缀和定位到具体桶
+     */
+    private static List<Long> drawIds(List<Bucket> buckets, int k) {
+        int[] prefix = new int[buckets.size() + 1];
+        for (int i = 0; i < buckets.size(); i++) {
+            prefix[i + 1] = prefix[i] + buckets.get(i).ids.length;
+        }
+        int total = prefix[buckets.size()];
+        int size = Math.min(k, total);
+        if (size == 0) {
+            return new ArrayList<>();
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<Integer> picked = new HashSet<>(size * 2);
+        for (int j = total - size; j < total; j++) {
+            int t = random.nextInt(j + 1);
+            picked.add(picked.contains(t) ? j : t);
+        }
+
+        List<Long> ids = new ArrayList<>(size);
+        for (int position : picked) {
+            int bucketIndex = Arrays.binarySearch(prefix, position);
+            // 命中前缀和边界时取该边界开始的桶，否则取插入点前一个桶；跳过空桶
+            bucketIndex = bucketIndex >= 0 ? bucketIndex : -bucketIndex - 2;
+            while (prefix[bucketIndex + 1] <= position) {
+                bucketIndex++;
+            }
+            ids.add(buckets.get(bucketIndex).ids[position - prefix[bucketIndex]]);
+        }
+        Collections.shuffle(ids, random);
+        return ids;
+    }
+
+    private static final class Snapshot {
+        final List<Bucket> systemBuckets;
+        final Map<Long, List<Bucket>> userBuckets;
+        final long builtAt;
+
+        Snapshot(List<Bucket> systemBuckets, Map<Long, List<Bucket>> userBuckets, long builtAt) {
+            this.systemBuckets = systemBuckets;
+            this.userBuckets = userBuckets;
+            this.builtAt = builtAt;
+        }
+
+        /**
+         * 返回在 key 对应的桶中加入（或移除）一个ID后的新快照，只复制受影响的桶和桶列表
+         */
+        Snapshot with(BucketKey key, long id, boolean add) {
+            List<Bucket> source = key.owner == null
+                    ? systemBuckets
+                    : userBuckets.getOrDefault(key.owner, Collections.emptyList());
+            List<Bucket> buckets = new ArrayList<>(source.size() + 1);
+            boolean found = false;
+            for (Bucket bucket : source) {
+                if (bucket.matches(key)) {
+                    found = true;
+                    Bucket changed = add ? bucket.plus(id) : bucket.minus(id);
+                    if (changed == bucket) {
+                        return this;
+                    }
+                    if (changed.ids.length > 0) {
+                        buckets.add(changed);
+                    }
+                } else {
+                    buckets.add(bucket);
+                }
+            }
+            if (!found) {
+                if (!add) {
+                    return this;
+                }
+                buckets.add(new Bucket(key.subjectId, key.type, key.difficulty, new long[]{id}));
+            }
+            if (key.owner == null) {
+                return new Snapshot(buckets, userBuckets, builtAt);
+            }
+            Map<Long, List<Bucket>> users = new HashMap<>(userBuckets);
+            users.put(key.owner, buckets);
+            return new Snapshot(systemBuckets, users, builtAt);
+        }
+
+        boolean isExpired(long refreshSeconds) {
+            return refreshSeconds > 0 && System.currentTimeMillis() - builtAt > refreshSeconds * 1000;
+        }
+    }
+
+    private static final class Bucket {
+        final Long subjectId;
+        final QuestionEntity.QuestionType type;
+        final QuestionEntity.DifficultyLevel difficulty;
+        final long[] ids;
+
+        Bucket(Long subjectId, QuestionEntity.QuestionType type, QuestionEntity.DifficultyLevel difficulty, long[] ids) {
+            this.subjectId = subjectId;
+            this.type = type;
+            this.difficulty = difficulty;
+            this.ids = ids;
+        }
+
+        boolean matches(BucketKey key) {
+            return Objects.equals(subjectId, key.subjectId) && type == key.type && difficulty == key.difficulty;
+        }
+
+        /** 加入一个ID，已存在时返回自身 */
+        Bucket plus(long id) {
+            for (long existing : ids) {
+                if (existing == id) {
+                    return this;
+                }
+            }
+            long[] next = Arrays.copyOf(ids, ids.length + 1);
+            next[ids.length] = id;
+            return new Bucket(subjectId, type, difficulty, next);
+        }
+
+        /** 移除一个ID，不存在时返回自身 */
+        Bucket minus(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    long[] next = new long[ids.length - 1];
+                    System.arraycopy(ids, 0, next, 0, i);
+                    System.arraycopy(ids, i + 1, next, i, ids.length - i - 1);
+                    return new Bucket(subjectId, type, difficulty, next);
+                }
+            }
+            return this;
+        }
+    }
+
+    private static final class BucketKey {
+        final Long subjectId;
+        final QuestionEntity.QuestionType type;
+        final QuestionEntity.DifficultyLevel difficulty;
+        /** 系统题目为null，个人题目为创建者ID */
+        final Long owner;
+
+        BucketKey(Long subjectId, QuestionEntity.QuestionType type, QuestionEntity.DifficultyLevel difficulty, Long owner) {
+            this.subjectId = subjectId;
+            this.type = type;
+            this.difficulty = difficulty;
+            this.owner = owner;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BucketKey)) {
+                return false;
+            }
+            BucketKey other = (BucketKey) o;
+            return Objects.equals(subjectId, other.subjectId) && type == other.type
+                    && difficulty == other.difficulty && Objects.equals(owner, other.owner);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(subjectId, type, difficulty, owner);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.example.papermaker.service;
+
+import jakarta.annotation.Resource;
+import org.example.papermaker.entity.QuestionEntity;
+import org.example.papermaker.mapper.QuestionMapper;
+import org.example.papermaker.mapper.QuestionStatCounterMapper;
+import org.example.papermaker.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 题目统计服务
+ * 按（学科, 题型, 难度, 创建者, 是否系统题）在 question_stat_counters 表中维护计数，
+ * 题目增删改时由 QuestionServiceImpl 在同一事务内增减；统计结果按学科缓存到Redis，
+ * 计数变化的事务提交后失效对应学科的缓存；扣减后出现负计数（与题目表不一致）时在同一事务内全量重新计算
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Service
+public class QuestionStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionStatisticsService.class);
+
+    private static final Duration STATS_TTL = Duration.ofMinutes(30);
+
+    @Resource
+    private QuestionStatCounterMapper counterMapper;
+
+    @Resource
+    private QuestionMapper questionMapper;
+
+    @Autowired
+    private RedisCacheService cache;
+
+    /**
+     * 计数表为空而题目表有数据时（首次部署），启动后自动全量计算一次
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initCountersIfEmpty() {
+        try {
+            if (counterMapper.countRows() == 0 && questionMapper.selectCount(null) > 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.warn("初始化题目统计计数失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 题目新增后调用
+     */
+    public void onCreated(QuestionEntity question) {
+        applyDelta(question, 1);
+    }
+
+    /**
+     * 批量新增后调用，按分组合并后每个分组只更新一次
+     */
+    public void onCreated(Collection<QuestionEntity> questions) {
+        Map<List<Object>, QuestionEntity> representatives = new HashMap<>();
+        Map<List<Object>, Integer> counts = new HashMap<>();
+        for (QuestionEntity q : questions) {
+            List<Object> group = Arrays.asList(q.getSubjectId(), q.getType(), q.getDifficulty(),
+                    q.getCreatorId(), Boolean.TRUE.equals(q.getIsSystem()));
+            representatives.putIfAbsent(group, q);
+            counts.merge(group, 1, Integer::sum);
+        }
+        counts.forEach((group, count) -> applyDelta(representatives.get(group), count));
+    }
+
+    /**
+     * 题目删除后调用
+     */
+    public void onDeleted(QuestionEntity question) {
+        applyDelta(question, -1);
+    }
+
+    /**
+     * 题目更新后调用；分组字段未变化时不做任何操作
+     *
+     * @param before 更新前的题目
+     * @param after  更新后的题目（分组字段均已合并为最终值）
+     */
+    public void onUpdated(QuestionEntity before, QuestionEntity after) {
+        if (before == null || after == null || sameGroup(before, after)) {
+            return;
+        }
+        applyDelta(before, -1);
+        applyDelta(after, 1);
+    }
+
+    /**
+     * 获取某学科按题型、难度的题目数量（subjectId 为空表示全部学科）
+     *
+     * @return statistics（按题型，含TOTAL）、difficultyStatistics（按难度）、total
+     */
+    public Map<String, Object> getStatistics(Long subjectId) {
+        String key = CacheKeyBuilder.qStats(cache.versionTag(CacheKeyBuilder.nsStats()), subjectId);
+        Map<String, Object> cached = cache.getMap(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Map<String, Integer> byType = new HashMap<>();
+        Map<String, Integer> byDifficulty = new HashMap<>();
+        int total = 0;
+        List<Map<String, Object>> rows = counterMapper.sumBySubject(subjectId);
+        for (Map<String, Object> row : rows) {
+            int count = ((Number) row.get("count")).intValue();
+            byType.merge(String.valueOf(row.get("type")), count, Integer::sum);
+            byDifficulty.merge(String.valueOf(row.get("difficulty")), count, Integer::sum);
+            total += count;
+        }
+        byType.put("TOTAL", total);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("subjectId", subjectId);
+        result.put("statistics", byType);
+        result.put("difficultyStatistics", byDifficulty);
+        result.put("total", total);
+        cache.setMap(key, result, STATS_TTL);
+        return result;
+    }
+
+    /**
+     * 从题目表全量重新计算计数，并清空统计缓存
+     *
+     * @return 重建后的分组数量
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int rebuild() {
+        return rebuildCounters();
+    }
+
+    private int rebuildCounters() {
+        long start = System.currentTimeMillis();
+        counterMapper.deleteAll();
+        int groups = counterMapper.rebuildFromQuestions();
+        cache.bumpVersions(CacheKeyBuilder.nsStats());
+        log.info("题目统计计数重建完成: {} 个分组, 耗时 {} ms", groups, System.currentTimeMillis() - start);
+        return groups;
+    }
+
+    private void applyDelta(QuestionEntity q, int delta) {
+        if (q == null || q.getType() == null || q.getDifficulty() == null) {
+            return;
+        }
+        long subjectId = q.getSubjectId() == null ? 0L : q.getSubjectId();
+        long creatorId = q.getCreatorId() == null ? 0L : q.getCreatorId();
+        boolean isSystem = Boolean.TRUE.equals(q.getIsSystem());
+        counterMapper.applyDelta(subjectId, q.getType().name(), q.getDifficulty().name(), creatorId, isSystem, delta);
+        if (delta < 0) {
+            Integer count = counterMapper.selectGroupCount(subjectId, q.getType().name(), q.getDifficulty().name(),
+                    creatorId, isSystem);
+            if (count != null && count < 0) {
+                log.warn("题目统计计数出现负数（学科 {}, {}, {}），与题目表不一致，重新计算",
+                        subjectId, q.getType(), q.getDifficulty());
+                rebuildCounters();
+            }
+        }
+        TransactionHooks.afterCommit(() -> {
+            String version = cache.versionTag(CacheKeyBuilder.nsStats());
+            cache.evictKey(CacheKeyBuilder.qStats(version, q.getSubjectId()));
+            cache.evictKey(CacheKeyBuilder.qStats(version, null));
+        });
+    }
+
+    private static boolean sameGroup(QuestionEntity a, QuestionEntity b) {
+        return Objects.equals(a.getSubjectId(), b.getSubjectId())
+                && a.getType() == b.getType()
+                && a.getDifficulty() == b.getDifficulty()
+                && Objects.equals(a.getCreatorId(), b.getCreatorId())
+                && Boolean.TRUE.equals(a.getIsSystem()) == Boolean.TRUE.equals(b.getIsSystem());
+    }
+}
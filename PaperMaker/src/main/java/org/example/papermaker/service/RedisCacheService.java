@@ -1,134 +1,756 @@
 package org.example.papermaker.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JavaType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.example.papermaker.entity.KnowledgePointEntity;
 import org.example.papermaker.entity.QuestionEntity;
+import org.example.papermaker.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * 两级缓存：进程内 Caffeine（L1）+ Redis（L2）
+ * L1 保存反序列化后的只读结果，按编码后大小计权淘汰，命中时不访问Redis也不做JSON反序列化；
+ * 各类失效操作删除Redis键后，通过Redis发布订阅通知所有节点清除对应的L1条目
+ *
+ * 列表缓存按命名空间版本失效：键中嵌入版本标签，递增版本即O(1)失效整个命名空间，
+ * 不再维护反向索引集合，也不再用KEYS遍历键空间
+ */
 @Service
 public class RedisCacheService {
+    private static final Logger log = LoggerFactory.getLogger(RedisCacheService.class);
+
+    /** L1失效消息频道，消息格式：节点ID \n 类型(K=键, P=前缀, V=命名空间版本) \n 键、前缀或命名空间（每行一个） */
+    private static final String INVALIDATION_CHANNEL = "v1:cache:l1:invalidate";
+
     @Autowired
     private StringRedisTemplate redis;
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    /** 缓存值以二进制读写，编码格式由 {@link CacheCodec} 按键族决定 */
+    @Autowired
+    private RedisTemplate<String, byte[]> cacheBytesRedisTemplate;
+
+    @Autowired
+    private CacheCodec codec;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /** 所有Redis调用经熔断器执行，Redis不可用时快速失败，按未命中回源 */
+    @Autowired
+    private RedisCircuitBreaker breaker;
 
     @Value("${feature.cache.enabled:true}")
     private boolean cacheEnabled;
 
-    private final java.util.concurrent.atomic.AtomicLong hits = new java.util.concurrent.atomic.AtomicLong(0);
-    private final java.util.concurrent.atomic.AtomicLong misses = new java.util.concurrent.atomic.AtomicLong(0);
+    @Value("${feature.cache.l1.enabled:true}")
+    private boolean l1Enabled;
+
+    /** L1条目存活时间，兜底失效消息丢失的情况 */
+    @Value("${feature.cache.l1.ttl-seconds:30}")
+    private long l1TtlSeconds;
+
+    /** L1总权重上限（按Redis中编码后的字节数计） */
+    @Value("${feature.cache.l1.max-weight:33554432}")
+    private long l1MaxWeight;
+
+    /** 单个条目编码后超过该字节数时只存L2 */
+    @Value("${feature.cache.l1.max-entry-weight:1048576}")
+    private int l1MaxEntryWeight;
+
+    /** 写入Redis时在TTL上随机增加的比例，避免同时写入的热点键同时过期 */
+    @Value("${feature.cache.ttl-jitter:0.1}")
+    private double ttlJitter;
+
+    /** 跨节点加载锁的存活时间 */
+    @Value("${feature.cache.single-flight.lock-ms:3000}")
+    private long lockMillis;
+
+    /** 未抢到锁的节点等待其他节点回填缓存的最长时间，超时后自行加载 */
+    @Value("${feature.cache.single-flight.wait-ms:1000}")
+    private long waitMillis;
+
+    @Value("${feature.cache.single-flight.poll-ms:50}")
+    private long pollMillis;
+
+    /** 本节点内等待同键加载结果的最长时间 */
+    @Value("${feature.cache.single-flight.join-timeout-ms:5000}")
+    private long joinTimeoutMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /** 每次失效加一；L2读取期间发生过失效时不回填L1，避免把刚失效的旧值放回本地 */
+    private final AtomicLong invalidations = new AtomicLong(0);
+
+    private Cache<String, Weighted> local;
+
+    /** 命名空间版本的本地副本 */
+    private Cache<String, Long> versions;
+
+    private static final int SCAN_BATCH = 500;
+
+    /** Redis不可用期间未能执行的版本递增和键删除，熔断恢复后补发 */
+    private final Set<String> pendingBumps = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingDeletes = ConcurrentHashMap.newKeySet();
+
+    /** 后台SCAN清理线程，同一时间只执行一个清理任务 */
+    private final ExecutorService scanExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "cache-scan-cleanup");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+
+    /** 正在加载的键，同一节点内并发未命中共享同一个结果 */
+    private final Map<String, CompletableFuture<Object>> inflight = new ConcurrentHashMap<>();
+    private final AtomicLong loads = new AtomicLong(0);
+    private final AtomicLong joined = new AtomicLong(0);
+    private final AtomicLong waitedForPeer = new AtomicLong(0);
+    private final AtomicLong fallbacks = new AtomicLong(0);
+
+    /** 只删除自己持有的锁 */
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    @FunctionalInterface
+    private interface Decoder<T> {
+        T decode(byte[] data) throws Exception;
+    }
+
+    @PostConstruct
+    public void init() {
+        local = Caffeine.newBuilder()
+                .maximumWeight(l1MaxWeight)
+                .weigher((String key, Weighted value) -> value.weight)
+                .expireAfterWrite(Duration.ofSeconds(l1TtlSeconds))
+                .evictionListener((String key, Weighted value, RemovalCause cause) ->
+                        metrics.eviction(key, cause == RemovalCause.SIZE ? "size" : "expired"))
+                .recordStats()
+                .build();
+        versions = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(l1TtlSeconds))
+                .build();
+        breaker.onClose(() -> scanExecutor.execute(this::replayPending));
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
 
     public boolean isEnabled() { return cacheEnabled; }
 
+    /**
+     * 返回的列表在节点内共享，调用方不得修改
+     */
     public <T> List<T> getList(String key, Class<T> clazz) {
-        if (!cacheEnabled) return null;
-        try {
-            String json = redis.opsForValue().get(key);
-            if (json == null || json.isEmpty()) { misses.incrementAndGet(); return null; }
-            hits.incrementAndGet();
-            return mapper.readValue(json, mapper.getTypeFactory().constructCollectionType(List.class, clazz));
-        } catch (Exception e) {
-            return null;
-        }
+        return get(key, data -> Collections.unmodifiableList(
+                codec.decode(key, data, codec.getTypeFactory().constructCollectionType(List.class, clazz))));
     }
 
     public void setList(String key, List<?> list, Duration ttl) {
         if (!cacheEnabled) return;
-        try {
-            String json = mapper.writeValueAsString(list);
-            redis.opsForValue().set(key, json, ttl);
-        } catch (Exception ignored) {}
+        write(key, list, ttl);
     }
 
-    public Map<String, Object> getPage(String key) {
-        if (!cacheEnabled) return null;
+    /**
+     * 批量读列表：一次MGET，结果只包含命中的键；返回的列表同样不得修改
+     */
+    public <T> Map<String, List<T>> getLists(Collection<String> keys, Class<T> clazz) {
+        JavaType type = codec.getTypeFactory().constructCollectionType(List.class, clazz);
+        return getMany(keys, key -> data -> Collections.unmodifiableList(codec.decode(key, data, type)));
+    }
+
+    /**
+     * 批量写入：所有SET在一次管道中发送
+     */
+    public void setMany(Map<String, ?> values, Duration ttl) {
+        if (!cacheEnabled || values.isEmpty()) return;
+        Map<String, byte[]> encoded = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> e : values.entrySet()) {
+            try {
+                byte[] data = codec.encode(e.getKey(), e.getValue());
+                metrics.recordPayload(e.getKey(), data.length);
+                encoded.put(e.getKey(), data);
+            } catch (Exception ex) {
+                metrics.error(e.getKey(), "write");
+            }
+        }
         try {
-            String json = redis.opsForValue().get(key);
-            if (json == null || json.isEmpty()) { misses.incrementAndGet(); return null; }
-            hits.incrementAndGet();
-            return mapper.readValue(json, new TypeReference<Map<String, Object>>(){});
+            breaker.execute(() -> cacheBytesRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                encoded.forEach((key, data) -> connection.stringCommands().set(
+                        key.getBytes(StandardCharsets.UTF_8), data,
+                        Expiration.from(jitter(ttl)), RedisStringCommands.SetOption.upsert()));
+                return null;
+            }));
         } catch (Exception e) {
-            return null;
+            encoded.keySet().forEach(key -> metrics.error(key, "write"));
+            return;
         }
+        local.invalidateAll(encoded.keySet());
+    }
+
+    /**
+     * 返回的Map在节点内共享，调用方不得修改
+     */
+    public Map<String, Object> getPage(String key) {
+        return get(key, data -> Collections.unmodifiableMap(
+                codec.decode(key, data, codec.getTypeFactory().constructMapType(Map.class, String.class, Object.class))));
     }
 
     public void setPage(String key, List<QuestionEntity> records, long total, long current, long size, Duration ttl) {
         if (!cacheEnabled) return;
-        try {
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("records", records);
-            payload.put("total", total);
-            payload.put("current", current);
-            payload.put("size", size);
-            String json = mapper.writeValueAsString(payload);
-            redis.opsForValue().set(key, json, ttl);
-        } catch (Exception ignored) {}
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("records", records);
+        payload.put("total", total);
+        payload.put("current", current);
+        payload.put("size", size);
+        write(key, payload, ttl);
+    }
+
+    public Map<String, Object> getMap(String key) {
+        return getPage(key);
+    }
+
+    public void setMap(String key, Map<String, ?> value, Duration ttl) {
+        if (!cacheEnabled) return;
+        write(key, value, ttl);
     }
 
-    public boolean acquireLock(String lockKey, Duration ttl) {
+    private void write(String key, Object value, Duration ttl) {
         try {
-            Boolean ok = redis.opsForValue().setIfAbsent(lockKey, "1", ttl);
-            return Boolean.TRUE.equals(ok);
+            byte[] data = codec.encode(key, value);
+            metrics.recordPayload(key, data.length);
+            breaker.run(() -> cacheBytesRedisTemplate.opsForValue().set(key, data, jitter(ttl)));
+            local.invalidate(key);
         } catch (Exception e) {
-            return false;
+            metrics.error(key, "write");
         }
     }
 
-    public void addIdxForKp(Long kpId, String cacheKey) {
-        if (!cacheEnabled) return;
-        try { redis.opsForSet().add(CacheKeyBuilder.idxKp(kpId), cacheKey); } catch (Exception ignored) {}
-    }
-    public void addIdxForQ(Long qId, String cacheKey) {
-        if (!cacheEnabled) return;
-        try { redis.opsForSet().add(CacheKeyBuilder.idxQ(qId), cacheKey); } catch (Exception ignored) {}
+    /**
+     * 读缓存，未命中时合并加载（single-flight）
+     * 同一节点内并发请求同一个键只执行一次加载，其余请求等待同一结果；
+     * 跨节点用Redis锁选出一个加载者，其他节点短轮询等待其写入缓存，超时后自行加载
+     *
+     * @param key    缓存键
+     * @param cached 读缓存，未命中返回null
+     * @param loader 从数据库加载并写入缓存
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T loadOnce(String key, Supplier<T> cached, Supplier<T> loader) {
+        T value = cached.get();
+        if (value != null) return value;
+        if (!cacheEnabled) return load(key, loader);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inflight.putIfAbsent(key, mine);
+        if (running != null) {
+            joined.incrementAndGet();
+            try {
+                return (T) running.get(joinTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return load(key, loader);
+            } catch (TimeoutException e) {
+                fallbacks.incrementAndGet();
+                return load(key, loader);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        try {
+            T loaded = loadAcrossNodes(key, cached, loader);
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(key, mine);
+        }
     }
 
-    public void evictByKp(Long kpId) {
+    private <T> T loadAcrossNodes(String key, Supplier<T> cached, Supplier<T> loader) {
+        // 本节点上一个加载者可能刚写入
+        T value = cached.get();
+        if (value != null) return value;
+
+        String lockKey = CacheKeyBuilder.lock(key);
+        String token = UUID.randomUUID().toString();
+        Boolean locked;
         try {
-            String idxKey = CacheKeyBuilder.idxKp(kpId);
-            Set<String> keys = redis.opsForSet().members(idxKey);
-            if (keys != null && !keys.isEmpty()) {
-                redis.delete(keys);
+            locked = breaker.execute(() -> redis.opsForValue().setIfAbsent(lockKey, token, Duration.ofMillis(lockMillis)));
+        } catch (Exception e) {
+            locked = null;
+        }
+        if (locked == null || locked) {
+            // 抢到锁，或Redis不可用时直接加载
+            loads.incrementAndGet();
+            try {
+                return load(key, loader);
+            } finally {
+                if (locked != null) {
+                    try {
+                        breaker.execute(() -> redis.execute(UNLOCK_SCRIPT, List.of(lockKey), token));
+                    } catch (Exception ignored) {}
+                }
+            }
+        }
+
+        // 其他节点正在加载：轮询键是否已写入
+        waitedForPeer.incrementAndGet();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            try {
+                if (Boolean.TRUE.equals(breaker.execute(() -> redis.hasKey(key)))) {
+                    value = cached.get();
+                    if (value != null) return value;
+                }
+            } catch (Exception e) {
+                break;
             }
-        } catch (Exception ignored) {}
+        }
+        fallbacks.incrementAndGet();
+        loads.incrementAndGet();
+        return load(key, loader);
     }
 
-    public void evictByQuestion(Long qId) {
+    /**
+     * 执行加载并记录耗时，失败计入错误后原样抛出
+     */
+    private <T> T load(String key, Supplier<T> loader) {
+        long start = System.nanoTime();
         try {
-            String idxKey = CacheKeyBuilder.idxQ(qId);
-            Set<String> keys = redis.opsForSet().members(idxKey);
-            if (keys != null && !keys.isEmpty()) {
-                redis.delete(keys);
+            return loader.get();
+        } catch (RuntimeException | Error e) {
+            metrics.error(key, "load");
+            throw e;
+        } finally {
+            metrics.recordLoad(key, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * TTL增加随机抖动
+     */
+    private Duration jitter(Duration ttl) {
+        if (ttlJitter <= 0) return ttl;
+        long extra = (long) (ttl.toMillis() * ttlJitter * ThreadLocalRandom.current().nextDouble());
+        return ttl.plusMillis(extra);
+    }
+
+    /**
+     * 生成命名空间的版本标签，嵌入缓存键中（如 "3.0.12"）
+     * 版本号在本地缓存，失效消息到达或超过L1存活时间后重新从Redis批量读取
+     */
+    public String versionTag(String... namespaces) {
+        if (!cacheEnabled) return "0";
+        long[] values = new long[namespaces.length];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < namespaces.length; i++) {
+            Long v = versions.getIfPresent(namespaces[i]);
+            if (v == null) {
+                missing.add(i);
+            } else {
+                values[i] = v;
+            }
+        }
+        if (!missing.isEmpty()) {
+            long version = invalidations.get();
+            List<String> keys = new ArrayList<>(missing.size());
+            for (int i : missing) keys.add(CacheKeyBuilder.version(namespaces[i]));
+            List<String> raw;
+            try {
+                raw = breaker.execute(() -> redis.opsForValue().multiGet(keys));
+            } catch (Exception e) {
+                raw = null;
             }
-        } catch (Exception ignored) {}
+            for (int j = 0; j < missing.size(); j++) {
+                String value = raw == null ? null : raw.get(j);
+                long v = value == null ? 0L : Long.parseLong(value);
+                values[missing.get(j)] = v;
+                // Redis不可用时不缓存版本，下次重试
+                if (raw != null && invalidations.get() == version) {
+                    versions.put(namespaces[missing.get(j)], v);
+                }
+            }
+        }
+        StringBuilder tag = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) tag.append('.');
+            tag.append(values[i]);
+        }
+        return tag.toString();
+    }
+
+    /**
+     * 一次MGET把多个命名空间的版本读入本地副本，之后逐个调用 versionTag 不再访问Redis
+     */
+    public void prefetchVersions(Collection<String> namespaces) {
+        if (!namespaces.isEmpty()) {
+            versionTag(namespaces.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * 递增命名空间版本，使嵌入了这些命名空间的缓存键全部失效
+     * 在事务中调用时推迟到提交后执行，避免其他请求在提交前按新版本回填旧数据
+     */
+    public void bumpVersions(String... namespaces) {
+        if (namespaces.length == 0) return;
+        TransactionHooks.afterCommit(() -> {
+            for (String ns : namespaces) {
+                try {
+                    breaker.execute(() -> redis.opsForValue().increment(CacheKeyBuilder.version(ns)));
+                    metrics.invalidation(ns);
+                } catch (Exception e) {
+                    // 版本未递增时Redis恢复后仍会读到旧列表，记下来待恢复后补发
+                    pendingBumps.add(ns);
+                    log.warn("递增缓存版本失败，待Redis恢复后补发: {}", e.getMessage());
+                }
+            }
+            invalidateLocal("V", Arrays.asList(namespaces));
+            eventPublisher.publishEvent(new NamespacesInvalidated(List.of(namespaces)));
+        });
+    }
+
+    /**
+     * 知识点变化：失效其所属学科的知识点列表
+     */
+    public void evictByKp(KnowledgePointEntity kp) {
+        if (kp == null || kp.getSubject() == null) return;
+        bumpVersions(CacheKeyBuilder.nsKnowledgePoints(kp.getSubject().trim()));
+    }
+
+    /**
+     * 题目变化：失效所属学科的题目列表；系统题目影响所有用户的列表，个人题目只影响创建者的列表
+     */
+    public void evictByQuestion(QuestionEntity q) {
+        if (q == null) return;
+        List<String> namespaces = new ArrayList<>(List.of(
+                CacheKeyBuilder.nsSubject(q.getSubjectId()), CacheKeyBuilder.nsSubject(null)));
+        if (Boolean.TRUE.equals(q.getIsSystem())) {
+            namespaces.add(CacheKeyBuilder.nsSubjectSystem(q.getSubjectId()));
+            namespaces.add(CacheKeyBuilder.nsSubjectSystem(null));
+        } else if (q.getCreatorId() != null) {
+            namespaces.add(CacheKeyBuilder.nsUser(q.getCreatorId()));
+        }
+        bumpVersions(namespaces.toArray(new String[0]));
     }
 
     public void evictKey(String key) {
-        try { redis.delete(key); } catch (Exception ignored) {}
+        try {
+            breaker.execute(() -> redis.delete(key));
+        } catch (Exception e) {
+            pendingDeletes.add(key);
+        }
+        metrics.eviction(key, "explicit");
+        invalidateLocal("K", List.of(key));
     }
 
+    /**
+     * 按前缀删除：本地立即失效，Redis中的键由后台线程用SCAN分批删除，不阻塞Redis
+     */
     public void evictByPrefix(String prefix) {
-        try {
-            java.util.Set<String> keys = redis.keys(prefix + "*");
-            if (keys != null && !keys.isEmpty()) redis.delete(keys);
-        } catch (Exception ignored) {}
+        metrics.eviction(prefix, "explicit");
+        invalidateLocal("P", List.of(prefix));
+        scanExecutor.execute(() -> deleteByPattern(prefix + "*"));
+    }
+
+    /**
+     * 启动后在后台清理旧版反向索引集合
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cleanupLegacyIndexes() {
+        if (!cacheEnabled) return;
+        scanExecutor.execute(() -> deleteByPattern(CacheKeyBuilder.legacyIndexPattern()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanExecutor.shutdownNow();
     }
 
     public java.util.Map<String, Object> getStats() {
         java.util.Map<String, Object> m = new java.util.HashMap<>();
-        long h = hits.get();
-        long ms = misses.get();
+        CacheStats l1 = local.stats();
+        long l2Hits = hits.get();
+        long l2Misses = misses.get();
+        // 总体：L1命中或L2命中都算命中，只有L2未命中才算未命中
+        long h = l1.hitCount() + l2Hits;
         m.put("enabled", cacheEnabled);
         m.put("hits", h);
-        m.put("misses", ms);
-        m.put("hitRate", (h + ms) == 0 ? 0.0 : ((double) h / (h + ms)));
+        m.put("misses", l2Misses);
+        m.put("hitRate", (h + l2Misses) == 0 ? 0.0 : ((double) h / (h + l2Misses)));
+
+        java.util.Map<String, Object> l1Stats = new java.util.HashMap<>();
+        l1Stats.put("enabled", l1Enabled);
+        l1Stats.put("hits", l1.hitCount());
+        l1Stats.put("misses", l1.missCount());
+        l1Stats.put("hitRate", l1.hitRate());
+        l1Stats.put("evictions", l1.evictionCount());
+        l1Stats.put("size", local.estimatedSize());
+        l1Stats.put("weight", local.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L));
+        m.put("l1", l1Stats);
+
+        java.util.Map<String, Object> l2Stats = new java.util.HashMap<>();
+        l2Stats.put("hits", l2Hits);
+        l2Stats.put("misses", l2Misses);
+        l2Stats.put("hitRate", (l2Hits + l2Misses) == 0 ? 0.0 : ((double) l2Hits / (l2Hits + l2Misses)));
+        m.put("l2", l2Stats);
+
+        // 合并加载：loads 为实际查库次数，joined 为本节点合并掉的请求，
+        // waitedForPeer 为等待其他节点加载的次数，fallbacks 为等待超时后自行加载的次数
+        java.util.Map<String, Object> flight = new java.util.HashMap<>();
+        flight.put("loads", loads.get());
+        flight.put("joined", joined.get());
+        flight.put("waitedForPeer", waitedForPeer.get());
+        flight.put("fallbacks", fallbacks.get());
+        flight.put("inflight", inflight.size());
+        m.put("singleFlight", flight);
+
+        Map<String, Object> breakerStats = breaker.getStats();
+        breakerStats.put("pendingBumps", pendingBumps.size());
+        breakerStats.put("pendingDeletes", pendingDeletes.size());
+        m.put("breaker", breakerStats);
+
+        // 按键族的命中、错误、加载耗时和写入大小，同时以 cache.* 指标发布
+        m.put("families", metrics.snapshot());
         return m;
     }
-}
\ No newline at end of file
+
+    /**
+     * 先查L1，未命中再查Redis并回填L1
+     */
+    private <T> T get(String key, Decoder<T> decoder) {
+        if (!cacheEnabled) return null;
+        Weighted cached = fromL1(key);
+        if (cached != null) {
+            return cast(cached.value);
+        }
+        long version = invalidations.get();
+        try {
+            return fill(key, breaker.execute(() -> cacheBytesRedisTemplate.opsForValue().get(key)), decoder, version);
+        } catch (Exception e) {
+            // 读失败按未命中处理，回源加载
+            metrics.error(key, "read");
+            return null;
+        }
+    }
+
+    /**
+     * 批量读：L1未命中的键用一次MGET读取；结果只包含命中的键
+     */
+    private <T> Map<String, T> getMany(Collection<String> keys, Function<String, Decoder<T>> decoders) {
+        Map<String, T> result = new LinkedHashMap<>();
+        if (!cacheEnabled || keys.isEmpty()) return result;
+        List<String> remote = new ArrayList<>();
+        for (String key : keys) {
+            Weighted cached = fromL1(key);
+            if (cached != null) {
+                result.put(key, cast(cached.value));
+            } else {
+                remote.add(key);
+            }
+        }
+        if (remote.isEmpty()) return result;
+        long version = invalidations.get();
+        List<byte[]> values;
+        try {
+            values = breaker.execute(() -> cacheBytesRedisTemplate.opsForValue().multiGet(remote));
+        } catch (Exception e) {
+            remote.forEach(key -> metrics.error(key, "read"));
+            return result;
+        }
+        for (int i = 0; i < remote.size(); i++) {
+            String key = remote.get(i);
+            try {
+                T value = fill(key, values == null ? null : values.get(i), decoders.apply(key), version);
+                if (value != null) result.put(key, value);
+            } catch (Exception e) {
+                metrics.error(key, "read");
+            }
+        }
+        return result;
+    }
+
+    private Weighted fromL1(String key) {
+        if (!l1Enabled) return null;
+        Weighted cached = local.getIfPresent(key);
+        if (cached != null) {
+            metrics.hit(key, true);
+        }
+        return cached;
+    }
+
+    /**
+     * 解码Redis中读到的值并回填L1，未命中返回null
+     *
+     * @param version 发起读取前的失效计数
+     */
+    private <T> T fill(String key, byte[] data, Decoder<T> decoder, long version) throws Exception {
+        if (data == null || data.length == 0) {
+            misses.incrementAndGet();
+            metrics.miss(key);
+            return null;
+        }
+        hits.incrementAndGet();
+        metrics.hit(key, false);
+        T value = decoder.decode(data);
+        if (l1Enabled && data.length <= l1MaxEntryWeight) {
+            local.put(key, new Weighted(value, data.length));
+            // 读取期间有失效发生时撤回回填，下次重新从Redis读取
+            if (invalidations.get() != version) {
+                local.invalidate(key);
+            }
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    /**
+     * 熔断恢复后补发期间失败的版本递增和键删除
+     */
+    private void replayPending() {
+        List<String> namespaces = new ArrayList<>(pendingBumps);
+        pendingBumps.removeAll(namespaces);
+        if (!namespaces.isEmpty()) {
+            log.info("Redis恢复，补发 {} 个命名空间的版本递增", namespaces.size());
+            bumpVersions(namespaces.toArray(new String[0]));
+        }
+        List<String> keys = new ArrayList<>(pendingDeletes);
+        pendingDeletes.removeAll(keys);
+        keys.forEach(this::evictKey);
+    }
+
+    /**
+     * 清除本节点L1并通知其他节点
+     */
+    private void invalidateLocal(String type, Collection<String> keysOrPrefixes) {
+        applyInvalidation(type, keysOrPrefixes);
+        try {
+            breaker.execute(() -> redis.convertAndSend(INVALIDATION_CHANNEL,
+                    nodeId + "\n" + type + "\n" + String.join("\n", keysOrPrefixes)));
+        } catch (Exception e) {
+            log.warn("发布本地缓存失效消息失败: {}", e.getMessage());
+        }
+    }
+
+    private void onInvalidation(String message) {
+        String[] lines = message.split("\n");
+        if (lines.length < 3 || nodeId.equals(lines[0])) {
+            return;
+        }
+        applyInvalidation(lines[1], Arrays.asList(lines).subList(2, lines.length));
+    }
+
+    private void applyInvalidation(String type, Collection<String> keysOrPrefixes) {
+        invalidations.incrementAndGet();
+        if ("V".equals(type)) {
+            versions.invalidateAll(keysOrPrefixes);
+        } else if ("P".equals(type)) {
+            for (String prefix : keysOrPrefixes) {
+                local.asMap().keySet().removeIf(k -> k.startsWith(prefix));
+            }
+        } else {
+            local.invalidateAll(keysOrPrefixes);
+        }
+    }
+
+    /**
+     * SCAN增量遍历并分批删除匹配的键
+     */
+    private void deleteByPattern(String pattern) {
+        long deleted = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_BATCH).build();
+        try (Cursor<String> cursor = redis.scan(options)) {
+            List<String> batch = new ArrayList<>(SCAN_BATCH);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= SCAN_BATCH) {
+                    deleted += Optional.ofNullable(redis.delete(batch)).orElse(0L);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                deleted += Optional.ofNullable(redis.delete(batch)).orElse(0L);
+            }
+            log.info("按模式 {} 清理缓存键 {} 个", pattern, deleted);
+        } catch (Exception e) {
+            log.warn("按模式 {} 清理缓存键失败（已删除 {} 个）: {}", pattern, deleted, e.getMessage());
+        }
+    }
+
+    /**
+     * 本节点递增了命名空间版本（事务提交后发布），供缓存预热等组件监听
+     */
+    public record NamespacesInvalidated(List<String> namespaces) {}
+
+    /**
+     * L1条目：反序列化后的值及其权重
+     */
+    private static final class Weighted {
+        final Object value;
+        final int weight;
+
+        Weighted(Object value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.papermaker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Redis熔断器
+ * 连续失败（异常或耗时超过阈值）达到次数后打开，打开期间所有Redis调用直接抛出 {@link OpenException}，
+ * 由调用方按未命中处理（回源数据库或本地兜底），不再每次等待连接超时；
+ * 打开一段时间后进入半开状态，只放行一个探测请求，成功则关闭，失败则重新打开
+ *
+ * 状态通过 redis.breaker.state（0=关闭 1=打开 2=半开）发布，调用结果计入 redis.breaker.calls
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Component
+public class RedisCircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /** 熔断打开时拒绝调用 */
+    public static class OpenException extends RuntimeException {
+        public OpenException() {
+            super("Redis熔断已打开", null, false, false);
+        }
+    }
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Value("${feature.redis.breaker.enabled:true}")
+    private boolean enabled;
+
+    /** 连续失败多少次后打开 */
+    @Value("${feature.redis.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    /** 单次调用超过该耗时也算一次失败 */
+    @Value("${feature.redis.breaker.slow-call-ms:500}")
+    private long slowCallMillis;
+
+    /** 打开后多久进入半开状态 */
+    @Value("${feature.redis.breaker.open-ms:10000}")
+    private long openMillis;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+    private final AtomicBoolean probing = new AtomicBoolean(false);
+    private volatile long openedAt;
+
+    /** 从打开/半开恢复到关闭时执行，例如补发熔断期间未能写入的失效 */
+    private final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+
+    private final Map<String, Counter> calls = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("redis.breaker.state", state, s -> s.get().ordinal())
+                .description("Redis熔断状态：0=关闭 1=打开 2=半开")
+                .register(meterRegistry);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public void onClose(Runnable listener) {
+        closeListeners.add(listener);
+    }
+
+    /**
+     * 在熔断保护下执行Redis调用；熔断打开时抛出 {@link OpenException}，调用异常原样抛出
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (!enabled) return call.get();
+        boolean probe = acquirePermission();
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMillis > slowCallMillis) {
+                onFailure(probe, "slow");
+            } else {
+                onSuccess(probe);
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            onFailure(probe, "failure");
+            throw e;
+        }
+    }
+
+    public void run(Runnable call) {
+        execute(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new HashMap<>();
+        m.put("enabled", enabled);
+        m.put("state", state.get().name());
+        m.put("consecutiveFailures", consecutiveFailures.get());
+        Map<String, Long> outcomes = new HashMap<>();
+        calls.forEach((outcome, counter) -> outcomes.put(outcome, (long) counter.count()));
+        m.put("calls", outcomes);
+        return m;
+    }
+
+    /**
+     * @return 本次调用是否为半开状态的探测请求
+     */
+    private boolean acquirePermission() {
+        State current = state.get();
+        if (current == State.CLOSED) return false;
+        if (current == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            transition(State.OPEN, State.HALF_OPEN);
+        }
+        if (state.get() == State.HALF_OPEN && probing.compareAndSet(false, true)) {
+            return true;
+        }
+        count("rejected");
+        throw new OpenException();
+    }
+
+    private void onSuccess(boolean probe) {
+        count("success");
+        consecutiveFailures.set(0);
+        if (probe) {
+            probing.set(false);
+            if (transition(State.HALF_OPEN, State.CLOSED)) {
+                for (Runnable listener : closeListeners) {
+                    try {
+                        listener.run();
+                    } catch (Exception e) {
+                        log.warn("Redis熔断恢复回调失败: {}", e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private void onFailure(boolean probe, String outcome) {
+        count(outcome);
+        if (probe) {
+            probing.set(false);
+            open(State.HALF_OPEN);
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open(State.CLOSED);
+        }
+    }
+
+    private void open(State from) {
+        if (state.get() == from) {
+            // 先记录打开时间，其他线程看到OPEN时计时已经开始
+            openedAt = System.currentTimeMillis();
+            transition(from, State.OPEN);
+        }
+    }
+
+    private boolean transition(State from, State to) {
+        if (!state.compareAndSet(from, to)) return false;
+        log.warn("Redis熔断状态 {} -> {}", from, to);
+        if (to == State.CLOSED) {
+            consecutiveFailures.set(0);
+        }
+        return true;
+    }
+
+    private void count(String outcome) {
+        calls.computeIfAbsent(outcome, o -> Counter.builder("redis.breaker.calls")
+                .description("熔断保护下的Redis调用结果")
+                .tag("outcome", o)
+                .register(meterRegistry)).increment();
+    }
+}
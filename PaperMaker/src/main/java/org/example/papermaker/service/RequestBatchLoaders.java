@@ -0,0 +1,52 @@
+package org.example.papermaker.service;
+
+import jakarta.annotation.Resource;
+import org.example.papermaker.entity.SubjectEntity;
+import org.example.papermaker.entity.UserEntity;
+import org.example.papermaker.mapper.SubjectMapper;
+import org.example.papermaker.mapper.UserMapper;
+import org.example.papermaker.util.BatchLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * 请求级批量加载器
+ * 每个HTTP请求持有一组独立的 {@link BatchLoader}，同一请求内重复的ID只查询一次，
+ * 列表补充用户名、学科名时通过 selectBatchIds 一次取回
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Component
+@RequestScope
+public class RequestBatchLoaders {
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private SubjectMapper subjectMapper;
+
+    private BatchLoader<Long, UserEntity> users;
+    private BatchLoader<Long, SubjectEntity> subjects;
+
+    /**
+     * 用户加载器
+     */
+    public BatchLoader<Long, UserEntity> users() {
+        if (users == null) {
+            users = new BatchLoader<>(userMapper::selectBatchIds, UserEntity::getId);
+        }
+        return users;
+    }
+
+    /**
+     * 学科加载器
+     */
+    public BatchLoader<Long, SubjectEntity> subjects() {
+        if (subjects == null) {
+            subjects = new BatchLoader<>(subjectMapper::selectBatchIds, SubjectEntity::getId);
+        }
+        return subjects;
+    }
+}
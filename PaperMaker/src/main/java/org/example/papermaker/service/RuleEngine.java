@@ -205,9 +205,9 @@ public class RuleEngine {
             return true;  // 没有指定知识点要求，所有题目都通过
         }
         
-        // 获取题目的知识点ID列表
-        List<Long> questionKnowledgePointIds = question.getKnowledgePointIdsList();
-        if (questionKnowledgePointIds == null || questionKnowledgePointIds.isEmpty()) {
+        // 获取题目的知识点ID（已解析缓存，不重复解析JSON）
+        long[] questionKnowledgePointIds = question.getKnowledgePointIdArray();
+        if (questionKnowledgePointIds.length == 0) {
             // 题目没有关联知识点，检查题目标题是否包含知识点名称
             String questionTitle = question.getTitle().toLowerCase();
             for (String knowledgePointName : rule.getKnowledgePointNames().keySet()) {
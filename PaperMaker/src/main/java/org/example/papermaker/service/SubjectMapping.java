@@ -1,6 +1,8 @@
 package org.example.papermaker.service;
 
 import org.example.papermaker.entity.SubjectEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -11,6 +13,8 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public final class SubjectMapping {
 
+    private static final Logger log = LoggerFactory.getLogger(SubjectMapping.class);
+
     private static final Map<Long, String> ID_TO_NAME = new ConcurrentHashMap<>();
     private static final Map<String, Long> NAME_TO_ID = new ConcurrentHashMap<>();
     private static final Map<Long, List<String>> ID_TO_KEYWORDS = new ConcurrentHashMap<>();
@@ -71,16 +75,26 @@ public final class SubjectMapping {
     public static synchronized void loadFromDatabase(List<SubjectEntity> subjects, 
             org.example.papermaker.service.KnowledgePointService knowledgePointService) {
         if (subjects == null || subjects.isEmpty()) {
-            System.out.println("警告: 数据库学科数据为空，使用默认映射");
+            log.warn("数据库学科数据为空，使用默认映射");
             return;
         }
         
+        // 一次批量读取所有学科的知识点列表（在清空映射前完成，缩短映射为空的时间）
+        Map<String, List<org.example.papermaker.entity.KnowledgePointEntity>> knowledgePointsBySubject;
+        try {
+            knowledgePointsBySubject = knowledgePointService.getBySubjects(
+                    subjects.stream().map(SubjectEntity::getName).toList());
+        } catch (Exception e) {
+            log.warn("批量加载知识点失败，学科关键词使用默认值", e);
+            knowledgePointsBySubject = Collections.emptyMap();
+        }
+        
         // 清空现有映射
         ID_TO_NAME.clear();
         NAME_TO_ID.clear();
         ID_TO_KEYWORDS.clear();
         
-        System.out.println("=== 开始从数据库加载学科映射 ===");
+        log.info("开始从数据库加载学科映射");
         
         for (SubjectEntity subject : subjects) {
             Long id = subject.getId();
@@ -89,29 +103,29 @@ public final class SubjectMapping {
             // 主名称映射
             ID_TO_NAME.put(id, name);
             NAME_TO_ID.put(normalize(name), id);
-            System.out.println("加载学科: " + id + " -> " + name);
+            log.debug("加载学科: {} -> {}", id, name);
             
             // 从知识点表获取关键词
             try {
                 List<org.example.papermaker.entity.KnowledgePointEntity> knowledgePoints = 
-                        knowledgePointService.getBySubject(name);
+                        knowledgePointsBySubject.getOrDefault(name, Collections.emptyList());
                 List<String> keywords = knowledgePoints.stream()
                         .map(org.example.papermaker.entity.KnowledgePointEntity::getName)
                         .collect(java.util.stream.Collectors.toList());
                 
                 if (!keywords.isEmpty()) {
                     ID_TO_KEYWORDS.put(id, keywords);
-                    System.out.println("  从知识点表加载关键词数量: " + keywords.size());
+                    log.debug("  从知识点表加载关键词数量: {}", keywords.size());
                 } else {
                     // 如果知识点表没有数据，使用默认关键词（兜底）
                     List<String> defaultKeywords = getDefaultKeywords(id);
                     if (!defaultKeywords.isEmpty()) {
                         ID_TO_KEYWORDS.put(id, defaultKeywords);
-                        System.out.println("  使用默认关键词数量: " + defaultKeywords.size() + " (知识点表暂无数据)");
+                        log.debug("  使用默认关键词数量: {} (知识点表暂无数据)", defaultKeywords.size());
                     }
                 }
             } catch (Exception e) {
-                System.err.println("  警告: 加载知识点关键词失败: " + e.getMessage());
+                log.warn("加载学科 {} 的知识点关键词失败: {}", name, e.getMessage());
                 // 使用默认关键词作为兜底
                 List<String> defaultKeywords = getDefaultKeywords(id);
                 if (!defaultKeywords.isEmpty()) {
@@ -121,7 +135,7 @@ public final class SubjectMapping {
         }
         
         isInitialized = true;
-        System.out.println("=== 学科映射加载完成，共 " + subjects.size() + " 个学科 ===");
+        log.info("学科映射加载完成，共 {} 个学科", subjects.size());
     }
     
     /**
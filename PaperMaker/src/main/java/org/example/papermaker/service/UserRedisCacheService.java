@@ -1,12 +1,18 @@
 package org.example.papermaker.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import org.example.papermaker.entity.UserEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 用户Redis缓存服务
@@ -18,13 +24,30 @@ import java.time.Duration;
 @Service
 public class UserRedisCacheService {
     
-    private static final String USER_CACHE_PREFIX = "user:token:";
+    private static final Logger log = LoggerFactory.getLogger(UserRedisCacheService.class);
+    
+    static final String USER_CACHE_PREFIX = "user:token:";
     private static final long EXPIRATION_TIME = 24 * 60 * 60 * 1000; // 24小时，与JWT过期时间一致
     
     @Autowired
-    private StringRedisTemplate redisTemplate;
+    private RedisTemplate<String, byte[]> cacheBytesRedisTemplate;
+    
+    @Autowired
+    private CacheCodec codec;
+    
+    @Autowired
+    private CacheMetrics metrics;
+    
+    @Autowired
+    private RedisCircuitBreaker breaker;
+    
+    /** 删除失败、待Redis恢复后补删的键（注销后不能再读到用户信息） */
+    private final Set<String> pendingDeletes = ConcurrentHashMap.newKeySet();
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @PostConstruct
+    public void init() {
+        breaker.onClose(this::replayDeletes);
+    }
     
     /**
      * 将用户信息存入Redis
@@ -35,10 +58,12 @@ public class UserRedisCacheService {
     public void setUser(String token, UserEntity user) {
         try {
             String key = USER_CACHE_PREFIX + token;
-            String userJson = objectMapper.writeValueAsString(user);
             // 设置过期时间，与JWT过期时间一致
-            redisTemplate.opsForValue().set(key, userJson, Duration.ofMillis(EXPIRATION_TIME));
+            byte[] data = codec.encode(key, user);
+            metrics.recordPayload(key, data.length);
+            breaker.run(() -> cacheBytesRedisTemplate.opsForValue().set(key, data, Duration.ofMillis(EXPIRATION_TIME)));
         } catch (Exception e) {
+            metrics.error(USER_CACHE_PREFIX, "write");
             throw new RuntimeException("保存用户信息到Redis失败", e);
         }
     }
@@ -52,13 +77,21 @@ public class UserRedisCacheService {
     public UserEntity getUser(String token) {
         try {
             String key = USER_CACHE_PREFIX + token;
-            String userJson = redisTemplate.opsForValue().get(key);
-            if (userJson == null || userJson.isEmpty()) {
+            if (pendingDeletes.contains(key)) {
+                // 已注销，Redis中可能还残留未删除的旧值
                 return null;
             }
-            return objectMapper.readValue(userJson, UserEntity.class);
+            // Redis不可用（熔断打开）时快速返回null，由调用方回源
+            byte[] data = breaker.execute(() -> cacheBytesRedisTemplate.opsForValue().get(key));
+            if (data == null || data.length == 0) {
+                metrics.miss(key);
+                return null;
+            }
+            metrics.hit(key, false);
+            return codec.decode(key, data, UserEntity.class);
         } catch (Exception e) {
-            System.err.println("从Redis获取用户信息失败: " + e.getMessage());
+            metrics.error(USER_CACHE_PREFIX, "read");
+            log.warn("从Redis获取用户信息失败: {}", e.getMessage());
             return null;
         }
     }
@@ -84,7 +117,13 @@ public class UserRedisCacheService {
      */
     public void deleteUser(String token) {
         String key = USER_CACHE_PREFIX + token;
-        redisTemplate.delete(key);
+        try {
+            breaker.execute(() -> cacheBytesRedisTemplate.delete(key));
+        } catch (Exception e) {
+            pendingDeletes.add(key);
+            metrics.error(USER_CACHE_PREFIX, "delete");
+            log.warn("删除Redis用户信息失败，待Redis恢复后补删: {}", e.getMessage());
+        }
     }
     
     /**
@@ -99,6 +138,22 @@ public class UserRedisCacheService {
         String token = authHeader.substring(7); // 移除 "Bearer " 前缀
         deleteUser(token);
     }
+    
+    /**
+     * 熔断恢复后补删期间删除失败的键
+     */
+    private void replayDeletes() {
+        List<String> keys = new ArrayList<>(pendingDeletes);
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            breaker.execute(() -> cacheBytesRedisTemplate.delete(keys));
+            pendingDeletes.removeAll(keys);
+        } catch (Exception e) {
+            log.warn("补删 {} 个用户信息失败: {}", keys.size(), e.getMessage());
+        }
+    }
 }
 
 
@@ -0,0 +1,209 @@
+package org.example.papermaker.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.example.papermaker.config.VirtualThreadSupport;
+import org.example.papermaker.entity.QuestionEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Word 导入图片上传器
+ * 解析线程遇到图片时只计算内容哈希并提交上传任务，题目中先写入占位引用 ![image](img:哈希)，
+ * 图片由后台线程池并行上传到OSS（对象名为内容哈希，同一图片只上传一次），
+ * 题目写库前再把占位引用替换为图片URL，不再把图片以base64内联到题目标题中；
+ * 图片上传失败或超时时替换抛出 {@link UploadFailedException}，该题记为失败行，不会丢失图片后导入
+ *
+ * @author System
+ * @since 1.0.0
+ */
+@Service
+public class WordImageUploader {
+
+    private static final Logger log = LoggerFactory.getLogger(WordImageUploader.class);
+
+    private static final Pattern IMAGE_REF = Pattern.compile("!\\[image]\\(img:([0-9a-f]{64})\\)");
+
+    private static final String OBJECT_PREFIX = "question-images/";
+
+    /** 解析结果中图片上传失败的题目状态值 */
+    public static final String STATUS_IMAGE_FAILED = "IMAGE_FAILED";
+
+    @Resource
+    private VirtualThreadSupport virtualThreads;
+
+    @Resource
+    private OssService ossService;
+
+    @Value("${question.import.image-upload-threads:4}")
+    private int threads;
+
+    @Value("${question.import.image-upload-timeout-seconds:60}")
+    private long timeoutSeconds;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        // 队列满时由解析线程自己上传，形成背压
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(256),
+                virtualThreads.threadFactory("word-image-upload"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 图片上传失败或超时
+     */
+    public static class UploadFailedException extends RuntimeException {
+        public UploadFailedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * 为一个文档创建上传批次，批次内相同内容的图片只提交一次
+     */
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    /**
+     * 单个文档的图片上传批次
+     */
+    public class Batch {
+
+        private final Map<String, CompletableFuture<String>> uploads = new ConcurrentHashMap<>();
+
+        /**
+         * 提交图片上传，立即返回占位引用
+         *
+         * @param data     图片内容
+         * @param fileName 原文件名（取扩展名）
+         * @return 形如 ![image](img:哈希) 的占位引用
+         */
+        public String submit(byte[] data, String fileName) {
+            String hash = sha256(data);
+            uploads.computeIfAbsent(hash, h -> CompletableFuture.supplyAsync(
+                    () -> ossService.uploadIfAbsent(OBJECT_PREFIX + h + extension(fileName), data), executor));
+            return "![image](img:" + hash + ")";
+        }
+
+        /**
+         * 把文本中的占位引用替换为图片URL（等待对应图片上传完成）
+         *
+         * @throws UploadFailedException 有图片上传失败或超时
+         */
+        public String resolve(String text) {
+            if (text == null || !text.contains("](img:")) {
+                return text;
+            }
+            Matcher matcher = IMAGE_REF.matcher(text);
+            StringBuilder sb = new StringBuilder(text.length());
+            while (matcher.find()) {
+                String url = await(matcher.group(1));
+                matcher.appendReplacement(sb, Matcher.quoteReplacement("![image](" + url + ")"));
+            }
+            matcher.appendTail(sb);
+            return sb.toString();
+        }
+
+        /**
+         * 替换题目标题、选项、解析中的占位引用
+         *
+         * @throws UploadFailedException 题目中有图片上传失败或超时，题目内容保持不变
+         */
+        public void resolve(QuestionEntity question) {
+            String title = resolve(question.getTitle());
+            String explanation = resolve(question.getExplanation());
+            List<String> options = question.getOptionsList();
+            List<String> resolved = null;
+            if (options != null && options.stream().anyMatch(o -> o != null && o.contains("](img:"))) {
+                resolved = new ArrayList<>(options.size());
+                for (String option : options) {
+                    resolved.add(resolve(option));
+                }
+            }
+            question.setTitle(title);
+            question.setExplanation(explanation);
+            if (resolved != null) {
+                question.setOptionsList(resolved);
+            }
+        }
+
+        /**
+         * 本批次提交的不同图片数量
+         */
+        public int getImageCount() {
+            return uploads.size();
+        }
+
+        private String await(String hash) {
+            CompletableFuture<String> future = uploads.get(hash);
+            if (future == null) {
+                throw new UploadFailedException("图片上传失败: 未找到图片 " + hash, null);
+            }
+            try {
+                String url = future.get(timeoutSeconds, TimeUnit.SECONDS);
+                if (url == null || url.isEmpty()) {
+                    throw new UploadFailedException("图片上传失败: 未返回图片地址", null);
+                }
+                return url;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UploadFailedException("图片上传被中断", e);
+            } catch (TimeoutException e) {
+                log.warn("题目图片上传超时: {}", hash);
+                throw new UploadFailedException("图片上传超时（" + timeoutSeconds + "秒）", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("题目图片上传失败: {}", cause.getMessage());
+                throw new UploadFailedException("图片上传失败: " + cause.getMessage(), cause);
+            }
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String extension(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || fileName.length() - dot > 6) {
+            return "";
+        }
+        return fileName.substring(dot).toLowerCase();
+    }
+}
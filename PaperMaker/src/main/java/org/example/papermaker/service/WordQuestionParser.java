@@ -0,0 +1,337 @@
+package org.example.papermaker.service;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.example.papermaker.entity.QuestionEntity;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Word 题目逐题解析器
+ * 用 StAX 顺序读取 docx 正文（word/document.xml），不构建 XWPFDocument DOM，内存占用与文档长度无关；
+ * 每凑齐一道题就通过 {@link #next()} 返回，调用方可以边解析边写库。
+ * 只处理正文顶层段落（与 XWPFDocument#getParagraphs 一致，表格和文本框中的内容忽略），
+ * 段落匹配使用预编译的正则，图片按关系ID读取后交给 {@link WordImageUploader.Batch} 异步上传，题目中只保留短引用
+ *
+ * 非线程安全，一个实例只解析一个文档
+ *
+ * @author System
+ * @since 1.0.0
+ */
+public class WordQuestionParser implements AutoCloseable {
+
+    /** 题目开始：以 "1." 或 "一、" 开头 */
+    private static final Pattern QUESTION_START = Pattern.compile("^(\\d+\\.|[一二三四五六七八九十]+、)");
+    /** 选项：以 "A." 或 "A、" 开头 */
+    private static final Pattern OPTION_START = Pattern.compile("^[A-Z][\\.、]");
+    /** 标题前的题号 */
+    private static final Pattern TITLE_NUMBER = Pattern.compile("^(\\d+\\.|[一二三四五六七八九十]+、)\\s*");
+    /** 标题中的标签，如 【单选题】【简单】 */
+    private static final Pattern TITLE_TAG = Pattern.compile("【(.*?)】");
+
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String R_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private final OPCPackage pkg;
+    private final PackagePart documentPart;
+    private final InputStream documentStream;
+    private final XMLStreamReader xml;
+    private final WordImageUploader.Batch images;
+
+    /** 当前位置在 w:body 内的嵌套层级，尚未进入或已离开正文时为 -1 */
+    private int depth = -1;
+
+    private QuestionEntity currentQuestion;
+    private final List<String> currentOptions = new ArrayList<>();
+
+    /**
+     * @param file   docx 文件（按需读取压缩包中的条目，不整体载入内存）
+     * @param images 图片上传批次
+     */
+    public WordQuestionParser(File file, WordImageUploader.Batch images) throws IOException {
+        this.images = images;
+        OPCPackage opened = null;
+        InputStream stream = null;
+        try {
+            opened = OPCPackage.open(file, PackageAccess.READ);
+            List<PackagePart> parts = opened.getPartsByRelationshipType(PackageRelationshipTypes.CORE_DOCUMENT);
+            if (parts.isEmpty()) {
+                throw new IOException("不是有效的Word文档");
+            }
+            this.documentPart = parts.get(0);
+            stream = documentPart.getInputStream();
+            this.xml = XML_INPUT_FACTORY.createXMLStreamReader(stream);
+            this.pkg = opened;
+            this.documentStream = stream;
+        } catch (InvalidFormatException | XMLStreamException e) {
+            closeQuietly(stream, opened);
+            throw new IOException("Word解析失败: " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(stream, opened);
+            throw e;
+        }
+    }
+
+    /**
+     * 解析下一道题；文档结束时返回null
+     * 返回的题目中图片仍是占位引用，写库前需调用 {@link WordImageUploader.Batch#resolve(QuestionEntity)}
+     */
+    public QuestionEntity next() throws IOException {
+        String text;
+        while ((text = nextParagraph()) != null) {
+            if (text.isEmpty())
+                continue;
+
+            if (QUESTION_START.matcher(text).lookingAt()) {
+                // 新题开始，返回上一道题目
+                QuestionEntity finished = finishCurrent();
+
+                currentQuestion = new QuestionEntity();
+                // 设置默认值
+                currentQuestion.setType(QuestionEntity.QuestionType.SINGLE_CHOICE); // 默认类型
+                currentQuestion.setDifficulty(QuestionEntity.DifficultyLevel.MEDIUM);
+                // 解析标题和标签
+                parseTitleTags(currentQuestion, text);
+
+                if (finished != null) {
+                    return finished;
+                }
+            } else if (OPTION_START.matcher(text).lookingAt()) { // 选项如 "A. xxx" 或 "A、 xxx"
+                currentOptions.add(text);
+            } else if (text.startsWith("Answer:") || text.startsWith("答案：") || text.startsWith("答案:")) {
+                if (currentQuestion != null) {
+                    currentQuestion.setCorrectAnswer(cleanAnswer(afterColon(text)));
+                }
+            } else if (text.startsWith("Explanation:") || text.startsWith("解析：") || text.startsWith("解析:")) {
+                if (currentQuestion != null) {
+                    currentQuestion.setExplanation(cleanExplanation(afterColon(text)));
+                }
+            } else {
+                // 如果已经有题目但还没有选项/答案，可能是多行标题
+                if (currentQuestion != null && currentOptions.isEmpty()
+                        && currentQuestion.getCorrectAnswer() == null) {
+                    currentQuestion.setTitle(currentQuestion.getTitle() + "\n" + text);
+                }
+            }
+        }
+        // 最后一道题目
+        return finishCurrent();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException ignored) {
+            // 关闭底层流即可
+        }
+        closeQuietly(documentStream, null);
+        pkg.revert();
+    }
+
+    private QuestionEntity finishCurrent() {
+        QuestionEntity finished = currentQuestion;
+        if (finished != null && !currentOptions.isEmpty()) {
+            finished.setOptionsList(new ArrayList<>(currentOptions));
+        }
+        currentQuestion = null;
+        currentOptions.clear();
+        return finished;
+    }
+
+    /**
+     * 读取下一个正文顶层段落的文本，图片替换为占位引用并提交上传；正文结束时返回null
+     */
+    private String nextParagraph() throws IOException {
+        try {
+            StringBuilder text = null;
+            int skippedDepth = 0;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if (depth < 0) {
+                        if ("body".equals(name) && W_NS.equals(xml.getNamespaceURI())) {
+                            depth = 0;
+                        }
+                        continue;
+                    }
+                    depth++;
+                    if (text == null) {
+                        if (depth == 1 && "p".equals(name) && W_NS.equals(xml.getNamespaceURI())) {
+                            text = new StringBuilder();
+                        }
+                    } else if (isSkipped(name)) {
+                        // 文本框中的段落不属于正文段落；兼容内容的 VML 备用图片与主图片重复
+                        skippedDepth++;
+                    } else if (skippedDepth == 0) {
+                        if ("t".equals(name) && W_NS.equals(xml.getNamespaceURI())) {
+                            text.append(xml.getElementText());
+                            // getElementText 已读到结束标签
+                            depth--;
+                        } else {
+                            appendImage(text, name);
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && depth >= 0) {
+                    if (depth == 0) {
+                        // 正文结束
+                        depth = -1;
+                        return null;
+                    }
+                    if (text != null && isSkipped(xml.getLocalName())) {
+                        skippedDepth--;
+                    }
+                    depth--;
+                    if (text != null && depth == 0) {
+                        return text.toString().trim();
+                    }
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IOException("Word解析失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * a:blip / v:imagedata 按关系ID读取图片，提交上传并追加占位引用
+     */
+    private void appendImage(StringBuilder text, String name) throws IOException {
+        String relationId = null;
+        if ("blip".equals(name)) {
+            relationId = xml.getAttributeValue(R_NS, "embed");
+        } else if ("imagedata".equals(name)) {
+            relationId = xml.getAttributeValue(R_NS, "id");
+        }
+        if (relationId == null || relationId.isEmpty()) {
+            return;
+        }
+        PackageRelationship relationship = documentPart.getRelationship(relationId);
+        if (relationship == null) {
+            return;
+        }
+        try {
+            PackagePart imagePart = documentPart.getRelatedPart(relationship);
+            byte[] data;
+            try (InputStream in = imagePart.getInputStream()) {
+                data = in.readAllBytes();
+            }
+            text.append('\n')
+                    .append(images.submit(data, imagePart.getPartName().getName()))
+                    .append('\n');
+        } catch (InvalidFormatException | IllegalArgumentException e) {
+            // 外部链接的图片或关系目标无效，忽略
+        }
+    }
+
+    private static boolean isSkipped(String localName) {
+        return "txbxContent".equals(localName) || "Fallback".equals(localName);
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static void closeQuietly(InputStream stream, OPCPackage opened) {
+        try {
+            if (stream != null) {
+                stream.close();
+            }
+        } catch (IOException ignored) {
+            // 只读访问，关闭失败不影响结果
+        }
+        if (opened != null) {
+            opened.revert();
+        }
+    }
+
+    /**
+     * 解析标题中的标签 (如 【单选题】【简单】)
+     */
+    private static void parseTitleTags(QuestionEntity question, String text) {
+        String title = TITLE_NUMBER.matcher(text).replaceFirst("");
+
+        Matcher matcher = TITLE_TAG.matcher(title);
+        while (matcher.find()) {
+            String tag = matcher.group(1);
+            if (tag.contains("单选题")) {
+                question.setType(QuestionEntity.QuestionType.SINGLE_CHOICE);
+            } else if (tag.contains("多选题")) {
+                question.setType(QuestionEntity.QuestionType.MULTIPLE_CHOICE);
+            } else if (tag.contains("判断题")) {
+                question.setType(QuestionEntity.QuestionType.TRUE_FALSE);
+            } else if (tag.contains("填空题")) {
+                question.setType(QuestionEntity.QuestionType.FILL_BLANK);
+            } else if (tag.contains("简答题")) {
+                question.setType(QuestionEntity.QuestionType.SHORT_ANSWER);
+            } else if (tag.contains("简单")) {
+                question.setDifficulty(QuestionEntity.DifficultyLevel.EASY);
+            } else if (tag.contains("中等")) {
+                question.setDifficulty(QuestionEntity.DifficultyLevel.MEDIUM);
+            } else if (tag.contains("困难")) {
+                question.setDifficulty(QuestionEntity.DifficultyLevel.HARD);
+            } else if (tag.equals("图片")) {
+                // 忽略图片标记
+            } else {
+                // 可能是学科或知识点，第一个未知标签设为subject
+                if (question.getSubject() == null || question.getSubject().isEmpty()) {
+                    question.setSubject(tag);
+                }
+            }
+        }
+
+        // 移除标签作为纯标题
+        question.setTitle(matcher.reset().replaceAll("").trim());
+    }
+
+    /**
+     * 取第一个半角或全角冒号之后的内容
+     */
+    private static String afterColon(String text) {
+        int half = text.indexOf(':');
+        int full = text.indexOf('：');
+        int sep = half < 0 ? full : (full < 0 ? half : Math.min(half, full));
+        return text.substring(sep + 1).trim();
+    }
+
+    // 辅助方法：处理答案格式 (去除括号等)
+    private static String cleanAnswer(String ans) {
+        ans = ans.trim();
+        if (ans.startsWith("(") && ans.endsWith(")")) {
+            return ans.substring(1, ans.length() - 1);
+        }
+        if (ans.startsWith("（") && ans.endsWith("）")) {
+            return ans.substring(1, ans.length() - 1);
+        }
+        return ans;
+    }
+
+    // 辅助方法：处理解析格式 (去除花括号等)
+    private static String cleanExplanation(String exp) {
+        exp = exp.trim();
+        if (exp.startsWith("{") && exp.endsWith("}")) {
+            return exp.substring(1, exp.length() - 1);
+        }
+        return exp;
+    }
+}
@@ -27,12 +27,7 @@ public class AIService {
         return aiPaperGenerationService.chat(userMessage);
     }
     public Flux<String> chatWithAiA(String userMessage) {
-        return aiAssistantService.chat(userMessage)
-                .doFinally(signalType -> {
-                    // 清理工具类用户ID上下文
-                    org.example.papermaker.context.SimpleUserContext.setToolUserId(null);
-                    System.out.println("AIService.chatWithAiA - 清理工具类用户ID上下文");
-                });
+        return aiAssistantService.chat(userMessage);
     }
     
     /**
@@ -13,7 +13,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.example.papermaker.service.RedisCacheService;
 import org.example.papermaker.service.CacheKeyBuilder;
+import org.example.papermaker.service.CacheWarmupService;
+import org.example.papermaker.service.QuestionStatisticsService;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.Serializable;
 import java.util.Optional;
 
 @Service
@@ -22,6 +26,63 @@ public class QuestionServiceImpl extends ServiceImpl<QuestionMapper, QuestionEnt
     private QuestionMapper questionMapper;
     @Autowired
     private RedisCacheService cache;
+    @Resource
+    private QuestionStatisticsService statisticsService;
+    @Resource
+    private CacheWarmupService warmupService;
+
+    /**
+     * 保存题目，并在同一事务内增加统计计数；提交后失效相关列表缓存
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean save(QuestionEntity entity) {
+        boolean success = super.save(entity);
+        if (success) {
+            statisticsService.onCreated(entity);
+            cache.evictByQuestion(entity);
+        }
+        return success;
+    }
+
+    /**
+     * 更新题目；分组字段（学科、题型、难度、创建者、是否系统题）变化时在同一事务内调整统计计数，
+     * 提交后失效相关列表缓存
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean updateById(QuestionEntity entity) {
+        QuestionEntity before = entity.getId() == null ? null : questionMapper.selectById(entity.getId());
+        boolean success = super.updateById(entity);
+        if (success && before != null) {
+            QuestionEntity after = new QuestionEntity();
+            after.setSubjectId(entity.getSubjectId() != null ? entity.getSubjectId() : before.getSubjectId());
+            after.setType(entity.getType() != null ? entity.getType() : before.getType());
+            after.setDifficulty(entity.getDifficulty() != null ? entity.getDifficulty() : before.getDifficulty());
+            after.setCreatorId(entity.getCreatorId() != null ? entity.getCreatorId() : before.getCreatorId());
+            after.setIsSystem(entity.getIsSystem() != null ? entity.getIsSystem() : before.getIsSystem());
+            statisticsService.onUpdated(before, after);
+            // 学科或归属变化时新旧两侧的列表都要失效
+            cache.evictByQuestion(before);
+            cache.evictByQuestion(after);
+        }
+        return success;
+    }
+
+    /**
+     * 删除题目，并在同一事务内减少统计计数；提交后失效相关列表缓存
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean removeById(Serializable id) {
+        QuestionEntity before = id == null ? null : questionMapper.selectById(id);
+        boolean success = super.removeById(id);
+        if (success && before != null) {
+            statisticsService.onDeleted(before);
+            cache.evictByQuestion(before);
+        }
+        return success;
+    }
 
     @Override
     public IPage<QuestionEntity> getQuestionsByCreator(Long creatorId, Page<QuestionEntity> page) {
@@ -35,32 +96,26 @@ public class QuestionServiceImpl extends ServiceImpl<QuestionMapper, QuestionEnt
 
     @Override
     public IPage<QuestionEntity> getAllQuestions(Long current, Long size, Long subjectId) {
-        Page<QuestionEntity> entityPage = new Page<>(current, size);
-        String key = CacheKeyBuilder.qListSystem(current.intValue(), size.intValue(), subjectId);
-        var cached = cache.getPage(key);
-        if (cached != null) {
-            @SuppressWarnings("unchecked")
-            java.util.List<QuestionEntity> records = (java.util.List<QuestionEntity>) cached.get("records");
-            Number total = (Number) cached.get("total");
-            entityPage.setRecords(records);
-            entityPage.setTotal(total == null ? records.size() : total.longValue());
-            return entityPage;
-        }
-        // 击穿保护：热点集合加短锁
-        cache.acquireLock(CacheKeyBuilder.lock(key), java.time.Duration.ofSeconds(3));
-        LambdaQueryWrapper<QuestionEntity> wrapper = new LambdaQueryWrapper<>();
-        
-        // 如果指定了学科ID，按学科ID筛选
-        if (subjectId != null) {
-            wrapper.eq(QuestionEntity::getSubjectId, subjectId);
-        }
-        
-        // 不添加其他条件，获取所有题目
-        wrapper.orderByDesc(QuestionEntity::getCreatedAt);
+        String version = cache.versionTag(CacheKeyBuilder.nsQuestions(), CacheKeyBuilder.nsSubject(subjectId));
+        String key = CacheKeyBuilder.qListSystem(version, current.intValue(), size.intValue(), subjectId);
+        warmupService.recordQuestionPage(subjectId, current, size);
+        // 击穿保护：同一个键并发未命中时只查一次库
+        return cache.loadOnce(key, () -> cachedPage(key, current, size), () -> {
+            Page<QuestionEntity> entityPage = new Page<>(current, size);
+            LambdaQueryWrapper<QuestionEntity> wrapper = new LambdaQueryWrapper<>();
 
-        IPage<QuestionEntity> result = questionMapper.selectPage(entityPage, wrapper);
-        cache.setPage(key, result.getRecords(), result.getTotal(), result.getCurrent(), result.getSize(), java.time.Duration.ofMinutes(20));
-        return result;
+            // 如果指定了学科ID，按学科ID筛选
+            if (subjectId != null) {
+                wrapper.eq(QuestionEntity::getSubjectId, subjectId);
+            }
+
+            // 不添加其他条件，获取所有题目
+            wrapper.orderByDesc(QuestionEntity::getCreatedAt);
+
+            IPage<QuestionEntity> result = questionMapper.selectPage(entityPage, wrapper);
+            cache.setPage(key, result.getRecords(), result.getTotal(), result.getCurrent(), result.getSize(), java.time.Duration.ofMinutes(20));
+            return result;
+        });
     }
 
     public IPage<QuestionEntity> getQuestionsForUser(Long userId, Long current, Long size, Long subjectId) {
@@ -68,45 +123,51 @@ public class QuestionServiceImpl extends ServiceImpl<QuestionMapper, QuestionEnt
         Long safeCurrent = Optional.ofNullable(current).orElse(1L);
         Long safeSize = Optional.ofNullable(size).orElse(10L);
 
-        Page<QuestionEntity> entityPage = new Page<>(safeCurrent, safeSize);
-        String key = CacheKeyBuilder.qListUser(userId, safeCurrent.intValue(), safeSize.intValue(), subjectId);
-        var cached = cache.getPage(key);
-        if (cached != null) {
-            @SuppressWarnings("unchecked")
-            java.util.List<QuestionEntity> records = (java.util.List<QuestionEntity>) cached.get("records");
-            Number total = (Number) cached.get("total");
-            entityPage.setRecords(records);
-            entityPage.setTotal(total == null ? records.size() : total.longValue());
-            return entityPage;
-        }
-        cache.acquireLock(CacheKeyBuilder.lock(key), java.time.Duration.ofSeconds(3));
-        LambdaQueryWrapper<QuestionEntity> wrapper = new LambdaQueryWrapper<>();
+        String version = cache.versionTag(CacheKeyBuilder.nsQuestions(), CacheKeyBuilder.nsSubjectSystem(subjectId),
+                CacheKeyBuilder.nsUser(userId));
+        String key = CacheKeyBuilder.qListUser(version, userId, safeCurrent.intValue(), safeSize.intValue(), subjectId);
+        warmupService.recordUserQuestionPage(userId, subjectId, safeCurrent, safeSize);
+        return cache.loadOnce(key, () -> cachedPage(key, safeCurrent, safeSize), () -> {
+            Page<QuestionEntity> entityPage = new Page<>(safeCurrent, safeSize);
+            LambdaQueryWrapper<QuestionEntity> wrapper = new LambdaQueryWrapper<>();
 
-        // 优化后的权限逻辑
-        wrapper.and(w -> w
-                .eq(QuestionEntity::getIsSystem, true)
-                .or(w2 -> w2
-                        .eq(QuestionEntity::getIsSystem, false)
-                        .eq(QuestionEntity::getCreatorId, userId)
-                )
-        );
-
-        // 学科筛选
-        if (subjectId != null) {
-            wrapper.eq(QuestionEntity::getSubjectId, subjectId);
-        }
-
-        // 排序
-        wrapper.orderByDesc(QuestionEntity::getCreatedAt);
+            // 优化后的权限逻辑
+            wrapper.and(w -> w
+                    .eq(QuestionEntity::getIsSystem, true)
+                    .or(w2 -> w2
+                            .eq(QuestionEntity::getIsSystem, false)
+                            .eq(QuestionEntity::getCreatorId, userId)
+                    )
+            );
 
-        IPage<QuestionEntity> page = questionMapper.selectPage(entityPage, wrapper);
-        cache.setPage(key, page.getRecords(), page.getTotal(), page.getCurrent(), page.getSize(), java.time.Duration.ofMinutes(20));
-        // 为每条记录维护索引，便于失效
-        for (QuestionEntity q : page.getRecords()) {
-            if (q.getId() != null) {
-                cache.addIdxForQ(q.getId(), key);
+            // 学科筛选
+            if (subjectId != null) {
+                wrapper.eq(QuestionEntity::getSubjectId, subjectId);
             }
+
+            // 排序
+            wrapper.orderByDesc(QuestionEntity::getCreatedAt);
+
+            IPage<QuestionEntity> page = questionMapper.selectPage(entityPage, wrapper);
+            cache.setPage(key, page.getRecords(), page.getTotal(), page.getCurrent(), page.getSize(), java.time.Duration.ofMinutes(20));
+            return page;
+        });
+    }
+
+    /**
+     * 从缓存读取分页结果，未命中返回null
+     */
+    private IPage<QuestionEntity> cachedPage(String key, Long current, Long size) {
+        var cached = cache.getPage(key);
+        if (cached == null) {
+            return null;
         }
-        return page;
+        Page<QuestionEntity> entityPage = new Page<>(current, size);
+        @SuppressWarnings("unchecked")
+        java.util.List<QuestionEntity> records = (java.util.List<QuestionEntity>) cached.get("records");
+        Number total = (Number) cached.get("total");
+        entityPage.setRecords(records);
+        entityPage.setTotal(total == null ? records.size() : total.longValue());
+        return entityPage;
     }
 }
@@ -7,12 +7,15 @@ import org.example.papermaker.entity.StudyPlanEntity;
 import org.example.papermaker.mapper.StudyPlanMapper;
 import org.example.papermaker.service.AIStudyPlanService;
 import org.example.papermaker.service.ExamPaperService;
+import org.example.papermaker.service.KnowledgeMasteryService;
+import org.example.papermaker.service.KnowledgePointStatisticsService;
 import org.example.papermaker.service.StudyPlanService;
 import org.example.papermaker.service.SubjectService;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -29,6 +32,12 @@ public class StudyPlanServiceImpl extends ServiceImpl<StudyPlanMapper, StudyPlan
     @Resource
     private SubjectService subjectService;
 
+    @Resource
+    private KnowledgeMasteryService knowledgeMasteryService;
+
+    /** 学习计划提示中列出的薄弱知识点数量 */
+    private static final int WEAK_KNOWLEDGE_POINT_LIMIT = 5;
+
     @Override
     public StudyPlanEntity createPlan(StudyPlanEntity plan) {
         plan.setCreatedAt(LocalDateTime.now());
@@ -55,6 +64,10 @@ public class StudyPlanServiceImpl extends ServiceImpl<StudyPlanMapper, StudyPlan
         String currentDate = LocalDateTime.now().toLocalDate().toString();
         String requirement = String.format("当前日期：%s。学科：%s，目标：%s，截止时间：%s", currentDate, subjectName, target,
                 deadlineStr);
+        String weakPoints = describeWeakKnowledgePoints(userId, subjectId);
+        if (weakPoints != null) {
+            requirement += "。当前薄弱知识点（掌握度从低到高）：" + weakPoints;
+        }
 
         // 3. 调用AI
         String aiSuggestion = aiStudyPlanService.generateStudyPlan(requirement);
@@ -80,6 +93,29 @@ public class StudyPlanServiceImpl extends ServiceImpl<StudyPlanMapper, StudyPlan
         return plan;
     }
 
+    /**
+     * 从知识点掌握度中取该学科掌握度最低的几个知识点，没有数据时返回null
+     */
+    private String describeWeakKnowledgePoints(Long userId, Long subjectId) {
+        if (userId == null || subjectId == null || !knowledgeMasteryService.isEnabled()) {
+            return null;
+        }
+        try {
+            List<KnowledgePointStatisticsService.KnowledgePointStat> weakest = knowledgeMasteryService
+                    .getWeakest(userId, subjectId, WEAK_KNOWLEDGE_POINT_LIMIT);
+            if (weakest.isEmpty()) {
+                return null;
+            }
+            return weakest.stream()
+                    .map(kp -> String.format("%s（%.0f%%，答题%d次）", kp.getKnowledgePointName(), kp.getMastery(),
+                            kp.getQuestionCount()))
+                    .collect(Collectors.joining("、"));
+        } catch (Exception e) {
+            log.warn("获取薄弱知识点失败", e);
+            return null;
+        }
+    }
+
     @Override
     public ExamPaperEntity generatePaperFromPlan(Long planId) {
         StudyPlanEntity plan = getById(planId);
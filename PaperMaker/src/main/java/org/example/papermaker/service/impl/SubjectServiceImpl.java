@@ -13,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -32,9 +33,14 @@ public class SubjectServiceImpl extends ServiceImpl<SubjectMapper, SubjectEntity
     @Override
     public List<SubjectEntity> getAllActiveSubjectsWithKeywords() {
         List<SubjectEntity> subjects = getAllActiveSubjects();
-        // 为每个学科填充关键词信息
+        // 所有学科的知识点一次批量读取，再为每个学科填充关键词信息
+        Map<String, List<KnowledgePointEntity>> knowledgePoints = knowledgePointService.getBySubjects(
+                subjects.stream().map(SubjectEntity::getName).toList());
         subjects.forEach(subject -> {
-            List<String> keywords = getSubjectKeywordsByld(subject.getId());
+            List<String> keywords = knowledgePoints.getOrDefault(subject.getName(), List.of()).stream()
+                    .map(KnowledgePointEntity::getName)
+                    .distinct()
+                    .collect(Collectors.toList());
             subject.setKeywords(keywords);
             subject.setKeywordCount(keywords.size());
         });
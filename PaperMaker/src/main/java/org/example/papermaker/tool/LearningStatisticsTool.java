@@ -38,6 +38,12 @@ public class LearningStatisticsTool {
 
     @Autowired
     private SubjectService subjectService;
+
+    @Autowired
+    private KnowledgePointStatisticsService knowledgePointStatisticsService;
+
+    @Autowired
+    private KnowledgeMasteryService knowledgeMasteryService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -135,7 +141,7 @@ public class LearningStatisticsTool {
             }
 
             // 计算统计数据
-            Map<String, Object> statistics = calculateSingleSubjectStatistics(subjectRecords, subjectName);
+            Map<String, Object> statistics = calculateSingleSubjectStatistics(userId, id, subjectRecords, subjectName);
 
             System.out.println(
                     "获取单学科统计数据成功，用户ID: " + userId + ", 学科: " + subjectName + ", 记录数: " + subjectRecords.size());
@@ -151,7 +157,8 @@ public class LearningStatisticsTool {
      * 计算单学科的统计数据
      * 参考ExamRecordServiceImpl.getSubjectKnowledgePointStatistics()方法的实现
      */
-    private Map<String, Object> calculateSingleSubjectStatistics(List<ExamRecordEntity> records, String subjectName) {
+    private Map<String, Object> calculateSingleSubjectStatistics(Long userId, Long subjectId,
+            List<ExamRecordEntity> records, String subjectName) {
         Map<String, Object> result = new HashMap<>();
         result.put("subjectName", subjectName);
         result.put("hasData", true);
@@ -202,108 +209,30 @@ public class LearningStatisticsTool {
                 .mapToInt(ExamRecordEntity::getCorrectAnswers)
                 .sum();
 
-        // 知识点统计（参考getSubjectKnowledgePointStatistics方法）
-        Map<String, Map<String, Object>> knowledgePointStats = new HashMap<>();
-        Map<String, Set<Long>> kpRecordMap = new HashMap<>(); // 记录每个知识点在哪些exam_record中出现过
-
-        // 遍历所有练习记录，统计知识点
-        for (ExamRecordEntity record : records) {
-            try {
-                // 获取该记录的所有答题记录
-                List<AnswerRecordEntity> answerRecords = answerRecordService.lambdaQuery()
-                        .eq(AnswerRecordEntity::getExamRecordId, record.getId())
-                        .list();
-
-                // 遍历答题记录，统计知识点
-                for (AnswerRecordEntity answerRecord : answerRecords) {
-                    if (answerRecord.getQuestionId() == null)
-                        continue;
-
-                    // 获取题目
-                    QuestionEntity question = questionService.getById(answerRecord.getQuestionId());
-                    if (question == null)
-                        continue;
-
-                    // 获取题目的知识点ID列表
-                    List<Long> knowledgePointIds = question.getKnowledgePointIdsList();
-                    if (knowledgePointIds == null || knowledgePointIds.isEmpty())
-                        continue;
-
-                    // 遍历知识点
-                    for (Long kpId : knowledgePointIds) {
-                        try {
-                            KnowledgePointEntity knowledgePoint = knowledgePointService.getById(kpId);
-                            if (knowledgePoint == null)
-                                continue;
-
-                            String kpName = knowledgePoint.getName();
-                            if (kpName == null || kpName.trim().isEmpty())
-                                continue;
-
-                            // 初始化知识点统计
-                            if (!knowledgePointStats.containsKey(kpName)) {
-                                Map<String, Object> kpStats = new HashMap<>();
-                                kpStats.put("knowledgePointName", kpName);
-                                kpStats.put("questionCount", 0);
-                                kpStats.put("correctCount", 0);
-                                kpStats.put("totalTimeSeconds", 0L);
-                                knowledgePointStats.put(kpName, kpStats);
-                            }
-
-                            Map<String, Object> kpStats = knowledgePointStats.get(kpName);
-
-                            // 统计题目数
-                            kpStats.put("questionCount", (Integer) kpStats.get("questionCount") + 1);
-
-                            // 统计正确数
-                            if (answerRecord.getIsCorrect() != null && answerRecord.getIsCorrect()) {
-                                kpStats.put("correctCount", (Integer) kpStats.get("correctCount") + 1);
-                            }
-
-                            // 统计用时
-                            if (answerRecord.getTimeSpent() != null) {
-                                kpStats.put("totalTimeSeconds",
-                                        (Long) kpStats.get("totalTimeSeconds")
-                                                + answerRecord.getTimeSpent().longValue());
-                            }
-
-                            // 记录该知识点出现在此exam_record中（用于统计练习次数）
-                            String kpKey = subjectName + ":" + kpName;
-                            if (!kpRecordMap.containsKey(kpKey)) {
-                                kpRecordMap.put(kpKey, new HashSet<>());
-                            }
-                            kpRecordMap.get(kpKey).add(record.getId());
-
-                        } catch (Exception e) {
-                            System.err.println("处理知识点 " + kpId + " 统计失败: " + e.getMessage());
-                        }
-                    }
-                }
-
-            } catch (Exception e) {
-                System.err.println("处理练习记录 " + record.getId() + " 统计失败: " + e.getMessage());
-            }
+        // 知识点统计：优先读取知识点掌握度，关闭时按答题历史批量统计
+        Map<String, KnowledgePointStatisticsService.KnowledgePointStat> knowledgePointStats;
+        if (knowledgeMasteryService.isEnabled()) {
+            knowledgePointStats = knowledgeMasteryService.getBySubject(userId, subjectId);
+        } else {
+            knowledgePointStats = knowledgePointStatisticsService.aggregate(records, r -> subjectName)
+                    .getOrDefault(subjectName, Collections.emptyMap());
         }
 
         // 转换知识点统计为返回格式
         List<Map<String, Object>> knowledgePoints = new ArrayList<>();
-        for (Map.Entry<String, Map<String, Object>> kpEntry : knowledgePointStats.entrySet()) {
-            String kpName = kpEntry.getKey();
-            Map<String, Object> kpStats = kpEntry.getValue();
+        for (KnowledgePointStatisticsService.KnowledgePointStat kpStats : knowledgePointStats.values()) {
+            int questionCount = kpStats.getQuestionCount();
+            int correctCount = kpStats.getCorrectCount();
+            long totalTimeSeconds = kpStats.getTotalTimeSeconds();
 
-            int questionCount = (Integer) kpStats.get("questionCount");
-            int correctCount = (Integer) kpStats.get("correctCount");
-            long totalTimeSeconds = (Long) kpStats.get("totalTimeSeconds");
-
-            // 从kpRecordMap获取练习次数（不同exam_record的数量）
-            String kpKey = subjectName + ":" + kpName;
-            int practiceCount = kpRecordMap.containsKey(kpKey) ? kpRecordMap.get(kpKey).size() : 0;
+            // 练习次数（不同exam_record的数量）
+            int practiceCount = kpStats.getPracticeCount();
 
             // 计算正确率
             double accuracy = questionCount > 0 ? (correctCount * 100.0 / questionCount) : 0.0;
 
             Map<String, Object> kpData = new HashMap<>();
-            kpData.put("knowledgePointName", kpStats.get("knowledgePointName"));
+            kpData.put("knowledgePointName", kpStats.getKnowledgePointName());
             kpData.put("practiceCount", practiceCount);
             kpData.put("questionCount", questionCount);
             kpData.put("correctCount", correctCount);
@@ -312,6 +241,9 @@ public class LearningStatisticsTool {
             kpData.put("totalTimeFormatted", formatTime(totalTimeSeconds));
             kpData.put("averageTimeSeconds", questionCount > 0 ? totalTimeSeconds / questionCount : 0);
             kpData.put("averageTimeFormatted", formatTime(questionCount > 0 ? totalTimeSeconds / questionCount : 0));
+            if (kpStats.getMastery() != null) {
+                kpData.put("mastery", String.format("%.2f", kpStats.getMastery()) + "%");
+            }
 
             knowledgePoints.add(kpData);
         }
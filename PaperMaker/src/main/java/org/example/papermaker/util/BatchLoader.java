@@ -0,0 +1,148 @@
+package org.example.papermaker.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 批量加载器（DataLoader 风格）
+ * 先登记需要的ID，首次取值时用一次批量查询解析所有待加载ID，结果缓存在加载器内，
+ * 用于消除列表补充字段时逐行 selectById 的 N+1 查询
+ *
+ * 非线程安全，应在单个请求内使用
+ *
+ * @param <K> 主键类型
+ * @param <V> 实体类型
+ * @author System
+ * @since 1.0.0
+ */
+public class BatchLoader<K, V> {
+
+    /** 单次 IN 查询的最大ID数量 */
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final Function<Collection<K>, ? extends Collection<V>> batchFunction;
+    private final Function<V, K> keyExtractor;
+
+    private final Map<K, V> loaded = new HashMap<>();
+    private final Set<K> absent = new HashSet<>();
+    private final Set<K> pending = new LinkedHashSet<>();
+    private int batchCount = 0;
+
+    /**
+     * @param batchFunction 批量查询函数，例如 mapper::selectBatchIds
+     * @param keyExtractor  从实体中取主键，例如 UserEntity::getId
+     */
+    public BatchLoader(Function<Collection<K>, ? extends Collection<V>> batchFunction, Function<V, K> keyExtractor) {
+        this.batchFunction = batchFunction;
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * 登记一个待加载的ID（不触发查询）
+     */
+    public BatchLoader<K, V> prime(K key) {
+        if (key != null && !loaded.containsKey(key) && !absent.contains(key)) {
+            pending.add(key);
+        }
+        return this;
+    }
+
+    /**
+     * 登记一批待加载的ID（不触发查询）
+     */
+    public BatchLoader<K, V> primeAll(Collection<? extends K> keys) {
+        if (keys != null) {
+            for (K key : keys) {
+                prime(key);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 获取单个实体；若存在未解析的ID，先一次性批量解析
+     *
+     * @return 实体，不存在时返回null
+     */
+    public V load(K key) {
+        if (key == null) {
+            return null;
+        }
+        prime(key);
+        dispatch();
+        return loaded.get(key);
+    }
+
+    /**
+     * 获取多个实体，结果按传入顺序排列，不存在的ID不出现在结果中
+     */
+    public Map<K, V> loadMany(Collection<? extends K> keys) {
+        primeAll(keys);
+        dispatch();
+        Map<K, V> result = new LinkedHashMap<>();
+        if (keys != null) {
+            for (K key : keys) {
+                V value = loaded.get(key);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 立即解析所有已登记但未加载的ID
+     */
+    public void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<K> keys = new ArrayList<>(pending);
+        pending.clear();
+        for (int from = 0; from < keys.size(); from += MAX_BATCH_SIZE) {
+            List<K> chunk = keys.subList(from, Math.min(from + MAX_BATCH_SIZE, keys.size()));
+            Collection<V> values = batchFunction.apply(new ArrayList<>(chunk));
+            batchCount++;
+            if (values != null) {
+                for (V value : values) {
+                    if (value != null) {
+                        loaded.put(keyExtractor.apply(value), value);
+                    }
+                }
+            }
+            for (K key : chunk) {
+                if (!loaded.containsKey(key)) {
+                    absent.add(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * 直接放入已知实体，后续取值不再查询
+     */
+    public void put(V value) {
+        if (value != null) {
+            K key = keyExtractor.apply(value);
+            loaded.put(key, value);
+            absent.remove(key);
+            pending.remove(key);
+        }
+    }
+
+    /**
+     * 已执行的批量查询次数
+     */
+    public int getBatchCount() {
+        return batchCount;
+    }
+}
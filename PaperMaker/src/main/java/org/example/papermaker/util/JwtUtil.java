@@ -1,13 +1,26 @@
 package org.example.papermaker.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
 import org.example.papermaker.entity.UserEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 
 /**
@@ -26,9 +39,55 @@ public class JwtUtil {
     // token过期时间（24小时）
     private static final long EXPIRATION_TIME = 24 * 60 * 60 * 1000;
     
+    // 票据的适用范围声明，带有该声明的token不能作为登录token使用
+    private static final String SCOPE_CLAIM = "scope";
+    
+    @Resource
+    private MeterRegistry meterRegistry;
+    
+    // 已验证token缓存的最大条目数
+    @Value("${jwt.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+    
+    private final SecretKey signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    
+    // 解析器线程安全，只构建一次
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
+    
+    // 已验证的token：键为token的SHA-256摘要（不在内存中保留原始token），条目在token过期时失效
+    private Cache<String, VerifiedToken> verified;
+    
+    private Timer verifyHit;
+    private Timer verifyMiss;
+    
+    @PostConstruct
+    public void init() {
+        verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(Expiry.creating((String key, VerifiedToken token) ->
+                        Duration.ofMillis(Math.max(0, token.expiration().getTime() - System.currentTimeMillis()))))
+                .build();
+        verifyHit = Timer.builder("auth.token.verify")
+                .description("每次请求的token验证耗时")
+                .tag("cache", "hit")
+                .register(meterRegistry);
+        verifyMiss = Timer.builder("auth.token.verify")
+                .description("每次请求的token验证耗时")
+                .tag("cache", "miss")
+                .register(meterRegistry);
+    }
+    
     // 获取密钥
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        return signingKey;
+    }
+    
+    /**
+     * 已验证token中的用户信息
+     */
+    public record VerifiedToken(Long userId, String username, String role, Date expiration) {
     }
     
     /**
@@ -50,6 +109,46 @@ public class JwtUtil {
                 .compact();
     }
     
+    /**
+     * 生成短期票据
+     * 用于无法设置请求头的场景（如浏览器 EventSource），通过查询参数传递；
+     * 票据只对 scope 指定的请求路径有效，不能作为登录token使用
+     */
+    public String generateTicket(UserEntity user, String scope, Duration ttl) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", user.getId());
+        claims.put("username", user.getUsername());
+        claims.put("role", user.getRole().toString());
+        claims.put(SCOPE_CLAIM, scope);
+        
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(user.getUsername())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + ttl.toMillis()))
+                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+    
+    /**
+     * 验证票据
+     *
+     * @param scope 当前请求路径，必须与票据的适用范围一致
+     * @return 无效、已过期或范围不符时返回null
+     */
+    public VerifiedToken verifyTicket(String ticket, String scope) {
+        try {
+            Claims claims = getAllClaimsFromToken(ticket);
+            if (scope == null || !scope.equals(claims.get(SCOPE_CLAIM, String.class))) {
+                return null;
+            }
+            return new VerifiedToken(claims.get("userId", Long.class), claims.getSubject(),
+                    claims.get("role", String.class), claims.getExpiration());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
     /**
      * 从token中获取用户名
      */
@@ -92,11 +191,50 @@ public class JwtUtil {
      * 从token中获取所有声明
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+    
+    /**
+     * 验证token并一次取出所有用户信息
+     * 同一个token验证通过后缓存到过期为止，之后的请求不再解析和校验签名
+     *
+     * @return 无效或已过期时返回null
+     */
+    public VerifiedToken verify(String token) {
+        long start = System.nanoTime();
+        String key = digest(token);
+        VerifiedToken cached = verified.getIfPresent(key);
+        if (cached != null) {
+            verifyHit.record(System.nanoTime() - start, java.util.concurrent.TimeUnit.NANOSECONDS);
+            return cached.expiration().before(new Date()) ? null : cached;
+        }
+        try {
+            Claims claims = getAllClaimsFromToken(token);
+            if (claims.get(SCOPE_CLAIM) != null) {
+                // 票据不能作为登录token
+                return null;
+            }
+            // 解析时已校验签名和过期时间
+            VerifiedToken result = new VerifiedToken(claims.get("userId", Long.class), claims.getSubject(),
+                    claims.get("role", String.class), claims.getExpiration());
+            if (result.expiration() != null) {
+                verified.put(key, result);
+            }
+            return result;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        } finally {
+            verifyMiss.record(System.nanoTime() - start, java.util.concurrent.TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
     
     /**
@@ -123,11 +261,7 @@ public class JwtUtil {
      * 验证token是否有效（不检查用户名）
      */
     public Boolean validateToken(String token) {
-        try {
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
-        }
+        return verify(token) != null;
     }
     
     /**
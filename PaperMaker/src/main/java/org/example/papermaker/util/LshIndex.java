@@ -0,0 +1,119 @@
+package org.example.papermaker.util;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MinHash 签名的 LSH（局部敏感哈希）索引
+ * 签名按 BANDS 段切分，每段哈希到一个桶；任一段落入同一桶的题目才作为候选，
+ * 再用完整签名估计相似度，查询只需访问 BANDS 个桶
+ *
+ * 线程安全，可并发写入和查询
+ *
+ * @author System
+ * @since 1.0.0
+ */
+public class LshIndex {
+
+    /** 16 段 × 4 行：相似度 0.8 的题目被召回的概率约 99.9%，0.5 的约 65% */
+    public static final int BANDS = 16;
+    public static final int ROWS = MinHash.NUM_HASHES / BANDS;
+
+    private final Map<Long, Set<Long>> buckets = new ConcurrentHashMap<>();
+    private final Map<Long, int[]> signatures = new ConcurrentHashMap<>();
+
+    /**
+     * 写入（或覆盖）一道题的签名
+     */
+    public void put(Long id, int[] signature) {
+        if (id == null || signature == null) {
+            return;
+        }
+        int[] previous = signatures.put(id, signature);
+        if (previous != null) {
+            removeFromBuckets(id, previous);
+        }
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bandKey(signature, band), k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    /**
+     * 移除一道题
+     */
+    public void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        int[] previous = signatures.remove(id);
+        if (previous != null) {
+            removeFromBuckets(id, previous);
+        }
+    }
+
+    /**
+     * 查找与签名相似度不低于阈值的题目ID（按ID升序，不包含 excludeId）
+     */
+    public Set<Long> query(int[] signature, double threshold, Long excludeId) {
+        if (signature == null) {
+            return Collections.emptySet();
+        }
+        Set<Long> candidates = new LinkedHashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            Set<Long> bucket = buckets.get(bandKey(signature, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        Set<Long> matches = new java.util.TreeSet<>();
+        for (Long candidate : candidates) {
+            if (candidate.equals(excludeId)) {
+                continue;
+            }
+            int[] other = signatures.get(candidate);
+            if (other != null && MinHash.similarity(signature, other) >= threshold) {
+                matches.add(candidate);
+            }
+        }
+        return matches;
+    }
+
+    public int[] getSignature(Long id) {
+        return signatures.get(id);
+    }
+
+    public Set<Long> ids() {
+        return signatures.keySet();
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    public void clear() {
+        buckets.clear();
+        signatures.clear();
+    }
+
+    private void removeFromBuckets(Long id, int[] signature) {
+        for (int band = 0; band < BANDS; band++) {
+            long key = bandKey(signature, band);
+            buckets.computeIfPresent(key, (k, bucket) -> {
+                bucket.remove(id);
+                return bucket.isEmpty() ? null : bucket;
+            });
+        }
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long h = band;
+        int from = band * ROWS;
+        for (int i = from; i < from + ROWS; i++) {
+            h = h * 0x100000001B3L ^ signature[i];
+        }
+        return h;
+    }
+}
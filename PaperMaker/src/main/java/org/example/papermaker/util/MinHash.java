@@ -0,0 +1,174 @@
+package org.example.papermaker.util;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * MinHash 签名工具
+ * 将题目文本规范化后切分为字符 3-gram，计算固定长度的 MinHash 签名，
+ * 两个签名中相等位置的比例即为 Jaccard 相似度的估计值
+ *
+ * @author System
+ * @since 1.0.0
+ */
+public final class MinHash {
+
+    /** 签名长度（哈希函数个数） */
+    public static final int NUM_HASHES = 64;
+
+    /** 字符 shingle 长度，中文题干按字切分，3-gram 兼顾短题与长题 */
+    private static final int SHINGLE_SIZE = 3;
+
+    private static final long[] SEEDS = new long[NUM_HASHES];
+
+    static {
+        // 固定种子，保证签名在重启后可复用（签名会落库）
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            seed = mix64(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private MinHash() {}
+
+    /**
+     * 题目文本规范化：转小写，仅保留字母、数字和汉字，去掉选项前缀(A. / B、)和所有空白标点
+     */
+    public static String normalize(String title, List<String> options) {
+        StringBuilder sb = new StringBuilder();
+        appendNormalized(sb, title);
+        if (options != null) {
+            for (String option : options) {
+                sb.append('|');
+                appendNormalized(sb, stripOptionLabel(option));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 计算 MinHash 签名
+     *
+     * @return 签名；规范化后没有任何文字（只剩选项分隔符或为空）时返回null，
+     *         否则所有空文本的签名都相同，会互相判为重复
+     */
+    public static int[] sign(String normalized) {
+        if (!hasText(normalized)) {
+            return null;
+        }
+        int[] signature = new int[NUM_HASHES];
+        java.util.Arrays.fill(signature, Integer.MAX_VALUE);
+        int n = normalized.length();
+        int shingles = Math.max(1, n - SHINGLE_SIZE + 1);
+        for (int start = 0; start < shingles; start++) {
+            int end = Math.min(n, start + SHINGLE_SIZE);
+            long h = 1125899906842597L;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + normalized.charAt(i);
+            }
+            for (int k = 0; k < NUM_HASHES; k++) {
+                int v = (int) (mix64(h ^ SEEDS[k]) >>> 33);
+                if (v < signature[k]) {
+                    signature[k] = v;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * 估计两个签名的 Jaccard 相似度
+     */
+    public static double similarity(int[] a, int[] b) {
+        if (a == null || b == null || a.length != b.length) {
+            return 0.0;
+        }
+        int same = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / a.length;
+    }
+
+    /**
+     * 签名编码为 Base64 字符串（用于落库）
+     */
+    public static String encode(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        for (int v : signature) {
+            buffer.putInt(v);
+        }
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    /**
+     * 从 Base64 字符串解码签名，格式不符返回null
+     */
+    public static int[] decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getDecoder().decode(encoded);
+            if (bytes.length != NUM_HASHES * Integer.BYTES) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int[] signature = new int[NUM_HASHES];
+            for (int i = 0; i < NUM_HASHES; i++) {
+                signature[i] = buffer.getInt();
+            }
+            return signature;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasText(String normalized) {
+        if (normalized == null) {
+            return false;
+        }
+        for (int i = 0; i < normalized.length(); i++) {
+            if (normalized.charAt(i) != '|') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendNormalized(StringBuilder sb, String text) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+    }
+
+    private static String stripOptionLabel(String option) {
+        if (option == null) {
+            return null;
+        }
+        String trimmed = option.trim();
+        if (trimmed.length() >= 2 && trimmed.charAt(0) >= 'A' && trimmed.charAt(0) <= 'Z') {
+            char sep = trimmed.charAt(1);
+            if (sep == '.' || sep == '、' || sep == '．' || sep == ')' || sep == '）' || sep == ':' || sep == '：') {
+                return trimmed.substring(2);
+            }
+        }
+        return trimmed;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.papermaker.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务回调工具
+ * 缓存失效、统计更新等副作用放到事务提交后执行，避免缓存先于数据库更新被重新填充旧值，
+ * 也避免事务回滚后留下错误的计数
+ *
+ * @author System
+ * @since 1.0.0
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * 事务提交后执行（无事务时立即执行）
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.papermaker.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * xlsx 流式行读取器
+ * 基于 XSSFReader + 共享字符串表的 SAX 解析，不构建工作簿 DOM：后台线程逐行解析第一个工作表，
+ * 放入有界队列，调用方按需取行；队列满时解析线程阻塞，内存占用与表格行数无关
+ *
+ * 用法：try (XlsxRowStreamer rows = new XlsxRowStreamer(file, 6, 1000)) { while ((row = rows.next()) != null) ... }
+ *
+ * @author System
+ * @since 1.0.0
+ */
+public class XlsxRowStreamer implements AutoCloseable {
+
+    /** 队列结束标记 */
+    private static final Row END = new Row(-1, new String[0]);
+
+    private final int columns;
+    private final BlockingQueue<Row> queue;
+    private final Thread producer;
+    private volatile Throwable failure;
+    private volatile boolean closed = false;
+    private boolean finished = false;
+
+    /**
+     * @param file          xlsx 文件
+     * @param columns       读取的列数（从A列开始），超出的列忽略
+     * @param queueCapacity 解析线程预读的最大行数
+     */
+    public XlsxRowStreamer(File file, int columns, int queueCapacity) {
+        this.columns = columns;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.producer = new Thread(() -> parse(file), "xlsx-row-streamer");
+        this.producer.setDaemon(true);
+        this.producer.start();
+    }
+
+    /**
+     * 取下一行；表格读完时返回null
+     *
+     * @throws IOException 文件损坏或解析失败
+     */
+    public Row next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        Row row;
+        try {
+            row = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("读取Excel被中断", e);
+        }
+        if (row == END) {
+            finished = true;
+            if (failure != null) {
+                throw new IOException("Excel解析失败: " + failure.getMessage(), failure);
+            }
+            return null;
+        }
+        return row;
+    }
+
+    /**
+     * 提前结束时停止解析线程
+     */
+    @Override
+    public void close() {
+        closed = true;
+        producer.interrupt();
+        queue.clear();
+    }
+
+    private void parse(File file) {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(
+                            styles, null, strings, new RowHandler(), new DataFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        } catch (Throwable e) {
+            if (!closed) {
+                failure = e;
+            }
+        } finally {
+            if (!closed) {
+                try {
+                    queue.put(END);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * SAX 回调：按单元格引用把值放到对应列，行结束时入队
+     */
+    private class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private String[] cells;
+
+        @Override
+        public void startRow(int rowNum) {
+            cells = new String[columns];
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            try {
+                queue.put(new Row(rowNum, cells));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Excel解析已取消");
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference == null) {
+                return;
+            }
+            int col = new CellReference(cellReference).getCol();
+            if (col < columns) {
+                cells[col] = formattedValue;
+            }
+        }
+    }
+
+    /**
+     * 一行数据
+     */
+    public static final class Row {
+        private final int rowNum;
+        private final String[] cells;
+
+        Row(int rowNum, String[] cells) {
+            this.rowNum = rowNum;
+            this.cells = cells;
+        }
+
+        /**
+         * 行号（从0开始，与Excel中显示的行号差1）
+         */
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        /**
+         * 取单元格文本，空单元格返回空串
+         */
+        public String get(int col) {
+            String value = col < cells.length ? cells[col] : null;
+            return value == null ? "" : value;
+        }
+    }
+}
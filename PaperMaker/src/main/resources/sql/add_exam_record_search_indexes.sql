@@ -0,0 +1,12 @@
+-- 练习记录搜索索引
+-- 练习记录搜索改为在SQL中按用户、状态、类型、日期筛选并关联试卷表按学科和标题筛选，分页返回；
+-- 进行中记录直接查询某用户（可限定试卷）最近的一条
+
+-- 按用户筛选并按开始时间倒序分页
+ALTER TABLE exam_records ADD INDEX idx_user_start_time (user_id, start_time);
+
+-- 最近的进行中记录：user_id = ? AND status = 'IN_PROGRESS' ORDER BY start_time DESC LIMIT 1
+ALTER TABLE exam_records ADD INDEX idx_user_status_start_time (user_id, status, start_time);
+
+-- 按学科筛选试卷
+ALTER TABLE exam_papers ADD INDEX idx_subject_id (subject_id);
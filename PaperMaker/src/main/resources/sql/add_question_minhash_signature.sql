@@ -0,0 +1,5 @@
+-- 为题目表添加 MinHash 签名字段，用于导入时的近似重复检测
+-- 签名为 64 个 int 的 Base64 编码（344 字符），历史数据在应用启动时自动回填
+
+ALTER TABLE questions
+ADD COLUMN minhash_signature VARCHAR(344) DEFAULT NULL COMMENT '题干+选项MinHash签名(Base64)';
@@ -0,0 +1,22 @@
+-- 题目统计计数表
+-- 按（学科, 题型, 难度, 创建者, 是否系统题）维护题目数量，题目增删改时在同一事务内增减，
+-- 统计接口直接汇总该表（并缓存到Redis），不再扫描 questions 表
+
+CREATE TABLE IF NOT EXISTS question_stat_counters (
+    subject_id BIGINT NOT NULL DEFAULT 0 COMMENT '学科ID（未设置学科为0）',
+    type VARCHAR(32) NOT NULL COMMENT '题目类型',
+    difficulty VARCHAR(16) NOT NULL COMMENT '难度等级',
+    creator_id BIGINT NOT NULL DEFAULT 0 COMMENT '创建者ID',
+    is_system TINYINT(1) NOT NULL DEFAULT 0 COMMENT '是否为系统题目',
+    question_count INT NOT NULL DEFAULT 0 COMMENT '题目数量',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (subject_id, type, difficulty, creator_id, is_system),
+    INDEX idx_creator_id (creator_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='题目统计计数表';
+
+-- 初始化计数（与 POST /question/statistics/rebuild 相同）
+DELETE FROM question_stat_counters;
+INSERT INTO question_stat_counters (subject_id, type, difficulty, creator_id, is_system, question_count)
+SELECT IFNULL(subject_id, 0), type, difficulty, IFNULL(creator_id, 0), IFNULL(is_system, 0), COUNT(*)
+FROM questions
+GROUP BY IFNULL(subject_id, 0), type, difficulty, IFNULL(creator_id, 0), IFNULL(is_system, 0);
@@ -0,0 +1,40 @@
+-- 用户知识点掌握度表
+-- 按（用户, 知识点）维护答题次数、答对次数、用时和指数衰减的正确率，答题记录批量保存时在同一事务内累加，
+-- 知识点统计、AI学习统计工具和学习计划生成直接读取该表，不再回放答题历史
+-- 掌握度 = decayed_correct / decayed_attempts，从新到旧第n条答题的权重为 0.9^(n-1)（feature.mastery.decay）
+-- 练习次数在一次练习第一次涉及该知识点时累加，与重建时的 COUNT(DISTINCT exam_record_id) 一致；
+-- 累加语句使用 INSERT ... AS 行别名（需要 MySQL 8.0.19 及以上）
+
+CREATE TABLE IF NOT EXISTS user_knowledge_mastery (
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    knowledge_point_id BIGINT NOT NULL COMMENT '知识点ID',
+    attempt_count INT NOT NULL DEFAULT 0 COMMENT '答题次数',
+    correct_count INT NOT NULL DEFAULT 0 COMMENT '答对次数',
+    time_seconds BIGINT NOT NULL DEFAULT 0 COMMENT '答题用时合计（秒）',
+    practice_count INT NOT NULL DEFAULT 0 COMMENT '涉及该知识点的练习次数',
+    decayed_correct DOUBLE NOT NULL DEFAULT 0 COMMENT '衰减加权的答对次数',
+    decayed_attempts DOUBLE NOT NULL DEFAULT 0 COMMENT '衰减加权的答题次数',
+    last_answered_at DATETIME NULL DEFAULT NULL COMMENT '最近答题时间',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (user_id, knowledge_point_id),
+    INDEX idx_knowledge_point_id (knowledge_point_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户知识点掌握度表';
+
+-- 初始化掌握度（与 POST /exam-record/mastery/rebuild 相同，需要 MySQL 8.0 的 JSON_TABLE 和窗口函数）
+DELETE FROM user_knowledge_mastery;
+INSERT INTO user_knowledge_mastery (user_id, knowledge_point_id, attempt_count, correct_count,
+    time_seconds, practice_count, decayed_correct, decayed_attempts, last_answered_at)
+SELECT user_id, kp_id, COUNT(*), SUM(correct), SUM(time_spent), COUNT(DISTINCT exam_record_id),
+    SUM(POW(0.9, rn - 1) * correct), SUM(POW(0.9, rn - 1)), MAX(created_at)
+FROM (
+    SELECT er.user_id, jt.kp_id, ar.exam_record_id, IF(ar.is_correct, 1, 0) AS correct,
+        IFNULL(ar.time_spent, 0) AS time_spent, ar.created_at,
+        ROW_NUMBER() OVER (PARTITION BY er.user_id, jt.kp_id ORDER BY ar.id DESC) AS rn
+    FROM answer_records ar
+    JOIN exam_records er ON er.id = ar.exam_record_id
+    JOIN questions q ON q.id = ar.question_id
+    JOIN JSON_TABLE(IF(JSON_VALID(q.knowledge_point_ids), q.knowledge_point_ids, '[]'),
+        '$[*]' COLUMNS (kp_id BIGINT PATH '$')) jt
+    WHERE jt.kp_id IS NOT NULL
+) h
+GROUP BY user_id, kp_id;
@@ -0,0 +1,53 @@
+-- 用户学习统计汇总表
+-- 每个用户一行，维护练习记录的计数、求和、最值和最近练习时间，练习记录增删改时在同一事务内增量更新，
+-- 总体统计接口（含AI助手的学习统计工具）直接按主键读取，不再加载用户的全部练习记录
+
+CREATE TABLE IF NOT EXISTS user_learning_stats (
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    total_records INT NOT NULL DEFAULT 0 COMMENT '练习记录总数',
+    completed_records INT NOT NULL DEFAULT 0 COMMENT '已完成记录数',
+    in_progress_records INT NOT NULL DEFAULT 0 COMMENT '进行中记录数',
+    timeout_records INT NOT NULL DEFAULT 0 COMMENT '超时记录数',
+    practice_records INT NOT NULL DEFAULT 0 COMMENT '练习模式记录数',
+    exam_records INT NOT NULL DEFAULT 0 COMMENT '考试模式记录数',
+    score_count INT NOT NULL DEFAULT 0 COMMENT '有得分的记录数（总分大于0）',
+    score_sum DOUBLE NOT NULL DEFAULT 0 COMMENT '得分合计',
+    score_min DOUBLE NULL DEFAULT NULL COMMENT '最低得分',
+    score_max DOUBLE NULL DEFAULT NULL COMMENT '最高得分',
+    accuracy_count INT NOT NULL DEFAULT 0 COMMENT '有正确率的记录数',
+    accuracy_sum DOUBLE NOT NULL DEFAULT 0 COMMENT '正确率合计',
+    accuracy_min DOUBLE NULL DEFAULT NULL COMMENT '最低正确率',
+    accuracy_max DOUBLE NULL DEFAULT NULL COMMENT '最高正确率',
+    time_count INT NOT NULL DEFAULT 0 COMMENT '有用时的记录数',
+    time_sum BIGINT NOT NULL DEFAULT 0 COMMENT '用时合计（秒）',
+    time_min BIGINT NULL DEFAULT NULL COMMENT '最短用时（秒）',
+    time_max BIGINT NULL DEFAULT NULL COMMENT '最长用时（秒）',
+    duration_sum BIGINT NOT NULL DEFAULT 0 COMMENT '开始到结束时间合计（秒）',
+    total_questions INT NOT NULL DEFAULT 0 COMMENT '总题目数量合计',
+    answered_questions INT NOT NULL DEFAULT 0 COMMENT '答题数量合计',
+    correct_answers INT NOT NULL DEFAULT 0 COMMENT '正确答题数量合计',
+    last_practice_time DATETIME NULL DEFAULT NULL COMMENT '最近练习时间',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户学习统计汇总表';
+
+-- 初始化汇总（与 POST /exam-record/statistics/rebuild 相同）
+DELETE FROM user_learning_stats;
+INSERT INTO user_learning_stats (user_id, total_records, completed_records, in_progress_records, timeout_records,
+    practice_records, exam_records, score_count, score_sum, score_min, score_max,
+    accuracy_count, accuracy_sum, accuracy_min, accuracy_max, time_count, time_sum, time_min, time_max,
+    duration_sum, total_questions, answered_questions, correct_answers, last_practice_time)
+SELECT user_id, COUNT(*),
+    SUM(status = 'COMPLETED'), SUM(status = 'IN_PROGRESS'), SUM(status = 'TIMEOUT'),
+    SUM(exam_type = 'PRACTICE'), SUM(exam_type = 'EXAM'),
+    COUNT(CASE WHEN score IS NOT NULL AND total_score > 0 THEN 1 END),
+    IFNULL(SUM(CASE WHEN total_score > 0 THEN score END), 0),
+    MIN(CASE WHEN total_score > 0 THEN score END), MAX(CASE WHEN total_score > 0 THEN score END),
+    COUNT(accuracy), IFNULL(SUM(accuracy), 0), MIN(accuracy), MAX(accuracy),
+    COUNT(CASE WHEN time_spent > 0 THEN 1 END), IFNULL(SUM(CASE WHEN time_spent > 0 THEN time_spent END), 0),
+    MIN(CASE WHEN time_spent > 0 THEN time_spent END), MAX(CASE WHEN time_spent > 0 THEN time_spent END),
+    IFNULL(SUM(TIMESTAMPDIFF(SECOND, start_time, end_time)), 0),
+    IFNULL(SUM(total_questions), 0), IFNULL(SUM(answered_questions), 0), IFNULL(SUM(correct_answers), 0),
+    MAX(start_time)
+FROM exam_records
+GROUP BY user_id;
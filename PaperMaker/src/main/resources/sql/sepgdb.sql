@@ -104,6 +104,7 @@ CREATE TABLE `exam_papers`  (
   INDEX `idx_is_system`(`is_system` ASC) USING BTREE,
   INDEX `idx_creator`(`creator_id` ASC) USING BTREE,
   INDEX `idx_rule_id`(`rule_id` ASC) USING BTREE,
+  INDEX `idx_subject_id`(`subject_id` ASC) USING BTREE,
   CONSTRAINT `exam_papers_ibfk_1` FOREIGN KEY (`creator_id`) REFERENCES `users` (`id`) ON DELETE CASCADE ON UPDATE RESTRICT
 ) ENGINE = InnoDB AUTO_INCREMENT = 152 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '试卷表' ROW_FORMAT = Dynamic;
 
@@ -136,7 +137,9 @@ CREATE TABLE `exam_records`  (
   INDEX `idx_paper_id`(`paper_id` ASC) USING BTREE,
   INDEX `idx_start_time`(`start_time` ASC) USING BTREE,
   INDEX `idx_status`(`status` ASC) USING BTREE,
-  INDEX `idx_exam_type`(`exam_type` ASC) USING BTREE
+  INDEX `idx_exam_type`(`exam_type` ASC) USING BTREE,
+  INDEX `idx_user_start_time`(`user_id` ASC, `start_time` ASC) USING BTREE,
+  INDEX `idx_user_status_start_time`(`user_id` ASC, `status` ASC, `start_time` ASC) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 56 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '考试记录表' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
@@ -230,6 +233,22 @@ CREATE TABLE `question_image`  (
   INDEX `idx_question_id`(`question_id` ASC) USING BTREE
 ) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '题目图片表' ROW_FORMAT = Dynamic;
 
+-- ----------------------------
+-- Table structure for question_stat_counters
+-- ----------------------------
+DROP TABLE IF EXISTS `question_stat_counters`;
+CREATE TABLE `question_stat_counters`  (
+  `subject_id` bigint NOT NULL DEFAULT 0 COMMENT '学科ID（未设置学科为0）',
+  `type` varchar(32) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '题目类型',
+  `difficulty` varchar(16) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '难度等级',
+  `creator_id` bigint NOT NULL DEFAULT 0 COMMENT '创建者ID',
+  `is_system` tinyint(1) NOT NULL DEFAULT 0 COMMENT '是否为系统题目',
+  `question_count` int NOT NULL DEFAULT 0 COMMENT '题目数量',
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`subject_id`, `type`, `difficulty`, `creator_id`, `is_system`) USING BTREE,
+  INDEX `idx_creator_id`(`creator_id` ASC) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '题目统计计数表' ROW_FORMAT = Dynamic;
+
 -- ----------------------------
 -- Table structure for questions
 -- ----------------------------
@@ -248,6 +267,7 @@ CREATE TABLE `questions`  (
   `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `knowledge_point_ids` text CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NULL COMMENT '知识点ID列表（JSON格式）',
   `subject_id` bigint NULL DEFAULT NULL,
+  `minhash_signature` varchar(344) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NULL DEFAULT NULL COMMENT '题干+选项MinHash签名(Base64)',
   PRIMARY KEY (`id`) USING BTREE,
   INDEX `idx_type`(`type` ASC) USING BTREE,
   INDEX `idx_difficulty`(`difficulty` ASC) USING BTREE,
@@ -314,6 +334,58 @@ CREATE TABLE `user_collections`  (
   CONSTRAINT `user_collections_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE ON UPDATE RESTRICT
 ) ENGINE = InnoDB AUTO_INCREMENT = 1 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '用户收藏表' ROW_FORMAT = Dynamic;
 
+-- ----------------------------
+-- Table structure for user_knowledge_mastery
+-- ----------------------------
+DROP TABLE IF EXISTS `user_knowledge_mastery`;
+CREATE TABLE `user_knowledge_mastery`  (
+  `user_id` bigint NOT NULL COMMENT '用户ID',
+  `knowledge_point_id` bigint NOT NULL COMMENT '知识点ID',
+  `attempt_count` int NOT NULL DEFAULT 0 COMMENT '答题次数',
+  `correct_count` int NOT NULL DEFAULT 0 COMMENT '答对次数',
+  `time_seconds` bigint NOT NULL DEFAULT 0 COMMENT '答题用时合计（秒）',
+  `practice_count` int NOT NULL DEFAULT 0 COMMENT '涉及该知识点的练习次数',
+  `decayed_correct` double NOT NULL DEFAULT 0 COMMENT '衰减加权的答对次数',
+  `decayed_attempts` double NOT NULL DEFAULT 0 COMMENT '衰减加权的答题次数',
+  `last_answered_at` datetime NULL DEFAULT NULL COMMENT '最近答题时间',
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`user_id`, `knowledge_point_id`) USING BTREE,
+  INDEX `idx_knowledge_point_id`(`knowledge_point_id` ASC) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '用户知识点掌握度表' ROW_FORMAT = Dynamic;
+
+-- ----------------------------
+-- Table structure for user_learning_stats
+-- ----------------------------
+DROP TABLE IF EXISTS `user_learning_stats`;
+CREATE TABLE `user_learning_stats`  (
+  `user_id` bigint NOT NULL COMMENT '用户ID',
+  `total_records` int NOT NULL DEFAULT 0 COMMENT '练习记录总数',
+  `completed_records` int NOT NULL DEFAULT 0 COMMENT '已完成记录数',
+  `in_progress_records` int NOT NULL DEFAULT 0 COMMENT '进行中记录数',
+  `timeout_records` int NOT NULL DEFAULT 0 COMMENT '超时记录数',
+  `practice_records` int NOT NULL DEFAULT 0 COMMENT '练习模式记录数',
+  `exam_records` int NOT NULL DEFAULT 0 COMMENT '考试模式记录数',
+  `score_count` int NOT NULL DEFAULT 0 COMMENT '有得分的记录数（总分大于0）',
+  `score_sum` double NOT NULL DEFAULT 0 COMMENT '得分合计',
+  `score_min` double NULL DEFAULT NULL COMMENT '最低得分',
+  `score_max` double NULL DEFAULT NULL COMMENT '最高得分',
+  `accuracy_count` int NOT NULL DEFAULT 0 COMMENT '有正确率的记录数',
+  `accuracy_sum` double NOT NULL DEFAULT 0 COMMENT '正确率合计',
+  `accuracy_min` double NULL DEFAULT NULL COMMENT '最低正确率',
+  `accuracy_max` double NULL DEFAULT NULL COMMENT '最高正确率',
+  `time_count` int NOT NULL DEFAULT 0 COMMENT '有用时的记录数',
+  `time_sum` bigint NOT NULL DEFAULT 0 COMMENT '用时合计（秒）',
+  `time_min` bigint NULL DEFAULT NULL COMMENT '最短用时（秒）',
+  `time_max` bigint NULL DEFAULT NULL COMMENT '最长用时（秒）',
+  `duration_sum` bigint NOT NULL DEFAULT 0 COMMENT '开始到结束时间合计（秒）',
+  `total_questions` int NOT NULL DEFAULT 0 COMMENT '总题目数量合计',
+  `answered_questions` int NOT NULL DEFAULT 0 COMMENT '答题数量合计',
+  `correct_answers` int NOT NULL DEFAULT 0 COMMENT '正确答题数量合计',
+  `last_practice_time` datetime NULL DEFAULT NULL COMMENT '最近练习时间',
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`user_id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '用户学习统计汇总表' ROW_FORMAT = Dynamic;
+
 -- ----------------------------
 -- Table structure for users
 -- ----------------------------